@@ -0,0 +1,294 @@
+package com.talant.bootcamp.booksservice.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.talant.bootcamp.booksservice.dto.BatchOperation;
+import com.talant.bootcamp.booksservice.dto.BatchOperationResult;
+import com.talant.bootcamp.booksservice.dto.BatchRequest;
+import com.talant.bootcamp.booksservice.dto.BatchResponse;
+import com.talant.bootcamp.booksservice.idempotency.IdempotencyFilter;
+import com.talant.bootcamp.booksservice.monitoring.RequestTiming;
+import com.talant.bootcamp.booksservice.replica.ConsistencyTokenFilter;
+import com.talant.bootcamp.booksservice.stock.BufferedStockWrite;
+import com.talant.bootcamp.booksservice.stock.StockWriteBehind;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes batches of sub-requests in-process. Each sub-request goes through the regular handler
+ * mapping, handler interceptors (Server-Timing, limiter, bulkheads), argument validation, response
+ * advice and exception handlers, but not through the servlet container, so servlet filters only
+ * see the batch itself: it is idempotent as a whole, and its reads use the primary like those of
+ * any other write request. Consecutive GETs of a non-atomic batch run concurrently; every other
+ * sub-request runs alone, in order. An atomic batch runs sequentially in one transaction that
+ * is rolled back at the first failed sub-request.
+ */
+@Service
+public class BatchService {
+    
+    private static final Logger log = LoggerFactory.getLogger(BatchService.class);
+    
+    private static final String BATCH_PATH = "/api/_batch";
+    
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final RequestMappingHandlerAdapter handlerAdapter;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final StockWriteBehind stockWriteBehind;
+    private final ExecutorService readers;
+    
+    public BatchService(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                        RequestMappingHandlerAdapter handlerAdapter,
+                        @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+                        PlatformTransactionManager transactionManager,
+                        ObjectMapper objectMapper,
+                        StockWriteBehind stockWriteBehind,
+                        @Value("${bookstore.batch.threads:4}") int threads) {
+        this.handlerMapping = handlerMapping;
+        this.handlerAdapter = handlerAdapter;
+        this.exceptionResolver = exceptionResolver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.stockWriteBehind = stockWriteBehind;
+        AtomicInteger readerCount = new AtomicInteger();
+        this.readers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-reader-" + readerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Execute the sub-requests of the batch and collect their responses in request order
+     *
+     * @throws IllegalArgumentException if a sub-request targets the batch endpoint itself, carries
+     *                                  its own idempotency key, or is an atomic write that the stock
+     *                                  write-behind would buffer outside the transaction
+     */
+    public BatchResponse execute(BatchRequest batch, HttpServletRequest request, HttpServletResponse response) {
+        List<BatchOperation> operations = batch.getRequests();
+        for (BatchOperation operation : operations) {
+            if (operation.getPath().startsWith(BATCH_PATH)) {
+                throw new IllegalArgumentException("Batches cannot be nested");
+            }
+            if (operation.getHeaders() != null && operation.getHeaders().keySet().stream()
+                    .anyMatch(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER::equalsIgnoreCase)) {
+                throw new IllegalArgumentException("Idempotency keys apply to the whole batch, not to its sub-requests");
+            }
+            if (batch.isAtomic() && stockWriteBehind.isEnabled() && isBufferedStockWrite(operation, request)) {
+                throw new IllegalArgumentException(operation.getMethod() + " " + operation.getPath()
+                        + " is buffered by the stock write-behind and cannot run in an atomic batch");
+            }
+        }
+        if (batch.isAtomic()) {
+            BatchOperationResult[] results = new BatchOperationResult[operations.size()];
+            Boolean rolledBack = transactionTemplate.execute(status -> {
+                for (int i = 0; i < operations.size(); i++) {
+                    results[i] = dispatch(operations.get(i), request, response);
+                    if (results[i].getStatus() >= 400) {
+                        status.setRollbackOnly();
+                        Arrays.fill(results, i + 1, results.length,
+                                new BatchOperationResult(HttpStatus.FAILED_DEPENDENCY.value(), Map.of(), null));
+                        return true;
+                    }
+                }
+                return false;
+            });
+            return new BatchResponse(true, Boolean.TRUE.equals(rolledBack), List.of(results));
+        }
+        return new BatchResponse(false, false, executeConcurrently(operations, request, response));
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        readers.shutdownNow();
+    }
+    
+    /**
+     * Run each group of consecutive reads concurrently and everything else one at a time
+     */
+    private List<BatchOperationResult> executeConcurrently(List<BatchOperation> operations,
+                                                           HttpServletRequest request, HttpServletResponse response) {
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        int next = 0;
+        while (next < operations.size()) {
+            int end = next + 1;
+            while (end < operations.size() && isRead(operations.get(next)) && isRead(operations.get(end))) {
+                end++;
+            }
+            if (end - next == 1) {
+                results.add(dispatch(operations.get(next), request, response));
+            } else {
+                List<Future<BatchOperationResult>> reads = new ArrayList<>(end - next);
+                for (BatchOperation operation : operations.subList(next, end)) {
+                    reads.add(readers.submit(ConsistencyTokenFilter.propagate(() -> dispatch(operation, request, response))));
+                }
+                for (Future<BatchOperationResult> read : reads) {
+                    results.add(await(read));
+                }
+            }
+            next = end;
+        }
+        return results;
+    }
+    
+    private static boolean isRead(BatchOperation operation) {
+        return HttpMethod.GET.matches(operation.getMethod().toUpperCase(Locale.ROOT));
+    }
+    
+    private static BatchOperationResult await(Future<BatchOperationResult> read) {
+        try {
+            return read.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for batch reads", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch read failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Whether the handler of the sub-request writes the stock through the write-behind buffer
+     */
+    private boolean isBufferedStockWrite(BatchOperation operation, HttpServletRequest request) {
+        SubRequest subRequest = newSubRequest(operation, request);
+        try {
+            ServletRequestPathUtils.parseAndCache(subRequest);
+            HandlerExecutionChain chain = handlerMapping.getHandler(subRequest);
+            return chain != null && chain.getHandler() instanceof HandlerMethod handlerMethod
+                    && handlerMethod.hasMethodAnnotation(BufferedStockWrite.class);
+        } catch (Exception e) {
+            // Left to the dispatch, which reports it as the result of the sub-request
+            return false;
+        }
+    }
+    
+    /**
+     * Handle one sub-request the way the dispatcher servlet would, including its interceptors
+     */
+    private BatchOperationResult dispatch(BatchOperation operation, HttpServletRequest request, HttpServletResponse response) {
+        SubRequest subRequest = newSubRequest(operation, request);
+        SubResponse subResponse = new SubResponse(response);
+        RequestAttributes previousAttributes = RequestContextHolder.getRequestAttributes();
+        RequestTiming batchTiming = RequestTiming.current();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(subRequest, subResponse));
+        Object handler = null;
+        List<HandlerInterceptor> entered = new ArrayList<>();
+        Exception failure = null;
+        try {
+            ServletRequestPathUtils.parseAndCache(subRequest);
+            HandlerExecutionChain chain = handlerMapping.getHandler(subRequest);
+            if (chain == null) {
+                subResponse.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            } else {
+                handler = chain.getHandler();
+                if (preHandle(chain, subRequest, subResponse, entered)) {
+                    ModelAndView modelAndView = handlerAdapter.handle(subRequest, subResponse, handler);
+                    for (int i = entered.size() - 1; i >= 0; i--) {
+                        entered.get(i).postHandle(subRequest, subResponse, handler, modelAndView);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            if (exceptionResolver.resolveException(subRequest, subResponse, handler, e) != null) {
+                subRequest.setAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE, e);
+            } else {
+                log.warn("Unhandled error in batch sub-request {} {}", operation.getMethod(), operation.getPath(), e);
+                subResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                failure = e;
+            }
+        } finally {
+            for (int i = entered.size() - 1; i >= 0; i--) {
+                try {
+                    entered.get(i).afterCompletion(subRequest, subResponse, handler, failure);
+                } catch (Exception e) {
+                    log.warn("Interceptor afterCompletion failed for batch sub-request {}", operation.getPath(), e);
+                }
+            }
+            RequestTiming.resume(batchTiming);
+            RequestContextHolder.setRequestAttributes(previousAttributes);
+        }
+        return toResult(subResponse);
+    }
+    
+    /**
+     * Call preHandle on each interceptor in order, collecting those that let the request through
+     */
+    private static boolean preHandle(HandlerExecutionChain chain, SubRequest subRequest, SubResponse subResponse,
+                                     List<HandlerInterceptor> entered) throws Exception {
+        for (HandlerInterceptor interceptor : chain.getInterceptorList()) {
+            if (!interceptor.preHandle(subRequest, subResponse, chain.getHandler())) {
+                return false;
+            }
+            entered.add(interceptor);
+        }
+        return true;
+    }
+    
+    private SubRequest newSubRequest(BatchOperation operation, HttpServletRequest request) {
+        try {
+            byte[] body = operation.getBody() != null ? objectMapper.writeValueAsBytes(operation.getBody()) : null;
+            return new SubRequest(request, operation.getMethod().toUpperCase(Locale.ROOT),
+                    operation.getPath(), operation.getHeaders(), body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid body for " + operation.getPath(), e);
+        }
+    }
+    
+    private BatchOperationResult toResult(SubResponse subResponse) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : subResponse.getHeaderNames()) {
+            headers.put(name, String.join(", ", subResponse.getHeaders(name)));
+        }
+        byte[] body = subResponse.getBody();
+        JsonNode content = null;
+        if (body.length > 0) {
+            try {
+                content = subResponse.isJson()
+                        ? objectMapper.readTree(body)
+                        : TextNode.valueOf(new String(body, Charset.forName(subResponse.getCharacterEncoding())));
+            } catch (IOException e) {
+                content = TextNode.valueOf(new String(body, Charset.forName(subResponse.getCharacterEncoding())));
+            }
+        }
+        return new BatchOperationResult(subResponse.getStatus(), headers, content);
+    }
+}
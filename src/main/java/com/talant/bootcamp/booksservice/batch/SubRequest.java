@@ -0,0 +1,268 @@
+package com.talant.bootcamp.booksservice.batch;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory sub-request of a batch. Method, path, query, headers, body and attributes are its own;
+ * only connection details such as the scheme and host come from the enclosing request, so
+ * sub-requests can be handled on other threads.
+ */
+class SubRequest extends HttpServletRequestWrapper {
+    
+    private final String method;
+    private final String servletPath;
+    private final String queryString;
+    private final Map<String, String[]> parameters = new LinkedHashMap<>();
+    private final Map<String, String> headers = new LinkedCaseInsensitiveMap<>();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final byte[] body;
+    
+    SubRequest(HttpServletRequest request, String method, String path, Map<String, String> headers, byte[] body) {
+        super(request);
+        this.method = method;
+        int query = path.indexOf('?');
+        this.servletPath = query >= 0 ? path.substring(0, query) : path;
+        this.queryString = query >= 0 ? path.substring(query + 1) : null;
+        this.body = body != null ? body : new byte[0];
+        this.headers.put(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (body != null) {
+            this.headers.put(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        }
+        if (headers != null) {
+            this.headers.putAll(headers);
+        }
+        parseQuery();
+    }
+    
+    private void parseQuery() {
+        if (queryString == null || queryString.isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        for (String pair : queryString.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            String name = URLDecoder.decode(separator >= 0 ? pair.substring(0, separator) : pair, StandardCharsets.UTF_8);
+            String value = separator >= 0 ? URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8) : "";
+            values.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        }
+        values.forEach((name, list) -> parameters.put(name, list.toArray(String[]::new)));
+    }
+    
+    @Override
+    public String getMethod() {
+        return method;
+    }
+    
+    @Override
+    public String getRequestURI() {
+        return getContextPath() + servletPath;
+    }
+    
+    @Override
+    public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer(getScheme()).append("://").append(getServerName());
+        if (getServerPort() > 0) {
+            url.append(':').append(getServerPort());
+        }
+        return url.append(getRequestURI());
+    }
+    
+    @Override
+    public String getServletPath() {
+        return servletPath;
+    }
+    
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+    
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+    
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+    
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return Collections.unmodifiableMap(parameters);
+    }
+    
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters.keySet());
+    }
+    
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters.get(name);
+    }
+    
+    @Override
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+    
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        String value = headers.get(name);
+        return Collections.enumeration(value != null ? List.of(value) : List.of());
+    }
+    
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(headers.keySet());
+    }
+    
+    @Override
+    public int getIntHeader(String name) {
+        String value = headers.get(name);
+        return value != null ? Integer.parseInt(value) : -1;
+    }
+    
+    @Override
+    public long getDateHeader(String name) {
+        String value = headers.get(name);
+        return value != null
+                ? ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli()
+                : -1;
+    }
+    
+    @Override
+    public String getContentType() {
+        return headers.get(HttpHeaders.CONTENT_TYPE);
+    }
+    
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+    
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+    
+    @Override
+    public String getCharacterEncoding() {
+        return StandardCharsets.UTF_8.name();
+    }
+    
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+            
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+            
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException("Batch sub-requests are read synchronously");
+            }
+            
+            @Override
+            public int read() {
+                return in.read();
+            }
+            
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                return in.read(buffer, offset, length);
+            }
+        };
+    }
+    
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+    
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+    
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(new ArrayList<>(attributes.keySet()));
+    }
+    
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+    
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+    
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+    
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+    
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+    
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("Batch sub-requests cannot be asynchronous");
+    }
+    
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+        throw new IllegalStateException("Batch sub-requests cannot be asynchronous");
+    }
+}
@@ -0,0 +1,275 @@
+package com.talant.bootcamp.booksservice.batch;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory response of a batch sub-request. Nothing reaches the enclosing response; status,
+ * headers and body are kept until the batch result is assembled.
+ */
+class SubResponse extends HttpServletResponseWrapper {
+    
+    private final Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private int status = SC_OK;
+    private String characterEncoding = StandardCharsets.UTF_8.name();
+    private Locale locale = Locale.getDefault();
+    private PrintWriter writer;
+    private ServletOutputStream outputStream;
+    
+    SubResponse(HttpServletResponse response) {
+        super(response);
+    }
+    
+    /**
+     * Everything written to the body so far
+     */
+    byte[] getBody() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return body.toByteArray();
+    }
+    
+    /**
+     * Whether the body was declared as JSON
+     */
+    boolean isJson() {
+        String contentType = getContentType();
+        return contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+    
+    @Override
+    public int getStatus() {
+        return status;
+    }
+    
+    @Override
+    public void setStatus(int status) {
+        this.status = status;
+    }
+    
+    @Override
+    public void sendError(int status) {
+        this.status = status;
+    }
+    
+    @Override
+    public void sendError(int status, String message) {
+        this.status = status;
+    }
+    
+    @Override
+    public void sendRedirect(String location) {
+        this.status = SC_FOUND;
+        setHeader(HttpHeaders.LOCATION, location);
+    }
+    
+    @Override
+    public boolean containsHeader(String name) {
+        return headers.containsKey(name);
+    }
+    
+    @Override
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+    
+    @Override
+    public Collection<String> getHeaders(String name) {
+        List<String> values = headers.get(name);
+        return values != null ? List.copyOf(values) : List.of();
+    }
+    
+    @Override
+    public Collection<String> getHeaderNames() {
+        return List.copyOf(headers.keySet());
+    }
+    
+    @Override
+    public void setHeader(String name, String value) {
+        if (value == null) {
+            headers.remove(name);
+        } else {
+            headers.put(name, new ArrayList<>(List.of(value)));
+        }
+    }
+    
+    @Override
+    public void addHeader(String name, String value) {
+        if (value != null) {
+            headers.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        }
+    }
+    
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, String.valueOf(value));
+    }
+    
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, String.valueOf(value));
+    }
+    
+    @Override
+    public void setDateHeader(String name, long date) {
+        setHeader(name, formatDate(date));
+    }
+    
+    @Override
+    public void addDateHeader(String name, long date) {
+        addHeader(name, formatDate(date));
+    }
+    
+    private static String formatDate(long date) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC));
+    }
+    
+    @Override
+    public void addCookie(Cookie cookie) {
+        // Sub-requests are stateless, cookies are dropped
+    }
+    
+    @Override
+    public String getContentType() {
+        return getHeader(HttpHeaders.CONTENT_TYPE);
+    }
+    
+    @Override
+    public void setContentType(String type) {
+        setHeader(HttpHeaders.CONTENT_TYPE, type);
+        if (type != null) {
+            Charset charset = MediaType.parseMediaType(type).getCharset();
+            if (charset != null) {
+                characterEncoding = charset.name();
+            }
+        }
+    }
+    
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
+    
+    @Override
+    public void setCharacterEncoding(String characterEncoding) {
+        if (characterEncoding != null) {
+            this.characterEncoding = characterEncoding;
+        }
+    }
+    
+    @Override
+    public void setContentLength(int length) {
+        setIntHeader(HttpHeaders.CONTENT_LENGTH, length);
+    }
+    
+    @Override
+    public void setContentLengthLong(long length) {
+        setHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(length));
+    }
+    
+    @Override
+    public Locale getLocale() {
+        return locale;
+    }
+    
+    @Override
+    public void setLocale(Locale locale) {
+        this.locale = locale;
+    }
+    
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new UnsupportedOperationException("Batch sub-responses are written synchronously");
+                }
+                
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+                
+                @Override
+                public void write(byte[] buffer, int offset, int length) {
+                    body.write(buffer, offset, length);
+                }
+            };
+        }
+        return outputStream;
+    }
+    
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(body, Charset.forName(characterEncoding)));
+        }
+        return writer;
+    }
+    
+    @Override
+    public void flushBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+    
+    @Override
+    public boolean isCommitted() {
+        return false;
+    }
+    
+    @Override
+    public void reset() {
+        resetBuffer();
+        headers.clear();
+        status = SC_OK;
+    }
+    
+    @Override
+    public void resetBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+        body.reset();
+    }
+    
+    @Override
+    public void setBufferSize(int size) {
+        // The whole body is buffered
+    }
+    
+    @Override
+    public int getBufferSize() {
+        return body.size();
+    }
+}
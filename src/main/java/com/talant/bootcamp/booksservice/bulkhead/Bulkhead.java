@@ -0,0 +1,72 @@
+package com.talant.bootcamp.booksservice.bulkhead;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the requests of a lane that run at the same time. Requests over the limit wait in a
+ * bounded queue for at most the maximum wait; the rest are rejected at once, so a full lane
+ * holds no more server threads than its running and queued requests.
+ */
+public class Bulkhead {
+    
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    
+    public Bulkhead(int maxConcurrent, int maxQueue, Duration maxWait) {
+        if (maxConcurrent < 1 || maxQueue < 0) {
+            throw new IllegalArgumentException("A bulkhead needs at least one permit and a non-negative queue");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+    
+    /**
+     * Take a permit, waiting in the queue if there is room, or return false if the lane is full
+     */
+    public boolean tryEnter() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        try {
+            if (permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+            rejected.increment();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+    
+    /**
+     * Return the permit taken by {@link #tryEnter()}
+     */
+    public void exit() {
+        permits.release();
+    }
+    
+    public Stats getStats() {
+        return new Stats(maxConcurrent, maxConcurrent - permits.availablePermits(), maxQueue, queued.get(), rejected.sum());
+    }
+    
+    /**
+     * Limits and current use of a bulkhead, with the requests it rejected so far
+     */
+    public record Stats(int maxConcurrent, int active, int maxQueue, int queued, long rejected) {
+    }
+}
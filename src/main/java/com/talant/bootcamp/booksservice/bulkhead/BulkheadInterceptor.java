@@ -0,0 +1,49 @@
+package com.talant.bootcamp.booksservice.bulkhead;
+
+import com.talant.bootcamp.booksservice.exception.BulkheadFullException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor that runs the handlers marked with {@link BulkheadLane} inside the bulkhead of their lane
+ */
+public class BulkheadInterceptor implements HandlerInterceptor {
+    
+    private static final String BULKHEAD_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".bulkhead";
+    
+    private final Bulkheads bulkheads;
+    
+    public BulkheadInterceptor(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        BulkheadLane lane = handlerMethod.getMethodAnnotation(BulkheadLane.class);
+        if (lane == null) {
+            return true;
+        }
+        Bulkhead bulkhead = bulkheads.get(lane.value());
+        if (!bulkhead.tryEnter()) {
+            throw new BulkheadFullException(lane.value(), bulkheads.getRetryAfter());
+        }
+        request.setAttribute(BULKHEAD_ATTRIBUTE, bulkhead);
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        Object bulkhead = request.getAttribute(BULKHEAD_ATTRIBUTE);
+        if (bulkhead != null) {
+            request.removeAttribute(BULKHEAD_ATTRIBUTE);
+            ((Bulkhead) bulkhead).exit();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.talant.bootcamp.booksservice.bulkhead;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Bulkhead of each lane. Both lanes together may not hold more permits than the pool has
+ * connections, so scans, however many are running, never take the connections of point lookups.
+ * Writes, batches, exports and delta sync belong to no lane and share the same pool, so they can
+ * still make a point lookup wait for a connection.
+ */
+@Component
+public class Bulkheads {
+    
+    private final Map<Lane, Bulkhead> bulkheads = new EnumMap<>(Lane.class);
+    private final Duration retryAfter;
+    
+    public Bulkheads(@Value("${bookstore.bulkhead.point.max-concurrent:6}") int pointMaxConcurrent,
+                     @Value("${bookstore.bulkhead.point.max-queue:64}") int pointMaxQueue,
+                     @Value("${bookstore.bulkhead.point.max-wait:PT1S}") Duration pointMaxWait,
+                     @Value("${bookstore.bulkhead.scan.max-concurrent:4}") int scanMaxConcurrent,
+                     @Value("${bookstore.bulkhead.scan.max-queue:8}") int scanMaxQueue,
+                     @Value("${bookstore.bulkhead.scan.max-wait:PT0.5S}") Duration scanMaxWait,
+                     @Value("${bookstore.bulkhead.retry-after:PT1S}") Duration retryAfter,
+                     @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        if (pointMaxConcurrent + scanMaxConcurrent > connectionPoolSize) {
+            throw new IllegalArgumentException("The lanes may not hold more connections than the pool has: "
+                    + pointMaxConcurrent + " concurrent point lookups and " + scanMaxConcurrent
+                    + " concurrent scans with a pool of " + connectionPoolSize);
+        }
+        bulkheads.put(Lane.POINT, new Bulkhead(pointMaxConcurrent, pointMaxQueue, pointMaxWait));
+        bulkheads.put(Lane.SCAN, new Bulkhead(scanMaxConcurrent, scanMaxQueue, scanMaxWait));
+        this.retryAfter = retryAfter;
+    }
+    
+    public Bulkhead get(Lane lane) {
+        return bulkheads.get(lane);
+    }
+    
+    /**
+     * How long a rejected client should wait before retrying
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+    
+    public Map<Lane, Bulkhead.Stats> getStats() {
+        Map<Lane, Bulkhead.Stats> stats = new EnumMap<>(Lane.class);
+        bulkheads.forEach((lane, bulkhead) -> stats.put(lane, bulkhead.getStats()));
+        return stats;
+    }
+}
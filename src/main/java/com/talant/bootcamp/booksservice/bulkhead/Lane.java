@@ -0,0 +1,17 @@
+package com.talant.bootcamp.booksservice.bulkhead;
+
+/**
+ * Classes of requests that are isolated from each other by their own bulkhead
+ */
+public enum Lane {
+    
+    /**
+     * Cheap lookups by key that read a bounded number of rows through an index
+     */
+    POINT,
+    
+    /**
+     * Expensive listings that scan, filter or sort the whole catalog
+     */
+    SCAN
+}
@@ -0,0 +1,64 @@
+package com.talant.bootcamp.booksservice.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Region factory for the Hibernate second-level and query cache of books, kept in Caffeine through
+ * JCache. Every region is created here with its own size and time to live, read from the
+ * {@code bookstore.cache.*} settings passed to Hibernate, so Hibernate never creates one on the fly.
+ * <p>
+ * Each session factory gets a cache manager of its own, so several application contexts in one JVM
+ * do not share regions. Hibernate closes it with the session factory.
+ */
+public class BookCacheRegionFactory extends JCacheRegionFactory {
+    
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map<String, Object> properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("bookstore-second-level-" + UUID.randomUUID()), getClass().getClassLoader());
+        long queriesMaxEntries = maxEntries(properties, BookCacheRegions.BOOK_QUERIES, 1000);
+        Duration queriesTtl = ttl(properties, BookCacheRegions.BOOK_QUERIES, Duration.ofMinutes(1));
+        createRegion(cacheManager, BookCacheRegions.BOOKS,
+                OptionalLong.of(maxEntries(properties, BookCacheRegions.BOOKS, 10000)),
+                ttl(properties, BookCacheRegions.BOOKS, Duration.ofMinutes(10)));
+        createRegion(cacheManager, BookCacheRegions.BOOKS_BY_ISBN,
+                OptionalLong.of(maxEntries(properties, BookCacheRegions.BOOKS_BY_ISBN, 10000)),
+                ttl(properties, BookCacheRegions.BOOKS_BY_ISBN, Duration.ofMinutes(10)));
+        createRegion(cacheManager, BookCacheRegions.BOOK_QUERIES, OptionalLong.of(queriesMaxEntries), queriesTtl);
+        createRegion(cacheManager, BookCacheRegions.DEFAULT_QUERY_RESULTS, OptionalLong.of(queriesMaxEntries), queriesTtl);
+        createRegion(cacheManager, BookCacheRegions.UPDATE_TIMESTAMPS, OptionalLong.empty(), null);
+        return cacheManager;
+    }
+    
+    private static long maxEntries(Map<String, Object> properties, String region, long defaultValue) {
+        Object value = properties.get("bookstore.cache." + region + ".max-entries");
+        return value != null ? Long.parseLong(value.toString().trim()) : defaultValue;
+    }
+    
+    private static Duration ttl(Map<String, Object> properties, String region, Duration defaultValue) {
+        Object value = properties.get("bookstore.cache." + region + ".ttl");
+        return value != null ? Duration.parse(value.toString().trim()) : defaultValue;
+    }
+    
+    /**
+     * Entries are kept by reference: Hibernate already stores disassembled, immutable state
+     */
+    private static void createRegion(CacheManager cacheManager, String region, OptionalLong maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(maxEntries);
+        configuration.setExpireAfterWrite(ttl != null ? OptionalLong.of(ttl.toNanos()) : OptionalLong.empty());
+        cacheManager.createCache(region, configuration);
+    }
+}
@@ -0,0 +1,34 @@
+package com.talant.bootcamp.booksservice.cache;
+
+/**
+ * Names of the Hibernate second-level cache regions holding books, each configured with its own
+ * size and time to live
+ */
+public final class BookCacheRegions {
+    
+    /**
+     * Book entities by id
+     */
+    public static final String BOOKS = "books";
+    
+    /**
+     * Ids of books by ISBN, the natural id
+     */
+    public static final String BOOKS_BY_ISBN = "books-by-isbn";
+    
+    /**
+     * Ids returned by the cacheable book queries, such as the books of a category
+     */
+    public static final String BOOK_QUERIES = "book-queries";
+    
+    /**
+     * Hibernate regions that exist whenever the query cache is on. The timestamps region records
+     * the last change of each table, so cached query results older than it are ignored; it must
+     * never expire or evict entries before the query regions do.
+     */
+    public static final String DEFAULT_QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+    
+    private BookCacheRegions() {
+    }
+}
@@ -0,0 +1,153 @@
+package com.talant.bootcamp.booksservice.cache;
+
+import com.talant.bootcamp.booksservice.model.Book;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Access to the Hibernate second-level cache of books: its statistics, and eviction for writes
+ * that bypass Hibernate
+ */
+@Component
+public class SecondLevelCache {
+    
+    private final SessionFactoryImplementor sessionFactory;
+    
+    public SecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+    
+    public boolean isEnabled() {
+        return sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled();
+    }
+    
+    /**
+     * Drop every cached book, natural id and query result once the current transaction commits,
+     * or right away without one. Plain SQL writes must call this, since Hibernate does not see them.
+     */
+    public void evictBooks() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictBooksNow();
+                }
+            });
+        } else {
+            evictBooksNow();
+        }
+    }
+    
+    public void evictBooksNow() {
+        if (!isEnabled()) {
+            return;
+        }
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Book.class);
+        cache.evictNaturalIdData(Book.class);
+        cache.evictQueryRegions();
+    }
+    
+    /**
+     * Drop one cached book and the cached query results, which may list it. A cached ISBN of the
+     * book is found stale and dropped on its next lookup.
+     */
+    public void evictBook(Long id) {
+        if (!isEnabled()) {
+            return;
+        }
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Book.class, id);
+        cache.evictQueryRegions();
+    }
+    
+    /**
+     * Drop the cached books with these ids right away and again once the current transaction
+     * completes, the way Hibernate handles its own bulk updates, but without touching other books.
+     * For plain SQL writes to columns that no cached query filters on.
+     */
+    public void evictBooks(Collection<Long> ids) {
+        if (!isEnabled() || ids.isEmpty()) {
+            return;
+        }
+        List<Long> evicted = List.copyOf(ids);
+        evictEntities(evicted);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictEntities(evicted);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Call the listener with every book loaded, from the database or from this cache. Hibernate
+     * stores a book read from the database in the cache before it calls the listener, so the
+     * listener can still drop it.
+     */
+    public void addLoadListener(Consumer<Book> listener) {
+        sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> {
+                    if (event.getEntity() instanceof Book book) {
+                        listener.accept(book);
+                    }
+                });
+    }
+    
+    private void evictEntities(List<Long> ids) {
+        Cache cache = sessionFactory.getCache();
+        ids.forEach(id -> cache.evictEntityData(Book.class, id));
+    }
+    
+    public Stats getStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<RegionStats> regions = new ArrayList<>();
+        if (isEnabled()) {
+            Arrays.stream(statistics.getSecondLevelCacheRegionNames()).sorted().forEach(name -> {
+                CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+                if (region != null) {
+                    regions.add(new RegionStats(name, region.getHitCount(), region.getMissCount(),
+                            region.getPutCount(), region.getElementCountInMemory()));
+                }
+            });
+        }
+        return new Stats(isEnabled(), statistics.isStatisticsEnabled(), regions,
+                statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(),
+                statistics.getQueryExecutionCount(), statistics.getNaturalIdQueryExecutionCount());
+    }
+    
+    /**
+     * Hits, misses and puts of one region, and its entries (-1 when the provider does not count them)
+     */
+    public record RegionStats(String region, long hits, long misses, long puts, long entries) {
+    }
+    
+    /**
+     * Region statistics, and the statements, entity loads and queries that still reached the
+     * database. Counters stay at 0 unless {@code bookstore.cache.statistics-enabled} is on.
+     */
+    public record Stats(boolean enabled, boolean statisticsEnabled, List<RegionStats> regions,
+                        long preparedStatements, long entityLoads, long queryExecutions,
+                        long naturalIdQueryExecutions) {
+    }
+}
@@ -0,0 +1,223 @@
+package com.talant.bootcamp.booksservice.catalog;
+
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of realistic synthetic catalogs.
+ *
+ * Every book is derived only from the seed and its index, so any range of the catalog can be
+ * generated independently (and in parallel) and always yields the same books. Authors follow a
+ * Zipf distribution, categories are skewed towards fiction, names include accented characters,
+ * prices are log-normal and stock mixes out-of-stock, low-stock and well-stocked titles.
+ * ISBNs are valid ISBN-13 codes with the 979 prefix, unique per index.
+ */
+public class CatalogGenerator {
+    
+    public static final long MAX_BOOKS = 1_000_000_000L;
+    
+    private static final String[] FIRST_NAMES = {
+        "Ana", "José", "María", "Renée", "Zoë", "François", "Søren", "Björn", "Ignacio", "Inés",
+        "Łukasz", "Chloé", "Jürgen", "Noémie", "Álvaro", "Íñigo", "Dagný", "Raúl", "Agnès", "Mónica",
+        "Emily", "James", "Olivia", "Liam", "Sophia", "Hiroshi", "Amélie", "Stéphane", "Nuño", "Anaïs"
+    };
+    
+    private static final String[] LAST_NAMES = {
+        "García", "Müller", "Núñez", "López", "Fernández", "Brontë", "Ødegaard", "Dvořák", "Ibáñez", "Lefèvre",
+        "Gómez", "Schröder", "Åberg", "Pérez", "Martín", "Rodríguez", "Sánchez", "Doyle", "Kowalczyk", "Châtelet",
+        "Smith", "Johnson", "Brown", "Tanaka", "Rossi", "Hernández", "Jiménez", "Nakamura", "Moreau", "Weiß"
+    };
+    
+    private static final String[] TITLE_ADJECTIVES = {
+        "Silent", "Forgotten", "Crimson", "Hidden", "Eternal", "Broken", "Golden", "Last", "Secret", "Distant",
+        "Perdido", "Oscuro", "Dernière", "Lejano", "Infinite", "Burning", "Quiet", "Wild", "Frozen", "Sacred"
+    };
+    
+    private static final String[] TITLE_NOUNS = {
+        "River", "Garden", "Empire", "Winter", "Kingdom", "Library", "Ocean", "Mountain", "Shadow", "Promise",
+        "Corazón", "Mémoire", "Jardín", "Canción", "Algorithm", "Journey", "Harbor", "Island", "Station", "Letter"
+    };
+    
+    private static final String[] DESCRIPTION_OPENINGS = {
+        "A sweeping story about", "An unflinching look at", "A practical guide to", "A lyrical meditation on",
+        "A gripping account of", "Una novela sobre", "Un ensayo sobre", "A beginner-friendly introduction to"
+    };
+    
+    private static final String[] DESCRIPTION_SUBJECTS = {
+        "family, memory and loss", "the rise and fall of an empire", "cooking with seasonal ingredients",
+        "building reliable software", "a journey across the Andes", "la búsqueda de la identidad",
+        "friendship in difficult times", "the history of the Mediterranean", "investing for the long term"
+    };
+    
+    /**
+     * Relative weight of each category, in BookCategory declaration order
+     */
+    private static final double[] CATEGORY_WEIGHTS = {
+        22, 9, 6, 7, 6, 6, 8, 3, 4, 2, 5, 4, 4, 3, 2, 5, 5, 1, 1, 1
+    };
+    
+    private static final double[] CATEGORY_CUMULATIVE = cumulative(CATEGORY_WEIGHTS);
+    private static final long TIME_SPAN_SECONDS = 5L * 365 * 24 * 3600;
+    private static final BigDecimal MIN_PRICE = new BigDecimal("0.99");
+    private static final BigDecimal MAX_PRICE = new BigDecimal("9999.99");
+    
+    private static final String[] BASE_TITLES = combine("The ", TITLE_ADJECTIVES, " ", TITLE_NOUNS);
+    private static final String[] DESCRIPTIONS = combine("", DESCRIPTION_OPENINGS, " ", DESCRIPTION_SUBJECTS);
+    
+    private final long seed;
+    private final String[] authors;
+    private final ZipfDistribution authorDistribution;
+    private final LocalDateTime epoch;
+    
+    public CatalogGenerator(long seed, int authorCount) {
+        if (BookCategory.values().length != CATEGORY_WEIGHTS.length) {
+            throw new IllegalStateException("Category weights do not match the book categories");
+        }
+        this.seed = seed;
+        this.authors = new String[authorCount];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < authorCount; i++) {
+            authors[i] = pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES)
+                    + (random.nextInt(4) == 0 ? "-" + pick(random, LAST_NAMES) : "");
+        }
+        this.authorDistribution = new ZipfDistribution(authorCount, 1.07);
+        this.epoch = LocalDateTime.of(2020, 1, 1, 0, 0);
+    }
+    
+    /**
+     * Generate the book at the given position of the catalog
+     */
+    public Book generate(long index) {
+        if (index < 0 || index >= MAX_BOOKS) {
+            throw new IllegalArgumentException("Book index out of range: " + index);
+        }
+        SplittableRandom random = new SplittableRandom(mix(seed + index * 0x9E3779B97F4A7C15L));
+        
+        String title = title(random);
+        String author = authors[authorDistribution.sample(random)];
+        BookCategory category = category(random);
+        String description = random.nextInt(10) < 7 ? pick(random, DESCRIPTIONS) : null;
+        
+        Book book = new Book(title, author, isbn(index), description, price(random, category), stock(random), category);
+        LocalDateTime createdAt = epoch.plusSeconds(random.nextLong(TIME_SPAN_SECONDS));
+        book.setCreatedAt(createdAt);
+        book.setUpdatedAt(createdAt.plusSeconds(random.nextLong(30L * 24 * 3600)));
+        return book;
+    }
+    
+    /**
+     * ISBN-13 with the 979 prefix, the index as the 9-digit body and a valid check digit
+     */
+    static String isbn(long index) {
+        char[] digits = {'9', '7', '9', '0', '0', '0', '0', '0', '0', '0', '0', '0', '0'};
+        long remaining = index;
+        for (int i = 11; i >= 3; i--) {
+            digits[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = digits[i] - '0';
+            sum += (i % 2 == 0) ? digit : digit * 3;
+        }
+        digits[12] = (char) ('0' + (10 - sum % 10) % 10);
+        return new String(digits);
+    }
+    
+    private static String title(SplittableRandom random) {
+        String title = pick(random, BASE_TITLES);
+        int variant = random.nextInt(10);
+        if (variant == 0) {
+            title += ", Volume " + (2 + random.nextInt(8));
+        } else if (variant == 1) {
+            title += " of the " + pick(random, TITLE_NOUNS);
+        }
+        return title;
+    }
+    
+    private static BookCategory category(SplittableRandom random) {
+        double value = random.nextDouble();
+        for (int i = 0; i < CATEGORY_CUMULATIVE.length; i++) {
+            if (value < CATEGORY_CUMULATIVE[i]) {
+                return BookCategory.values()[i];
+            }
+        }
+        return BookCategory.OTHER;
+    }
+    
+    private static BigDecimal price(SplittableRandom random, BookCategory category) {
+        // Log-normal prices around 18, academic and technical books are more expensive
+        double median = switch (category) {
+            case ACADEMIC, TECHNOLOGY, REFERENCE, SCIENCE -> 45.0;
+            case CHILDREN -> 11.0;
+            default -> 18.0;
+        };
+        double price = median * Math.exp(0.45 * gaussian(random));
+        // Whole amount plus .99, expressed in cents
+        BigDecimal value = BigDecimal.valueOf((long) Math.floor(price) * 100 + 99, 2);
+        if (value.compareTo(MIN_PRICE) < 0) {
+            return MIN_PRICE;
+        }
+        return value.compareTo(MAX_PRICE) > 0 ? MAX_PRICE : value;
+    }
+    
+    private static int stock(SplittableRandom random) {
+        int bucket = random.nextInt(100);
+        if (bucket < 8) {
+            return 0;
+        }
+        if (bucket < 23) {
+            return 1 + random.nextInt(9);
+        }
+        // Exponential with a mean of 40 units, capped at the validation maximum
+        double units = -40.0 * Math.log(1.0 - random.nextDouble());
+        return (int) Math.min(999_999, 10 + Math.round(units));
+    }
+    
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller transform
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+    
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+    
+    private static String[] combine(String prefix, String[] first, String separator, String[] second) {
+        String[] combined = new String[first.length * second.length];
+        int i = 0;
+        for (String a : first) {
+            for (String b : second) {
+                combined[i++] = prefix + a + separator + b;
+            }
+        }
+        return combined;
+    }
+    
+    private static double[] cumulative(double[] weights) {
+        double total = 0.0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double[] cumulative = new double[weights.length];
+        double running = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            running += weights[i];
+            cumulative[i] = running / total;
+        }
+        return cumulative;
+    }
+    
+    private static long mix(long value) {
+        // SplitMix64 finalizer, so that neighbouring indexes get unrelated streams
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
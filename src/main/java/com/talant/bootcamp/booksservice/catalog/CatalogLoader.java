@@ -0,0 +1,106 @@
+package com.talant.bootcamp.booksservice.catalog;
+
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.repository.BookJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads synthetic catalogs through parallel, batched JDBC inserts. Each batch is generated
+ * and inserted by one worker in its own transaction.
+ */
+@Service
+public class CatalogLoader {
+    
+    private static final Logger log = LoggerFactory.getLogger(CatalogLoader.class);
+    
+    private final BookJdbcRepository bookJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int threads;
+    
+    public CatalogLoader(BookJdbcRepository bookJdbcRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${bookstore.catalog.batch-size:5000}") int batchSize,
+                         @Value("${bookstore.catalog.threads:0}") int threads) {
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.threads = threads > 0 ? threads : Math.min(Runtime.getRuntime().availableProcessors(), 8);
+    }
+    
+    /**
+     * Generate and insert {@code count} books from the given seed
+     */
+    public LoadResult load(long count, long seed) {
+        return load(count, new CatalogGenerator(seed, authorCount(count)));
+    }
+    
+    /**
+     * Generate and insert {@code count} books with the given generator
+     */
+    public LoadResult load(long count, CatalogGenerator generator) {
+        if (count < 0 || count > CatalogGenerator.MAX_BOOKS) {
+            throw new IllegalArgumentException("Catalog size must be between 0 and " + CatalogGenerator.MAX_BOOKS);
+        }
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> batches = new ArrayList<>();
+            for (long from = 0; from < count; from += batchSize) {
+                long batchStart = from;
+                long batchEnd = Math.min(from + batchSize, count);
+                batches.add(executor.submit(() -> insertRange(generator, batchStart, batchEnd)));
+            }
+            long inserted = 0;
+            for (Future<Integer> batch : batches) {
+                inserted += batch.get();
+            }
+            LoadResult result = new LoadResult(inserted, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            log.info("Loaded {} synthetic books in {} ms ({} rows/s)", result.rows(), result.millis(), result.rowsPerSecond());
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Catalog load interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Catalog load failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private int insertRange(CatalogGenerator generator, long from, long to) {
+        List<Book> books = new ArrayList<>((int) (to - from));
+        for (long index = from; index < to; index++) {
+            books.add(generator.generate(index));
+        }
+        return transactionTemplate.execute(status -> bookJdbcRepository.insertBatch(books));
+    }
+    
+    private static int authorCount(long count) {
+        // Roughly one author per 20 books, as in real catalogs
+        return (int) Math.max(100, Math.min(200_000, count / 20));
+    }
+    
+    /**
+     * Outcome of a catalog load
+     */
+    public record LoadResult(long rows, long millis) {
+        
+        public long rowsPerSecond() {
+            return millis == 0 ? rows : rows * 1000 / millis;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.talant.bootcamp.booksservice.catalog;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zipf distribution over the ranks 1..n, sampled by binary search over a precomputed CDF
+ */
+class ZipfDistribution {
+    
+    private final double[] cumulative;
+    
+    ZipfDistribution(int elements, double exponent) {
+        if (elements < 1) {
+            throw new IllegalArgumentException("A Zipf distribution needs at least one element");
+        }
+        cumulative = new double[elements];
+        double sum = 0.0;
+        for (int rank = 1; rank <= elements; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < elements; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+    
+    /**
+     * Sample a zero-based rank; rank 0 is the most frequent
+     */
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,18 @@
+package com.talant.bootcamp.booksservice.changes;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.id.BookIdSerializer;
+
+import java.time.Instant;
+
+/**
+ * Committed catalog mutation as stored in the change feed and sent to subscribers
+ *
+ * @param sequence position in the feed, increasing by one with every change
+ * @param book     state of the book after the change, or null when it was deleted
+ */
+public record BookChange(long sequence, BookChangeType type,
+                         @JsonSerialize(using = BookIdSerializer.class) Long bookId,
+                         BookResponse book, Instant committedAt) {
+}
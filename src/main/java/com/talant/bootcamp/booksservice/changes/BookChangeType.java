@@ -0,0 +1,15 @@
+package com.talant.bootcamp.booksservice.changes;
+
+/**
+ * Kinds of catalog mutations published to the change feed
+ */
+public enum BookChangeType {
+    CREATED,
+    UPDATED,
+    STOCK_CHANGED,
+    DELETED,
+    /**
+     * A bulk write changed more books than are published one by one; reload the catalog
+     */
+    RESET
+}
@@ -0,0 +1,14 @@
+package com.talant.bootcamp.booksservice.changes;
+
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+
+/**
+ * Application event published by the book service for every mutation. It reaches the change
+ * feed only once the transaction that produced it commits.
+ *
+ * @param version change sequence the transaction wrote for the book, or for its tombstone once
+ *                deleted
+ * @param book    state of the book after the change, or null when it was deleted
+ */
+public record BookChangedEvent(BookChangeType type, Long bookId, Long version, BookResponse book) {
+}
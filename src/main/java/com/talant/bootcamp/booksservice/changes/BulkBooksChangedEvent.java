@@ -0,0 +1,10 @@
+package com.talant.bootcamp.booksservice.changes;
+
+/**
+ * Application event published once for a bulk write of more books than are published one by
+ * one. Like {@link BookChangedEvent}, it reaches the listeners only once the transaction commits.
+ *
+ * @param books number of books the write created or updated
+ */
+public record BulkBooksChangedEvent(int books) {
+}
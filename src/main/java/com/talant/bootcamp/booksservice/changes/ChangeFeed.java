@@ -0,0 +1,214 @@
+package com.talant.bootcamp.booksservice.changes;
+
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory feed of committed catalog changes. The latest changes are kept in a ring buffer so
+ * subscribers can resume from the last event they saw. Each subscriber has a bounded queue;
+ * one that falls further behind than its queue is disconnected and has to resume.
+ * <p>
+ * Each subscriber is written by a virtual thread of its own while it has changes queued, so a
+ * connection whose writes block holds up nobody else. One blocked for longer than the send
+ * timeout is disconnected.
+ */
+@Component
+public class ChangeFeed implements SmartLifecycle {
+    
+    /**
+     * Event sent instead of the missed changes when a subscriber resumes from an evicted position
+     */
+    public static final String RESET_EVENT = "RESET";
+    
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+    
+    private final BookChange[] ring;
+    private final int subscriberQueueSize;
+    private final long emitterTimeout;
+    private final long sendTimeoutNanos;
+    private final Set<ChangeSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private long nextSequence = 1;
+    private volatile boolean running;
+    
+    public ChangeFeed(@Value("${bookstore.changes.buffer-size:10000}") int bufferSize,
+                      @Value("${bookstore.changes.subscriber-queue-size:1000}") int subscriberQueueSize,
+                      @Value("${bookstore.changes.emitter-timeout:PT30M}") Duration emitterTimeout,
+                      @Value("${bookstore.changes.send-timeout:PT10S}") Duration sendTimeout) {
+        this.ring = new BookChange[bufferSize];
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.emitterTimeout = emitterTimeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("change-feed-", 1).factory());
+    }
+    
+    /**
+     * Append a committed change and fan it out to the subscribers
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        publish(event.type(), event.bookId(), event.book());
+    }
+    
+    /**
+     * Append a single reset for a committed bulk write, which subscribers resume past like any
+     * other change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBulkBooksChanged(BulkBooksChangedEvent event) {
+        publish(BookChangeType.RESET, null, null);
+    }
+    
+    BookChange publish(BookChangeType type, Long bookId, BookResponse book) {
+        BookChange change;
+        List<ChangeSubscriber> slow = new ArrayList<>();
+        synchronized (ring) {
+            change = new BookChange(nextSequence, type, bookId, book, Instant.now());
+            ring[(int) (nextSequence % ring.length)] = change;
+            nextSequence++;
+            for (ChangeSubscriber subscriber : subscribers) {
+                if (!subscriber.offer(change)) {
+                    slow.add(subscriber);
+                }
+            }
+        }
+        slow.forEach(subscriber -> evict(subscriber, "after " + subscriberQueueSize + " queued changes"));
+        for (ChangeSubscriber subscriber : subscribers) {
+            subscriber.schedule(senders);
+        }
+        return change;
+    }
+    
+    /**
+     * Open a stream of changes after the given sequence, or of new changes only when it is null
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        return subscribe(new SseEmitter(emitterTimeout), lastEventId);
+    }
+    
+    SseEmitter subscribe(SseEmitter emitter, Long lastEventId) {
+        ChangeSubscriber subscriber;
+        synchronized (ring) {
+            List<Object> backlog = backlog(lastEventId);
+            subscriber = new ChangeSubscriber(emitter, subscriberQueueSize + backlog.size());
+            backlog.forEach(subscriber::offer);
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscriber.schedule(senders);
+        return emitter;
+    }
+    
+    /**
+     * Disconnect the subscribers whose current write has been blocked for longer than the send
+     * timeout, such as a client that stopped reading without closing its connection
+     */
+    @Scheduled(fixedDelayString = "${bookstore.changes.send-timeout:PT10S}")
+    public void closeStalledSubscribers() {
+        for (ChangeSubscriber subscriber : subscribers) {
+            if (subscriber.isStalled(sendTimeoutNanos)) {
+                evict(subscriber, "after a write blocked for " + Duration.ofNanos(sendTimeoutNanos));
+            }
+        }
+    }
+    
+    /**
+     * Sequence of the latest change, or 0 before the first one
+     */
+    public long getLatestSequence() {
+        synchronized (ring) {
+            return nextSequence - 1;
+        }
+    }
+    
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+    }
+    
+    /**
+     * Close every stream before the web server waits for active requests on graceful shutdown
+     */
+    @Override
+    public void stop() {
+        running = false;
+        subscribers.forEach(ChangeSubscriber::close);
+        subscribers.clear();
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        stop();
+        senders.shutdownNow();
+    }
+    
+    /**
+     * Changes retained after the given sequence, preceded by a reset notice when some were already
+     * evicted. A sequence above the latest one was issued before a restart, as the sequence starts
+     * over with the feed, so the client gets a reset and every retained change.
+     */
+    private List<Object> backlog(Long lastEventId) {
+        List<Object> backlog = new ArrayList<>();
+        if (lastEventId == null || lastEventId == nextSequence - 1) {
+            return backlog;
+        }
+        long oldest = Math.max(1, nextSequence - ring.length);
+        long from = lastEventId + 1;
+        if (from < oldest || lastEventId >= nextSequence) {
+            backlog.add(new Reset(lastEventId, oldest));
+            from = oldest;
+        }
+        for (long sequence = from; sequence < nextSequence; sequence++) {
+            backlog.add(ring[(int) (sequence % ring.length)]);
+        }
+        return backlog;
+    }
+    
+    /**
+     * Disconnect a subscriber that fell behind. The connection is completed on a sender thread
+     * because its own sender may still be blocked writing to it.
+     */
+    private void evict(ChangeSubscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            log.warn("Disconnecting slow change feed subscriber {}", reason);
+            subscriber.abandon();
+            senders.execute(subscriber::close);
+        }
+    }
+    
+    /**
+     * Notice that the changes after {@code lastEventId} and before {@code oldestSequence} are no longer
+     * available, or that {@code lastEventId} was issued before a restart
+     */
+    public record Reset(long lastEventId, long oldestSequence) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.talant.bootcamp.booksservice.changes;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One SSE connection of the change feed. Changes are queued without blocking the publisher and
+ * written by at most one sender task at a time, so a slow connection only fills its own queue.
+ */
+class ChangeSubscriber {
+    
+    private final SseEmitter emitter;
+    private final BlockingQueue<Object> queue;
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile long writeStartedAt;
+    private volatile boolean closed;
+    
+    ChangeSubscriber(SseEmitter emitter, int capacity) {
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+    
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+    
+    boolean isClosed() {
+        return closed;
+    }
+    
+    /**
+     * Queue a change or notice for sending
+     *
+     * @return false if the queue is full
+     */
+    boolean offer(Object message) {
+        return queue.offer(message);
+    }
+    
+    /**
+     * Start a sender task unless one is already running
+     */
+    void schedule(Executor executor) {
+        if (!closed && !queue.isEmpty() && sending.compareAndSet(false, true)) {
+            executor.execute(() -> send(executor));
+        }
+    }
+    
+    /**
+     * Whether a write to the connection has been blocked for longer than the timeout
+     */
+    boolean isStalled(long timeoutNanos) {
+        long started = writeStartedAt;
+        return started != 0 && System.nanoTime() - started > timeoutNanos;
+    }
+    
+    /**
+     * Stop sending queued changes
+     */
+    void abandon() {
+        closed = true;
+        queue.clear();
+    }
+    
+    void close() {
+        abandon();
+        emitter.complete();
+    }
+    
+    private void send(Executor executor) {
+        try {
+            Object message;
+            while (!closed && (message = queue.poll()) != null) {
+                writeStartedAt = System.nanoTime();
+                emitter.send(toEvent(message));
+                writeStartedAt = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            closed = true;
+            queue.clear();
+            emitter.completeWithError(e);
+        } finally {
+            writeStartedAt = 0;
+            sending.set(false);
+        }
+        schedule(executor);
+    }
+    
+    private static SseEmitter.SseEventBuilder toEvent(Object message) {
+        if (message instanceof BookChange change) {
+            return SseEmitter.event()
+                    .id(String.valueOf(change.sequence()))
+                    .name(change.type().name())
+                    .data(change, MediaType.APPLICATION_JSON);
+        }
+        ChangeFeed.Reset reset = (ChangeFeed.Reset) message;
+        return SseEmitter.event().name(ChangeFeed.RESET_EVENT).data(reset, MediaType.APPLICATION_JSON);
+    }
+}
@@ -0,0 +1,123 @@
+package com.talant.bootcamp.booksservice.changes;
+
+import com.talant.bootcamp.booksservice.dto.BookDeltaResponse;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.exception.SyncTokenExpiredException;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookTombstone;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.repository.BookTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta sync over the change sequence. Changed books and tombstones are both read from indexes
+ * on the sequence, so a sync reads only what changed since the client's token.
+ * <p>
+ * Transactions draw sequence numbers when they write but become visible when they commit, so a
+ * missing number may be a change that is still in flight rather than one superseded by a later
+ * update. The token stops before such a gap until the change after it is older than the gap grace
+ * period; changes past the gap are still returned and come again on the next sync.
+ */
+@Service
+public class DeltaSyncService {
+    
+    /**
+     * Most changes returned by a single call
+     */
+    public static final int MAX_LIMIT = 5000;
+    
+    private static final Logger log = LoggerFactory.getLogger(DeltaSyncService.class);
+    
+    private final BookRepository bookRepository;
+    private final BookTombstoneRepository tombstoneRepository;
+    private final Duration tombstoneRetention;
+    private final Duration gapGrace;
+    
+    public DeltaSyncService(BookRepository bookRepository,
+                            BookTombstoneRepository tombstoneRepository,
+                            @Value("${bookstore.changes.tombstone-retention:P7D}") Duration tombstoneRetention,
+                            @Value("${bookstore.changes.gap-grace:PT5S}") Duration gapGrace) {
+        this.bookRepository = bookRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.tombstoneRetention = tombstoneRetention;
+        this.gapGrace = gapGrace;
+    }
+    
+    /**
+     * Get the books changed and deleted after the token, oldest change first, or every book without a token
+     *
+     * @throws SyncTokenExpiredException if deletes after the token may already have been purged
+     */
+    @Transactional(readOnly = true)
+    public BookDeltaResponse getChangesSince(String token, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        Instant issuedAt = Instant.now();
+        SyncToken since = token != null ? SyncToken.parse(token) : new SyncToken(0, issuedAt);
+        if (since.issuedAt().isBefore(issuedAt.minus(tombstoneRetention))) {
+            throw new SyncTokenExpiredException();
+        }
+        
+        List<Book> books = bookRepository.findByChangeSeqGreaterThanOrderByChangeSeqAsc(since.sequence(), Limit.of(limit + 1));
+        List<BookTombstone> tombstones = tombstoneRepository.findByChangeSeqGreaterThanOrderByChangeSeqAsc(since.sequence(), Limit.of(limit + 1));
+        
+        List<BookResponse> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        LocalDateTime settled = LocalDateTime.now().minus(gapGrace);
+        long last = since.sequence();
+        boolean held = false;
+        int b = 0;
+        int t = 0;
+        while (changed.size() + deleted.size() < limit && (b < books.size() || t < tombstones.size())) {
+            long sequence;
+            LocalDateTime changedAt;
+            if (t >= tombstones.size() || (b < books.size() && books.get(b).getChangeSeq() < tombstones.get(t).getChangeSeq())) {
+                Book book = books.get(b++);
+                changed.add(new BookResponse(book));
+                sequence = book.getChangeSeq();
+                changedAt = book.getUpdatedAt();
+            } else {
+                BookTombstone tombstone = tombstones.get(t++);
+                deleted.add(tombstone.getBookId());
+                sequence = tombstone.getChangeSeq();
+                changedAt = tombstone.getDeletedAt();
+            }
+            // A gap before a recent change may still fill up, so the token stays before it
+            if (!held && sequence != last + 1 && changedAt != null && changedAt.isAfter(settled)) {
+                held = true;
+            }
+            if (!held) {
+                last = sequence;
+            }
+        }
+        // A held token would return the same page again, so the client waits for the next sync
+        boolean hasMore = !held && (b < books.size() || t < tombstones.size());
+        return new BookDeltaResponse(changed, deleted, new SyncToken(last, issuedAt).encode(), hasMore);
+    }
+    
+    /**
+     * Purge the tombstones that are older than the retention window
+     */
+    @Scheduled(fixedDelayString = "${bookstore.changes.tombstone-purge-interval:PT1H}")
+    @Transactional
+    public int purgeTombstones() {
+        int purged = tombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minus(tombstoneRetention));
+        if (purged > 0) {
+            log.info("Purged {} book tombstones older than {}", purged, tombstoneRetention);
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,37 @@
+package com.talant.bootcamp.booksservice.changes;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque delta sync position: the last change sequence a client has seen and when the token was
+ * issued. The issue time tells whether tombstones the client still needs may have been purged.
+ */
+public record SyncToken(long sequence, Instant issuedAt) {
+    
+    /**
+     * Parse a token produced by {@link #encode()}
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static SyncToken parse(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            int separator = decoded.indexOf(':');
+            long sequence = Long.parseLong(decoded.substring(0, separator));
+            long issuedAt = Long.parseLong(decoded.substring(separator + 1));
+            if (sequence < 0) {
+                throw new IllegalArgumentException("Negative sequence");
+            }
+            return new SyncToken(sequence, Instant.ofEpochMilli(issuedAt));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid sync token '" + token + "'", e);
+        }
+    }
+    
+    public String encode() {
+        String plain = sequence + ":" + issuedAt.toEpochMilli();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.US_ASCII));
+    }
+}
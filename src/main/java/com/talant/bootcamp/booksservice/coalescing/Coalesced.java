@@ -0,0 +1,18 @@
+package com.talant.bootcamp.booksservice.coalescing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read method whose concurrent calls with equal arguments share one execution and its
+ * result. The arguments must implement equals and hashCode. List results are shared as
+ * unmodifiable copies.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+}
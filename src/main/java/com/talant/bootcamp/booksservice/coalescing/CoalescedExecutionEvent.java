@@ -0,0 +1,25 @@
+package com.talant.bootcamp.booksservice.coalescing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted for every coalesced execution that absorbed concurrent calls
+ */
+@Name("com.talant.bootcamp.booksservice.CoalescedExecution")
+@Label("Coalesced Execution")
+@Category({"Bookstore", "Service"})
+@Description("Execution of a read method shared by concurrent calls with equal arguments")
+@StackTrace(false)
+class CoalescedExecutionEvent extends Event {
+    
+    @Label("Method")
+    String method;
+    
+    @Label("Absorbed Calls")
+    int absorbedCalls;
+}
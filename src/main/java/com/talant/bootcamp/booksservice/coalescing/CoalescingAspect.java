@@ -0,0 +1,51 @@
+package com.talant.bootcamp.booksservice.coalescing;
+
+import com.talant.bootcamp.booksservice.replica.ConsistencyTokenFilter;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aspect that coalesces concurrent calls of {@link Coalesced} methods with equal arguments. It
+ * runs outside the transaction, so callers that wait do not hold a connection. Calls made inside
+ * a transaction run on their own, because they must see the transaction's own writes, and so do
+ * calls carrying a consistency token, as a shared result may come from a replica that is behind it.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CoalescingAspect {
+    
+    private final SingleFlight singleFlight;
+    private final boolean enabled;
+    
+    public CoalescingAspect(SingleFlight singleFlight,
+                            @Value("${bookstore.coalescing.enabled:true}") boolean enabled) {
+        this.singleFlight = singleFlight;
+        this.enabled = enabled;
+    }
+    
+    @Around("@annotation(com.talant.bootcamp.booksservice.coalescing.Coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()
+                || ConsistencyTokenFilter.isReadAfterRequired()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Key key = new Key(method, Arrays.asList(joinPoint.getArgs()));
+        return singleFlight.execute(method.getName(), key, joinPoint::proceed);
+    }
+    
+    private record Key(Method method, List<Object> arguments) {
+    }
+}
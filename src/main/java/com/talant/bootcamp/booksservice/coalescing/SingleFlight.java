@@ -0,0 +1,172 @@
+package com.talant.bootcamp.booksservice.coalescing;
+
+import com.talant.bootcamp.booksservice.changes.BookChangedEvent;
+import com.talant.bootcamp.booksservice.changes.BulkBooksChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs at most one execution per key at a time. Callers that arrive while an execution of their
+ * key is in flight wait for it and get its result or exception instead of running it again.
+ * <p>
+ * A caller only joins an execution that started after the last book write committed before it
+ * arrived, so it never gets a result older than a write it may have seen, its own included. It
+ * waits for the execution at most the maximum wait, and then runs the call itself. List results
+ * are shared as unmodifiable copies, so no caller can change what the others get.
+ */
+@Component
+public class SingleFlight {
+    
+    private final Map<Object, Flight> flights = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+    private final Duration maxWait;
+    
+    public SingleFlight(@Value("${bookstore.coalescing.max-wait:PT5S}") Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+    
+    /**
+     * Run the call, or join the execution of an equal key that is already in flight
+     */
+    public Object execute(String name, Object key, Call call) throws Throwable {
+        Flight flight = new Flight(writes.get());
+        Flight inFlight;
+        while ((inFlight = flights.putIfAbsent(key, flight)) != null) {
+            if (inFlight.writes >= flight.writes) {
+                return join(inFlight, call);
+            }
+            // Started before a write this caller may have seen: run again, and later callers join this one
+            if (flights.replace(key, inFlight, flight)) {
+                break;
+            }
+        }
+        
+        CoalescedExecutionEvent event = new CoalescedExecutionEvent();
+        event.begin();
+        try {
+            Object result = shared(call.run());
+            flight.result.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+            int absorbed = flight.absorbed.get();
+            counters.computeIfAbsent(name, n -> new Counters()).record(absorbed);
+            event.end();
+            if (absorbed > 0 && event.shouldCommit()) {
+                event.method = name;
+                event.absorbedCalls = absorbed;
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Count each committed book write, so later callers do not join executions that may miss it
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        writes.incrementAndGet();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBulkBooksChanged(BulkBooksChangedEvent event) {
+        writes.incrementAndGet();
+    }
+    
+    /**
+     * Executions and absorbed calls of every coalesced method, most absorbed first
+     */
+    public List<Stats> getStats() {
+        return counters.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingLong(Stats::absorbedCalls).reversed())
+                .toList();
+    }
+    
+    private Object join(Flight flight, Call call) throws Throwable {
+        flight.absorbed.incrementAndGet();
+        try {
+            return flight.result.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            flight.absorbed.decrementAndGet();
+            return shared(call.run());
+        }
+    }
+    
+    private static Object shared(Object result) {
+        return result instanceof List<?> list ? Collections.unmodifiableList(new ArrayList<>(list)) : result;
+    }
+    
+    /**
+     * Calls waiting on the in-flight execution of the key
+     */
+    int waitingCalls(Object key) {
+        Flight flight = flights.get(key);
+        return flight != null ? flight.absorbed.get() : 0;
+    }
+    
+    /**
+     * Code run once for all the concurrent callers of a key
+     */
+    @FunctionalInterface
+    public interface Call {
+        Object run() throws Throwable;
+    }
+    
+    /**
+     * Executions of a method, the calls they absorbed, and the most absorbed by one execution
+     */
+    public record Stats(String method, long executions, long absorbedCalls, long maxAbsorbedCalls) {
+    }
+    
+    private static final class Flight {
+        
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger absorbed = new AtomicInteger();
+        private final long writes;
+        
+        private Flight(long writes) {
+            this.writes = writes;
+        }
+    }
+    
+    private static final class Counters {
+        
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder absorbed = new LongAdder();
+        private final AtomicLong maxAbsorbed = new AtomicLong();
+        
+        void record(int absorbedCalls) {
+            executions.increment();
+            absorbed.add(absorbedCalls);
+            maxAbsorbed.accumulateAndGet(absorbedCalls, Math::max);
+        }
+        
+        Stats snapshot(String method) {
+            return new Stats(method, executions.sum(), absorbed.sum(), maxAbsorbed.get());
+        }
+    }
+}
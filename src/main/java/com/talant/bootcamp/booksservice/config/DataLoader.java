@@ -1,9 +1,13 @@
 package com.talant.bootcamp.booksservice.config;
 
+import com.talant.bootcamp.booksservice.catalog.CatalogLoader;
 import com.talant.bootcamp.booksservice.model.Book;
 import com.talant.bootcamp.booksservice.model.BookCategory;
 import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.sharding.ShardRouter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
@@ -11,16 +15,29 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Component
 @Profile("!test")
 public class DataLoader implements CommandLineRunner {
     
     private final BookRepository bookRepository;
+    private final CatalogLoader catalogLoader;
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final long syntheticSize;
+    private final long syntheticSeed;
     
     @Autowired
-    public DataLoader(BookRepository bookRepository) {
+    public DataLoader(BookRepository bookRepository,
+                      CatalogLoader catalogLoader,
+                      ObjectProvider<ShardRouter> shardRouter,
+                      @Value("${bookstore.catalog.synthetic-size:0}") long syntheticSize,
+                      @Value("${bookstore.catalog.seed:42}") long syntheticSeed) {
         this.bookRepository = bookRepository;
+        this.catalogLoader = catalogLoader;
+        this.shardRouter = shardRouter;
+        this.syntheticSize = syntheticSize;
+        this.syntheticSeed = syntheticSeed;
     }
     
     @Override
@@ -28,6 +45,9 @@ public class DataLoader implements CommandLineRunner {
         // Only load data if there are no books in the database
         if (bookRepository.count() == 0) {
             loadSampleBooks();
+            if (syntheticSize > 0) {
+                catalogLoader.load(syntheticSize, syntheticSeed);
+            }
         }
     }
     
@@ -170,7 +190,14 @@ public class DataLoader implements CommandLineRunner {
             )
         );
         
-        bookRepository.saveAll(sampleBooks);
+        ShardRouter router = shardRouter.getIfAvailable();
+        if (router == null) {
+            bookRepository.saveAll(sampleBooks);
+        } else {
+            sampleBooks.stream()
+                    .collect(Collectors.groupingBy(book -> router.shardOf(book.getCategory(), book.getIsbn())))
+                    .forEach((shard, books) -> router.onShard(shard, () -> bookRepository.saveAll(books)));
+        }
         System.out.println("Loaded " + sampleBooks.size() + " sample books into the database.");
     }
 } 
\ No newline at end of file
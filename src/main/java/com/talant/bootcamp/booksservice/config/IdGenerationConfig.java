@@ -0,0 +1,74 @@
+package com.talant.bootcamp.booksservice.config;
+
+import com.fasterxml.jackson.databind.cfg.ContextAttributes;
+import com.talant.bootcamp.booksservice.id.BookIdGenerator;
+import com.talant.bootcamp.booksservice.id.BookIdSerializer;
+import com.talant.bootcamp.booksservice.id.BookIdStrategy;
+import com.talant.bootcamp.booksservice.id.SnowflakeIdGenerator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Configuration of the book id strategy, shared by Hibernate and the plain SQL bulk paths
+ */
+@Configuration
+public class IdGenerationConfig {
+    
+    private static final String NEWEST_ID_SQL = "SELECT GREATEST((SELECT COALESCE(MAX(id), 0) FROM books), "
+            + "(SELECT COALESCE(MAX(book_id), 0) FROM book_tombstones))";
+    
+    /**
+     * The node id must differ between instances that write to the same database
+     */
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(@Value("${bookstore.ids.node-id:0}") int nodeId) {
+        return new SnowflakeIdGenerator(nodeId);
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer bookIdCustomizer(@Value("${bookstore.ids.strategy:POOLED_LO}") BookIdStrategy strategy,
+                                                          SnowflakeIdGenerator snowflakeIdGenerator) {
+        return properties -> {
+            if (strategy == BookIdStrategy.SNOWFLAKE) {
+                properties.put(BookIdGenerator.SNOWFLAKE_SETTING, snowflakeIdGenerator);
+            }
+        };
+    }
+    
+    /**
+     * Snowflake ids continue after the newest stored book or tombstone, so a clock that stepped
+     * back across a restart does not repeat ids. Runs once the schema exists, before any book is
+     * written, also when beans are initialized lazily.
+     */
+    @Bean
+    @Lazy(false)
+    public SmartInitializingSingleton snowflakeIdRecovery(@Value("${bookstore.ids.strategy:POOLED_LO}") BookIdStrategy strategy,
+                                                          SnowflakeIdGenerator snowflakeIdGenerator,
+                                                          JdbcTemplate jdbcTemplate) {
+        return () -> {
+            if (strategy == BookIdStrategy.SNOWFLAKE) {
+                snowflakeIdGenerator.continueAfter(jdbcTemplate.queryForObject(NEWEST_ID_SQL, Long.class));
+            }
+        };
+    }
+    
+    /**
+     * Snowflake ids are larger than JavaScript numbers hold exactly, so the application mappers
+     * write book ids as strings when they are used
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer bookIdJsonCustomizer(@Value("${bookstore.ids.strategy:POOLED_LO}") BookIdStrategy strategy) {
+        return builder -> {
+            if (strategy == BookIdStrategy.SNOWFLAKE) {
+                builder.postConfigurer(objectMapper -> objectMapper.setDefaultAttributes(
+                        ContextAttributes.getEmpty().withSharedAttribute(BookIdSerializer.AS_STRING, true)));
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.talant.bootcamp.booksservice.config;
+
+import com.talant.bootcamp.booksservice.invalidation.FileTransport;
+import com.talant.bootcamp.booksservice.invalidation.InvalidationTransport;
+import com.talant.bootcamp.booksservice.invalidation.InvalidationTransportType;
+import com.talant.bootcamp.booksservice.invalidation.LoopbackTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Transport of the cache invalidation bus. Another transport, such as a message broker, plugs in
+ * by declaring its own {@link InvalidationTransport} bean.
+ */
+@Configuration
+public class InvalidationConfig {
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public InvalidationTransport invalidationTransport(
+            @Value("${bookstore.invalidation.transport:LOOPBACK}") InvalidationTransportType type,
+            @Value("${bookstore.invalidation.channel:bookstore}") String channel,
+            @Value("${bookstore.invalidation.file:./data/invalidation.log}") Path file,
+            @Value("${bookstore.invalidation.file-max-size:16777216}") long fileMaxSize) {
+        return switch (type) {
+            case LOOPBACK -> new LoopbackTransport(channel);
+            case FILE -> new FileTransport(file.toAbsolutePath().normalize(), fileMaxSize);
+        };
+    }
+}
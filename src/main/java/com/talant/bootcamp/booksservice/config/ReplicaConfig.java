@@ -0,0 +1,94 @@
+package com.talant.bootcamp.booksservice.config;
+
+import com.talant.bootcamp.booksservice.replica.ChangeReplicator;
+import com.talant.bootcamp.booksservice.replica.ConsistencyTokenFilter;
+import com.talant.bootcamp.booksservice.replica.ReplicaReadsAspect;
+import com.talant.bootcamp.booksservice.replica.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuration for the replica profile: read-only transactions of book services run on a local
+ * H2 replica, kept in sync from the primary, and everything else on the primary
+ */
+@Configuration
+@Profile("replica")
+public class ReplicaConfig {
+    
+    /**
+     * Pool of the primary database, configured by the usual {@code spring.datasource} properties
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    /**
+     * Pool of the replica database
+     */
+    @Bean
+    public HikariDataSource replicaDataSource(
+            @Value("${bookstore.replica.url:jdbc:h2:mem:bookstore-replica;DB_CLOSE_DELAY=-1}") String url,
+            @Value("${bookstore.replica.pool-size:10}") int poolSize) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username("sa")
+                .password("")
+                .build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(poolSize);
+        return replica;
+    }
+    
+    @Bean
+    public ChangeReplicator changeReplicator(@Qualifier("primaryDataSource") DataSource primary,
+                                             @Qualifier("replicaDataSource") DataSource replica,
+                                             @Value("${bookstore.replica.batch-size:1000}") int batchSize,
+                                             @Value("${bookstore.replica.gap-grace:PT5S}") Duration gapGrace) {
+        return new ChangeReplicator(primary, replica, batchSize, gapGrace);
+    }
+    
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                      @Qualifier("replicaDataSource") DataSource replica,
+                                                      ChangeReplicator replicator,
+                                                      @Value("${bookstore.replica.max-lag:PT1S}") Duration maxLag) {
+        return new ReplicaRoutingDataSource(primary, replica, replicator, maxLag);
+    }
+    
+    /**
+     * The data source used by JPA, Flyway and JDBC. Connections are fetched on first use, once the
+     * transaction is known to be read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+    
+    @Bean
+    public ReplicaReadsAspect replicaReadsAspect(ObjectProvider<EntityManager> entityManager) {
+        return new ReplicaReadsAspect(entityManager);
+    }
+    
+    @Bean
+    public ConsistencyTokenFilter consistencyTokenFilter() {
+        return new ConsistencyTokenFilter();
+    }
+}
@@ -0,0 +1,111 @@
+package com.talant.bootcamp.booksservice.config;
+
+import com.talant.bootcamp.booksservice.id.BookIdGenerator;
+import com.talant.bootcamp.booksservice.id.BookIdStrategy;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.sharding.ShardRouter;
+import com.talant.bootcamp.booksservice.sharding.ShardRoutingDataSource;
+import com.talant.bootcamp.booksservice.sharding.ShardingAspect;
+import com.talant.bootcamp.booksservice.sharding.ShardingStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.id.SequenceMismatchStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Configuration for the sharded profile: books are partitioned across several H2 databases.
+ * Shard 0 is the usual {@code spring.datasource}; the others are opened from a URL template.
+ */
+@Configuration
+@Profile("sharded")
+public class ShardingConfig {
+    
+    /**
+     * Routes connections to the pool of the shard the call is bound to
+     */
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(
+            DataSourceProperties properties,
+            @Value("${bookstore.sharding.shards:3}") int shards,
+            @Value("${bookstore.sharding.url-template:jdbc:h2:mem:bookstore-shard-%d;DB_CLOSE_DELAY=-1}") String urlTemplate,
+            @Value("${bookstore.sharding.pool-size:10}") int poolSize) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        List<HikariDataSource> dataSources = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard == 0 ? properties.determineUrl() : urlTemplate.formatted(shard))
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            dataSource.setPoolName("shard-" + shard);
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSources.add(dataSource);
+        }
+        return new ShardRoutingDataSource(dataSources);
+    }
+    
+    /**
+     * The stock write-behind and the synthetic catalog write to shard 0 only, where the books of
+     * the other shards are not found
+     */
+    @Bean
+    public ShardRouter shardRouter(ShardRoutingDataSource shardRoutingDataSource,
+                                   @Value("${bookstore.sharding.strategy:CATEGORY}") ShardingStrategy strategy,
+                                   @Value("${bookstore.sharding.scatter-threads:16}") int scatterThreads,
+                                   @Value("${bookstore.stock.write-behind.enabled:false}") boolean writeBehind,
+                                   @Value("${bookstore.catalog.synthetic-size:0}") long syntheticSize) {
+        if (writeBehind) {
+            throw new IllegalStateException("The sharded profile does not support bookstore.stock.write-behind.enabled=true");
+        }
+        if (syntheticSize > 0) {
+            throw new IllegalStateException("The sharded profile does not support bookstore.catalog.synthetic-size");
+        }
+        return new ShardRouter(strategy, shardRoutingDataSource.getShards(), scatterThreads);
+    }
+    
+    /**
+     * The data source used by JPA and JDBC. Connections are fetched on first use, once the shard
+     * of the call is bound.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+    
+    /**
+     * Each shard reserves id blocks from its own sequence, whose increment spans the blocks of all
+     * shards. Snowflake ids would not tell the shard that created a book.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardedBookIdCustomizer(@Value("${bookstore.ids.strategy:POOLED_LO}") BookIdStrategy strategy) {
+        if (strategy != BookIdStrategy.POOLED_LO) {
+            throw new IllegalStateException("The sharded profile requires bookstore.ids.strategy=POOLED_LO");
+        }
+        return properties -> {
+            properties.put(BookIdGenerator.PARTITION_SETTING, (IntSupplier) ShardRouter::currentShard);
+            properties.put(AvailableSettings.SEQUENCE_INCREMENT_SIZE_MISMATCH_STRATEGY, SequenceMismatchStrategy.NONE);
+        };
+    }
+    
+    @Bean
+    public ShardingAspect shardingAspect(ShardRouter shardRouter, BookRepository bookRepository) {
+        return new ShardingAspect(shardRouter, bookRepository);
+    }
+}
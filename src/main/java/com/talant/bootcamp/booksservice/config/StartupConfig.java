@@ -0,0 +1,32 @@
+package com.talant.bootcamp.booksservice.config;
+
+import com.talant.bootcamp.booksservice.controller.BookController;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.service.BookService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuration for the fast-startup profile
+ */
+@Configuration
+@Profile("fast-startup")
+public class StartupConfig {
+    
+    /**
+     * Keep the book lookup path eager when lazy initialization is enabled, so the first
+     * request does not pay for creating it
+     */
+    @Bean
+    static LazyInitializationExcludeFilter bookLookupPathExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+            EntityManagerFactory.class,
+            BookRepository.class,
+            BookService.class,
+            BookController.class
+        );
+    }
+}
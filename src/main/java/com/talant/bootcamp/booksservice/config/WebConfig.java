@@ -0,0 +1,147 @@
+package com.talant.bootcamp.booksservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.talant.bootcamp.booksservice.bulkhead.BulkheadInterceptor;
+import com.talant.bootcamp.booksservice.bulkhead.Bulkheads;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.dto.BookResponseFieldsMixin;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
+import com.talant.bootcamp.booksservice.limiter.AdaptiveLimiter;
+import com.talant.bootcamp.booksservice.limiter.LimiterInterceptor;
+import com.talant.bootcamp.booksservice.monitoring.ServerTimingInterceptor;
+import com.talant.bootcamp.booksservice.monitoring.TimedMappingJackson2HttpMessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web MVC configuration
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    private final boolean serverTimingEnabled;
+    private final double serverTimingSampleRate;
+    private final boolean bulkheadsEnabled;
+    private final ObjectProvider<Bulkheads> bulkheads;
+    private final boolean limiterEnabled;
+    private final ObjectProvider<AdaptiveLimiter> limiter;
+    
+    public WebConfig(@Value("${bookstore.server-timing.enabled:true}") boolean serverTimingEnabled,
+                     @Value("${bookstore.server-timing.sample-rate:0.01}") double serverTimingSampleRate,
+                     @Value("${bookstore.bulkhead.enabled:true}") boolean bulkheadsEnabled,
+                     ObjectProvider<Bulkheads> bulkheads,
+                     @Value("${bookstore.limiter.enabled:true}") boolean limiterEnabled,
+                     ObjectProvider<AdaptiveLimiter> limiter) {
+        this.serverTimingEnabled = serverTimingEnabled;
+        this.serverTimingSampleRate = serverTimingSampleRate;
+        this.bulkheadsEnabled = bulkheadsEnabled;
+        this.bulkheads = bulkheads;
+        this.limiterEnabled = limiterEnabled;
+        this.limiter = limiter;
+    }
+    
+    /**
+     * Bind book responses to the sparse fieldset filter, serializing every field by default
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsCustomizer() {
+        return builder -> builder
+                .mixIn(BookResponse.class, BookResponseFieldsMixin.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+    
+    /**
+     * JSON converter that reports serialization time in the Server-Timing header
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedMappingJackson2HttpMessageConverter(objectMapper);
+    }
+    
+    /**
+     * CBOR converter for {@code application/cbor}
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper(builder));
+    }
+    
+    /**
+     * Smile converter for {@code application/x-jackson-smile}
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(smileObjectMapper(builder));
+    }
+    
+    /**
+     * CBOR mapper that writes repeated strings as references to their first occurrence
+     * (stringref tags) and dates as integer arrays
+     */
+    public static ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        CBORFactory factory = CBORFactory.builder()
+                .enable(CBORGenerator.Feature.STRINGREF)
+                .build();
+        return builder.factory(factory)
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+    
+    /**
+     * Smile mapper with back-references for repeated field names and short string values,
+     * and dates as integer arrays
+     */
+    public static ObjectMapper smileObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return builder.factory(factory)
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+    
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, FieldSet.class, FieldSet::parse);
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (serverTimingEnabled) {
+            registry.addInterceptor(new ServerTimingInterceptor(serverTimingSampleRate))
+                    .addPathPatterns("/api/**");
+        }
+        // The limiter runs first, so requests over the limit are rejected before they take a bulkhead permit
+        AdaptiveLimiter adaptiveLimiter = limiter.getIfAvailable();
+        if (limiterEnabled && adaptiveLimiter != null) {
+            registry.addInterceptor(new LimiterInterceptor(adaptiveLimiter))
+                    .addPathPatterns("/api/books", "/api/books/**")
+                    .excludePathPatterns("/api/books/changes", "/api/books/changes/**");
+        }
+        Bulkheads lanes = bulkheads.getIfAvailable();
+        if (bulkheadsEnabled && lanes != null) {
+            registry.addInterceptor(new BulkheadInterceptor(lanes))
+                    .addPathPatterns("/api/**");
+        }
+    }
+}
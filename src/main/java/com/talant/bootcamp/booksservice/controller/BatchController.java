@@ -0,0 +1,32 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.batch.BatchService;
+import com.talant.bootcamp.booksservice.dto.BatchRequest;
+import com.talant.bootcamp.booksservice.dto.BatchResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/_batch")
+public class BatchController {
+    
+    private final BatchService batchService;
+    
+    @Autowired
+    public BatchController(BatchService batchService) {
+        this.batchService = batchService;
+    }
+    
+    /**
+     * Execute an ordered list of sub-requests in one round trip
+     */
+    @PostMapping
+    public ResponseEntity<BatchResponse> executeBatch(@Valid @RequestBody BatchRequest batchRequest,
+                                                      HttpServletRequest request, HttpServletResponse response) {
+        return ResponseEntity.ok(batchService.execute(batchRequest, request, response));
+    }
+}
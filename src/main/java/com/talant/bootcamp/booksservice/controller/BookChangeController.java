@@ -0,0 +1,43 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.changes.ChangeFeed;
+import com.talant.bootcamp.booksservice.changes.DeltaSyncService;
+import com.talant.bootcamp.booksservice.dto.BookDeltaResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/books/changes")
+@CrossOrigin(origins = "*")
+public class BookChangeController {
+    
+    private final ChangeFeed changeFeed;
+    private final DeltaSyncService deltaSyncService;
+    
+    @Autowired
+    public BookChangeController(ChangeFeed changeFeed, DeltaSyncService deltaSyncService) {
+        this.changeFeed = changeFeed;
+        this.deltaSyncService = deltaSyncService;
+    }
+    
+    /**
+     * Get the books changed and deleted since the sync token, or the whole catalog without one
+     */
+    @GetMapping
+    public ResponseEntity<BookDeltaResponse> getChanges(@RequestParam(required = false) String since,
+                                                        @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(deltaSyncService.getChangesSince(since, limit));
+    }
+    
+    /**
+     * Stream committed catalog changes as Server-Sent Events, resuming after the Last-Event-ID header or parameter
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                                    @RequestParam(value = "lastEventId", required = false) Long lastEventId) {
+        return changeFeed.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+}
@@ -1,15 +1,27 @@
 package com.talant.bootcamp.booksservice.controller;
 
+import com.talant.bootcamp.booksservice.bulkhead.BulkheadLane;
+import com.talant.bootcamp.booksservice.bulkhead.Lane;
 import com.talant.bootcamp.booksservice.dto.BookRequest;
 import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
+import com.talant.bootcamp.booksservice.dto.IsbnLookupRequest;
 import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.pipeline.WritePipeline;
 import com.talant.bootcamp.booksservice.service.BookService;
+import com.talant.bootcamp.booksservice.stock.BufferedStockWrite;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -19,10 +31,17 @@ import java.util.List;
 public class BookController {
     
     private final BookService bookService;
+    private final WritePipeline writePipeline;
+    private final HttpMessageConverters messageConverters;
+    private final ContentNegotiationManager contentNegotiationManager;
     
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, WritePipeline writePipeline,
+                          HttpMessageConverters messageConverters, ContentNegotiationManager contentNegotiationManager) {
         this.bookService = bookService;
+        this.writePipeline = writePipeline;
+        this.messageConverters = messageConverters;
+        this.contentNegotiationManager = contentNegotiationManager;
     }
     
     /**
@@ -30,34 +49,66 @@ public class BookController {
      */
     @PostMapping
     public ResponseEntity<BookResponse> createBook(@Valid @RequestBody BookRequest bookRequest) {
-        BookResponse createdBook = bookService.createBook(bookRequest);
+        BookResponse createdBook = writePipeline.execute(() -> bookService.createBook(bookRequest));
         return ResponseEntity.status(HttpStatus.CREATED).body(createdBook);
     }
     
     /**
      * Get all books
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping
-    public ResponseEntity<List<BookResponse>> getAllBooks() {
-        List<BookResponse> books = bookService.getAllBooks();
+    public ResponseEntity<List<BookResponse>> getAllBooks(
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getAllBooks(fields);
         return ResponseEntity.ok(books);
     }
     
+    /**
+     * Get several books by ID with one query per chunk, in request order with the missing IDs listed
+     */
+    @BulkheadLane(Lane.POINT)
+    @GetMapping(params = "ids")
+    public void getBooksByIds(@RequestParam List<Long> ids,
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields,
+            NativeWebRequest request, HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
+        BookLookupWriter<Long> writer = lookupWriter(fields, request, response);
+        bookService.lookupByIds(ids, fields, writer);
+        writer.finish();
+    }
+    
+    /**
+     * Get several books by ISBN with one query per chunk, in request order with the missing ISBNs listed
+     */
+    @BulkheadLane(Lane.POINT)
+    @PostMapping("/isbn/_lookup")
+    public void getBooksByIsbns(@Valid @RequestBody IsbnLookupRequest lookupRequest,
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields,
+            NativeWebRequest request, HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
+        BookLookupWriter<String> writer = lookupWriter(fields, request, response);
+        bookService.lookupByIsbns(lookupRequest.getIsbns(), fields, writer);
+        writer.finish();
+    }
+    
     /**
      * Get book by ID
      */
+    @BulkheadLane(Lane.POINT)
     @GetMapping("/{id}")
-    public ResponseEntity<BookResponse> getBookById(@PathVariable Long id) {
-        BookResponse book = bookService.getBookById(id);
+    public ResponseEntity<BookResponse> getBookById(@PathVariable Long id,
+            @RequestParam(defaultValue = FieldSet.ALL_FIELDS) FieldSet fields) {
+        BookResponse book = bookService.getBookById(id, fields);
         return ResponseEntity.ok(book);
     }
     
     /**
      * Get book by ISBN
      */
+    @BulkheadLane(Lane.POINT)
     @GetMapping("/isbn/{isbn}")
-    public ResponseEntity<BookResponse> getBookByIsbn(@PathVariable String isbn) {
-        BookResponse book = bookService.getBookByIsbn(isbn);
+    public ResponseEntity<BookResponse> getBookByIsbn(@PathVariable String isbn,
+            @RequestParam(defaultValue = FieldSet.ALL_FIELDS) FieldSet fields) {
+        BookResponse book = bookService.getBookByIsbn(isbn, fields);
         return ResponseEntity.ok(book);
     }
     
@@ -67,7 +118,7 @@ public class BookController {
     @PutMapping("/{id}")
     public ResponseEntity<BookResponse> updateBook(@PathVariable Long id, 
                                                   @Valid @RequestBody BookRequest bookRequest) {
-        BookResponse updatedBook = bookService.updateBook(id, bookRequest);
+        BookResponse updatedBook = writePipeline.execute(() -> bookService.updateBook(id, bookRequest));
         return ResponseEntity.ok(updatedBook);
     }
     
@@ -77,141 +128,173 @@ public class BookController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
         System.out.println("Deleting book with ID: " + id);
-        bookService.deleteBook(id);
+        writePipeline.execute(() -> {
+            bookService.deleteBook(id);
+            return null;
+        });
         return ResponseEntity.noContent().build();
     }
     
     /**
      * Search books by author
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/author/{author}")
-    public ResponseEntity<List<BookResponse>> getBooksByAuthor(@PathVariable String author) {
-        List<BookResponse> books = bookService.getBooksByAuthor(author);
+    public ResponseEntity<List<BookResponse>> getBooksByAuthor(@PathVariable String author,
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksByAuthor(author, fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Search books by title
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/title/{title}")
-    public ResponseEntity<List<BookResponse>> getBooksByTitle(@PathVariable String title) {
-        List<BookResponse> books = bookService.getBooksByTitle(title);
+    public ResponseEntity<List<BookResponse>> getBooksByTitle(@PathVariable String title,
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksByTitle(title, fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Search books by category
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<BookResponse>> getBooksByCategory(@PathVariable BookCategory category) {
-        List<BookResponse> books = bookService.getBooksByCategory(category);
+    public ResponseEntity<List<BookResponse>> getBooksByCategory(@PathVariable BookCategory category,
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksByCategory(category, fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Search books with stock available
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/in-stock")
-    public ResponseEntity<List<BookResponse>> getBooksWithStock() {
-        List<BookResponse> books = bookService.getBooksWithStock();
+    public ResponseEntity<List<BookResponse>> getBooksWithStock(
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksWithStock(fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Search books without stock
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/out-of-stock")
-    public ResponseEntity<List<BookResponse>> getBooksOutOfStock() {
-        List<BookResponse> books = bookService.getBooksOutOfStock();
+    public ResponseEntity<List<BookResponse>> getBooksOutOfStock(
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksOutOfStock(fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Search books by price range
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/price-range")
     public ResponseEntity<List<BookResponse>> getBooksByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
-        List<BookResponse> books = bookService.getBooksByPriceRange(minPrice, maxPrice);
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksByPriceRange(minPrice, maxPrice, fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Search books by maximum price
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/max-price/{maxPrice}")
-    public ResponseEntity<List<BookResponse>> getBooksByMaxPrice(@PathVariable BigDecimal maxPrice) {
-        List<BookResponse> books = bookService.getBooksByMaxPrice(maxPrice);
+    public ResponseEntity<List<BookResponse>> getBooksByMaxPrice(@PathVariable BigDecimal maxPrice,
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksByMaxPrice(maxPrice, fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Search books by minimum price
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/min-price/{minPrice}")
-    public ResponseEntity<List<BookResponse>> getBooksByMinPrice(@PathVariable BigDecimal minPrice) {
-        List<BookResponse> books = bookService.getBooksByMinPrice(minPrice);
+    public ResponseEntity<List<BookResponse>> getBooksByMinPrice(@PathVariable BigDecimal minPrice,
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksByMinPrice(minPrice, fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Search books with low stock
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/low-stock")
-    public ResponseEntity<List<BookResponse>> getBooksWithLowStock() {
-        List<BookResponse> books = bookService.getBooksWithLowStock();
+    public ResponseEntity<List<BookResponse>> getBooksWithLowStock(
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksWithLowStock(fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Search books by text in title or author
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/search")
-    public ResponseEntity<List<BookResponse>> searchBooks(@RequestParam String q) {
-        List<BookResponse> books = bookService.searchBooks(q);
+    public ResponseEntity<List<BookResponse>> searchBooks(@RequestParam String q,
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.searchBooks(q, fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Get books ordered by price ascending
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/sorted/price-asc")
-    public ResponseEntity<List<BookResponse>> getBooksOrderedByPriceAsc() {
-        List<BookResponse> books = bookService.getBooksOrderedByPriceAsc();
+    public ResponseEntity<List<BookResponse>> getBooksOrderedByPriceAsc(
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksOrderedByPriceAsc(fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Get books ordered by price descending
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/sorted/price-desc")
-    public ResponseEntity<List<BookResponse>> getBooksOrderedByPriceDesc() {
-        List<BookResponse> books = bookService.getBooksOrderedByPriceDesc();
+    public ResponseEntity<List<BookResponse>> getBooksOrderedByPriceDesc(
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksOrderedByPriceDesc(fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Get books ordered by title
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/sorted/title")
-    public ResponseEntity<List<BookResponse>> getBooksOrderedByTitle() {
-        List<BookResponse> books = bookService.getBooksOrderedByTitle();
+    public ResponseEntity<List<BookResponse>> getBooksOrderedByTitle(
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksOrderedByTitle(fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Get books ordered by author
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/sorted/author")
-    public ResponseEntity<List<BookResponse>> getBooksOrderedByAuthor() {
-        List<BookResponse> books = bookService.getBooksOrderedByAuthor();
+    public ResponseEntity<List<BookResponse>> getBooksOrderedByAuthor(
+            @RequestParam(defaultValue = FieldSet.SUMMARY_FIELDS) FieldSet fields) {
+        List<BookResponse> books = bookService.getBooksOrderedByAuthor(fields);
         return ResponseEntity.ok(books);
     }
     
     /**
      * Update stock of a book
      */
+    @BufferedStockWrite
     @PatchMapping("/{id}/stock")
     public ResponseEntity<BookResponse> updateStock(@PathVariable Long id, 
                                                    @RequestParam Integer stock) {
@@ -219,9 +302,21 @@ public class BookController {
         return ResponseEntity.ok(updatedBook);
     }
     
+    /**
+     * Add a delta to the stock of a book
+     */
+    @BufferedStockWrite
+    @PatchMapping(value = "/{id}/stock", params = "delta")
+    public ResponseEntity<BookResponse> adjustStock(@PathVariable Long id,
+                                                   @RequestParam Integer delta) {
+        BookResponse updatedBook = bookService.adjustStock(id, delta);
+        return ResponseEntity.ok(updatedBook);
+    }
+    
     /**
      * Check if a book exists with the given ISBN
      */
+    @BulkheadLane(Lane.POINT)
     @GetMapping("/exists/{isbn}")
     public ResponseEntity<Boolean> existsByIsbn(@PathVariable String isbn) {
         boolean exists = bookService.existsByIsbn(isbn);
@@ -231,6 +326,7 @@ public class BookController {
     /**
      * Get book statistics by category
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/statistics/category")
     public ResponseEntity<List<Object[]>> getBookStatisticsByCategory() {
         List<Object[]> statistics = bookService.getBookStatisticsByCategory();
@@ -240,6 +336,7 @@ public class BookController {
     /**
      * Get average price by category
      */
+    @BulkheadLane(Lane.SCAN)
     @GetMapping("/statistics/average-price")
     public ResponseEntity<List<Object[]>> getAveragePriceByCategory() {
         List<Object[]> averagePrices = bookService.getAveragePriceByCategory();
@@ -254,4 +351,13 @@ public class BookController {
         BookCategory[] categories = BookCategory.values();
         return ResponseEntity.ok(categories);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Writer for a multi-get in the media type negotiated from the Accept header
+     */
+    private <K> BookLookupWriter<K> lookupWriter(FieldSet fields, NativeWebRequest request, HttpServletResponse response)
+            throws HttpMediaTypeNotAcceptableException {
+        return BookLookupWriter.negotiate(messageConverters.getConverters(),
+                contentNegotiationManager.resolveMediaTypes(request), fields, response);
+    }
+}
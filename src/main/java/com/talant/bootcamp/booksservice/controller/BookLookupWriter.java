@@ -0,0 +1,135 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
+import com.talant.bootcamp.booksservice.id.BookIdSerializer;
+import com.talant.bootcamp.booksservice.monitoring.RequestTiming;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Writes multi-get results as {@code {"books": [...], "missing": [...]}}. Books keep the request
+ * order, with null in the place of each key that was not found. Missing ids are written like the
+ * ids of the books.
+ * <p>
+ * The format is negotiated like any other book response: the first Jackson converter that can
+ * write an accepted media type lends its mapper, so clients get JSON, CBOR or Smile. Results are
+ * collected while the service reads them and written once it returns, so the read transaction
+ * does not wait on the client, and errors raised while reading still produce an error response.
+ */
+class BookLookupWriter<K> implements BiConsumer<K, BookResponse> {
+
+    private static final BookIdSerializer ID_SERIALIZER = new BookIdSerializer();
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter bookWriter;
+    private final MediaType contentType;
+    private final HttpServletResponse response;
+    private final List<K> keys = new ArrayList<>();
+    private final List<BookResponse> books = new ArrayList<>();
+
+    private BookLookupWriter(ObjectMapper objectMapper, MediaType contentType, FieldSet fields,
+                             HttpServletResponse response) {
+        this.objectMapper = objectMapper;
+        this.bookWriter = objectMapper.writer(SparseFieldsResponseAdvice.filterFor(fields))
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.contentType = contentType;
+        this.response = response;
+    }
+
+    /**
+     * Writer in the most specific accepted media type that one of the converters supports
+     *
+     * @throws HttpMediaTypeNotAcceptableException if no Jackson converter writes an accepted type
+     */
+    static <K> BookLookupWriter<K> negotiate(List<HttpMessageConverter<?>> converters, List<MediaType> accepted,
+                                             FieldSet fields, HttpServletResponse response)
+            throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> acceptable = new ArrayList<>(accepted);
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        Set<MediaType> supported = new LinkedHashSet<>();
+        for (MediaType acceptedType : acceptable) {
+            for (HttpMessageConverter<?> converter : converters) {
+                if (!(converter instanceof AbstractJackson2HttpMessageConverter jackson)) {
+                    continue;
+                }
+                supported.addAll(jackson.getSupportedMediaTypes(BookResponse.class));
+                if (jackson.canWrite(BookResponse.class, acceptedType)) {
+                    MediaType contentType = acceptedType.isConcrete()
+                            ? acceptedType
+                            : jackson.getSupportedMediaTypes(BookResponse.class).get(0);
+                    return new BookLookupWriter<>(jackson.getObjectMapper(), contentType, fields, response);
+                }
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(new ArrayList<>(supported));
+    }
+
+    @Override
+    public void accept(K key, BookResponse book) {
+        keys.add(key);
+        books.add(book);
+    }
+
+    /**
+     * Write the collected books and the missing keys. Sampled requests are serialized into a
+     * buffer first, so the Server-Timing header can include the serialization phase.
+     */
+    void finish() throws IOException {
+        response.setContentType(contentType.toString());
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            write(response.getOutputStream());
+            return;
+        }
+        timing.markHandlerComplete();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        long start = System.nanoTime();
+        write(buffer);
+        timing.add(RequestTiming.Phase.SERIALIZATION, System.nanoTime() - start);
+        response.setHeader(RequestTiming.HEADER, timing.toHeaderValue());
+        buffer.writeTo(response.getOutputStream());
+    }
+
+    private void write(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("books");
+            for (BookResponse book : books) {
+                if (book != null) {
+                    bookWriter.writeValue(generator, book);
+                } else {
+                    generator.writeNull();
+                }
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("missing");
+            for (int i = 0; i < keys.size(); i++) {
+                if (books.get(i) == null && keys.get(i) instanceof Long id) {
+                    ID_SERIALIZER.serialize(id, generator, objectMapper.getSerializerProviderInstance());
+                } else if (books.get(i) == null) {
+                    generator.writeObject(keys.get(i));
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.bulkhead.Bulkhead;
+import com.talant.bootcamp.booksservice.bulkhead.Bulkheads;
+import com.talant.bootcamp.booksservice.bulkhead.Lane;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/bulkheads")
+public class BulkheadController {
+    
+    private final Bulkheads bulkheads;
+    
+    @Autowired
+    public BulkheadController(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+    
+    /**
+     * Get the limits of each lane, the requests running and queued in it and those it rejected
+     */
+    @GetMapping
+    public ResponseEntity<Map<Lane, Bulkhead.Stats>> getStats() {
+        return ResponseEntity.ok(bulkheads.getStats());
+    }
+}
@@ -0,0 +1,35 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.cache.SecondLevelCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+public class CacheController {
+    
+    private final SecondLevelCache secondLevelCache;
+    
+    @Autowired
+    public CacheController(SecondLevelCache secondLevelCache) {
+        this.secondLevelCache = secondLevelCache;
+    }
+    
+    /**
+     * Get the hits, misses and puts of each second-level cache region and the statements still sent to the database
+     */
+    @GetMapping
+    public ResponseEntity<SecondLevelCache.Stats> getStats() {
+        return ResponseEntity.ok(secondLevelCache.getStats());
+    }
+    
+    /**
+     * Drop every cached book and query result
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> evict() {
+        secondLevelCache.evictBooks();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.coalescing.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/coalescing")
+public class CoalescingController {
+    
+    private final SingleFlight singleFlight;
+    
+    @Autowired
+    public CoalescingController(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+    
+    /**
+     * Get the executions of each coalesced read and how many concurrent calls they absorbed
+     */
+    @GetMapping
+    public ResponseEntity<List<SingleFlight.Stats>> getStats() {
+        return ResponseEntity.ok(singleFlight.getStats());
+    }
+}
@@ -0,0 +1,26 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.limiter.AdaptiveLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/concurrency-limit")
+public class ConcurrencyLimitController {
+    
+    private final AdaptiveLimiter limiter;
+    
+    @Autowired
+    public ConcurrencyLimitController(AdaptiveLimiter limiter) {
+        this.limiter = limiter;
+    }
+    
+    /**
+     * Get the current adaptive limit, the requests in flight and the requests rejected per priority
+     */
+    @GetMapping
+    public ResponseEntity<AdaptiveLimiter.Stats> getStats() {
+        return ResponseEntity.ok(limiter.getStats());
+    }
+}
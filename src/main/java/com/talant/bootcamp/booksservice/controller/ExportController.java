@@ -0,0 +1,65 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.dto.ExportResponse;
+import com.talant.bootcamp.booksservice.export.ExportFormat;
+import com.talant.bootcamp.booksservice.export.ExportService;
+import com.talant.bootcamp.booksservice.export.ZeroCopyFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+    
+    private final ExportService exportService;
+    private final ZeroCopyFileSender fileSender;
+    private final Duration retryAfter;
+    
+    @Autowired
+    public ExportController(ExportService exportService, ZeroCopyFileSender fileSender,
+                            @Value("${bookstore.export.retry-after:PT2S}") Duration retryAfter) {
+        this.exportService = exportService;
+        this.fileSender = fileSender;
+        this.retryAfter = retryAfter;
+    }
+    
+    /**
+     * Generate a new export of the catalog
+     */
+    @PostMapping("/{format}")
+    public ResponseEntity<ExportResponse> createExport(@PathVariable String format) {
+        ExportResponse export = new ExportResponse(exportService.export(ExportFormat.fromName(format)));
+        return ResponseEntity.status(HttpStatus.CREATED).body(export);
+    }
+    
+    /**
+     * Download the latest export of the catalog, with support for byte ranges. When there is none
+     * yet, answer 202 Accepted and generate it in the background, so the request does not wait
+     * for a whole export.
+     */
+    @GetMapping("/{format}")
+    public void downloadExport(@PathVariable String format, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        Optional<ExportService.ExportFile> latest = exportService.findLatest(exportFormat);
+        if (latest.isEmpty()) {
+            exportService.exportInBackground(exportFormat);
+            response.setStatus(HttpStatus.ACCEPTED.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter.toSeconds()));
+            return;
+        }
+        ExportService.ExportFile file = latest.get();
+        fileSender.send(request, response, file.path(), file.size(), file.etag(),
+                file.createdAt().toEpochMilli(), file.format().getMediaType());
+    }
+}
@@ -0,0 +1,84 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.monitoring.FlightRecordingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/jfr")
+public class FlightRecordingController {
+    
+    private static final MediaType JFR_MEDIA_TYPE = MediaType.parseMediaType("application/vnd.jfr");
+    
+    private final FlightRecordingService flightRecordingService;
+    
+    @Autowired
+    public FlightRecordingController(FlightRecordingService flightRecordingService) {
+        this.flightRecordingService = flightRecordingService;
+    }
+    
+    /**
+     * Get the state of the current recording
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(flightRecordingService.status());
+    }
+    
+    /**
+     * Start a bounded recording
+     */
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Object>> startRecording(
+            @RequestParam(required = false) Duration maxAge,
+            @RequestParam(required = false) Long maxSizeMb) {
+        return ResponseEntity.ok(flightRecordingService.start(maxAge, maxSizeMb));
+    }
+    
+    /**
+     * Stop the running recording
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<Map<String, Object>> stopRecording() {
+        return ResponseEntity.ok(flightRecordingService.stop());
+    }
+    
+    /**
+     * Download the current recording as a .jfr file
+     */
+    @GetMapping("/recording")
+    public ResponseEntity<Resource> downloadRecording() throws FileNotFoundException {
+        Path dump = flightRecordingService.dump();
+        File file = dump.toFile();
+        // The dump is a temporary file, removed once the download completes
+        InputStream content = new FilterInputStream(new FileInputStream(file)) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                file.delete();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(JFR_MEDIA_TYPE)
+                .contentLength(file.length())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("bookstore.jfr").build().toString())
+                .body(new InputStreamResource(content));
+    }
+}
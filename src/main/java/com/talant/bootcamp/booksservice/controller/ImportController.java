@@ -0,0 +1,67 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.dto.ImportJobResponse;
+import com.talant.bootcamp.booksservice.dto.ImportRequest;
+import com.talant.bootcamp.booksservice.ingest.ImportService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/imports")
+public class ImportController {
+    
+    private final ImportService importService;
+    
+    @Autowired
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+    
+    /**
+     * Start a bulk import of a file from the import directory
+     */
+    @PostMapping
+    public ResponseEntity<ImportJobResponse> startImport(@Valid @RequestBody ImportRequest importRequest) {
+        long fromOffset = importRequest.getFromOffset() != null ? importRequest.getFromOffset() : 0;
+        ImportJobResponse job = new ImportJobResponse(
+                importService.startImport(importRequest.getFile(), importRequest.getFormat(), fromOffset));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+    
+    /**
+     * Get all import jobs
+     */
+    @GetMapping
+    public ResponseEntity<List<ImportJobResponse>> getJobs() {
+        return ResponseEntity.ok(importService.getJobs().stream().map(ImportJobResponse::new).toList());
+    }
+    
+    /**
+     * Get the progress and errors of an import job
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobResponse> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(new ImportJobResponse(importService.getJob(id)));
+    }
+    
+    /**
+     * Resume a failed or cancelled import from its checkpoint
+     */
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ImportJobResponse> resumeJob(@PathVariable String id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ImportJobResponse(importService.resume(id)));
+    }
+    
+    /**
+     * Cancel a running import
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ImportJobResponse> cancelJob(@PathVariable String id) {
+        return ResponseEntity.ok(new ImportJobResponse(importService.cancel(id)));
+    }
+}
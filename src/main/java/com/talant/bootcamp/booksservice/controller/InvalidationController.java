@@ -0,0 +1,26 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.invalidation.InvalidationBus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/invalidation")
+public class InvalidationController {
+    
+    private final InvalidationBus invalidationBus;
+    
+    @Autowired
+    public InvalidationController(InvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+    
+    /**
+     * Get the invalidations this node sent and received and the evictions they caused
+     */
+    @GetMapping
+    public ResponseEntity<InvalidationBus.Stats> getStats() {
+        return ResponseEntity.ok(invalidationBus.getStats());
+    }
+}
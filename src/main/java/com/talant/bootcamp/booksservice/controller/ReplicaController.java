@@ -0,0 +1,28 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.replica.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/replica")
+@Profile("replica")
+public class ReplicaController {
+    
+    private final ReplicaRoutingDataSource routingDataSource;
+    
+    @Autowired
+    public ReplicaController(ReplicaRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+    
+    /**
+     * Get the replication watermark and lag, and how many reads the replica served
+     */
+    @GetMapping
+    public ResponseEntity<ReplicaRoutingDataSource.Stats> getStats() {
+        return ResponseEntity.ok(routingDataSource.getStats());
+    }
+}
@@ -0,0 +1,28 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.talant.bootcamp.booksservice.sharding.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/shards")
+@Profile("sharded")
+public class ShardController {
+    
+    private final ShardRouter shardRouter;
+    
+    @Autowired
+    public ShardController(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+    
+    /**
+     * Get the placement strategy, the books on each shard and how many calls were routed or scattered
+     */
+    @GetMapping
+    public ResponseEntity<ShardRouter.Stats> getStats() {
+        return ResponseEntity.ok(shardRouter.getStats());
+    }
+}
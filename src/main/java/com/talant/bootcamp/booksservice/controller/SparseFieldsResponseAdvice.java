@@ -0,0 +1,81 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.dto.BookResponseFieldsMixin;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the {@code fields} parameter to book responses of every endpoint, including writes.
+ * Only the selected properties are serialized; the filter of each field set is built once.
+ * Without the parameter, listings get the summary fields and single books every field.
+ */
+@ControllerAdvice(assignableTypes = BookController.class)
+public class SparseFieldsResponseAdvice implements ResponseBodyAdvice<Object> {
+    
+    private static final String FIELDS_PARAMETER = "fields";
+    
+    private static final Map<FieldSet, FilterProvider> FILTERS = new ConcurrentHashMap<>();
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest) || !isBookBody(body)) {
+            return body;
+        }
+        String parameter = servletRequest.getServletRequest().getParameter(FIELDS_PARAMETER);
+        FieldSet fields = parameter != null ? FieldSet.parse(parameter) : defaultFields(body);
+        if (fields.isAll()) {
+            return body;
+        }
+        MappingJacksonValue value = body instanceof MappingJacksonValue wrapped ? wrapped : new MappingJacksonValue(body);
+        value.setFilters(filterFor(fields));
+        return value;
+    }
+    
+    /**
+     * Listings leave the description out unless asked for, single books are complete
+     */
+    private static FieldSet defaultFields(Object body) {
+        Object value = body instanceof MappingJacksonValue wrapped ? wrapped.getValue() : body;
+        return value instanceof Collection<?> ? FieldSet.SUMMARY : FieldSet.ALL;
+    }
+    
+    private static boolean isBookBody(Object body) {
+        Object value = body instanceof MappingJacksonValue wrapped ? wrapped.getValue() : body;
+        if (value instanceof Collection<?> collection) {
+            return !collection.isEmpty() && collection.iterator().next() instanceof BookResponse;
+        }
+        return value instanceof BookResponse;
+    }
+    
+    /**
+     * Filter that serializes only the selected book properties
+     */
+    static FilterProvider filterFor(FieldSet fields) {
+        return FILTERS.computeIfAbsent(fields, key -> new SimpleFilterProvider()
+                .addFilter(BookResponseFieldsMixin.FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(key.getNames())));
+    }
+}
@@ -0,0 +1,68 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+import java.util.Map;
+
+/**
+ * DTO for a sub-request of a batch
+ */
+public class BatchOperation {
+    
+    @NotBlank(message = "Method is required")
+    @Pattern(regexp = "(?i)GET|POST|PUT|PATCH|DELETE", message = "Method must be GET, POST, PUT, PATCH or DELETE")
+    private String method;
+    
+    @NotBlank(message = "Path is required")
+    @Pattern(regexp = "/api/.*", message = "Path must start with /api/")
+    private String path;
+    
+    private Map<String, String> headers;
+    
+    private JsonNode body;
+    
+    // Constructors
+    public BatchOperation() {}
+    
+    public BatchOperation(String method, String path, Map<String, String> headers, JsonNode body) {
+        this.method = method;
+        this.path = path;
+        this.headers = headers;
+        this.body = body;
+    }
+    
+    // Getters and Setters
+    public String getMethod() {
+        return method;
+    }
+    
+    public void setMethod(String method) {
+        this.method = method;
+    }
+    
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+    
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+    
+    public JsonNode getBody() {
+        return body;
+    }
+    
+    public void setBody(JsonNode body) {
+        this.body = body;
+    }
+}
@@ -0,0 +1,49 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+/**
+ * DTO for the response of a sub-request of a batch
+ */
+public class BatchOperationResult {
+    
+    private int status;
+    private Map<String, String> headers;
+    private JsonNode body;
+    
+    // Constructors
+    public BatchOperationResult() {}
+    
+    public BatchOperationResult(int status, Map<String, String> headers, JsonNode body) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+    }
+    
+    // Getters and Setters
+    public int getStatus() {
+        return status;
+    }
+    
+    public void setStatus(int status) {
+        this.status = status;
+    }
+    
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+    
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+    
+    public JsonNode getBody() {
+        return body;
+    }
+    
+    public void setBody(JsonNode body) {
+        this.body = body;
+    }
+}
@@ -0,0 +1,49 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for an ordered list of sub-requests executed in one round trip
+ */
+public class BatchRequest {
+    
+    /**
+     * Most sub-requests accepted by a single batch
+     */
+    public static final int MAX_OPERATIONS = 50;
+    
+    private boolean atomic;
+    
+    @NotEmpty(message = "At least one request is required")
+    @Size(max = MAX_OPERATIONS, message = "A batch cannot have more than " + MAX_OPERATIONS + " requests")
+    private List<@Valid BatchOperation> requests;
+    
+    // Constructors
+    public BatchRequest() {}
+    
+    public BatchRequest(boolean atomic, List<BatchOperation> requests) {
+        this.atomic = atomic;
+        this.requests = requests;
+    }
+    
+    // Getters and Setters
+    public boolean isAtomic() {
+        return atomic;
+    }
+    
+    public void setAtomic(boolean atomic) {
+        this.atomic = atomic;
+    }
+    
+    public List<BatchOperation> getRequests() {
+        return requests;
+    }
+    
+    public void setRequests(List<BatchOperation> requests) {
+        this.requests = requests;
+    }
+}
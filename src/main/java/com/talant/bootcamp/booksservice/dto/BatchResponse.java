@@ -0,0 +1,47 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the responses of a batch, in request order
+ */
+public class BatchResponse {
+    
+    private boolean atomic;
+    private boolean rolledBack;
+    private List<BatchOperationResult> responses;
+    
+    // Constructors
+    public BatchResponse() {}
+    
+    public BatchResponse(boolean atomic, boolean rolledBack, List<BatchOperationResult> responses) {
+        this.atomic = atomic;
+        this.rolledBack = rolledBack;
+        this.responses = responses;
+    }
+    
+    // Getters and Setters
+    public boolean isAtomic() {
+        return atomic;
+    }
+    
+    public void setAtomic(boolean atomic) {
+        this.atomic = atomic;
+    }
+    
+    public boolean isRolledBack() {
+        return rolledBack;
+    }
+    
+    public void setRolledBack(boolean rolledBack) {
+        this.rolledBack = rolledBack;
+    }
+    
+    public List<BatchOperationResult> getResponses() {
+        return responses;
+    }
+    
+    public void setResponses(List<BatchOperationResult> responses) {
+        this.responses = responses;
+    }
+}
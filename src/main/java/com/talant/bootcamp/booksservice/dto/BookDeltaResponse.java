@@ -0,0 +1,61 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.talant.bootcamp.booksservice.id.BookIdSerializer;
+
+import java.util.List;
+
+/**
+ * DTO for the books changed and deleted since a sync token
+ */
+public class BookDeltaResponse {
+    
+    private List<BookResponse> changed;
+    @JsonSerialize(contentUsing = BookIdSerializer.class)
+    private List<Long> deleted;
+    private String nextToken;
+    private boolean hasMore;
+    
+    // Constructors
+    public BookDeltaResponse() {}
+    
+    public BookDeltaResponse(List<BookResponse> changed, List<Long> deleted, String nextToken, boolean hasMore) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters and Setters
+    public List<BookResponse> getChanged() {
+        return changed;
+    }
+    
+    public void setChanged(List<BookResponse> changed) {
+        this.changed = changed;
+    }
+    
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+    
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+    
+    public String getNextToken() {
+        return nextToken;
+    }
+    
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,43 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import java.util.Locale;
+
+/**
+ * Fields of {@link BookResponse} that can be selected with the {@code fields} parameter.
+ * The name is both the JSON property and the entity attribute.
+ */
+public enum BookField {
+    ID("id"),
+    TITLE("title"),
+    AUTHOR("author"),
+    ISBN("isbn"),
+    DESCRIPTION("description"),
+    PRICE("price"),
+    STOCK("stock"),
+    CATEGORY("category"),
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt");
+    
+    private final String fieldName;
+    
+    BookField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+    
+    public String getFieldName() {
+        return fieldName;
+    }
+    
+    /**
+     * Find a field by its name, ignoring case
+     */
+    public static BookField fromName(String name) {
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        for (BookField field : values()) {
+            if (field.fieldName.toLowerCase(Locale.ROOT).equals(normalized)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field '" + name.trim() + "'");
+    }
+}
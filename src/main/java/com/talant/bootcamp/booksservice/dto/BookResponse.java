@@ -1,5 +1,7 @@
 package com.talant.bootcamp.booksservice.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.talant.bootcamp.booksservice.id.BookIdSerializer;
 import com.talant.bootcamp.booksservice.model.Book;
 import com.talant.bootcamp.booksservice.model.BookCategory;
 import java.math.BigDecimal;
@@ -10,6 +12,7 @@ import java.time.LocalDateTime;
  */
 public class BookResponse {
     
+    @JsonSerialize(using = BookIdSerializer.class)
     private Long id;
     private String title;
     private String author;
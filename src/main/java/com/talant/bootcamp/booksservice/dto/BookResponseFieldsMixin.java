@@ -0,0 +1,13 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+/**
+ * Jackson mix-in that binds {@link BookResponse} to the sparse fieldset filter.
+ * Registered on the application mappers only, so other mappers serialize every field.
+ */
+@JsonFilter(BookResponseFieldsMixin.FILTER_ID)
+public abstract class BookResponseFieldsMixin {
+    
+    public static final String FILTER_ID = "bookFields";
+}
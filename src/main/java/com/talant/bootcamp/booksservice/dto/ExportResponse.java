@@ -0,0 +1,61 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import com.talant.bootcamp.booksservice.export.ExportFormat;
+import com.talant.bootcamp.booksservice.export.ExportService;
+import java.time.Instant;
+
+/**
+ * DTO for catalog export metadata
+ */
+public class ExportResponse {
+    
+    private ExportFormat format;
+    private String file;
+    private long size;
+    private long rows;
+    private Instant createdAt;
+    private long millis;
+    private String etag;
+    
+    // Constructors
+    public ExportResponse() {}
+    
+    public ExportResponse(ExportService.ExportFile file) {
+        this.format = file.format();
+        this.file = file.path().getFileName().toString();
+        this.size = file.size();
+        this.rows = file.rows();
+        this.createdAt = file.createdAt();
+        this.millis = file.millis();
+        this.etag = file.etag();
+    }
+    
+    // Getters
+    public ExportFormat getFormat() {
+        return format;
+    }
+    
+    public String getFile() {
+        return file;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public long getRows() {
+        return rows;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public long getMillis() {
+        return millis;
+    }
+    
+    public String getEtag() {
+        return etag;
+    }
+}
@@ -0,0 +1,117 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable selection of book fields, parsed from a comma separated list such as
+ * {@code id,title,price}. Instances are interned, so each distinct selection exists once
+ * and can be used as a cache key.
+ */
+public final class FieldSet {
+    
+    /**
+     * Parameter value that selects every field
+     */
+    public static final String ALL_FIELDS = "*";
+    
+    /**
+     * Parameter value that selects every field except the description, the default for listings
+     */
+    public static final String SUMMARY_FIELDS = "id,title,author,isbn,price,stock,category,createdAt,updatedAt";
+    
+    private static final Map<Integer, FieldSet> INTERNED = new ConcurrentHashMap<>();
+    
+    public static final FieldSet ALL = of(EnumSet.allOf(BookField.class));
+    
+    public static final FieldSet SUMMARY = parse(SUMMARY_FIELDS);
+    
+    private final int mask;
+    private final Set<BookField> fields;
+    private final Set<String> names;
+    
+    private FieldSet(int mask, EnumSet<BookField> fields) {
+        this.mask = mask;
+        this.fields = Collections.unmodifiableSet(fields);
+        Set<String> fieldNames = new LinkedHashSet<>();
+        fields.forEach(field -> fieldNames.add(field.getFieldName()));
+        this.names = Collections.unmodifiableSet(fieldNames);
+    }
+    
+    /**
+     * Parse a comma separated list of field names; blank or {@value #ALL_FIELDS} selects every field
+     *
+     * @throws IllegalArgumentException if a name is not a book field
+     */
+    public static FieldSet parse(String value) {
+        if (value == null || value.isBlank() || value.trim().equals(ALL_FIELDS)) {
+            return ALL;
+        }
+        EnumSet<BookField> fields = EnumSet.noneOf(BookField.class);
+        for (String name : value.split(",")) {
+            if (!name.isBlank()) {
+                fields.add(BookField.fromName(name));
+            }
+        }
+        return fields.isEmpty() ? ALL : of(fields);
+    }
+    
+    /**
+     * Selection of the given fields
+     */
+    public static FieldSet of(Set<BookField> fields) {
+        int mask = 0;
+        for (BookField field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return INTERNED.computeIfAbsent(mask, key -> new FieldSet(key,
+                fields.isEmpty() ? EnumSet.noneOf(BookField.class) : EnumSet.copyOf(fields)));
+    }
+    
+    /**
+     * This selection plus the given field
+     */
+    public FieldSet with(BookField field) {
+        if (contains(field)) {
+            return this;
+        }
+        EnumSet<BookField> extended = EnumSet.of(field);
+        extended.addAll(fields);
+        return of(extended);
+    }
+    
+    public boolean isAll() {
+        return fields.size() == BookField.values().length;
+    }
+    
+    public boolean contains(BookField field) {
+        return (mask & (1 << field.ordinal())) != 0;
+    }
+    
+    public Set<BookField> getFields() {
+        return fields;
+    }
+    
+    public Set<String> getNames() {
+        return names;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof FieldSet other && mask == other.mask);
+    }
+    
+    @Override
+    public int hashCode() {
+        return mask;
+    }
+    
+    @Override
+    public String toString() {
+        return isAll() ? ALL_FIELDS : String.join(",", names);
+    }
+}
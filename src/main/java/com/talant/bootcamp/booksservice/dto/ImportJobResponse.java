@@ -0,0 +1,104 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import com.talant.bootcamp.booksservice.ingest.ImportFormat;
+import com.talant.bootcamp.booksservice.ingest.ImportJob;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for bulk import job status
+ */
+public class ImportJobResponse {
+    
+    private String id;
+    private String file;
+    private ImportFormat format;
+    private ImportJob.Status status;
+    private long bytesTotal;
+    private long checkpointOffset;
+    private double progress;
+    private long recordsRead;
+    private long recordsImported;
+    private long recordsRejected;
+    private List<ImportJob.RecordError> errors;
+    private String failure;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    
+    // Constructors
+    public ImportJobResponse() {}
+    
+    public ImportJobResponse(ImportJob job) {
+        this.id = job.getId();
+        this.file = job.getFile().getFileName().toString();
+        this.format = job.getFormat();
+        this.status = job.getStatus();
+        this.bytesTotal = job.getBytesTotal();
+        this.checkpointOffset = job.getCheckpointOffset();
+        this.progress = bytesTotal == 0 ? 1.0 : (double) checkpointOffset / bytesTotal;
+        this.recordsRead = job.getRecordsRead();
+        this.recordsImported = job.getRecordsImported();
+        this.recordsRejected = job.getRecordsRejected();
+        this.errors = job.getErrors();
+        this.failure = job.getFailure();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+    }
+    
+    // Getters
+    public String getId() {
+        return id;
+    }
+    
+    public String getFile() {
+        return file;
+    }
+    
+    public ImportFormat getFormat() {
+        return format;
+    }
+    
+    public ImportJob.Status getStatus() {
+        return status;
+    }
+    
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+    
+    public long getCheckpointOffset() {
+        return checkpointOffset;
+    }
+    
+    public double getProgress() {
+        return progress;
+    }
+    
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+    
+    public long getRecordsImported() {
+        return recordsImported;
+    }
+    
+    public long getRecordsRejected() {
+        return recordsRejected;
+    }
+    
+    public List<ImportJob.RecordError> getErrors() {
+        return errors;
+    }
+    
+    public String getFailure() {
+        return failure;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
@@ -0,0 +1,53 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import com.talant.bootcamp.booksservice.ingest.ImportFormat;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * DTO for bulk import request
+ */
+public class ImportRequest {
+    
+    @NotBlank(message = "File is required")
+    private String file;
+    
+    private ImportFormat format;
+    
+    @PositiveOrZero(message = "Offset cannot be negative")
+    private Long fromOffset;
+    
+    // Constructors
+    public ImportRequest() {}
+    
+    public ImportRequest(String file, ImportFormat format, Long fromOffset) {
+        this.file = file;
+        this.format = format;
+        this.fromOffset = fromOffset;
+    }
+    
+    // Getters and Setters
+    public String getFile() {
+        return file;
+    }
+    
+    public void setFile(String file) {
+        this.file = file;
+    }
+    
+    public ImportFormat getFormat() {
+        return format;
+    }
+    
+    public void setFormat(ImportFormat format) {
+        this.format = format;
+    }
+    
+    public Long getFromOffset() {
+        return fromOffset;
+    }
+    
+    public void setFromOffset(Long fromOffset) {
+        this.fromOffset = fromOffset;
+    }
+}
@@ -0,0 +1,31 @@
+package com.talant.bootcamp.booksservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * DTO for looking up several books by ISBN
+ */
+public class IsbnLookupRequest {
+    
+    @NotEmpty(message = "At least one ISBN is required")
+    private List<@NotBlank(message = "ISBN cannot be blank") String> isbns;
+    
+    // Constructors
+    public IsbnLookupRequest() {}
+    
+    public IsbnLookupRequest(List<String> isbns) {
+        this.isbns = isbns;
+    }
+    
+    // Getters and Setters
+    public List<String> getIsbns() {
+        return isbns;
+    }
+    
+    public void setIsbns(List<String> isbns) {
+        this.isbns = isbns;
+    }
+}
@@ -0,0 +1,28 @@
+package com.talant.bootcamp.booksservice.exception;
+
+import com.talant.bootcamp.booksservice.bulkhead.Lane;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when the bulkhead of a lane has no free permit and no room in its queue
+ */
+public class BulkheadFullException extends RuntimeException {
+    
+    private final Lane lane;
+    private final Duration retryAfter;
+    
+    public BulkheadFullException(Lane lane, Duration retryAfter) {
+        super("Too many " + lane.name().toLowerCase() + " requests in progress, retry later");
+        this.lane = lane;
+        this.retryAfter = retryAfter;
+    }
+    
+    public Lane getLane() {
+        return lane;
+    }
+    
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
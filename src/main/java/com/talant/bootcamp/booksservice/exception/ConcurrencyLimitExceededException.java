@@ -0,0 +1,30 @@
+package com.talant.bootcamp.booksservice.exception;
+
+import com.talant.bootcamp.booksservice.limiter.Priority;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when the adaptive limiter has no room for a request of its priority
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    
+    private final Priority priority;
+    private final Duration retryAfter;
+    
+    public ConcurrencyLimitExceededException(Priority priority, Duration retryAfter) {
+        super(priority == Priority.LOW
+                ? "Too many bulk requests in progress, retry later"
+                : "Too many requests in progress, retry later");
+        this.priority = priority;
+        this.retryAfter = retryAfter;
+    }
+    
+    public Priority getPriority() {
+        return priority;
+    }
+    
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
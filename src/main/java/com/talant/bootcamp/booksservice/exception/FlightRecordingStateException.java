@@ -0,0 +1,11 @@
+package com.talant.bootcamp.booksservice.exception;
+
+/**
+ * Exception thrown when the on-demand JFR recording is not in the state an operation needs
+ */
+public class FlightRecordingStateException extends RuntimeException {
+    
+    public FlightRecordingStateException(String message) {
+        super(message);
+    }
+}
@@ -1,12 +1,17 @@
 package com.talant.bootcamp.booksservice.exception;
 
+import com.talant.bootcamp.booksservice.limiter.Priority;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -56,6 +61,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
     
+    /**
+     * Handle ImportJobNotFoundException
+     */
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleImportJobNotFoundException(ImportJobNotFoundException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.NOT_FOUND.value(),
+            "Import job not found",
+            ex.getMessage(),
+            null
+        );
+        
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+    
     /**
      * Handle DuplicateIsbnException
      */
@@ -72,6 +93,62 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
     }
     
+    /**
+     * Handle SyncTokenExpiredException
+     */
+    @ExceptionHandler(SyncTokenExpiredException.class)
+    public ResponseEntity<ErrorResponse> handleSyncTokenExpiredException(SyncTokenExpiredException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.GONE.value(),
+            "Sync token expired",
+            ex.getMessage(),
+            null
+        );
+        
+        return ResponseEntity.status(HttpStatus.GONE).body(errorResponse);
+    }
+    
+    /**
+     * Handle BulkheadFullException
+     */
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ErrorResponse> handleBulkheadFullException(BulkheadFullException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Service overloaded",
+            ex.getMessage(),
+            null
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+            .body(errorResponse);
+    }
+    
+    /**
+     * Handle ConcurrencyLimitExceededException, with 429 for bulk requests held back to leave room
+     * for others and 503 when the whole limit is reached
+     */
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrencyLimitExceededException(ConcurrencyLimitExceededException ex) {
+        HttpStatus status = ex.getPriority() == Priority.LOW
+            ? HttpStatus.TOO_MANY_REQUESTS
+            : HttpStatus.SERVICE_UNAVAILABLE;
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            status.value(),
+            "Concurrency limit exceeded",
+            ex.getMessage(),
+            null
+        );
+        
+        return ResponseEntity.status(status)
+            .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+            .body(errorResponse);
+    }
+    
     /**
      * Handle IllegalArgumentException
      */
@@ -88,6 +165,79 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
     
+    /**
+     * Handle request parameters that cannot be converted, such as unknown fields
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+        Throwable cause = ex.getMostSpecificCause();
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.BAD_REQUEST.value(),
+            "Invalid argument",
+            cause instanceof IllegalArgumentException ? cause.getMessage() : "Invalid value for '" + ex.getName() + "'",
+            null
+        );
+        
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+    
+    /**
+     * Handle FlightRecordingStateException
+     */
+    @ExceptionHandler(FlightRecordingStateException.class)
+    public ResponseEntity<ErrorResponse> handleFlightRecordingStateException(FlightRecordingStateException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.CONFLICT.value(),
+            "Invalid recording state",
+            ex.getMessage(),
+            null
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+    
+    /**
+     * Handle ImportJobStateException
+     */
+    @ExceptionHandler(ImportJobStateException.class)
+    public ResponseEntity<ErrorResponse> handleImportJobStateException(ImportJobStateException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.CONFLICT.value(),
+            "Invalid import job state",
+            ex.getMessage(),
+            null
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+    
+    /**
+     * Handle ShardingNotSupportedException
+     */
+    @ExceptionHandler(ShardingNotSupportedException.class)
+    public ResponseEntity<ErrorResponse> handleShardingNotSupportedException(ShardingNotSupportedException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.NOT_IMPLEMENTED.value(),
+            "Not supported on sharded storage",
+            ex.getMessage(),
+            null
+        );
+        
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(errorResponse);
+    }
+    
+    /**
+     * Handle HttpMediaTypeNotAcceptableException without a body, as none of the accepted types can carry one
+     */
+    @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+    public ResponseEntity<Void> handleHttpMediaTypeNotAcceptableException(HttpMediaTypeNotAcceptableException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+    }
+    
     /**
      * Handle general exceptions
      */
@@ -104,6 +254,13 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
     
+    /**
+     * Retry-After value in whole seconds, rounded up
+     */
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+    
     /**
      * Internal class to represent error responses
      */
@@ -0,0 +1,11 @@
+package com.talant.bootcamp.booksservice.exception;
+
+/**
+ * Exception thrown when an import job is not found
+ */
+public class ImportJobNotFoundException extends RuntimeException {
+    
+    public ImportJobNotFoundException(String id) {
+        super("Import job not found with ID: " + id);
+    }
+}
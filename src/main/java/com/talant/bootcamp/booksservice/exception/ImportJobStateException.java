@@ -0,0 +1,11 @@
+package com.talant.bootcamp.booksservice.exception;
+
+/**
+ * Exception thrown when an import job is not in the state an operation needs
+ */
+public class ImportJobStateException extends RuntimeException {
+    
+    public ImportJobStateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.talant.bootcamp.booksservice.exception;
+
+/**
+ * Exception thrown when a book operation cannot run on sharded storage
+ */
+public class ShardingNotSupportedException extends RuntimeException {
+    
+    public ShardingNotSupportedException(String message) {
+        super(message);
+    }
+}
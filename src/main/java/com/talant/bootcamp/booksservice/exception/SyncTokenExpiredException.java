@@ -0,0 +1,11 @@
+package com.talant.bootcamp.booksservice.exception;
+
+/**
+ * Exception thrown when a delta sync token is older than the tombstone retention window
+ */
+public class SyncTokenExpiredException extends RuntimeException {
+    
+    public SyncTokenExpiredException() {
+        super("Sync token expired, fetch the full catalog and start over without a token");
+    }
+}
@@ -0,0 +1,89 @@
+package com.talant.bootcamp.booksservice.export;
+
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static com.talant.bootcamp.booksservice.export.BinaryExportWriter.*;
+
+/**
+ * Reader of the binary catalog format written by {@link BinaryExportWriter}
+ */
+public final class BinaryExportReader {
+    
+    private BinaryExportReader() {}
+    
+    /**
+     * Decode every book of the stream, in file order, and return the number of books
+     *
+     * @throws IOException if the stream is not a binary catalog export or is truncated
+     */
+    public static long read(InputStream input, Consumer<Book> consumer) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        byte[] magic = in.readNBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a binary catalog export");
+        }
+        int columnCount = in.readInt();
+        for (int i = 0; i < columnCount; i++) {
+            String name = new String(in.readNBytes(in.readUnsignedShort()), StandardCharsets.UTF_8);
+            byte type = in.readByte();
+            if (i >= COLUMN_NAMES.length || !COLUMN_NAMES[i].equals(name) || COLUMN_TYPES[i] != type) {
+                throw new IOException("Unexpected column " + name + " at position " + i);
+            }
+        }
+        
+        long rows = 0;
+        DataInputStream[] columns = new DataInputStream[columnCount];
+        int blockRows;
+        while ((blockRows = in.readInt()) > 0) {
+            for (int i = 0; i < columnCount; i++) {
+                columns[i] = new DataInputStream(new ByteArrayInputStream(in.readNBytes(in.readInt())));
+            }
+            // Every column has its own stream, so a row is assembled by reading each one in turn
+            for (int row = 0; row < blockRows; row++) {
+                Book book = new Book(
+                    readString(columns[1]),
+                    readString(columns[2]),
+                    readString(columns[3]),
+                    readString(columns[4]),
+                    BigDecimal.valueOf(columns[5].readLong(), PRICE_SCALE),
+                    columns[6].readInt(),
+                    BookCategory.valueOf(readString(columns[7]))
+                );
+                book.setId(columns[0].readLong());
+                book.setCreatedAt(fromEpochMicros(columns[8].readLong()));
+                book.setUpdatedAt(fromEpochMicros(columns[9].readLong()));
+                consumer.accept(book);
+                rows++;
+            }
+        }
+        long expected = in.readLong();
+        if (expected != rows) {
+            throw new IOException("Truncated export: expected " + expected + " rows but read " + rows);
+        }
+        return rows;
+    }
+    
+    private static String readString(DataInputStream column) throws IOException {
+        int length = column.readInt();
+        return length < 0 ? null : new String(column.readNBytes(length), StandardCharsets.UTF_8);
+    }
+    
+    private static LocalDateTime fromEpochMicros(long micros) {
+        if (micros == Long.MIN_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,124 @@
+package com.talant.bootcamp.booksservice.export;
+
+import com.talant.bootcamp.booksservice.model.Book;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Length-prefixed columnar binary format. Rows are grouped in blocks and each block stores
+ * every column contiguously, so readers can skip the columns they do not need.
+ *
+ * <pre>
+ * file    := "BKX1" int:columnCount column* block* int:0 long:rowCount
+ * column  := short:nameLength name byte:type
+ * block   := int:rows section{columnCount}
+ * section := int:byteLength payload
+ * </pre>
+ *
+ * Values are big-endian. Strings are an int byte length (-1 for null) followed by UTF-8 bytes,
+ * prices are unscaled longs with scale 2, and timestamps are UTC epoch microseconds with
+ * {@link Long#MIN_VALUE} for null.
+ */
+class BinaryExportWriter implements ExportWriter {
+    
+    static final byte[] MAGIC = {'B', 'K', 'X', '1'};
+    static final int BLOCK_ROWS = 4096;
+    
+    static final byte TYPE_INT64 = 1;
+    static final byte TYPE_INT32 = 2;
+    static final byte TYPE_DECIMAL = 3;
+    static final byte TYPE_STRING = 4;
+    static final byte TYPE_TIMESTAMP = 5;
+    
+    static final String[] COLUMN_NAMES = {
+        "id", "title", "author", "isbn", "description", "price", "stock", "category", "created_at", "updated_at"
+    };
+    static final byte[] COLUMN_TYPES = {
+        TYPE_INT64, TYPE_STRING, TYPE_STRING, TYPE_STRING, TYPE_STRING, TYPE_DECIMAL, TYPE_INT32, TYPE_STRING,
+        TYPE_TIMESTAMP, TYPE_TIMESTAMP
+    };
+    static final int PRICE_SCALE = 2;
+    
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream[] sections = new ByteArrayOutputStream[COLUMN_NAMES.length];
+    private final DataOutputStream[] columns = new DataOutputStream[COLUMN_NAMES.length];
+    private int blockRows;
+    private long rowCount;
+    
+    BinaryExportWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.write(MAGIC);
+        this.out.writeInt(COLUMN_NAMES.length);
+        for (int i = 0; i < COLUMN_NAMES.length; i++) {
+            byte[] name = COLUMN_NAMES[i].getBytes(StandardCharsets.UTF_8);
+            this.out.writeShort(name.length);
+            this.out.write(name);
+            this.out.writeByte(COLUMN_TYPES[i]);
+            sections[i] = new ByteArrayOutputStream(BLOCK_ROWS * 16);
+            columns[i] = new DataOutputStream(sections[i]);
+        }
+    }
+    
+    @Override
+    public void write(Book book) throws IOException {
+        columns[0].writeLong(book.getId());
+        writeString(columns[1], book.getTitle());
+        writeString(columns[2], book.getAuthor());
+        writeString(columns[3], book.getIsbn());
+        writeString(columns[4], book.getDescription());
+        columns[5].writeLong(book.getPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        columns[6].writeInt(book.getStock());
+        writeString(columns[7], book.getCategory().name());
+        columns[8].writeLong(toEpochMicros(book.getCreatedAt()));
+        columns[9].writeLong(toEpochMicros(book.getUpdatedAt()));
+        rowCount++;
+        if (++blockRows == BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+    
+    private void flushBlock() throws IOException {
+        out.writeInt(blockRows);
+        for (ByteArrayOutputStream section : sections) {
+            out.writeInt(section.size());
+            section.writeTo(out);
+            section.reset();
+        }
+        blockRows = 0;
+    }
+    
+    private static void writeString(DataOutputStream column, String value) throws IOException {
+        if (value == null) {
+            column.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        column.writeInt(bytes.length);
+        column.write(bytes);
+    }
+    
+    private static long toEpochMicros(LocalDateTime value) {
+        if (value == null) {
+            return Long.MIN_VALUE;
+        }
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), value);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (blockRows > 0) {
+            flushBlock();
+        }
+        out.writeInt(0);
+        out.writeLong(rowCount);
+        out.flush();
+    }
+}
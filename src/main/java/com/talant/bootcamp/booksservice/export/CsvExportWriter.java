@@ -0,0 +1,86 @@
+package com.talant.bootcamp.booksservice.export;
+
+import com.talant.bootcamp.booksservice.model.Book;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 4180 CSV with a header row. The columns are a superset of what the bulk import reads,
+ * so an export can be imported back as is.
+ */
+class CsvExportWriter implements ExportWriter {
+    
+    static final String HEADER = "id,title,author,isbn,description,price,stock,category,created_at,updated_at";
+    
+    private final Writer writer;
+    
+    CsvExportWriter(OutputStream out) throws IOException {
+        this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+    
+    @Override
+    public void write(Book book) throws IOException {
+        writer.write(Long.toString(book.getId()));
+        writer.write(',');
+        writeText(book.getTitle());
+        writer.write(',');
+        writeText(book.getAuthor());
+        writer.write(',');
+        writer.write(book.getIsbn());
+        writer.write(',');
+        writeText(book.getDescription());
+        writer.write(',');
+        writer.write(book.getPrice().toPlainString());
+        writer.write(',');
+        writer.write(Integer.toString(book.getStock()));
+        writer.write(',');
+        writer.write(book.getCategory().name());
+        writer.write(',');
+        writer.write(String.valueOf(book.getCreatedAt()));
+        writer.write(',');
+        if (book.getUpdatedAt() != null) {
+            writer.write(book.getUpdatedAt().toString());
+        }
+        writer.write('\n');
+    }
+    
+    private void writeText(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!needsQuotes(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+    
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+}
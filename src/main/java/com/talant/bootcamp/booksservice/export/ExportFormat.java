@@ -0,0 +1,41 @@
+package com.talant.bootcamp.booksservice.export;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Supported catalog export formats
+ */
+public enum ExportFormat {
+    CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8")),
+    NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+    BINARY("bkx", MediaType.parseMediaType("application/vnd.bookstore.catalog"));
+    
+    private final String extension;
+    private final MediaType mediaType;
+    
+    ExportFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+    
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+    
+    /**
+     * Parse a format name, ignoring case
+     */
+    public static ExportFormat fromName(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown export format '" + name + "', expected one of csv, ndjson, binary");
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.talant.bootcamp.booksservice.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talant.bootcamp.booksservice.repository.BookJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes catalog exports to files. Rows are streamed from a read-only snapshot straight into
+ * the format writer, so memory use does not depend on the catalog size. The latest export of
+ * each format is kept on disk and served as is until a new one is generated. Exports requested
+ * by a download are generated in the background, one format at a time.
+ */
+@Service
+public class ExportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+    
+    private static final int BUFFER_SIZE = 1 << 20;
+    
+    private final BookJdbcRepository bookJdbcRepository;
+    private final TransactionTemplate snapshotTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path exportDirectory;
+    private final Map<ExportFormat, ExportFile> latest = new ConcurrentHashMap<>();
+    private final Map<ExportFormat, ExportFile> previous = new ConcurrentHashMap<>();
+    private final Map<ExportFormat, Object> locks = new EnumMap<>(ExportFormat.class);
+    private final Map<ExportFormat, AtomicBoolean> running = new EnumMap<>(ExportFormat.class);
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "export-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public ExportService(BookJdbcRepository bookJdbcRepository,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         @Value("${bookstore.export.directory:./exports}") Path exportDirectory) {
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setReadOnly(true);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.objectMapper = objectMapper;
+        this.exportDirectory = exportDirectory.toAbsolutePath().normalize();
+        for (ExportFormat format : ExportFormat.values()) {
+            locks.put(format, new Object());
+            running.put(format, new AtomicBoolean());
+        }
+    }
+    
+    /**
+     * Get the latest export of the format, if there is one on disk
+     */
+    public Optional<ExportFile> findLatest(ExportFormat format) {
+        ExportFile file = latest.get(format);
+        return file != null && Files.exists(file.path()) ? Optional.of(file) : Optional.empty();
+    }
+    
+    /**
+     * Start generating an export of the format in the background, unless one already is
+     */
+    public void exportInBackground(ExportFormat format) {
+        AtomicBoolean exporting = running.get(format);
+        if (!exporting.compareAndSet(false, true)) {
+            return;
+        }
+        background.execute(() -> {
+            try {
+                export(format);
+            } catch (RuntimeException e) {
+                log.warn("Background export to {} failed", format, e);
+            } finally {
+                exporting.set(false);
+            }
+        });
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        background.shutdownNow();
+    }
+    
+    /**
+     * Generate a new export of the format and make it the latest one
+     */
+    public ExportFile export(ExportFormat format) {
+        synchronized (locks.get(format)) {
+            long start = System.nanoTime();
+            Instant createdAt = Instant.now();
+            Path target = exportDirectory.resolve("catalog-" + createdAt.toEpochMilli() + "." + format.getExtension());
+            try {
+                Files.createDirectories(exportDirectory);
+                Path temporary = Files.createTempFile(exportDirectory, "catalog-", ".tmp");
+                long rows;
+                try {
+                    rows = writeSnapshot(format, temporary);
+                    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temporary);
+                }
+                ExportFile file = new ExportFile(format, target, Files.size(target), rows, createdAt,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                retire(format, file);
+                log.info("Exported {} books as {} to {} ({} bytes in {} ms)",
+                        rows, format, target.getFileName(), file.size(), file.millis());
+                return file;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Export to " + format + " failed", e);
+            }
+        }
+    }
+    
+    private long writeSnapshot(ExportFormat format, Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+             ExportWriter writer = newWriter(format, out)) {
+            return snapshotTemplate.execute(status -> bookJdbcRepository.streamAll(book -> {
+                try {
+                    writer.write(book);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private ExportWriter newWriter(ExportFormat format, OutputStream out) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvExportWriter(out);
+            case NDJSON -> new NdjsonExportWriter(objectMapper, out);
+            case BINARY -> new BinaryExportWriter(out);
+        };
+    }
+    
+    /**
+     * Keep the previous export around for downloads still in progress and delete the one before it
+     */
+    private void retire(ExportFormat format, ExportFile file) throws IOException {
+        ExportFile replaced = latest.put(format, file);
+        ExportFile obsolete = replaced != null ? previous.put(format, replaced) : null;
+        if (obsolete != null) {
+            Files.deleteIfExists(obsolete.path());
+        }
+    }
+    
+    /**
+     * An export written to disk
+     */
+    public record ExportFile(ExportFormat format, Path path, long size, long rows, Instant createdAt, long millis) {
+        
+        /**
+         * Strong validator of the file contents
+         */
+        public String etag() {
+            return "\"" + format.getExtension() + "-" + createdAt.toEpochMilli() + "-" + size + "\"";
+        }
+    }
+}
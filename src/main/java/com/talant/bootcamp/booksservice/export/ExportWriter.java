@@ -0,0 +1,14 @@
+package com.talant.bootcamp.booksservice.export;
+
+import com.talant.bootcamp.booksservice.model.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writer of one export format. Rows arrive in id order and are written as they are read.
+ */
+interface ExportWriter extends Closeable {
+    
+    void write(Book book) throws IOException;
+}
@@ -0,0 +1,41 @@
+package com.talant.bootcamp.booksservice.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.model.Book;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * One {@link BookResponse} JSON object per line, through a single generator for the whole file
+ */
+class NdjsonExportWriter implements ExportWriter {
+    
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+    
+    NdjsonExportWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are terminated explicitly instead of separating root values with spaces
+        this.generator.setRootValueSeparator(null);
+        this.writer = objectMapper.writerFor(BookResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(SerializationFeature.INDENT_OUTPUT);
+    }
+    
+    @Override
+    public void write(Book book) throws IOException {
+        writer.writeValue(generator, new BookResponse(book));
+        generator.writeRaw('\n');
+    }
+    
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
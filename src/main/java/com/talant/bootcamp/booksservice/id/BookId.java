@@ -0,0 +1,17 @@
+package com.talant.bootcamp.booksservice.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the id of an entity whose values come from {@link BookIdGenerator}
+ */
+@IdGeneratorType(BookIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface BookId {
+}
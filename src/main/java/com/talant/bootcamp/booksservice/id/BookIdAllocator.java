@@ -0,0 +1,48 @@
+package com.talant.bootcamp.booksservice.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Reserves ids for books inserted with plain SQL, from the same source as {@link BookIdGenerator}.
+ * With the sequence, one query reserves as many pooled-lo blocks as the batch needs.
+ */
+@Component
+public class BookIdAllocator {
+    
+    private static final String BLOCKS_SQL = "SELECT NEXT VALUE FOR " + BookIdGenerator.SEQUENCE + " FROM SYSTEM_RANGE(1, ?)";
+    
+    private final BookIdStrategy strategy;
+    private final SnowflakeIdGenerator snowflake;
+    private final JdbcTemplate jdbcTemplate;
+    
+    public BookIdAllocator(@Value("${bookstore.ids.strategy:POOLED_LO}") BookIdStrategy strategy,
+                           SnowflakeIdGenerator snowflake,
+                           JdbcTemplate jdbcTemplate) {
+        this.strategy = strategy;
+        this.snowflake = snowflake;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    public long[] allocate(int count) {
+        long[] ids = new long[count];
+        if (strategy == BookIdStrategy.SNOWFLAKE) {
+            for (int i = 0; i < count; i++) {
+                ids[i] = snowflake.nextId();
+            }
+            return ids;
+        }
+        int blocks = (count + BookIdGenerator.ALLOCATION_SIZE - 1) / BookIdGenerator.ALLOCATION_SIZE;
+        List<Long> starts = jdbcTemplate.queryForList(BLOCKS_SQL, Long.class, blocks);
+        int next = 0;
+        for (long start : starts) {
+            for (int offset = 0; offset < BookIdGenerator.ALLOCATION_SIZE && next < count; offset++) {
+                ids[next++] = start + offset;
+            }
+        }
+        return ids;
+    }
+}
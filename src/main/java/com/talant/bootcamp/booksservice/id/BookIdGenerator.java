@@ -0,0 +1,68 @@
+package com.talant.bootcamp.booksservice.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Assigns book ids before the insert, so Hibernate can batch inserts instead of reading each key
+ * back. By default ids come from the {@value #SEQUENCE} sequence with the pooled-lo optimizer: one
+ * round trip reserves the next {@value #ALLOCATION_SIZE} ids, and the stored sequence value is
+ * always the first id of the next free block, so plain SQL can reserve blocks the same way. The
+ * Hibernate settings may instead supply a {@link SnowflakeIdGenerator}, or a partition supplier
+ * that keeps a separate block per partition, so each shard hands out ids from its own sequence.
+ */
+public class BookIdGenerator extends SequenceStyleGenerator {
+    
+    public static final String SEQUENCE = "book_id_seq";
+    
+    public static final int ALLOCATION_SIZE = 50;
+    
+    /**
+     * Hibernate setting holding the {@link SnowflakeIdGenerator} used instead of the sequence
+     */
+    public static final String SNOWFLAKE_SETTING = "bookstore.ids.snowflake";
+    
+    /**
+     * Hibernate setting holding an {@link IntSupplier} of the partition the current insert goes to
+     */
+    public static final String PARTITION_SETTING = "bookstore.ids.partition";
+    
+    private final Map<Integer, Optimizer> partitionOptimizers = new ConcurrentHashMap<>();
+    private SnowflakeIdGenerator snowflake;
+    private IntSupplier partition;
+    
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        parameters.put(SEQUENCE_PARAM, SEQUENCE);
+        parameters.put(INCREMENT_PARAM, String.valueOf(ALLOCATION_SIZE));
+        parameters.put(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+        Map<String, Object> settings = serviceRegistry.requireService(ConfigurationService.class).getSettings();
+        snowflake = (SnowflakeIdGenerator) settings.get(SNOWFLAKE_SETTING);
+        partition = (IntSupplier) settings.get(PARTITION_SETTING);
+    }
+    
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (snowflake != null) {
+            return snowflake.nextId();
+        }
+        if (partition != null) {
+            Optimizer optimizer = partitionOptimizers.computeIfAbsent(partition.getAsInt(), key ->
+                    OptimizerFactory.buildOptimizer(StandardOptimizerDescriptor.POOLED_LO, Long.class, ALLOCATION_SIZE, 1));
+            return optimizer.generate(getDatabaseStructure().buildCallback(session));
+        }
+        return super.generate(session, object);
+    }
+}
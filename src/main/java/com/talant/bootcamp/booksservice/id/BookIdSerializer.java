@@ -0,0 +1,30 @@
+package com.talant.bootcamp.booksservice.id;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes book ids as numbers, or as strings on mappers whose default attributes set
+ * {@link #AS_STRING}. Snowflake ids are larger than 2^53, the largest integer a JavaScript number
+ * holds exactly, so clients in JavaScript would round them.
+ */
+public class BookIdSerializer extends StdSerializer<Long> {
+    
+    public static final String AS_STRING = "bookstore.ids.as-string";
+    
+    public BookIdSerializer() {
+        super(Long.class);
+    }
+    
+    @Override
+    public void serialize(Long id, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (Boolean.TRUE.equals(provider.getAttribute(AS_STRING))) {
+            generator.writeString(id.toString());
+        } else {
+            generator.writeNumber(id);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.talant.bootcamp.booksservice.id;
+
+/**
+ * Where new book ids come from
+ */
+public enum BookIdStrategy {
+    
+    /**
+     * Blocks of ids reserved from the {@value BookIdGenerator#SEQUENCE} sequence, one round trip per block
+     */
+    POOLED_LO,
+    
+    /**
+     * Time-ordered ids built in memory from the clock and the node id, with no round trip
+     */
+    SNOWFLAKE
+}
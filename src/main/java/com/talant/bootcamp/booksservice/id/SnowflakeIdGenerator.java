@@ -0,0 +1,70 @@
+package com.talant.bootcamp.booksservice.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered 64-bit ids: 41 bits of milliseconds since {@link #EPOCH_MILLIS}, 10 bits of node
+ * id and a 12-bit counter, so the ids of a node keep increasing and nodes with different ids never
+ * collide. When the counter of a millisecond runs out, or the clock steps back, ids continue from
+ * the last one, borrowing from the following milliseconds instead of waiting.
+ */
+public class SnowflakeIdGenerator {
+    
+    /**
+     * 2024-01-01T00:00:00Z, which leaves room for ids until 2093
+     */
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+    
+    private static final int COUNTER_BITS = 12;
+    private static final int NODE_SHIFT = COUNTER_BITS;
+    private static final int TIME_SHIFT = COUNTER_BITS + 10;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    
+    private final long node;
+    private final LongSupplier clock;
+    /**
+     * Milliseconds and counter of the last id, packed so that one increment moves to the next id
+     */
+    private final AtomicLong last = new AtomicLong();
+    
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+    
+    SnowflakeIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.node = (long) nodeId << NODE_SHIFT;
+        this.clock = clock;
+    }
+    
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << COUNTER_BITS;
+        long stamp = last.accumulateAndGet(now, (previous, current) -> Math.max(previous + 1, current));
+        return (stamp >>> COUNTER_BITS) << TIME_SHIFT | node | (stamp & COUNTER_MASK);
+    }
+    
+    /**
+     * Continue with the millisecond after the one the id was generated at, such as the newest id
+     * stored before a restart, so no id is repeated while the clock is behind it
+     */
+    public void continueAfter(long id) {
+        long stamp = (id >>> TIME_SHIFT) << COUNTER_BITS | COUNTER_MASK;
+        last.accumulateAndGet(stamp, Math::max);
+    }
+    
+    /**
+     * Epoch millis an id was generated at, or slightly later when the counter ran out
+     */
+    public static long timestampOf(long id) {
+        return (id >>> TIME_SHIFT) + EPOCH_MILLIS;
+    }
+    
+    public static int nodeOf(long id) {
+        return (int) ((id >>> NODE_SHIFT) & MAX_NODE_ID);
+    }
+}
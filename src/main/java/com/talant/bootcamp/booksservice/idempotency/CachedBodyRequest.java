@@ -0,0 +1,74 @@
+package com.talant.bootcamp.booksservice.idempotency;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request whose body was read up front to fingerprint it, and can be read again by the handler
+ */
+class CachedBodyRequest extends HttpServletRequestWrapper {
+    
+    private final byte[] body;
+    
+    CachedBodyRequest(HttpServletRequest request, byte[] body) {
+        super(request);
+        this.body = body;
+    }
+    
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream input = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            
+            @Override
+            public int read() {
+                return input.read();
+            }
+            
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                return input.read(buffer, offset, length);
+            }
+            
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+            
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+            
+            @Override
+            public void setReadListener(ReadListener listener) {
+                throw new UnsupportedOperationException("Cached request bodies are read synchronously");
+            }
+        };
+    }
+    
+    @Override
+    public BufferedReader getReader() {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+    
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+    
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+}
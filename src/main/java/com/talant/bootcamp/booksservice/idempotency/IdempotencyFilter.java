@@ -0,0 +1,190 @@
+package com.talant.bootcamp.booksservice.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talant.bootcamp.booksservice.exception.GlobalExceptionHandler.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Honours the {@code Idempotency-Key} header on POST and PATCH requests. The first request with
+ * a key runs and its response is stored; retries with the same key get the stored response
+ * without running again, and retries that arrive while it runs wait for it. Server errors are
+ * not stored, so a retry after one runs again. Neither are bodies larger than
+ * {@code bookstore.idempotency.max-response-bytes} nor responses that go on asynchronously: they
+ * are written straight to the client and their retries run again. Stored bodies are bounded as a
+ * whole by {@code bookstore.idempotency.max-bytes}.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    private final boolean enabled;
+    private final long waitTimeoutMillis;
+    private final int maxResponseBytes;
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    
+    public IdempotencyFilter(@Value("${bookstore.idempotency.enabled:true}") boolean enabled,
+                             @Value("${bookstore.idempotency.max-entries:10000}") int maxEntries,
+                             @Value("${bookstore.idempotency.max-bytes:67108864}") long maxBytes,
+                             @Value("${bookstore.idempotency.max-response-bytes:1048576}") int maxResponseBytes,
+                             @Value("${bookstore.idempotency.ttl:PT24H}") Duration ttl,
+                             @Value("${bookstore.idempotency.wait-timeout:PT30S}") Duration waitTimeout,
+                             ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+        this.maxResponseBytes = maxResponseBytes;
+        this.store = new IdempotencyStore(maxEntries, maxBytes, ttl.toNanos());
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        String contentType = request.getContentType();
+        return !enabled
+                || !("POST".equals(method) || "PATCH".equals(method))
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !request.getRequestURI().startsWith(request.getContextPath() + "/api/")
+                // Form and multipart bodies are parsed by the container and cannot be read twice
+                || (contentType != null && (contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)
+                        || contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            sendError(response, HttpStatus.BAD_REQUEST, "Invalid idempotency key",
+                    "Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = request.getInputStream().readAllBytes();
+        String fingerprint = fingerprint(request, body);
+        
+        while (true) {
+            IdempotencyStore.Claim claim = store.claim(key, fingerprint);
+            IdempotencyStore.Entry entry = claim.entry();
+            if (!entry.fingerprint().equals(fingerprint)) {
+                sendError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key reused",
+                        "Idempotency-Key was already used for a different request");
+                return;
+            }
+            if (claim.owner()) {
+                execute(new CachedBodyRequest(request, body), response, chain, key, entry);
+                return;
+            }
+            StoredResponse stored;
+            try {
+                stored = entry.response().get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                sendError(response, HttpStatus.CONFLICT, "Request in progress",
+                        "A request with this Idempotency-Key is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                stored = null;
+            }
+            if (stored != null) {
+                replay(stored, response);
+                return;
+            }
+            // The first execution was not stored, so claim the key again and run
+        }
+    }
+    
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                         String key, IdempotencyStore.Entry entry) throws ServletException, IOException {
+        RecordingResponse recordingResponse = new RecordingResponse(response, maxResponseBytes);
+        StoredResponse stored = null;
+        try {
+            chain.doFilter(request, recordingResponse);
+            recordingResponse.flush();
+            byte[] body = recordingResponse.getBody();
+            if (recordingResponse.getStatus() < 500 && body != null && !request.isAsyncStarted()) {
+                stored = new StoredResponse(recordingResponse.getStatus(), headers(recordingResponse), body);
+            }
+        } finally {
+            store.complete(key, entry, stored);
+        }
+    }
+    
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+    
+    private static Map<String, List<String>> headers(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!"Server-Timing".equalsIgnoreCase(name) && !"Content-Length".equalsIgnoreCase(name)
+                    && !"Content-Type".equalsIgnoreCase(name)) {
+                headers.put(name, new ArrayList<>(response.getHeaders(name)));
+            }
+        }
+        if (response.getContentType() != null) {
+            headers.put("Content-Type", List.of(response.getContentType()));
+        }
+        return headers;
+    }
+    
+    /**
+     * Digest of the method, URI, query and body, so a key reused for another request is detected
+     */
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private void sendError(HttpServletResponse response, HttpStatus status, String error, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(LocalDateTime.now(), status.value(), error, message, null));
+    }
+}
@@ -0,0 +1,106 @@
+package com.talant.bootcamp.booksservice.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded store of idempotency keys. Keys are kept in insertion order, so expired keys are
+ * always the oldest and are evicted from the head, as are the oldest keys once the store holds
+ * too many keys or too many bytes of stored bodies. A key is claimed before its request runs, so
+ * concurrent retries find it and wait on its future; keys whose request is still running are
+ * never evicted, even if that leaves the store over its bounds for a while.
+ */
+class IdempotencyStore {
+    
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private long storedBytes;
+    
+    IdempotencyStore(int maxEntries, long maxBytes, long ttlNanos) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttlNanos;
+    }
+    
+    /**
+     * Claim the key for a new execution, or return the entry of the execution that holds it
+     */
+    synchronized Claim claim(String key, String fingerprint) {
+        long now = System.nanoTime();
+        evictExpired(now);
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return new Claim(existing, false);
+        }
+        Entry entry = new Entry(fingerprint, new CompletableFuture<>(), now + ttlNanos);
+        entries.put(key, entry);
+        evictOverBounds();
+        return new Claim(entry, true);
+    }
+    
+    /**
+     * Complete the execution of a claimed key. A stored response is kept for the retries; without
+     * one, or with one larger than the whole byte budget, the key is forgotten, so the next retry
+     * runs again.
+     */
+    synchronized void complete(String key, Entry entry, StoredResponse stored) {
+        if (stored != null && stored.body().length > maxBytes) {
+            stored = null;
+        }
+        if (stored != null && entries.get(key) == entry) {
+            storedBytes += stored.body().length;
+        } else {
+            entries.remove(key, entry);
+        }
+        entry.response().complete(stored);
+        evictOverBounds();
+    }
+    
+    private void evictExpired(long now) {
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext()) {
+            Entry entry = oldest.next();
+            if (entry.expiresAt() - now > 0) {
+                return;
+            }
+            if (entry.response().isDone()) {
+                remove(oldest, entry);
+            }
+        }
+    }
+    
+    private void evictOverBounds() {
+        Iterator<Entry> oldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || storedBytes > maxBytes) && oldest.hasNext()) {
+            Entry entry = oldest.next();
+            if (entry.response().isDone()) {
+                remove(oldest, entry);
+            }
+        }
+    }
+    
+    private void remove(Iterator<Entry> iterator, Entry entry) {
+        iterator.remove();
+        StoredResponse stored = entry.response().getNow(null);
+        if (stored != null) {
+            storedBytes -= stored.body().length;
+        }
+    }
+    
+    /**
+     * A key with the fingerprint of its request and the future of its response. The future
+     * completes with {@code null} when the response is not stored.
+     */
+    record Entry(String fingerprint, CompletableFuture<StoredResponse> response, long expiresAt) {
+    }
+    
+    /**
+     * Entry of a key, and whether the caller claimed it and must run the request
+     */
+    record Claim(Entry entry, boolean owner) {
+    }
+}
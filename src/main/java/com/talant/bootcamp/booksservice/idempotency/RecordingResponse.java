@@ -0,0 +1,108 @@
+package com.talant.bootcamp.booksservice.idempotency;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+/**
+ * Response written through to the client as usual, keeping a copy of its body up to a limit so it
+ * can be stored for retries. Nothing is held back, so large and streamed bodies reach the client
+ * as they are written; once the copy would pass the limit it is dropped.
+ */
+class RecordingResponse extends HttpServletResponseWrapper {
+    
+    private final int maxBytes;
+    private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    
+    RecordingResponse(HttpServletResponse response, int maxBytes) {
+        super(response);
+        this.maxBytes = maxBytes;
+    }
+    
+    /**
+     * Copy of the body written so far, or null when it passed the limit
+     */
+    byte[] getBody() {
+        return copy != null ? copy.toByteArray() : null;
+    }
+    
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            ServletOutputStream target = super.getOutputStream();
+            outputStream = new ServletOutputStream() {
+                
+                @Override
+                public void write(int b) throws IOException {
+                    target.write(b);
+                    record(new byte[] {(byte) b}, 0, 1);
+                }
+                
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    target.write(bytes, offset, length);
+                    record(bytes, offset, length);
+                }
+                
+                @Override
+                public void flush() throws IOException {
+                    target.flush();
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return target.isReady();
+                }
+                
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    target.setWriteListener(listener);
+                }
+            };
+        }
+        return outputStream;
+    }
+    
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+    
+    @Override
+    public void flushBuffer() throws IOException {
+        flush();
+        super.flushBuffer();
+    }
+    
+    /**
+     * Push out what the handler left in the writer
+     */
+    void flush() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+    
+    private void record(byte[] bytes, int offset, int length) {
+        if (copy == null) {
+            return;
+        }
+        if (copy.size() + length > maxBytes) {
+            copy = null;
+            return;
+        }
+        copy.write(bytes, offset, length);
+    }
+}
@@ -0,0 +1,10 @@
+package com.talant.bootcamp.booksservice.idempotency;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response of the first execution of an idempotent request, replayed to its retries
+ */
+record StoredResponse(int status, Map<String, List<String>> headers, byte[] body) {
+}
@@ -0,0 +1,232 @@
+package com.talant.bootcamp.booksservice.ingest;
+
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * RFC 4180 CSV parser. The header names the columns (title, author, isbn, description, price,
+ * stock, category) in any order; unknown columns are ignored. Numbers and categories are decoded
+ * straight from the bytes, only the text columns become Strings.
+ */
+class CsvRecordParser implements RecordParser {
+    
+    private static final byte QUOTE = '"';
+    private static final byte SEPARATOR = ',';
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    
+    private static final int TITLE = 0;
+    private static final int AUTHOR = 1;
+    private static final int ISBN = 2;
+    private static final int DESCRIPTION = 3;
+    private static final int PRICE = 4;
+    private static final int STOCK = 5;
+    private static final int CATEGORY = 6;
+    private static final String[] FIELD_NAMES = {"title", "author", "isbn", "description", "price", "stock", "category"};
+    private static final int IGNORED = -1;
+    
+    private static final byte[][] CATEGORY_NAMES = Arrays.stream(BookCategory.values())
+            .map(category -> category.name().getBytes(StandardCharsets.US_ASCII))
+            .toArray(byte[][]::new);
+    
+    private final ThreadLocal<byte[]> scratch = new ThreadLocal<>();
+    
+    /**
+     * Field of each column, in file order
+     */
+    private volatile int[] columns;
+    
+    @Override
+    public boolean hasHeader() {
+        return true;
+    }
+    
+    @Override
+    public void readHeader(ByteBuffer window, int start, int end) {
+        String header = new String(copy(window, start, trimCarriageReturn(window, start, end)), StandardCharsets.UTF_8);
+        if (!header.isEmpty() && header.charAt(0) == '﻿') {
+            header = header.substring(1);
+        }
+        String[] names = header.split(",", -1);
+        int[] mapping = new int[names.length];
+        boolean[] present = new boolean[FIELD_NAMES.length];
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i].trim().replace("\"", "").toLowerCase(Locale.ROOT);
+            mapping[i] = Arrays.asList(FIELD_NAMES).indexOf(name);
+            if (mapping[i] != IGNORED) {
+                present[mapping[i]] = true;
+            }
+        }
+        for (int field = 0; field < FIELD_NAMES.length; field++) {
+            if (!present[field] && field != DESCRIPTION) {
+                throw new IllegalArgumentException("CSV header is missing the '" + FIELD_NAMES[field] + "' column");
+            }
+        }
+        this.columns = mapping;
+    }
+    
+    @Override
+    public int findRecordEnd(ByteBuffer window, int start, int limit) {
+        boolean quoted = false;
+        for (int i = start; i < limit; i++) {
+            byte b = window.get(i);
+            if (b == QUOTE) {
+                quoted = !quoted;
+            } else if (b == NEWLINE && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    @Override
+    public BookRequest parse(ByteBuffer window, int start, int end) {
+        int[] mapping = columns;
+        end = trimCarriageReturn(window, start, end);
+        byte[] buffer = RecordParser.scratch(scratch, end - start);
+        BookRequest request = new BookRequest();
+        
+        int position = start;
+        int column = 0;
+        while (position <= end) {
+            // Unescape the field into the scratch buffer
+            int length = 0;
+            if (position < end && window.get(position) == QUOTE) {
+                position++;
+                while (true) {
+                    if (position >= end) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    byte b = window.get(position++);
+                    if (b == QUOTE) {
+                        if (position < end && window.get(position) == QUOTE) {
+                            buffer[length++] = QUOTE;
+                            position++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        buffer[length++] = b;
+                    }
+                }
+                if (position < end && window.get(position) != SEPARATOR) {
+                    throw new IllegalArgumentException("Unexpected character after a quoted field");
+                }
+            } else {
+                while (position < end && window.get(position) != SEPARATOR) {
+                    buffer[length++] = window.get(position++);
+                }
+            }
+            
+            if (column < mapping.length && mapping[column] != IGNORED) {
+                assign(request, mapping[column], buffer, length);
+            }
+            column++;
+            position++;
+        }
+        if (column != mapping.length) {
+            throw new IllegalArgumentException("Expected " + mapping.length + " columns but found " + column);
+        }
+        return request;
+    }
+    
+    private static void assign(BookRequest request, int field, byte[] buffer, int length) {
+        switch (field) {
+            case TITLE -> request.setTitle(text(buffer, length));
+            case AUTHOR -> request.setAuthor(text(buffer, length));
+            case ISBN -> request.setIsbn(text(buffer, length));
+            case DESCRIPTION -> request.setDescription(length == 0 ? null : text(buffer, length));
+            case PRICE -> request.setPrice(length == 0 ? null : decimal(buffer, length));
+            case STOCK -> request.setStock(length == 0 ? null : integer(buffer, length));
+            case CATEGORY -> request.setCategory(length == 0 ? null : category(buffer, length));
+            default -> throw new IllegalStateException("Unknown field " + field);
+        }
+    }
+    
+    private static String text(byte[] buffer, int length) {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+    
+    private static BigDecimal decimal(byte[] buffer, int length) {
+        long unscaled = 0;
+        int scale = -1;
+        int i = 0;
+        boolean negative = buffer[0] == '-';
+        if (negative || buffer[0] == '+') {
+            i++;
+        }
+        if (i == length) {
+            throw new IllegalArgumentException("Invalid price");
+        }
+        for (; i < length; i++) {
+            byte b = buffer[i];
+            if (b == '.' && scale < 0) {
+                scale = 0;
+            } else if (b >= '0' && b <= '9' && unscaled < Long.MAX_VALUE / 10) {
+                unscaled = unscaled * 10 + (b - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else {
+                throw new IllegalArgumentException("Invalid price");
+            }
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+    
+    private static int integer(byte[] buffer, int length) {
+        long value = 0;
+        int i = 0;
+        boolean negative = buffer[0] == '-';
+        if (negative || buffer[0] == '+') {
+            i++;
+        }
+        if (i == length) {
+            throw new IllegalArgumentException("Invalid stock");
+        }
+        for (; i < length; i++) {
+            byte b = buffer[i];
+            if (b < '0' || b > '9' || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid stock");
+            }
+            value = value * 10 + (b - '0');
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("Invalid stock");
+        }
+        return (int) value;
+    }
+    
+    private static BookCategory category(byte[] buffer, int length) {
+        for (int i = 0; i < CATEGORY_NAMES.length; i++) {
+            if (Arrays.equals(CATEGORY_NAMES[i], 0, CATEGORY_NAMES[i].length, buffer, 0, length)) {
+                return BookCategory.values()[i];
+            }
+        }
+        // Fall back to case-insensitive names and display names
+        String value = text(buffer, length).trim();
+        for (BookCategory category : BookCategory.values()) {
+            if (category.name().equalsIgnoreCase(value) || category.getDisplayName().equalsIgnoreCase(value)) {
+                return category;
+            }
+        }
+        throw new IllegalArgumentException("Unknown category '" + value + "'");
+    }
+    
+    private static int trimCarriageReturn(ByteBuffer window, int start, int end) {
+        return end > start && window.get(end - 1) == CARRIAGE_RETURN ? end - 1 : end;
+    }
+    
+    private static byte[] copy(ByteBuffer window, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        window.get(start, bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,34 @@
+package com.talant.bootcamp.booksservice.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Locale;
+
+/**
+ * Supported bulk import file formats
+ */
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+    
+    RecordParser newParser(ObjectMapper objectMapper) {
+        return switch (this) {
+            case CSV -> new CsvRecordParser();
+            case NDJSON -> new NdjsonRecordParser(objectMapper);
+        };
+    }
+    
+    /**
+     * Infer the format from the file extension
+     */
+    public static ImportFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Cannot infer the import format of " + fileName + ", specify it explicitly");
+    }
+}
@@ -0,0 +1,189 @@
+package com.talant.bootcamp.booksservice.ingest;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of a bulk import. The checkpoint offset only moves over chunks that are committed
+ * together with every chunk before them, so resuming from it never skips a record.
+ */
+public class ImportJob {
+    
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+    
+    /**
+     * A rejected record and the byte offset it starts at
+     */
+    public record RecordError(long offset, String message) {}
+    
+    private final String id = UUID.randomUUID().toString();
+    private final Path file;
+    private final ImportFormat format;
+    private final int maxErrors;
+    private final AtomicLong recordsRead = new AtomicLong();
+    private final AtomicLong recordsImported = new AtomicLong();
+    private final AtomicLong recordsRejected = new AtomicLong();
+    private final List<RecordError> errors = new ArrayList<>();
+    private final Map<Long, Long> completedChunks = new TreeMap<>();
+    
+    private volatile Status status = Status.RUNNING;
+    private volatile boolean cancelRequested;
+    private volatile String chunkFailure;
+    private volatile long bytesTotal;
+    private volatile long checkpointOffset;
+    private volatile String failure;
+    private volatile LocalDateTime startedAt = LocalDateTime.now();
+    private volatile LocalDateTime finishedAt;
+    
+    ImportJob(Path file, ImportFormat format, int maxErrors) {
+        this.file = file;
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+    
+    synchronized void begin(long fromOffset, long size) {
+        this.status = Status.RUNNING;
+        this.cancelRequested = false;
+        this.chunkFailure = null;
+        this.failure = null;
+        this.finishedAt = null;
+        this.startedAt = LocalDateTime.now();
+        this.bytesTotal = size;
+        this.checkpointOffset = fromOffset;
+        this.completedChunks.clear();
+    }
+    
+    /**
+     * Mark the chunk [start, end) as committed and advance the checkpoint over every contiguous chunk
+     */
+    synchronized void completeChunk(long start, long end) {
+        completedChunks.put(start, end);
+        Long next;
+        while ((next = completedChunks.remove(checkpointOffset)) != null) {
+            checkpointOffset = next;
+        }
+    }
+    
+    void recordRead(int count) {
+        recordsRead.addAndGet(count);
+    }
+    
+    void recordImported(int count) {
+        recordsImported.addAndGet(count);
+    }
+    
+    void reject(long offset, String message) {
+        recordsRejected.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new RecordError(offset, message));
+            }
+        }
+    }
+    
+    /**
+     * Record the failure of a chunk. The job keeps running until the chunks still in flight
+     * have finished, so a resume cannot start while they are moving the checkpoint.
+     */
+    synchronized void failChunk(String failure) {
+        if (chunkFailure == null) {
+            chunkFailure = failure;
+        }
+    }
+    
+    String getChunkFailure() {
+        return chunkFailure;
+    }
+    
+    synchronized void finish(Status status, String failure) {
+        if (this.status == Status.RUNNING) {
+            this.status = status;
+            this.failure = failure;
+            this.finishedAt = LocalDateTime.now();
+        }
+    }
+    
+    void cancel() {
+        cancelRequested = true;
+    }
+    
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+    
+    /**
+     * Whether the coordinator should stop reading: the job was cancelled or a chunk failed
+     */
+    boolean isStopRequested() {
+        return cancelRequested || chunkFailure != null;
+    }
+    
+    boolean isActive() {
+        return status == Status.RUNNING;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    public ImportFormat getFormat() {
+        return format;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+    
+    public long getCheckpointOffset() {
+        return checkpointOffset;
+    }
+    
+    public long getRecordsRead() {
+        return recordsRead.get();
+    }
+    
+    public long getRecordsImported() {
+        return recordsImported.get();
+    }
+    
+    public long getRecordsRejected() {
+        return recordsRejected.get();
+    }
+    
+    public List<RecordError> getErrors() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+    
+    public String getFailure() {
+        return failure;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
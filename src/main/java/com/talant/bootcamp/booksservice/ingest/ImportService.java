@@ -0,0 +1,368 @@
+package com.talant.bootcamp.booksservice.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+import com.talant.bootcamp.booksservice.exception.ImportJobNotFoundException;
+import com.talant.bootcamp.booksservice.exception.ImportJobStateException;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.repository.BookJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of catalog files. The file is read through memory-mapped windows; record
+ * boundaries are found on the raw bytes and chunks of records are parsed, validated and
+ * upserted in parallel by a worker pool. A semaphore bounds the chunks in flight so that
+ * reading never runs ahead of the database.
+ */
+@Service
+public class ImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ImportService.class);
+    
+    private static final byte NEWLINE = '\n';
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+    
+    private final BookJdbcRepository bookJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Path importDirectory;
+    private final int windowSize;
+    private final int chunkRecords;
+    private final int threads;
+    private final int maxErrors;
+    private final ExecutorService workers;
+    private final ExecutorService coordinators;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    
+    public ImportService(BookJdbcRepository bookJdbcRepository,
+                         PlatformTransactionManager transactionManager,
+                         Validator validator,
+                         ObjectMapper objectMapper,
+                         @Value("${bookstore.import.directory:./imports}") Path importDirectory,
+                         @Value("${bookstore.import.window-size:67108864}") long windowSize,
+                         @Value("${bookstore.import.chunk-records:2000}") int chunkRecords,
+                         @Value("${bookstore.import.threads:0}") int threads,
+                         @Value("${bookstore.import.max-errors:100}") int maxErrors) {
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.importDirectory = importDirectory.toAbsolutePath().normalize();
+        this.windowSize = (int) Math.min(windowSize, MAX_WINDOW_SIZE);
+        this.chunkRecords = chunkRecords;
+        this.threads = threads > 0 ? threads : Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        this.maxErrors = maxErrors;
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "import-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.coordinators = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "import-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Start importing a file of the import directory from the given byte offset
+     */
+    public ImportJob startImport(String fileName, ImportFormat format, long fromOffset) {
+        Path file = resolve(fileName);
+        ImportJob job = new ImportJob(file, format != null ? format : ImportFormat.fromFileName(fileName), maxErrors);
+        launch(job, fromOffset);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+    
+    /**
+     * Get an import job by ID
+     */
+    public ImportJob getJob(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ImportJobNotFoundException(id);
+        }
+        return job;
+    }
+    
+    /**
+     * Get all import jobs, most recent first
+     */
+    public List<ImportJob> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(ImportJob::getStartedAt).reversed())
+                .toList();
+    }
+    
+    /**
+     * Resume a stopped job from its checkpoint
+     */
+    public ImportJob resume(String id) {
+        ImportJob job = getJob(id);
+        synchronized (job) {
+            if (job.isActive()) {
+                throw new ImportJobStateException("Import job " + id + " is still running");
+            }
+            if (job.getStatus() == ImportJob.Status.COMPLETED) {
+                throw new ImportJobStateException("Import job " + id + " has already completed");
+            }
+            launch(job, job.getCheckpointOffset());
+        }
+        return job;
+    }
+    
+    /**
+     * Request the cancellation of a running job. Chunks in flight are allowed to commit.
+     */
+    public ImportJob cancel(String id) {
+        ImportJob job = getJob(id);
+        if (!job.isActive()) {
+            throw new ImportJobStateException("Import job " + id + " is not running");
+        }
+        job.cancel();
+        return job;
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(ImportJob::cancel);
+        coordinators.shutdownNow();
+        workers.shutdownNow();
+    }
+    
+    private Path resolve(String fileName) {
+        Path file = importDirectory.resolve(fileName).normalize();
+        if (!file.startsWith(importDirectory)) {
+            throw new IllegalArgumentException("Import files must be inside the import directory");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Import file not found: " + fileName);
+        }
+        return file;
+    }
+    
+    private void launch(ImportJob job, long fromOffset) {
+        long size;
+        try {
+            size = Files.size(job.getFile());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read import file " + job.getFile().getFileName(), e);
+        }
+        if (fromOffset < 0 || fromOffset > size) {
+            throw new IllegalArgumentException("Offset must be between 0 and " + size);
+        }
+        job.begin(fromOffset, size);
+        coordinators.execute(() -> run(job, fromOffset));
+    }
+    
+    private void run(ImportJob job, long fromOffset) {
+        RecordParser parser = job.getFormat().newParser(objectMapper);
+        Semaphore inFlight = new Semaphore(threads * 2);
+        try (FileChannel channel = FileChannel.open(job.getFile(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = fromOffset;
+            if (parser.hasHeader() && size > 0) {
+                MappedByteBuffer first = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(windowSize, size));
+                int headerEnd = parser.findRecordEnd(first, 0, first.limit());
+                if (headerEnd < 0 && first.limit() < size) {
+                    throw new IllegalArgumentException("Header does not fit in the import window");
+                }
+                headerEnd = headerEnd < 0 ? first.limit() : headerEnd;
+                parser.readHeader(first, 0, headerEnd);
+                position = Math.max(position, Math.min(headerEnd + 1L, size));
+            }
+            position = alignToRecord(channel, position, size);
+            job.completeChunk(fromOffset, position);
+            
+            while (position < size && !job.isStopRequested()) {
+                long length = Math.min(windowSize, size - position);
+                boolean lastWindow = position + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int consumed = dispatchWindow(job, parser, window, position, lastWindow, inFlight);
+                if (consumed == 0) {
+                    throw new IllegalArgumentException("Record at offset " + position + " does not fit in the import window");
+                }
+                position += consumed;
+            }
+            inFlight.acquire(threads * 2);
+            if (job.getChunkFailure() != null) {
+                job.finish(ImportJob.Status.FAILED, job.getChunkFailure());
+            } else {
+                job.finish(job.isCancelRequested() ? ImportJob.Status.CANCELLED : ImportJob.Status.COMPLETED, null);
+            }
+            log.info("Import {} of {} finished as {}: {} imported, {} rejected", job.getId(), job.getFile().getFileName(),
+                    job.getStatus(), job.getRecordsImported(), job.getRecordsRejected());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(ImportJob.Status.CANCELLED, "Interrupted");
+        } catch (Exception e) {
+            inFlight.acquireUninterruptibly(threads * 2);
+            log.warn("Import {} failed at offset {}", job.getId(), job.getCheckpointOffset(), e);
+            job.finish(ImportJob.Status.FAILED, e.getMessage());
+        }
+    }
+    
+    /**
+     * Split a window into chunks of complete records and hand them to the workers.
+     * Returns the number of bytes consumed, which always ends on a record boundary.
+     */
+    private int dispatchWindow(ImportJob job, RecordParser parser, MappedByteBuffer window, long base,
+                               boolean lastWindow, Semaphore inFlight) throws InterruptedException {
+        int limit = window.limit();
+        int offset = 0;
+        int chunkStart = 0;
+        int[] bounds = new int[chunkRecords * 2];
+        int records = 0;
+        while (offset < limit && !job.isStopRequested()) {
+            int end = parser.findRecordEnd(window, offset, limit);
+            if (end < 0) {
+                if (!lastWindow) {
+                    break;
+                }
+                end = limit;
+            }
+            if (!isBlank(window, offset, end)) {
+                bounds[records * 2] = offset;
+                bounds[records * 2 + 1] = end;
+                records++;
+            }
+            offset = Math.min(end + 1, limit);
+            if (records == chunkRecords) {
+                submit(job, parser, window, base, chunkStart, offset, bounds, records, inFlight);
+                bounds = new int[chunkRecords * 2];
+                records = 0;
+                chunkStart = offset;
+            }
+        }
+        if (offset > chunkStart) {
+            submit(job, parser, window, base, chunkStart, offset, bounds, records, inFlight);
+        }
+        return offset;
+    }
+    
+    private void submit(ImportJob job, RecordParser parser, MappedByteBuffer window, long base, int chunkStart,
+                        int chunkEnd, int[] bounds, int records, Semaphore inFlight) throws InterruptedException {
+        job.recordRead(records);
+        if (records == 0) {
+            job.completeChunk(base + chunkStart, base + chunkEnd);
+            return;
+        }
+        inFlight.acquire();
+        try {
+            workers.execute(() -> {
+                try {
+                    processChunk(job, parser, window, base, bounds, records);
+                    job.completeChunk(base + chunkStart, base + chunkEnd);
+                } catch (RuntimeException e) {
+                    log.warn("Import {} chunk at offset {} failed", job.getId(), base + chunkStart, e);
+                    job.failChunk("Chunk at offset " + (base + chunkStart) + " failed: " + e.getMessage());
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+    
+    private void processChunk(ImportJob job, RecordParser parser, MappedByteBuffer window, long base,
+                              int[] bounds, int records) {
+        List<Book> books = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            int start = bounds[i * 2];
+            try {
+                BookRequest request = parser.parse(window, start, bounds[i * 2 + 1]);
+                Set<ConstraintViolation<BookRequest>> violations = validator.validate(request);
+                if (violations.isEmpty()) {
+                    books.add(toBook(request));
+                } else {
+                    job.reject(base + start, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining("; ")));
+                }
+            } catch (IllegalArgumentException e) {
+                job.reject(base + start, e.getMessage());
+            }
+        }
+        if (!books.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> bookJdbcRepository.upsertBatch(books));
+            job.recordImported(books.size());
+        }
+    }
+    
+    private static Book toBook(BookRequest request) {
+        return new Book(
+            request.getTitle(),
+            request.getAuthor(),
+            request.getIsbn(),
+            request.getDescription(),
+            request.getPrice(),
+            request.getStock(),
+            request.getCategory()
+        );
+    }
+    
+    /**
+     * Move a user supplied offset forward to the start of the next line
+     */
+    private static long alignToRecord(FileChannel channel, long position, long size) throws IOException {
+        if (position == 0 || position >= size) {
+            return position;
+        }
+        ByteBuffer single = ByteBuffer.allocate(1);
+        channel.read(single, position - 1);
+        if (single.get(0) == NEWLINE) {
+            return position;
+        }
+        while (position < size) {
+            single.clear();
+            channel.read(single, position++);
+            if (single.get(0) == NEWLINE) {
+                break;
+            }
+        }
+        return position;
+    }
+    
+    private static boolean isBlank(MappedByteBuffer window, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = window.get(i);
+            if (b != ' ' && b != '\r' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+package com.talant.bootcamp.booksservice.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Newline-delimited JSON parser: one BookRequest object per line, in the same format as the
+ * body of {@code POST /api/books}. Each record is handed to Jackson as bytes.
+ */
+class NdjsonRecordParser implements RecordParser {
+    
+    private static final byte NEWLINE = '\n';
+    
+    private final ObjectReader reader;
+    private final ThreadLocal<byte[]> scratch = new ThreadLocal<>();
+    
+    NdjsonRecordParser(ObjectMapper objectMapper) {
+        this.reader = objectMapper.readerFor(BookRequest.class);
+    }
+    
+    @Override
+    public boolean hasHeader() {
+        return false;
+    }
+    
+    @Override
+    public void readHeader(ByteBuffer window, int start, int end) {
+        // NDJSON files have no header, every line is a record
+    }
+    
+    @Override
+    public int findRecordEnd(ByteBuffer window, int start, int limit) {
+        for (int i = start; i < limit; i++) {
+            if (window.get(i) == NEWLINE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    @Override
+    public BookRequest parse(ByteBuffer window, int start, int end) {
+        int length = end - start;
+        byte[] buffer = RecordParser.scratch(scratch, length);
+        window.get(start, buffer, 0, length);
+        try {
+            return reader.readValue(buffer, 0, length);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON record: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON record", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.talant.bootcamp.booksservice.ingest;
+
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parser of the records of an import file, working directly on the bytes of a mapped window.
+ * Implementations must be safe for concurrent use: they only use absolute reads on the buffer.
+ */
+interface RecordParser {
+    
+    /**
+     * Whether the first record of the file is a header
+     */
+    boolean hasHeader();
+    
+    /**
+     * Read the header record
+     */
+    void readHeader(ByteBuffer window, int start, int end);
+    
+    /**
+     * Index of the newline that terminates the record starting at {@code start}, or -1 when the
+     * record does not end before {@code limit}
+     */
+    int findRecordEnd(ByteBuffer window, int start, int limit);
+    
+    /**
+     * Parse the record between {@code start} (inclusive) and {@code end} (exclusive)
+     *
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    BookRequest parse(ByteBuffer window, int start, int end);
+    
+    /**
+     * Per-thread scratch buffer that records are copied into before decoding
+     */
+    static byte[] scratch(ThreadLocal<byte[]> holder, int length) {
+        byte[] scratch = holder.get();
+        if (scratch == null || scratch.length < length) {
+            scratch = new byte[Math.max(length, 1024)];
+            holder.set(scratch);
+        }
+        return scratch;
+    }
+}
@@ -0,0 +1,175 @@
+package com.talant.bootcamp.booksservice.invalidation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Shares messages through a log file that every node on the host appends to and tails, so
+ * instances started as separate processes see each other's changes. Each message is one line
+ * written with a single append. A node reads only the lines appended after it opened the file.
+ * <p>
+ * Once the log reaches its maximum size, the node that fills it renames it to {@code <file>.1},
+ * replacing the previous one, and starts a new log. Appends hold a shared lock on
+ * {@code <file>.lock} and the rotation an exclusive one, so every line of the old log is written
+ * before it is renamed. Readers finish the old log before they move to the new one. Rotation needs
+ * a file system that reports file keys, as POSIX file systems do; elsewhere the log is never
+ * rotated.
+ */
+public class FileTransport implements InvalidationTransport {
+    
+    /**
+     * File locks are held by the whole JVM, so transports of one JVM sharing a log take turns
+     * before locking it
+     */
+    private static final Map<Path, Object> WRITE_LOCKS = new ConcurrentHashMap<>();
+    
+    private final Path path;
+    private final Path rotatedPath;
+    private final Path lockPath;
+    private final long maxSize;
+    private final Object writeLock;
+    private FileChannel locks;
+    private FileChannel writer;
+    private Object writerKey;
+    private FileChannel reader;
+    private Object readerKey;
+    private Consumer<InvalidationMessage> receiver;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private final StringBuilder partial = new StringBuilder();
+    
+    public FileTransport(Path path, long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The maximum size of the invalidation log must be positive");
+        }
+        this.path = path;
+        this.rotatedPath = path.resolveSibling(path.getFileName() + ".1");
+        this.lockPath = path.resolveSibling(path.getFileName() + ".lock");
+        this.maxSize = maxSize;
+        this.writeLock = WRITE_LOCKS.computeIfAbsent(lockPath, key -> new Object());
+    }
+    
+    @Override
+    public synchronized void open(Consumer<InvalidationMessage> receiver) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        locks = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        synchronized (writeLock) {
+            try (FileLock lock = locks.lock(0, Long.MAX_VALUE, true)) {
+                openWriter();
+                reader = FileChannel.open(path, StandardOpenOption.READ);
+                readerKey = writerKey;
+            }
+        }
+        reader.position(reader.size());
+        this.receiver = receiver;
+    }
+    
+    @Override
+    public void send(InvalidationMessage message) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((message.encode() + '\n').getBytes(StandardCharsets.UTF_8));
+        synchronized (writeLock) {
+            try (FileLock lock = locks.lock(0, Long.MAX_VALUE, true)) {
+                if (!Objects.equals(writerKey, fileKey(path))) {
+                    openWriter();
+                }
+                while (line.hasRemaining()) {
+                    writer.write(line);
+                }
+            }
+            if (writerKey != null && writer.size() >= maxSize) {
+                rotate();
+            }
+        }
+    }
+    
+    /**
+     * Read the complete lines appended since the last poll; a line still being written is kept
+     * until the next one. After a rotation the rest of the old log is read first.
+     */
+    @Override
+    public synchronized void poll() throws IOException {
+        if (reader == null) {
+            return;
+        }
+        Object currentKey = fileKey(path);
+        drain();
+        if (currentKey != null && !currentKey.equals(readerKey)) {
+            reader.close();
+            partial.setLength(0);
+            reader = FileChannel.open(path, StandardOpenOption.READ);
+            readerKey = currentKey;
+            drain();
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        synchronized (writeLock) {
+            if (writer != null) {
+                writer.close();
+                reader.close();
+                locks.close();
+                reader = null;
+            }
+        }
+    }
+    
+    /**
+     * Rename the full log unless another node already has, and append to the new one
+     */
+    private void rotate() throws IOException {
+        try (FileLock lock = locks.lock()) {
+            if (Objects.equals(writerKey, fileKey(path)) && writer.size() >= maxSize) {
+                Files.move(path, rotatedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            openWriter();
+        }
+    }
+    
+    /**
+     * Open the current log for appending; called while holding a lock, so it is not rotated meanwhile
+     */
+    private void openWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+        writer = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        writerKey = fileKey(path);
+    }
+    
+    private void drain() throws IOException {
+        while (reader.read(buffer.clear()) > 0) {
+            partial.append(StandardCharsets.UTF_8.decode(buffer.flip()));
+            int end;
+            while ((end = partial.indexOf("\n")) >= 0) {
+                String line = partial.substring(0, end);
+                partial.delete(0, end + 1);
+                if (!line.isBlank()) {
+                    receiver.accept(InvalidationMessage.decode(line));
+                }
+            }
+        }
+    }
+    
+    private static Object fileKey(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.talant.bootcamp.booksservice.invalidation;
+
+import com.talant.bootcamp.booksservice.cache.SecondLevelCache;
+import com.talant.bootcamp.booksservice.changes.BookChangedEvent;
+import com.talant.bootcamp.booksservice.changes.BulkBooksChangedEvent;
+import com.talant.bootcamp.booksservice.model.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the book caches of several nodes consistent. Once a transaction that changed a book
+ * commits, the node broadcasts which book changed and its change sequence at that point; every
+ * other node evicts exactly that book from its second-level cache, along with the cached query
+ * results, which may list it. Small bulk writes publish a change per book and are broadcast the
+ * same way; larger ones are broadcast as a single message that evicts every book.
+ * <p>
+ * The version of each book is remembered, so a copy that a slower load stores in the cache after
+ * the eviction is dropped as soon as it is loaded.
+ */
+@Component
+public class InvalidationBus implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+    
+    /**
+     * Books whose last received version is remembered, beyond which the least recently changed are
+     * forgotten
+     */
+    private static final int MAX_TRACKED_BOOKS = 10_000;
+    
+    private final boolean enabled;
+    private final String nodeId;
+    private final InvalidationTransport transport;
+    private final SecondLevelCache secondLevelCache;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong evictedBooks = new AtomicLong();
+    private final AtomicLong evictedAll = new AtomicLong();
+    private final AtomicLong staleLoads = new AtomicLong();
+    private final Map<Long, Long> receivedVersions = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > MAX_TRACKED_BOOKS;
+        }
+    };
+    private volatile long lastReceivedVersion;
+    private volatile boolean running;
+    
+    public InvalidationBus(@Value("${bookstore.invalidation.enabled:false}") boolean enabled,
+                           @Value("${bookstore.invalidation.node-id:}") String nodeId,
+                           InvalidationTransport transport,
+                           SecondLevelCache secondLevelCache) {
+        if (nodeId.chars().anyMatch(Character::isWhitespace)) {
+            throw new IllegalArgumentException("The node id cannot contain spaces");
+        }
+        this.enabled = enabled;
+        this.nodeId = nodeId.isEmpty() ? UUID.randomUUID().toString() : nodeId;
+        this.transport = transport;
+        this.secondLevelCache = secondLevelCache;
+        if (enabled) {
+            secondLevelCache.addLoadListener(this::onBookLoaded);
+        }
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    /**
+     * Broadcast a committed change of one book
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!running) {
+            return;
+        }
+        send(new InvalidationMessage(nodeId, event.bookId(), event.version() != null ? event.version() : 0));
+    }
+    
+    /**
+     * Broadcast a committed bulk write, which may have changed any book. Its rows are not read
+     * back, so the message carries no version.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBulkBooksChanged(BulkBooksChangedEvent event) {
+        if (!running) {
+            return;
+        }
+        send(InvalidationMessage.allBooks(nodeId, 0));
+    }
+    
+    /**
+     * Deliver the messages of transports that are polled
+     */
+    @Scheduled(fixedDelayString = "${bookstore.invalidation.poll-interval:PT0.05S}")
+    public void poll() {
+        if (!running) {
+            return;
+        }
+        try {
+            transport.poll();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Polling for cache invalidations failed, retrying on the next poll", e);
+        }
+    }
+    
+    public Stats getStats() {
+        return new Stats(nodeId, sent.get(), received.get(), evictedBooks.get(), evictedAll.get(),
+                staleLoads.get(), lastReceivedVersion);
+    }
+    
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            transport.open(this::receive);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the invalidation transport", e);
+        }
+        running = true;
+    }
+    
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            transport.close();
+        } catch (IOException e) {
+            log.warn("Could not close the invalidation transport", e);
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    void receive(InvalidationMessage message) {
+        if (message.origin().equals(nodeId)) {
+            return;
+        }
+        received.incrementAndGet();
+        lastReceivedVersion = Math.max(lastReceivedVersion, message.version());
+        if (message.isAllBooks()) {
+            secondLevelCache.evictBooksNow();
+            evictedAll.incrementAndGet();
+        } else {
+            synchronized (receivedVersions) {
+                Long previous = receivedVersions.remove(message.bookId());
+                receivedVersions.put(message.bookId(),
+                        previous != null ? Math.max(previous, message.version()) : message.version());
+            }
+            secondLevelCache.evictBook(message.bookId());
+            evictedBooks.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Drop a copy of a book older than the last version another node announced for it. A load that
+     * read the row before that change may store its copy in the cache after the eviction, which
+     * would otherwise stay stale until it expires.
+     */
+    void onBookLoaded(Book book) {
+        if (!running || book.getChangeSeq() == null) {
+            return;
+        }
+        Long version;
+        synchronized (receivedVersions) {
+            version = receivedVersions.get(book.getId());
+        }
+        if (version != null && book.getChangeSeq() < version) {
+            secondLevelCache.evictBooks(List.of(book.getId()));
+            staleLoads.incrementAndGet();
+        }
+    }
+    
+    /**
+     * A failed broadcast leaves the other nodes stale until their cache entries expire, so it is
+     * logged rather than failing a change that is already committed
+     */
+    private void send(InvalidationMessage message) {
+        try {
+            transport.send(message);
+            sent.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not broadcast the cache invalidation {}", message.encode(), e);
+        }
+    }
+    
+    /**
+     * Messages sent and received, the evictions they caused, the stale copies dropped after they
+     * were loaded and the highest version received
+     */
+    public record Stats(String nodeId, long sent, long received, long evictedBooks, long evictedAll,
+                        long staleLoads, long lastReceivedVersion) {
+    }
+}
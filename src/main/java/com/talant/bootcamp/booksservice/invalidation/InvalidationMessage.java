@@ -0,0 +1,37 @@
+package com.talant.bootcamp.booksservice.invalidation;
+
+/**
+ * "Book X changed at version V", sent by the node that committed the change. The version is the
+ * change sequence of the book after the change, or of its tombstone once deleted. A message
+ * without a book id means that any book may have changed, after a bulk write.
+ *
+ * @param origin id of the sending node, so it can skip its own messages
+ */
+public record InvalidationMessage(String origin, Long bookId, long version) {
+    
+    private static final String ALL_BOOKS = "*";
+    
+    public static InvalidationMessage allBooks(String origin, long version) {
+        return new InvalidationMessage(origin, null, version);
+    }
+    
+    public boolean isAllBooks() {
+        return bookId == null;
+    }
+    
+    /**
+     * One line of text: origin, book id (or {@code *}) and version separated by spaces
+     */
+    public String encode() {
+        return origin + ' ' + (bookId != null ? bookId.toString() : ALL_BOOKS) + ' ' + version;
+    }
+    
+    public static InvalidationMessage decode(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length != 3 || parts[0].isEmpty()) {
+            throw new IllegalArgumentException("Malformed invalidation message: " + line);
+        }
+        Long bookId = ALL_BOOKS.equals(parts[1]) ? null : Long.valueOf(parts[1]);
+        return new InvalidationMessage(parts[0], bookId, Long.parseLong(parts[2]));
+    }
+}
@@ -0,0 +1,26 @@
+package com.talant.bootcamp.booksservice.invalidation;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation messages between the nodes of the service. Every message sent by one node
+ * reaches the receivers of all nodes, including its own.
+ */
+public interface InvalidationTransport {
+    
+    /**
+     * Start delivering the messages sent from now on to the receiver
+     */
+    void open(Consumer<InvalidationMessage> receiver) throws IOException;
+    
+    void send(InvalidationMessage message) throws IOException;
+    
+    /**
+     * Deliver the messages that arrived since the last poll, for transports that are not pushed
+     */
+    default void poll() throws IOException {
+    }
+    
+    void close() throws IOException;
+}
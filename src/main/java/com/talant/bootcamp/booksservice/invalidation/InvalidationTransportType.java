@@ -0,0 +1,15 @@
+package com.talant.bootcamp.booksservice.invalidation;
+
+/**
+ * Built-in transports of the invalidation bus
+ */
+public enum InvalidationTransportType {
+    /**
+     * Nodes in the same JVM, see {@link LoopbackTransport}
+     */
+    LOOPBACK,
+    /**
+     * Nodes on the same host, see {@link FileTransport}
+     */
+    FILE
+}
@@ -0,0 +1,41 @@
+package com.talant.bootcamp.booksservice.invalidation;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Delivers messages to every node in the same JVM that opened the same channel, on the sending
+ * thread. Meant for running several application contexts side by side in tests.
+ */
+public class LoopbackTransport implements InvalidationTransport {
+    
+    private static final Map<String, Set<Consumer<InvalidationMessage>>> CHANNELS = new ConcurrentHashMap<>();
+    
+    private final String channel;
+    private Consumer<InvalidationMessage> receiver;
+    
+    public LoopbackTransport(String channel) {
+        this.channel = channel;
+    }
+    
+    @Override
+    public void open(Consumer<InvalidationMessage> receiver) {
+        this.receiver = receiver;
+        CHANNELS.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet()).add(receiver);
+    }
+    
+    @Override
+    public void send(InvalidationMessage message) {
+        CHANNELS.getOrDefault(channel, Set.of()).forEach(receiver -> receiver.accept(message));
+    }
+    
+    @Override
+    public void close() {
+        CHANNELS.computeIfPresent(channel, (key, receivers) -> {
+            receivers.remove(receiver);
+            return receivers.isEmpty() ? null : receivers;
+        });
+    }
+}
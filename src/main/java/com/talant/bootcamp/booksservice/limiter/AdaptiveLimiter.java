@@ -0,0 +1,183 @@
+package com.talant.bootcamp.booksservice.limiter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to the observed latency, after TCP Vegas. The lowest latency seen
+ * for each route is taken as its latency without queueing, so cheap lookups and slower writes are
+ * each compared with themselves. The limit times the share of extra latency estimates how many
+ * requests are queued somewhere. While that queue is short the limit grows, once it is long or
+ * requests fail with a server error the limit shrinks. Requests over the limit are rejected at
+ * once instead of waiting for a thread or a connection.
+ * <p>
+ * Only one request at a time adjusts the limit. A request that finds another one adjusting it skips
+ * its sample rather than waiting, as the limit follows the trend of many samples.
+ */
+@Component
+public class AdaptiveLimiter {
+    
+    /**
+     * The latency without load is measured again after this many samples per unit of limit
+     */
+    private static final int PROBE_MULTIPLIER = 30;
+    
+    /**
+     * Routes whose unloaded latency is tracked, beyond which the least recently probed are dropped
+     */
+    private static final int MAX_ROUTES = 1024;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double lowPriorityShare;
+    private final Duration retryAfter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejectedHigh = new LongAdder();
+    private final LongAdder rejectedLow = new LongAdder();
+    private final Map<Object, Baseline> baselines = new LinkedHashMap<>();
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private double estimatedLimit;
+    private volatile int limit;
+    
+    public AdaptiveLimiter(@Value("${bookstore.limiter.initial-limit:64}") int initialLimit,
+                           @Value("${bookstore.limiter.min-limit:32}") int minLimit,
+                           @Value("${bookstore.limiter.max-limit:256}") int maxLimit,
+                           @Value("${bookstore.limiter.low-priority-share:0.75}") double lowPriorityShare,
+                           @Value("${bookstore.limiter.retry-after:PT1S}") Duration retryAfter) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("The limits must satisfy 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        if (lowPriorityShare <= 0 || lowPriorityShare > 1) {
+            throw new IllegalArgumentException("The low priority share must be in (0, 1]");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.lowPriorityShare = lowPriorityShare;
+        this.retryAfter = retryAfter;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+    
+    /**
+     * How long a rejected client should wait before retrying
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+    
+    /**
+     * Admit a request if the requests in flight are below the limit of its priority. An admitted
+     * request must report its latency with {@link #release(Object, long, boolean)}.
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = priority == Priority.HIGH ? limit : lowPriorityLimit(limit);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                (priority == Priority.HIGH ? rejectedHigh : rejectedLow).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Finish an admitted request and adjust the limit to its latency compared with the unloaded
+     * latency of its route
+     */
+    public void release(Object route, long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        if (updateLock.tryLock()) {
+            try {
+                update(route, Math.max(1, rttNanos), current, dropped);
+            } finally {
+                updateLock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Finish an admitted request without a latency sample, for a request whose response goes on
+     * asynchronously and so says nothing about the latency of its route
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+    
+    public Stats getStats() {
+        int currentLimit = limit;
+        return new Stats(currentLimit, lowPriorityLimit(currentLimit), inFlight.get(),
+                rejectedHigh.sum(), rejectedLow.sum());
+    }
+    
+    private void update(Object route, long rttNanos, int inFlightAtSample, boolean dropped) {
+        Baseline baseline = baselines.get(route);
+        if (baseline == null || --baseline.samplesUntilProbe <= 0) {
+            // Measure again, as the data or the plan of the route may have changed since
+            baselines.remove(route);
+            baseline = new Baseline(rttNanos, (long) PROBE_MULTIPLIER * limit);
+            baselines.put(route, baseline);
+            if (baselines.size() > MAX_ROUTES) {
+                baselines.remove(baselines.keySet().iterator().next());
+            }
+        } else if (rttNanos < baseline.noLoadRttNanos) {
+            baseline.noLoadRttNanos = rttNanos;
+        }
+        double log = Math.log10(estimatedLimit);
+        double step = Math.max(1, log);
+        double next;
+        if (dropped) {
+            next = estimatedLimit - step;
+        } else {
+            double queued = Math.ceil(estimatedLimit * (1 - (double) baseline.noLoadRttNanos / rttNanos));
+            if (queued > 6 * log) {
+                next = estimatedLimit - step;
+            } else if (inFlightAtSample * 2 < estimatedLimit) {
+                // The limit is not what holds the traffic back, so latency says nothing about raising it
+                return;
+            } else if (queued <= log) {
+                next = estimatedLimit + 6 * step;
+            } else if (queued < 3 * log) {
+                next = estimatedLimit + step;
+            } else {
+                return;
+            }
+        }
+        estimatedLimit = Math.min(maxLimit, Math.max(minLimit, next));
+        limit = (int) estimatedLimit;
+    }
+    
+    private int lowPriorityLimit(int currentLimit) {
+        return Math.max(1, (int) (currentLimit * lowPriorityShare));
+    }
+    
+    /**
+     * Lowest latency seen for a route since it was last probed
+     */
+    private static final class Baseline {
+        
+        private long noLoadRttNanos;
+        private long samplesUntilProbe;
+        
+        private Baseline(long noLoadRttNanos, long samplesUntilProbe) {
+            this.noLoadRttNanos = noLoadRttNanos;
+            this.samplesUntilProbe = samplesUntilProbe;
+        }
+    }
+    
+    /**
+     * Current limit for all requests and for low priority ones, the requests in flight and the
+     * requests rejected per priority
+     */
+    public record Stats(int limit, int lowPriorityLimit, int inFlight, long rejectedHigh, long rejectedLow) {
+    }
+}
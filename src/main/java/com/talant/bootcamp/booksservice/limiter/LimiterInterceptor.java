@@ -0,0 +1,71 @@
+package com.talant.bootcamp.booksservice.limiter;
+
+import com.talant.bootcamp.booksservice.bulkhead.BulkheadLane;
+import com.talant.bootcamp.booksservice.bulkhead.Lane;
+import com.talant.bootcamp.booksservice.exception.BulkheadFullException;
+import com.talant.bootcamp.booksservice.exception.ConcurrencyLimitExceededException;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/**
+ * Interceptor that admits requests through the {@link AdaptiveLimiter} and reports their latency.
+ * Handlers in the scan lane are bulk listings and run with low priority, everything else with high.
+ * <p>
+ * A request that goes on asynchronously, such as an event stream, gives its permit back once the
+ * handler returns, and the dispatches that write its response are not limited again. Requests that
+ * a bulkhead rejects are not counted as drops, since the bulkhead already shed them.
+ */
+public class LimiterInterceptor implements AsyncHandlerInterceptor {
+    
+    private static final String START_ATTRIBUTE = LimiterInterceptor.class.getName() + ".start";
+    
+    private final AdaptiveLimiter limiter;
+    
+    public LimiterInterceptor(AdaptiveLimiter limiter) {
+        this.limiter = limiter;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Priority priority = priorityOf(handlerMethod);
+        if (!limiter.tryAcquire(priority)) {
+            throw new ConcurrencyLimitExceededException(priority, limiter.getRetryAfter());
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            boolean rejectedByBulkhead =
+                    request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE) instanceof BulkheadFullException;
+            limiter.release(((HandlerMethod) handler).getMethod(), System.nanoTime() - (Long) start,
+                    response.getStatus() >= 500 && !rejectedByBulkhead);
+        }
+    }
+    
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (request.getAttribute(START_ATTRIBUTE) != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            limiter.release();
+        }
+    }
+    
+    private static Priority priorityOf(HandlerMethod handlerMethod) {
+        BulkheadLane lane = handlerMethod.getMethodAnnotation(BulkheadLane.class);
+        return lane != null && lane.value() == Lane.SCAN ? Priority.LOW : Priority.HIGH;
+    }
+}
@@ -0,0 +1,17 @@
+package com.talant.bootcamp.booksservice.limiter;
+
+/**
+ * Priority of a request when the adaptive limiter is close to its limit
+ */
+public enum Priority {
+    
+    /**
+     * Writes and point lookups, which may use the whole limit
+     */
+    HIGH,
+    
+    /**
+     * Bulk listings, which may only use a share of the limit so the rest stays free for high priority requests
+     */
+    LOW
+}
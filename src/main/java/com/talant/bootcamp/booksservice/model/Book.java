@@ -1,7 +1,16 @@
 package com.talant.bootcamp.booksservice.model;
 
+import com.talant.bootcamp.booksservice.cache.BookCacheRegions;
+import com.talant.bootcamp.booksservice.id.BookId;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.generator.EventType;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -9,11 +18,17 @@ import java.time.LocalDateTime;
  * Entity class for the Book model
  */
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = @Index(name = "idx_books_change_seq", columnList = "change_seq"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = BookCacheRegions.BOOKS)
+@NaturalIdCache(region = BookCacheRegions.BOOKS_BY_ISBN)
 public class Book {
     
+    /**
+     * Assigned before the insert by {@link BookId}, so inserts can be batched
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BookId
     private Long id;
     
     @NotBlank(message = "Title is required")
@@ -28,11 +43,17 @@ public class Book {
     
     @NotBlank(message = "ISBN is required")
     @Pattern(regexp = "^(?:[0-9]{10}|[0-9]{13})$", message = "ISBN must be 10 or 13 digits")
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     private String isbn;
     
+    /**
+     * Stored compressed in a LOB column; listings project the other columns and never read it
+     */
     @Size(max = 1000, message = "Description cannot exceed 1000 characters")
-    @Column(length = 1000)
+    @Lob
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "description")
     private String description;
     
     @NotNull(message = "Price is required")
@@ -56,6 +77,18 @@ public class Book {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    /**
+     * Drawn from {@value BookTombstone#CHANGE_SEQUENCE} by the database on every insert and update,
+     * including the bulk JDBC paths, so it orders all changes for delta sync. Declared as a column
+     * default rather than a column definition so the temporary mutation tables Hibernate derives from
+     * this entity do not depend on the sequence and the schema tool can drop it cleanly
+     */
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @ColumnDefault("NEXT VALUE FOR " + BookTombstone.CHANGE_SEQUENCE +
+            " ON UPDATE NEXT VALUE FOR " + BookTombstone.CHANGE_SEQUENCE)
+    @Column(name = "change_seq", nullable = false, insertable = false, updatable = false)
+    private Long changeSeq;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -162,6 +195,10 @@ public class Book {
         this.updatedAt = updatedAt;
     }
     
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
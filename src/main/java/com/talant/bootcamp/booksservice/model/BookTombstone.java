@@ -0,0 +1,50 @@
+package com.talant.bootcamp.booksservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Record of a deleted book, kept for a retention window so delta sync clients learn about deletes
+ */
+@Entity
+@Table(name = "book_tombstones", indexes = @Index(name = "idx_book_tombstones_deleted_at", columnList = "deleted_at"))
+public class BookTombstone {
+    
+    /**
+     * Sequence shared by book changes and tombstones
+     */
+    public static final String CHANGE_SEQUENCE = "book_change_seq";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = CHANGE_SEQUENCE)
+    @SequenceGenerator(name = CHANGE_SEQUENCE, sequenceName = CHANGE_SEQUENCE, allocationSize = 1)
+    @Column(name = "change_seq")
+    private Long changeSeq;
+    
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+    
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+    
+    // Constructors
+    protected BookTombstone() {}
+    
+    public BookTombstone(Long bookId, LocalDateTime deletedAt) {
+        this.bookId = bookId;
+        this.deletedAt = deletedAt;
+    }
+    
+    // Getters
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+    
+    public Long getBookId() {
+        return bookId;
+    }
+    
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
@@ -0,0 +1,93 @@
+package com.talant.bootcamp.booksservice.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores text as raw DEFLATE compressed UTF-8. The first byte tells whether the payload is
+ * compressed, so short texts that would grow are stored as plain UTF-8. Plain JDBC code uses
+ * {@link #compress} and {@link #decompress} to read and write the same format.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+    
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+    
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        return compress(text);
+    }
+    
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        return decompress(data);
+    }
+    
+    public static byte[] compress(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            byte[] buffer = new byte[utf8.length + 1];
+            int length = 1;
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            if (deflater.finished() && length < buffer.length) {
+                buffer[0] = DEFLATED;
+                return Arrays.copyOf(buffer, length);
+            }
+        } finally {
+            deflater.end();
+        }
+        byte[] plain = new byte[utf8.length + 1];
+        plain[0] = PLAIN;
+        System.arraycopy(utf8, 0, plain, 1, utf8.length);
+        return plain;
+    }
+    
+    public static String decompress(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length == 0) {
+            return "";
+        }
+        if (data[0] == PLAIN) {
+            return new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+        }
+        if (data[0] != DEFLATED) {
+            throw new IllegalStateException("Unknown compressed text format " + data[0]);
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, 1, data.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed text");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
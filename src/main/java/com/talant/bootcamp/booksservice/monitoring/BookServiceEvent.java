@@ -0,0 +1,18 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted for every BookService operation
+ */
+@Name("com.talant.bootcamp.booksservice.BookService")
+@Label("Book Service Operation")
+@Category({"Bookstore", "Service"})
+@Description("Invocation of a BookService method")
+@StackTrace(false)
+public class BookServiceEvent extends OperationEvent {
+}
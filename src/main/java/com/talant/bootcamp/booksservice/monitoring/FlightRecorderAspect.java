@@ -0,0 +1,93 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Aspect that emits JFR events around every BookService method and every BookRepository query.
+ * When the events are not enabled in the running recording the overhead is a single flag check.
+ */
+@Aspect
+@Component
+public class FlightRecorderAspect {
+    
+    private static final int MAX_ARGUMENT_LENGTH = 256;
+    
+    /**
+     * Record BookService invocations
+     */
+    @Around("execution(public * com.talant.bootcamp.booksservice.service.BookService.*(..))")
+    public Object recordServiceOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(new BookServiceEvent(), joinPoint);
+    }
+    
+    /**
+     * Record BookRepository queries, including the inherited JpaRepository methods
+     */
+    @Around("this(com.talant.bootcamp.booksservice.repository.BookRepository)")
+    public Object recordRepositoryQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(new RepositoryQueryEvent(), joinPoint);
+    }
+    
+    private Object record(OperationEvent event, ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        
+        event.begin();
+        Object result = null;
+        boolean successful = false;
+        try {
+            result = joinPoint.proceed();
+            successful = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                Object[] args = joinPoint.getArgs();
+                event.method = joinPoint.getSignature().getName();
+                event.arguments = describeArguments(args);
+                event.category = findCategory(args);
+                event.rowCount = countRows(result);
+                event.successful = successful;
+                event.commit();
+            }
+        }
+    }
+    
+    private static String describeArguments(Object[] args) {
+        String description = Arrays.stream(args)
+                .map(String::valueOf)
+                .collect(Collectors.joining(", "));
+        return description.length() > MAX_ARGUMENT_LENGTH
+                ? description.substring(0, MAX_ARGUMENT_LENGTH)
+                : description;
+    }
+    
+    private static String findCategory(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof BookCategory category) {
+                return category.name();
+            }
+        }
+        return null;
+    }
+    
+    private static int countRows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return result == null ? 0 : 1;
+    }
+}
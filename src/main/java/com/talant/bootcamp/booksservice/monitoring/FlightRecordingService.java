@@ -0,0 +1,130 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import com.talant.bootcamp.booksservice.exception.FlightRecordingStateException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Service that manages a single, bounded, on-demand JFR recording
+ */
+@Service
+public class FlightRecordingService {
+    
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    
+    private final Duration maxAge;
+    private final long maxSizeMb;
+    private final String settings;
+    
+    private Recording recording;
+    
+    public FlightRecordingService(@Value("${bookstore.jfr.max-age:PT30M}") Duration maxAge,
+                                  @Value("${bookstore.jfr.max-size-mb:100}") long maxSizeMb,
+                                  @Value("${bookstore.jfr.settings:default}") String settings) {
+        this.maxAge = maxAge;
+        this.maxSizeMb = maxSizeMb;
+        this.settings = settings;
+    }
+    
+    /**
+     * Start a new recording. The requested bounds are capped by the configured maximums.
+     */
+    public synchronized Map<String, Object> start(Duration requestedMaxAge, Long requestedMaxSizeMb) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new FlightRecordingStateException("A JFR recording is already running");
+        }
+        closeRecording();
+        
+        Recording newRecording = new Recording(loadConfiguration());
+        newRecording.setName("bookstore-on-demand");
+        newRecording.setToDisk(true);
+        newRecording.setMaxAge(cap(requestedMaxAge, maxAge));
+        newRecording.setMaxSize(Math.min(requestedMaxSizeMb != null ? requestedMaxSizeMb : maxSizeMb, maxSizeMb) * BYTES_PER_MB);
+        newRecording.enable(BookServiceEvent.class);
+        newRecording.enable(RepositoryQueryEvent.class);
+        newRecording.start();
+        recording = newRecording;
+        return status();
+    }
+    
+    /**
+     * Stop the running recording, keeping its data available for download
+     */
+    public synchronized Map<String, Object> stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new FlightRecordingStateException("No JFR recording is running");
+        }
+        recording.stop();
+        return status();
+    }
+    
+    /**
+     * Dump the current recording into a temporary file. The caller owns the returned file.
+     */
+    public synchronized Path dump() {
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            throw new FlightRecordingStateException("No JFR recording is available");
+        }
+        try {
+            Path file = Files.createTempFile("bookstore-", ".jfr");
+            recording.dump(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to dump the JFR recording", e);
+        }
+    }
+    
+    /**
+     * Describe the current recording
+     */
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("maxAge", recording.getMaxAge());
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+    
+    @PreDestroy
+    public synchronized void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+    
+    private Configuration loadConfiguration() {
+        try {
+            return Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Unable to load JFR settings '" + settings + "'", e);
+        }
+    }
+    
+    private static Duration cap(Duration requested, Duration maximum) {
+        if (requested == null || requested.isNegative() || requested.isZero()) {
+            return maximum;
+        }
+        return requested.compareTo(maximum) > 0 ? maximum : requested;
+    }
+}
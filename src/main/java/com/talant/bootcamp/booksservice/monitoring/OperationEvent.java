@@ -0,0 +1,26 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Common fields of the bookstore JFR events. The duration is recorded by JFR itself
+ * between {@link #begin()} and {@link #commit()}.
+ */
+abstract class OperationEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Arguments")
+    String arguments;
+
+    @Label("Category")
+    String category;
+
+    @Label("Row Count")
+    int rowCount;
+
+    @Label("Successful")
+    boolean successful;
+}
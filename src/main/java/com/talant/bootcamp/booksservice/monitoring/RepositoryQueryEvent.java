@@ -0,0 +1,18 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted for every BookRepository query
+ */
+@Name("com.talant.bootcamp.booksservice.RepositoryQuery")
+@Label("Repository Query")
+@Category({"Bookstore", "Repository"})
+@Description("Invocation of a BookRepository method")
+@StackTrace(false)
+public class RepositoryQueryEvent extends OperationEvent {
+}
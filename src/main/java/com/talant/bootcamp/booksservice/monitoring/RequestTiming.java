@@ -0,0 +1,127 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Per-request accumulator of phase latencies, rendered as a Server-Timing header.
+ * A context only exists for sampled requests, so un-sampled requests pay a single
+ * ThreadLocal lookup per instrumented call.
+ */
+public final class RequestTiming {
+    
+    public static final String HEADER = "Server-Timing";
+    
+    /**
+     * Phases reported in the Server-Timing header
+     */
+    public enum Phase {
+        CONTROLLER("controller"),
+        SERVICE("service"),
+        DB("db"),
+        MAPPING("mapping"),
+        SERIALIZATION("json");
+        
+        private final String metricName;
+        
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+        
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+    
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    
+    private final long startNanos = System.nanoTime();
+    private final long[] durations = new long[Phase.values().length];
+    private final boolean[] recorded = new boolean[Phase.values().length];
+    
+    private RequestTiming() {}
+    
+    /**
+     * Start timing the current request
+     */
+    public static RequestTiming start() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+    
+    /**
+     * Timing context of the current request, or null when the request is not sampled
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+    
+    public static void clear() {
+        CURRENT.remove();
+    }
+    
+    /**
+     * Make the given context, or none when null, the current one again, e.g. once a nested
+     * request handled on the same thread has completed
+     */
+    public static void resume(RequestTiming timing) {
+        if (timing != null) {
+            CURRENT.set(timing);
+        } else {
+            CURRENT.remove();
+        }
+    }
+    
+    /**
+     * Run the supplier and add its duration to the given phase of the current request, if any
+     */
+    public static <T> T time(Phase phase, Supplier<T> supplier) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return supplier.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            timing.add(phase, System.nanoTime() - start);
+        }
+    }
+    
+    public void add(Phase phase, long nanos) {
+        durations[phase.ordinal()] += nanos;
+        recorded[phase.ordinal()] = true;
+    }
+    
+    /**
+     * Record the controller phase as the time elapsed since the request started
+     */
+    public void markHandlerComplete() {
+        durations[Phase.CONTROLLER.ordinal()] = System.nanoTime() - startNanos;
+        recorded[Phase.CONTROLLER.ordinal()] = true;
+    }
+    
+    public long getDurationNanos(Phase phase) {
+        return durations[phase.ordinal()];
+    }
+    
+    /**
+     * Render the recorded phases, e.g. {@code controller;dur=3.1, db;dur=1.2}
+     */
+    public String toHeaderValue() {
+        StringBuilder header = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            if (!recorded[phase.ordinal()]) {
+                continue;
+            }
+            if (header.length() > 0) {
+                header.append(", ");
+            }
+            header.append(phase.getMetricName())
+                  .append(";dur=")
+                  .append(String.format(Locale.ROOT, "%.3f", durations[phase.ordinal()] / 1_000_000.0));
+        }
+        return header.toString();
+    }
+}
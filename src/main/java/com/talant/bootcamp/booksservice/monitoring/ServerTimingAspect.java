@@ -0,0 +1,37 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aspect that adds BookService and BookRepository time to the Server-Timing context of sampled requests
+ */
+@Aspect
+@Component
+public class ServerTimingAspect {
+    
+    @Around("execution(public * com.talant.bootcamp.booksservice.service.BookService.*(..))")
+    public Object timeServiceOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(RequestTiming.Phase.SERVICE, joinPoint);
+    }
+    
+    @Around("this(com.talant.bootcamp.booksservice.repository.BookRepository)")
+    public Object timeRepositoryQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(RequestTiming.Phase.DB, joinPoint);
+    }
+    
+    private Object time(RequestTiming.Phase phase, ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timing.add(phase, System.nanoTime() - start);
+        }
+    }
+}
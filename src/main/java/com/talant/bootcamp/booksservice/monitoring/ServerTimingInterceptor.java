@@ -0,0 +1,36 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Interceptor that opens a RequestTiming context for a sampled fraction of the requests
+ */
+public class ServerTimingInterceptor implements HandlerInterceptor {
+    
+    private final double sampleRate;
+    
+    public ServerTimingInterceptor(double sampleRate) {
+        if (sampleRate < 0.0 || sampleRate > 1.0) {
+            throw new IllegalArgumentException("Server-Timing sample rate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (sampleRate >= 1.0 || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            RequestTiming.start();
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        RequestTiming.clear();
+    }
+}
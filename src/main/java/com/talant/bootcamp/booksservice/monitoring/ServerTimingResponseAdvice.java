@@ -0,0 +1,34 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Closes the controller phase right before the body is written and sets the Server-Timing header.
+ * Timed converters later replace the header to include the serialization phase.
+ */
+@ControllerAdvice
+public class ServerTimingResponseAdvice implements ResponseBodyAdvice<Object> {
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.markHandlerComplete();
+            response.getHeaders().set(RequestTiming.HEADER, timing.toHeaderValue());
+        }
+        return body;
+    }
+}
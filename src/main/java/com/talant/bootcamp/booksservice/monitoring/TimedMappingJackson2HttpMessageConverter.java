@@ -0,0 +1,52 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * JSON converter that measures serialization of sampled requests. The body of a sampled
+ * request is serialized into a buffer first so that the Server-Timing header, which must
+ * precede the body, can include the serialization phase.
+ */
+public class TimedMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    
+    public TimedMappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+    
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        RequestTiming timing = RequestTiming.current();
+        if (timing == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        long start = System.nanoTime();
+        super.writeInternal(object, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return buffer;
+            }
+            
+            @Override
+            public HttpHeaders getHeaders() {
+                return outputMessage.getHeaders();
+            }
+        });
+        timing.add(RequestTiming.Phase.SERIALIZATION, System.nanoTime() - start);
+        
+        outputMessage.getHeaders().set(RequestTiming.HEADER, timing.toHeaderValue());
+        buffer.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,235 @@
+package com.talant.bootcamp.booksservice.pipeline;
+
+import com.talant.bootcamp.booksservice.monitoring.RequestTiming;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in group commit for catalog writes. Callers put their write on a lock-free queue and wait
+ * on its future. A single writer thread drains the queue into one transaction per batch. A batch
+ * holds at most the configured number of writes, and its first write waits at most the configured
+ * delay, so a burst of writes shares one commit. If a batch fails, each of its writes is run again
+ * in its own transaction, so only the failing write receives the error.
+ * <p>
+ * Each write runs with the Server-Timing context of its caller, so its service and database time
+ * still shows up in the response. Other thread-bound state is not carried over: JFR events of a
+ * queued write are recorded on the writer thread, and the write must not rely on the request
+ * attributes of its caller.
+ */
+@Component
+public class WritePipeline implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(WritePipeline.class);
+    
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final TransactionTemplate transactionTemplate;
+    private final Queue<PendingWrite<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong replayedBatches = new AtomicLong();
+    private volatile Thread writer;
+    private volatile boolean running;
+    
+    public WritePipeline(@Value("${bookstore.writes.group-commit.enabled:false}") boolean enabled,
+                         @Value("${bookstore.writes.group-commit.max-batch-size:64}") int maxBatchSize,
+                         @Value("${bookstore.writes.group-commit.max-delay:PT0.002S}") Duration maxDelay,
+                         PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Run the write in the next batch and wait for its commit. The write runs directly when the
+     * pipeline is off or the caller already has a transaction, such as an atomic batch request.
+     */
+    public <T> T execute(Supplier<T> write) {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return write.get();
+        }
+        try {
+            return submit(write).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Queue the write for the next batch. The future completes once the batch is committed.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> write) {
+        PendingWrite<T> pending = new PendingWrite<>(write, RequestTiming.current(), new CompletableFuture<>());
+        queue.offer(pending);
+        if (running) {
+            LockSupport.unpark(writer);
+        } else if (queue.remove(pending)) {
+            // Stopped in the meantime, so no writer is left to take it
+            runAlone(pending);
+        }
+        return pending.result();
+    }
+    
+    public Stats getStats() {
+        return new Stats(batches.get(), writes.get(), replayedBatches.get());
+    }
+    
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "write-pipeline");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    /**
+     * Commit the queued writes and stop the writer
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Start before the web server and stop after it, before the stock write-behind buffer
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 3072;
+    }
+    
+    private void drain() {
+        List<PendingWrite<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            PendingWrite<?> first = queue.poll();
+            if (first == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            batch.add(first);
+            long deadline = System.nanoTime() + maxDelayNanos;
+            while (batch.size() < maxBatchSize) {
+                PendingWrite<?> next = queue.poll();
+                if (next != null) {
+                    batch.add(next);
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !running) {
+                    break;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            try {
+                commit(batch);
+            } catch (Throwable e) {
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+                log.error("Write pipeline batch of {} writes failed", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+    
+    private void commit(List<PendingWrite<?>> batch) {
+        List<Object> results;
+        try {
+            results = transactionTemplate.execute(status -> {
+                List<Object> values = new ArrayList<>(batch.size());
+                for (PendingWrite<?> pending : batch) {
+                    values.add(pending.run());
+                }
+                return values;
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            replayedBatches.incrementAndGet();
+            batch.forEach(this::runAlone);
+            return;
+        }
+        batches.incrementAndGet();
+        writes.addAndGet(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(results.get(i));
+        }
+    }
+    
+    private <T> void runAlone(PendingWrite<T> pending) {
+        try {
+            T value = transactionTemplate.execute(status -> pending.run());
+            batches.incrementAndGet();
+            writes.incrementAndGet();
+            pending.result().complete(value);
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+    
+    /**
+     * A queued write, the timing context and the future of its caller
+     */
+    private record PendingWrite<T>(Supplier<T> write, RequestTiming timing, CompletableFuture<T> result) {
+        
+        T run() {
+            RequestTiming previous = RequestTiming.current();
+            RequestTiming.resume(timing);
+            try {
+                return write.get();
+            } finally {
+                RequestTiming.resume(previous);
+            }
+        }
+        
+        @SuppressWarnings("unchecked")
+        void complete(Object value) {
+            result.complete((T) value);
+        }
+    }
+    
+    /**
+     * Committed batches and writes, and the batches that failed and were replayed write by write
+     */
+    public record Stats(long batches, long writes, long replayedBatches) {
+    }
+}
@@ -0,0 +1,262 @@
+package com.talant.bootcamp.booksservice.replica;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a local H2 replica in sync with the primary over the change sequence. On start the schema
+ * of the primary is copied to the empty replica; every poll then reads the books and tombstones
+ * with a sequence above the watermark and applies them in sequence order in one replica transaction.
+ *
+ * <p>Sequence numbers are taken when a row is written but become visible when it commits, so a
+ * missing number may belong to a transaction that has not committed yet, or to a row that was
+ * updated again or rolled back. The watermark stops at such a gap until it is older than the gap
+ * grace period, and the changes past it are read again on every poll meanwhile. A transaction that
+ * stays open longer than the grace period after writing a book is therefore not replicated until
+ * the book changes again.
+ */
+public class ChangeReplicator implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(ChangeReplicator.class);
+    
+    private static final String BOOKS_SQL = "SELECT * FROM books WHERE change_seq > ? ORDER BY change_seq LIMIT ?";
+    private static final String TOMBSTONES_SQL =
+            "SELECT change_seq, book_id FROM book_tombstones WHERE change_seq > ? ORDER BY change_seq LIMIT ?";
+    
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final TransactionTemplate replicaTransaction;
+    private final int batchSize;
+    private final long gapGraceMillis;
+    private final AtomicLong appliedChanges = new AtomicLong();
+    private volatile long watermark;
+    private volatile long freshAsOf;
+    private volatile boolean running;
+    private String mergeSql;
+    private long gapStart = -1;
+    private long gapEnd;
+    private long gapNoticedAt;
+    
+    public ChangeReplicator(DataSource primary, DataSource replica, int batchSize, Duration gapGrace) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.replicaTransaction = new TransactionTemplate(new DataSourceTransactionManager(replica));
+        this.batchSize = batchSize;
+        this.gapGraceMillis = gapGrace.toMillis();
+    }
+    
+    /**
+     * Change sequence up to which every change is applied to the replica
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+    
+    /**
+     * Epoch millis the replica is up to date with, 0 before the first complete pass
+     */
+    public long getFreshAsOf() {
+        return freshAsOf;
+    }
+    
+    public long getAppliedChanges() {
+        return appliedChanges.get();
+    }
+    
+    /**
+     * Apply the committed changes to the replica until it has caught up
+     */
+    @Scheduled(fixedDelayString = "${bookstore.replica.poll-interval:PT0.1S}")
+    public synchronized void replicate() {
+        if (!running) {
+            return;
+        }
+        try {
+            long cursor = watermark;
+            boolean blocked = false;
+            Page page;
+            do {
+                long startedAt = System.currentTimeMillis();
+                page = poll(cursor);
+                if (page.changes().isEmpty()) {
+                    freshAsOf = startedAt;
+                    return;
+                }
+                apply(page.changes());
+                // Past a gap that may still fill up, changes are applied but the watermark stays
+                blocked = blocked || !advance(page.changes());
+                cursor = page.changes().get(page.changes().size() - 1).sequence();
+                if (page.complete()) {
+                    freshAsOf = startedAt;
+                }
+            } while (!page.complete() && running);
+        } catch (RuntimeException e) {
+            log.warn("Replication to the replica failed, retrying on the next poll", e);
+        }
+    }
+    
+    /**
+     * Copy the schema of the primary to an empty replica
+     */
+    @Override
+    public void start() {
+        List<String> schema = primary.queryForList("SCRIPT NODATA", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        schema.forEach(replica::execute);
+        running = true;
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Read the changes after the cursor, oldest first
+     */
+    private Page poll(long from) {
+        List<Change> books = primary.query(BOOKS_SQL, this::readBooks, from, batchSize);
+        List<Change> tombstones = primary.query(TOMBSTONES_SQL, (row, rowNum) ->
+                new Change(row.getLong(1), row.getLong(2), null), from, batchSize);
+        
+        // A full page may have more changes after it, so keep only what both pages fully cover
+        long bound = Long.MAX_VALUE;
+        if (books.size() == batchSize) {
+            bound = books.get(books.size() - 1).sequence();
+        }
+        if (tombstones.size() == batchSize) {
+            bound = Math.min(bound, tombstones.get(tombstones.size() - 1).sequence());
+        }
+        List<Change> changes = new ArrayList<>(books.size() + tombstones.size());
+        for (Change change : books) {
+            if (change.sequence() <= bound) {
+                changes.add(change);
+            }
+        }
+        for (Change change : tombstones) {
+            if (change.sequence() <= bound) {
+                changes.add(change);
+            }
+        }
+        changes.sort(Comparator.comparingLong(Change::sequence));
+        return new Page(changes, bound == Long.MAX_VALUE);
+    }
+    
+    private List<Change> readBooks(ResultSet rows) throws SQLException {
+        ResultSetMetaData metaData = rows.getMetaData();
+        int columns = metaData.getColumnCount();
+        if (mergeSql == null) {
+            mergeSql = mergeSql(metaData);
+        }
+        int sequenceColumn = rows.findColumn("change_seq");
+        List<Change> books = new ArrayList<>();
+        while (rows.next()) {
+            Object[] values = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                values[i] = rows.getObject(i + 1);
+            }
+            books.add(new Change(rows.getLong(sequenceColumn), null, values));
+        }
+        return books;
+    }
+    
+    /**
+     * Apply the changes in sequence order, batching each run of upserts or deletes, as a book may be
+     * deleted and its ISBN reused by a new book within the same page
+     */
+    private void apply(List<Change> changes) {
+        replicaTransaction.executeWithoutResult(status -> {
+            List<Object[]> run = new ArrayList<>();
+            boolean deleting = false;
+            for (Change change : changes) {
+                boolean delete = change.row() == null;
+                if (delete != deleting && !run.isEmpty()) {
+                    applyRun(run, deleting);
+                    run.clear();
+                }
+                deleting = delete;
+                run.add(delete ? new Object[] {change.deletedBookId()} : change.row());
+            }
+            if (!run.isEmpty()) {
+                applyRun(run, deleting);
+            }
+        });
+        appliedChanges.addAndGet(changes.size());
+    }
+    
+    private void applyRun(List<Object[]> run, boolean deletes) {
+        replica.batchUpdate(deletes ? "DELETE FROM books WHERE id = ?" : mergeSql, run);
+    }
+    
+    /**
+     * Move the watermark over the consecutive sequence numbers, and over gaps older than the grace
+     * period, returning false if it stopped at a gap
+     */
+    private boolean advance(List<Change> changes) {
+        long now = System.currentTimeMillis();
+        long next = watermark + 1;
+        for (Change change : changes) {
+            long sequence = change.sequence();
+            if (sequence > next) {
+                if (gapStart != next || gapEnd != sequence) {
+                    gapStart = next;
+                    gapEnd = sequence;
+                    gapNoticedAt = now;
+                }
+                if (now - gapNoticedAt < gapGraceMillis) {
+                    watermark = next - 1;
+                    return false;
+                }
+            }
+            next = sequence + 1;
+        }
+        watermark = next - 1;
+        return true;
+    }
+    
+    private static String mergeSql(ResultSetMetaData metaData) throws SQLException {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder parameters = new StringBuilder();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (i > 1) {
+                columns.append(", ");
+                parameters.append(", ");
+            }
+            columns.append(metaData.getColumnName(i));
+            parameters.append('?');
+        }
+        return "MERGE INTO books (" + columns + ") KEY (id) VALUES (" + parameters + ")";
+    }
+    
+    /**
+     * Changes read by a poll, and whether they are all the committed changes after its cursor
+     */
+    private record Page(List<Change> changes, boolean complete) {
+    }
+    
+    /**
+     * A changed book with its row, or a deleted book
+     */
+    private record Change(long sequence, Long deletedBookId, Object[] row) {
+    }
+}
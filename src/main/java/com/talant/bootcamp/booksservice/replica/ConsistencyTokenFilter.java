@@ -0,0 +1,129 @@
+package com.talant.bootcamp.booksservice.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.Callable;
+
+/**
+ * Read-your-writes for replica reads. Successful writes answer with a {@code Consistency-Token}
+ * holding the time they completed; reads that send it back only use the replica once it is up to
+ * date with that time. Every read inside a write request uses the primary.
+ * <p>
+ * The token is stamped when the response body is first written, or when the handler returns
+ * without one, so responses are not buffered and streamed bodies stay streamed.
+ */
+public class ConsistencyTokenFilter extends OncePerRequestFilter {
+    
+    public static final String CONSISTENCY_TOKEN_HEADER = "Consistency-Token";
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String method = request.getMethod();
+        boolean write = !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+        ReplicaContext.setReadAfter(write ? Long.MAX_VALUE : readAfter(request.getHeader(CONSISTENCY_TOKEN_HEADER)));
+        try {
+            if (!write) {
+                chain.doFilter(request, response);
+                return;
+            }
+            TokenResponse tokenResponse = new TokenResponse(response);
+            chain.doFilter(request, tokenResponse);
+            tokenResponse.stamp();
+        } finally {
+            ReplicaContext.clearReadAfter();
+        }
+    }
+    
+    /**
+     * Whether the current request needs the replica up to date with its own writes, so results
+     * read for other requests may not be shared with it
+     */
+    public static boolean isReadAfterRequired() {
+        return ReplicaContext.getReadAfter() > 0;
+    }
+    
+    /**
+     * Wrap work that the current request hands to another thread, so that its reads follow the
+     * same read-your-writes rule as the request
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        long readAfter = ReplicaContext.getReadAfter();
+        return () -> {
+            ReplicaContext.setReadAfter(readAfter);
+            try {
+                return task.call();
+            } finally {
+                ReplicaContext.clearReadAfter();
+            }
+        };
+    }
+    
+    /**
+     * A token that cannot be read sends the request to the primary, which is always up to date
+     */
+    private static long readAfter(String token) {
+        if (token == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(token.trim());
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+    
+    /**
+     * Sets the token just before the body is written. Handlers write the body once the transaction
+     * has committed, so the token is taken after the commit without holding the body.
+     */
+    private static final class TokenResponse extends HttpServletResponseWrapper {
+        
+        private boolean stamped;
+        
+        TokenResponse(HttpServletResponse response) {
+            super(response);
+        }
+        
+        void stamp() {
+            if (stamped) {
+                return;
+            }
+            stamped = true;
+            if (getStatus() < 400 && !isCommitted()) {
+                setHeader(CONSISTENCY_TOKEN_HEADER, String.valueOf(System.currentTimeMillis()));
+            }
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            stamp();
+            return super.getOutputStream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            stamp();
+            return super.getWriter();
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            stamp();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.talant.bootcamp.booksservice.replica;
+
+/**
+ * Per-thread routing state: whether the running code may read from the replica, and the time the
+ * replica must be up to date with so the caller sees its own writes
+ */
+final class ReplicaContext {
+    
+    private static final ThreadLocal<Boolean> REPLICA_READS = new ThreadLocal<>();
+    private static final ThreadLocal<Long> READ_AFTER = new ThreadLocal<>();
+    
+    private ReplicaContext() {
+    }
+    
+    static boolean isReplicaReadAllowed() {
+        return Boolean.TRUE.equals(REPLICA_READS.get());
+    }
+    
+    static void setReplicaReadAllowed(boolean allowed) {
+        if (allowed) {
+            REPLICA_READS.set(Boolean.TRUE);
+        } else {
+            REPLICA_READS.remove();
+        }
+    }
+    
+    /**
+     * Epoch millis the replica must be up to date with, 0 when the caller has no such requirement
+     */
+    static long getReadAfter() {
+        Long readAfter = READ_AFTER.get();
+        return readAfter != null ? readAfter : 0;
+    }
+    
+    static void setReadAfter(long readAfter) {
+        READ_AFTER.set(readAfter);
+    }
+    
+    static void clearReadAfter() {
+        READ_AFTER.remove();
+    }
+}
@@ -0,0 +1,48 @@
+package com.talant.bootcamp.booksservice.replica;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Allows the read-only transactions of {@link ReplicaReads} services to use the replica, and keeps
+ * what they load out of the second-level cache. The replica may be behind the primary, and a stale
+ * book put in the cache would be served until it expires. Whether a transaction reads from the
+ * replica is only known at its first statement, so every transaction that may do so only reads
+ * the cache.
+ */
+@Aspect
+public class ReplicaReadsAspect {
+    
+    private final ObjectProvider<EntityManager> entityManager;
+    
+    public ReplicaReadsAspect(ObjectProvider<EntityManager> entityManager) {
+        this.entityManager = entityManager;
+    }
+    
+    @Around("@within(com.talant.bootcamp.booksservice.replica.ReplicaReads)")
+    public Object allowReplicaReads(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ReplicaContext.isReplicaReadAllowed()) {
+            return joinPoint.proceed();
+        }
+        ReplicaContext.setReplicaReadAllowed(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaContext.setReplicaReadAllowed(false);
+        }
+    }
+    
+    @Around("this(com.talant.bootcamp.booksservice.repository.BookRepository)")
+    public Object keepReplicaReadsOutOfCache(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ReplicaContext.isReplicaReadAllowed() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            entityManager.getObject().setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        }
+        return joinPoint.proceed();
+    }
+}
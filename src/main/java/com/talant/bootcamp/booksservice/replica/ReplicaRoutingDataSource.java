@@ -0,0 +1,64 @@
+package com.talant.bootcamp.booksservice.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Routes the read-only transactions of {@link ReplicaReads} services to the replica when it is up
+ * to date within the maximum lag and with the caller's last write, and everything else to the
+ * primary. It must sit behind a lazy connection proxy, so the connection is picked once the
+ * transaction is known to be read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    private enum Target {
+        PRIMARY,
+        REPLICA
+    }
+    
+    private final ChangeReplicator replicator;
+    private final long maxLagMillis;
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryFallbacks = new LongAdder();
+    
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ChangeReplicator replicator, Duration maxLag) {
+        this.replicator = replicator;
+        this.maxLagMillis = maxLag.toMillis();
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || !ReplicaContext.isReplicaReadAllowed()) {
+            return Target.PRIMARY;
+        }
+        long requiredFreshness = Math.max(System.currentTimeMillis() - maxLagMillis, ReplicaContext.getReadAfter());
+        if (replicator.getFreshAsOf() >= requiredFreshness) {
+            replicaReads.increment();
+            return Target.REPLICA;
+        }
+        primaryFallbacks.increment();
+        return Target.PRIMARY;
+    }
+    
+    public Stats getStats() {
+        long freshAsOf = replicator.getFreshAsOf();
+        return new Stats(replicator.getWatermark(), replicator.getAppliedChanges(),
+                freshAsOf > 0 ? System.currentTimeMillis() - freshAsOf : -1,
+                replicaReads.sum(), primaryFallbacks.sum());
+    }
+    
+    /**
+     * Change sequence up to which the replica is complete, changes applied so far, current lag
+     * (-1 before the first complete pass), and read transactions served by the replica or sent
+     * back to the primary because the replica was behind
+     */
+    public record Stats(long watermark, long appliedChanges, long lagMillis, long replicaReads, long primaryFallbacks) {
+    }
+}
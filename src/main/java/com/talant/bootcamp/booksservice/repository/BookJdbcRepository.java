@@ -0,0 +1,269 @@
+package com.talant.bootcamp.booksservice.repository;
+
+import com.talant.bootcamp.booksservice.cache.SecondLevelCache;
+import com.talant.bootcamp.booksservice.changes.BookChangeType;
+import com.talant.bootcamp.booksservice.changes.BookChangedEvent;
+import com.talant.bootcamp.booksservice.changes.BulkBooksChangedEvent;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.id.BookIdAllocator;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.model.CompressedTextConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to the books table for bulk operations, bypassing the persistence context
+ */
+@Repository
+public class BookJdbcRepository {
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO books (id, title, author, isbn, description, price, stock, category, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String UPSERT_SQL =
+        "MERGE INTO books AS b " +
+        "USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), " +
+        "CAST(? AS BINARY LARGE OBJECT), CAST(? AS NUMERIC(10, 2)), CAST(? AS INTEGER), CAST(? AS VARCHAR(255)), " +
+        "CAST(? AS TIMESTAMP(6)))) AS s (id, title, author, isbn, description, price, stock, category, changed_at) " +
+        "ON b.isbn = s.isbn " +
+        "WHEN MATCHED THEN UPDATE SET title = s.title, author = s.author, description = s.description, " +
+        "price = s.price, stock = s.stock, category = s.category, updated_at = s.changed_at " +
+        "WHEN NOT MATCHED THEN INSERT (id, title, author, isbn, description, price, stock, category, created_at, updated_at) " +
+        "VALUES (s.id, s.title, s.author, s.isbn, s.description, s.price, s.stock, s.category, s.changed_at, s.changed_at)";
+    
+    private static final String UPDATE_STOCK_SQL = "UPDATE books SET stock = ?, updated_at = ? WHERE id = ?";
+    private static final String ADJUST_STOCK_SQL =
+            "UPDATE books SET stock = stock + ?, updated_at = ? WHERE id = ? AND stock + ? >= 0";
+    
+    private static final String SELECT_ALL_SQL =
+        "SELECT id, title, author, isbn, description, price, stock, category, created_at, updated_at " +
+        "FROM books ORDER BY id";
+    
+    private static final String SELECT_WRITTEN_SQL =
+        "SELECT id, isbn, change_seq, created_at, updated_at FROM books WHERE isbn IN (%s)";
+    
+    private static final int STREAM_FETCH_SIZE = 1000;
+    
+    /**
+     * Most ISBNs looked up by one statement when reading back the rows of a batch
+     */
+    private static final int WRITTEN_CHUNK_SIZE = 500;
+    
+    private static final RowMapper<Book> BOOK_ROW_MAPPER = (rs, rowNum) -> {
+        Book book = new Book(
+            rs.getString("title"),
+            rs.getString("author"),
+            rs.getString("isbn"),
+            CompressedTextConverter.decompress(rs.getBytes("description")),
+            rs.getBigDecimal("price"),
+            rs.getInt("stock"),
+            BookCategory.valueOf(rs.getString("category"))
+        );
+        book.setId(rs.getLong("id"));
+        book.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        book.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        return book;
+    };
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final BookIdAllocator idAllocator;
+    private final SecondLevelCache secondLevelCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int bulkThreshold;
+    
+    public BookJdbcRepository(JdbcTemplate jdbcTemplate, BookIdAllocator idAllocator, SecondLevelCache secondLevelCache,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${bookstore.changes.bulk-threshold:100}") int bulkThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+        this.secondLevelCache = secondLevelCache;
+        this.eventPublisher = eventPublisher;
+        this.bulkThreshold = bulkThreshold;
+    }
+    
+    /**
+     * Insert the books with a single JDBC batch, with ids reserved for the whole batch at once
+     */
+    public int insertBatch(List<Book> books) {
+        long[] ids = idAllocator.allocate(books.size());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Book book = books.get(i);
+                ps.setLong(1, ids[i]);
+                LocalDateTime createdAt = book.getCreatedAt() != null ? book.getCreatedAt() : LocalDateTime.now();
+                LocalDateTime updatedAt = book.getUpdatedAt() != null ? book.getUpdatedAt() : createdAt;
+                ps.setString(2, book.getTitle());
+                ps.setString(3, book.getAuthor());
+                ps.setString(4, book.getIsbn());
+                if (book.getDescription() != null) {
+                    ps.setBytes(5, CompressedTextConverter.compress(book.getDescription()));
+                } else {
+                    ps.setNull(5, Types.BLOB);
+                }
+                ps.setBigDecimal(6, book.getPrice());
+                ps.setInt(7, book.getStock());
+                ps.setString(8, book.getCategory().name());
+                ps.setTimestamp(9, Timestamp.valueOf(createdAt));
+                ps.setTimestamp(10, Timestamp.valueOf(updatedAt));
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return books.size();
+            }
+        });
+        secondLevelCache.evictBooks();
+        publishChanges(books, ids);
+        return books.size();
+    }
+    
+    /**
+     * Insert or update the books by ISBN with a single JDBC batch. Existing books keep their id and
+     * creation time; the ids reserved for them are left unused. When an ISBN appears more than once
+     * the last book wins, and rows are written in ISBN order so that concurrent batches sharing
+     * ISBNs lock them in the same order instead of deadlocking.
+     */
+    public int upsertBatch(List<Book> batch) {
+        List<Book> books = lastByIsbn(batch);
+        long[] ids = idAllocator.allocate(books.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Book book = books.get(i);
+                ps.setLong(1, ids[i]);
+                ps.setString(2, book.getTitle());
+                ps.setString(3, book.getAuthor());
+                ps.setString(4, book.getIsbn());
+                if (book.getDescription() != null) {
+                    ps.setBytes(5, CompressedTextConverter.compress(book.getDescription()));
+                } else {
+                    ps.setNull(5, Types.BLOB);
+                }
+                ps.setBigDecimal(6, book.getPrice());
+                ps.setInt(7, book.getStock());
+                ps.setString(8, book.getCategory().name());
+                ps.setTimestamp(9, now);
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return books.size();
+            }
+        });
+        secondLevelCache.evictBooks();
+        publishChanges(books, ids);
+        return books.size();
+    }
+    
+    /**
+     * Set the stock of each book with a single JDBC batch. Only these books are evicted from the
+     * second-level cache, as no cached query filters on the stock.
+     */
+    public int updateStocks(Map<Long, Integer> stocks) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(stocks.size());
+        stocks.forEach((id, stock) -> rows.add(new Object[] {stock, now, id}));
+        int updated = Arrays.stream(jdbcTemplate.batchUpdate(UPDATE_STOCK_SQL, rows)).sum();
+        secondLevelCache.evictBooks(stocks.keySet());
+        return updated;
+    }
+    
+    /**
+     * Add a delta to the stock of a book in a single statement, so concurrent adjustments never
+     * overwrite each other. Returns false, changing nothing, when the book does not exist or its
+     * stock would become negative.
+     */
+    public boolean adjustStock(Long id, int delta) {
+        int updated = jdbcTemplate.update(ADJUST_STOCK_SQL, delta, Timestamp.valueOf(LocalDateTime.now()), id, delta);
+        secondLevelCache.evictBooks(List.of(id));
+        return updated > 0;
+    }
+    
+    /**
+     * Stream every book in id order to the consumer without materializing the result.
+     * Run it inside a read-only transaction to see a consistent snapshot.
+     */
+    public long streamAll(Consumer<Book> consumer) {
+        long[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_ALL_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            consumer.accept(BOOK_ROW_MAPPER.mapRow(rs, (int) count[0]));
+            count[0]++;
+        });
+        return count[0];
+    }
+    
+    /**
+     * Publish a change for every book a batch wrote, with the id and change sequence the database
+     * gave it, so the change feed and the other nodes see bulk writes like any other change. The
+     * rows are read back by ISBN in the transaction of the batch. Batches of more than the bulk
+     * threshold, such as synthetic loads and import chunks, publish a single bulk change instead,
+     * without reading anything back.
+     *
+     * @param reservedIds ids reserved for the books; a book stored under another id already existed
+     */
+    private void publishChanges(List<Book> books, long[] reservedIds) {
+        if (books.size() > bulkThreshold) {
+            eventPublisher.publishEvent(new BulkBooksChangedEvent(books.size()));
+            return;
+        }
+        Map<String, Integer> positions = new HashMap<>(books.size() * 2);
+        for (int i = 0; i < books.size(); i++) {
+            positions.put(books.get(i).getIsbn(), i);
+        }
+        List<String> isbns = new ArrayList<>(positions.keySet());
+        for (int from = 0; from < isbns.size(); from += WRITTEN_CHUNK_SIZE) {
+            List<String> chunk = isbns.subList(from, Math.min(from + WRITTEN_CHUNK_SIZE, isbns.size()));
+            String sql = SELECT_WRITTEN_SQL.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?")));
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                int position = positions.get(rs.getString("isbn"));
+                Book book = books.get(position);
+                long id = rs.getLong("id");
+                BookResponse written = new BookResponse(id, book.getTitle(), book.getAuthor(), book.getIsbn(),
+                        book.getDescription(), book.getPrice(), book.getStock(), book.getCategory(),
+                        toLocalDateTime(rs.getTimestamp("created_at")), toLocalDateTime(rs.getTimestamp("updated_at")));
+                BookChangeType type = id == reservedIds[position] ? BookChangeType.CREATED : BookChangeType.UPDATED;
+                eventPublisher.publishEvent(new BookChangedEvent(type, id, rs.getLong("change_seq"), written));
+            }, chunk.toArray());
+        }
+    }
+    
+    private static List<Book> lastByIsbn(List<Book> books) {
+        Map<String, Book> byIsbn = new TreeMap<>();
+        for (Book book : books) {
+            byIsbn.put(book.getIsbn(), book);
+        }
+        return new ArrayList<>(byIsbn.values());
+    }
+    
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
\ No newline at end of file
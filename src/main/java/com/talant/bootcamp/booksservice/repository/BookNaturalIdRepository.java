@@ -0,0 +1,17 @@
+package com.talant.bootcamp.booksservice.repository;
+
+import com.talant.bootcamp.booksservice.model.Book;
+
+import java.util.Optional;
+
+/**
+ * Lookups by the natural id of books, the ISBN
+ */
+public interface BookNaturalIdRepository {
+    
+    /**
+     * Find a book by ISBN through the natural id, so both the id resolution and the book can be
+     * served from the second-level cache
+     */
+    Optional<Book> findByIsbn(String isbn);
+}
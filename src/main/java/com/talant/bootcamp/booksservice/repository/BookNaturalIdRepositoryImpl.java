@@ -0,0 +1,39 @@
+package com.talant.bootcamp.booksservice.repository;
+
+import com.talant.bootcamp.booksservice.model.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Hibernate implementation of {@link BookNaturalIdRepository}
+ */
+class BookNaturalIdRepositoryImpl implements BookNaturalIdRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    /**
+     * Runs in a transaction, so the unwrapped session stays open when called without one. The
+     * cached ISBN of a book changed or deleted by another node still points to its id, so a
+     * resolution that finds no book, or one with another ISBN, is dropped and done again.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Book> findByIsbn(String isbn) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        Optional<Book> book = session.bySimpleNaturalId(Book.class).loadOptional(isbn);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Book.class);
+        if (book.map(found -> isbn.equals(found.getIsbn())).orElse(false) || !persister.hasNaturalIdCache()) {
+            return book;
+        }
+        NaturalIdDataAccess cache = persister.getNaturalIdCacheAccessStrategy();
+        cache.evict(cache.generateCacheKey(isbn, persister, session));
+        return session.bySimpleNaturalId(Book.class).loadOptional(isbn);
+    }
+}
@@ -0,0 +1,27 @@
+package com.talant.bootcamp.booksservice.repository;
+
+import com.talant.bootcamp.booksservice.dto.FieldSet;
+import com.talant.bootcamp.booksservice.model.Book;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Queries that read only the selected columns of the books table
+ */
+public interface BookProjectionRepository {
+    
+    /**
+     * Find the books matching the specification, loading only the selected fields.
+     * The returned books are detached and every other field is null.
+     */
+    List<Book> findProjected(Specification<Book> specification, Sort sort, FieldSet fields);
+    
+    /**
+     * Pass each book matching the specification to the consumer as its row is read, loading only
+     * the selected fields. The books are detached and every other field is null.
+     */
+    void forEachProjected(Specification<Book> specification, FieldSet fields, Consumer<Book> consumer);
+}
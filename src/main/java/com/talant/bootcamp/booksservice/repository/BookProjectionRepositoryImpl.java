@@ -0,0 +1,92 @@
+package com.talant.bootcamp.booksservice.repository;
+
+import com.talant.bootcamp.booksservice.dto.BookField;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Criteria implementation of {@link BookProjectionRepository} selecting a tuple of the requested attributes
+ */
+class BookProjectionRepositoryImpl implements BookProjectionRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Book> findProjected(Specification<Book> specification, Sort sort, FieldSet fields) {
+        List<BookField> selected = new ArrayList<>(fields.getFields());
+        List<Tuple> rows = createQuery(specification, sort, selected).getResultList();
+        List<Book> books = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            books.add(toBook(row, selected));
+        }
+        return books;
+    }
+    
+    @Override
+    public void forEachProjected(Specification<Book> specification, FieldSet fields, Consumer<Book> consumer) {
+        List<BookField> selected = new ArrayList<>(fields.getFields());
+        try (Stream<Tuple> rows = createQuery(specification, Sort.unsorted(), selected).getResultStream()) {
+            rows.forEach(row -> consumer.accept(toBook(row, selected)));
+        }
+    }
+    
+    private TypedQuery<Tuple> createQuery(Specification<Book> specification, Sort sort, List<BookField> selected) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        
+        List<Selection<?>> selections = new ArrayList<>(selected.size());
+        for (BookField field : selected) {
+            selections.add(root.get(field.getFieldName()).alias(field.getFieldName()));
+        }
+        query.multiselect(selections);
+        query.where(specification.toPredicate(root, query, cb));
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+    
+    private static Book toBook(Tuple row, List<BookField> selected) {
+        Book book = new Book();
+        for (int i = 0; i < selected.size(); i++) {
+            assign(book, selected.get(i), row.get(i));
+        }
+        return book;
+    }
+    
+    private static void assign(Book book, BookField field, Object value) {
+        switch (field) {
+            case ID -> book.setId((Long) value);
+            case TITLE -> book.setTitle((String) value);
+            case AUTHOR -> book.setAuthor((String) value);
+            case ISBN -> book.setIsbn((String) value);
+            case DESCRIPTION -> book.setDescription((String) value);
+            case PRICE -> book.setPrice((BigDecimal) value);
+            case STOCK -> book.setStock((Integer) value);
+            case CATEGORY -> book.setCategory((BookCategory) value);
+            case CREATED_AT -> book.setCreatedAt((LocalDateTime) value);
+            case UPDATED_AT -> book.setUpdatedAt((LocalDateTime) value);
+        }
+    }
+}
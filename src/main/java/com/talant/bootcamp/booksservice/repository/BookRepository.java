@@ -1,9 +1,14 @@
 package com.talant.bootcamp.booksservice.repository;
 
+import com.talant.bootcamp.booksservice.cache.BookCacheRegions;
 import com.talant.bootcamp.booksservice.model.Book;
 import com.talant.bootcamp.booksservice.model.BookCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,12 +20,7 @@ import java.util.Optional;
  * Repository interface for the Book model
  */
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
-    
-    /**
-     * Find a book by ISBN
-     */
-    Optional<Book> findByIsbn(String isbn);
+public interface BookRepository extends JpaRepository<Book, Long>, BookProjectionRepository, BookNaturalIdRepository {
     
     /**
      * Find books by author
@@ -33,8 +33,12 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     List<Book> findByTitleContainingIgnoreCase(String title);
     
     /**
-     * Find books by category
+     * Find books by category. The ids of the result are kept in the query cache.
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BookCacheRegions.BOOK_QUERIES)
+    })
     List<Book> findByCategory(BookCategory category);
     
     /**
@@ -79,11 +83,19 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     List<Book> findBooksWithLowStock();
     
     /**
-     * Find books by text in title or author
+     * Find books by text in title or author. Wildcards in the text are literal, as in
+     * {@link BookSpecifications#titleOrAuthorContains}
+     */
+    default List<Book> searchByTitleOrAuthor(String searchTerm) {
+        return searchByTitleOrAuthorLike(BookSpecifications.containing(searchTerm));
+    }
+    
+    /**
+     * Find books whose lower-case title or author matches a LIKE pattern escaped with a backslash
      */
-    @Query("SELECT b FROM Book b WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(b.author) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Book> searchByTitleOrAuthor(@Param("searchTerm") String searchTerm);
+    @Query("SELECT b FROM Book b WHERE LOWER(b.title) LIKE :pattern ESCAPE '\\' " +
+           "OR LOWER(b.author) LIKE :pattern ESCAPE '\\'")
+    List<Book> searchByTitleOrAuthorLike(@Param("pattern") String pattern);
     
     /**
      * Count books by category
@@ -97,6 +109,12 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b.category, AVG(b.price) FROM Book b GROUP BY b.category")
     List<Object[]> getAveragePriceByCategory();
     
+    /**
+     * Find the stock of a book without loading it
+     */
+    @Query("SELECT b.stock FROM Book b WHERE b.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+    
     /**
      * Check if a book exists with the given ISBN
      */
@@ -121,4 +139,9 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * Find books ordered by author
      */
     List<Book> findAllByOrderByAuthorAsc();
+    
+    /**
+     * Find books changed after the given change sequence, oldest change first
+     */
+    List<Book> findByChangeSeqGreaterThanOrderByChangeSeqAsc(long changeSeq, Limit limit);
 } 
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.talant.bootcamp.booksservice.repository;
+
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Criteria equivalents of the derived queries of {@link BookRepository}, for queries that
+ * select only some columns
+ */
+public final class BookSpecifications {
+    
+    private BookSpecifications() {}
+    
+    public static Specification<Book> all() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+    
+    public static Specification<Book> hasId(Long id) {
+        return (root, query, cb) -> cb.equal(root.get("id"), id);
+    }
+    
+    public static Specification<Book> hasIsbn(String isbn) {
+        return (root, query, cb) -> cb.equal(root.get("isbn"), isbn);
+    }
+    
+    public static Specification<Book> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+    
+    public static Specification<Book> isbnIn(Collection<String> isbns) {
+        return (root, query, cb) -> root.get("isbn").in(isbns);
+    }
+    
+    public static Specification<Book> authorContains(String author) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("author")), containing(author), '\\');
+    }
+    
+    public static Specification<Book> titleContains(String title) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("title")), containing(title), '\\');
+    }
+    
+    public static Specification<Book> titleOrAuthorContains(String searchTerm) {
+        return titleContains(searchTerm).or(authorContains(searchTerm));
+    }
+    
+    public static Specification<Book> hasCategory(BookCategory category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+    
+    public static Specification<Book> stockGreaterThan(int stock) {
+        return (root, query, cb) -> cb.greaterThan(root.get("stock"), stock);
+    }
+    
+    public static Specification<Book> stockLessThan(int stock) {
+        return (root, query, cb) -> cb.lessThan(root.get("stock"), stock);
+    }
+    
+    public static Specification<Book> stockEquals(int stock) {
+        return (root, query, cb) -> cb.equal(root.get("stock"), stock);
+    }
+    
+    public static Specification<Book> priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.between(root.get("price"), minPrice, maxPrice);
+    }
+    
+    public static Specification<Book> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+    
+    public static Specification<Book> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+    
+    /**
+     * LIKE pattern, escaped with a backslash, of lower-case values containing the given one
+     */
+    static String containing(String value) {
+        // Same semantics as the derived Containing queries: wildcards in the value are literal
+        String escaped = value.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
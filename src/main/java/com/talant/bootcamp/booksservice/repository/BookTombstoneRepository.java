@@ -0,0 +1,31 @@
+package com.talant.bootcamp.booksservice.repository;
+
+import com.talant.bootcamp.booksservice.model.BookTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the tombstones of deleted books
+ */
+@Repository
+public interface BookTombstoneRepository extends JpaRepository<BookTombstone, Long> {
+    
+    /**
+     * Tombstones recorded after the given change sequence, oldest first
+     */
+    List<BookTombstone> findByChangeSeqGreaterThanOrderByChangeSeqAsc(long changeSeq, Limit limit);
+    
+    /**
+     * Delete the tombstones of books deleted before the cutoff
+     */
+    @Modifying
+    @Query("DELETE FROM BookTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
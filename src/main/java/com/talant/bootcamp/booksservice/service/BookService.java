@@ -1,33 +1,73 @@
 package com.talant.bootcamp.booksservice.service;
 
+import com.talant.bootcamp.booksservice.changes.BookChangeType;
+import com.talant.bootcamp.booksservice.changes.BookChangedEvent;
+import com.talant.bootcamp.booksservice.coalescing.Coalesced;
+import com.talant.bootcamp.booksservice.dto.BookField;
 import com.talant.bootcamp.booksservice.dto.BookRequest;
 import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
 import com.talant.bootcamp.booksservice.exception.BookNotFoundException;
 import com.talant.bootcamp.booksservice.exception.DuplicateIsbnException;
 import com.talant.bootcamp.booksservice.model.Book;
 import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.model.BookTombstone;
+import com.talant.bootcamp.booksservice.monitoring.RequestTiming;
+import com.talant.bootcamp.booksservice.replica.ReplicaReads;
+import com.talant.bootcamp.booksservice.repository.BookJdbcRepository;
 import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.repository.BookSpecifications;
+import com.talant.bootcamp.booksservice.repository.BookTombstoneRepository;
+import com.talant.bootcamp.booksservice.stock.StockWriteBehind;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Service class for the Book model
  */
 @Service
 @Transactional
+@ReplicaReads
 public class BookService {
     
+    /**
+     * Most keys accepted by a single multi-get
+     */
+    public static final int MAX_LOOKUP_KEYS = 1000;
+    
+    private static final int LOOKUP_CHUNK_SIZE = 250;
+    
     private final BookRepository bookRepository;
+    private final BookJdbcRepository bookJdbcRepository;
+    private final BookTombstoneRepository tombstoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockWriteBehind stockWriteBehind;
     
     @Autowired
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, BookJdbcRepository bookJdbcRepository,
+                       BookTombstoneRepository tombstoneRepository, ApplicationEventPublisher eventPublisher,
+                       StockWriteBehind stockWriteBehind) {
         this.bookRepository = bookRepository;
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.eventPublisher = eventPublisher;
+        this.stockWriteBehind = stockWriteBehind;
     }
     
     /**
@@ -50,7 +90,7 @@ public class BookService {
         );
         
         Book savedBook = bookRepository.save(book);
-        return new BookResponse(savedBook);
+        return publish(BookChangeType.CREATED, savedBook);
     }
     
     /**
@@ -58,10 +98,15 @@ public class BookService {
      */
     @Transactional(readOnly = true)
     public List<BookResponse> getAllBooks() {
-        return bookRepository.findAll()
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getAllBooks(FieldSet.ALL);
+    }
+    
+    /**
+     * Get all books, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public List<BookResponse> getAllBooks(FieldSet fields) {
+        return find(fields, () -> bookRepository.findAll(), BookSpecifications.all(), Sort.unsorted());
     }
     
     /**
@@ -71,7 +116,21 @@ public class BookService {
     public BookResponse getBookById(Long id) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new BookNotFoundException(id));
-        return new BookResponse(book);
+        return toResponse(book);
+    }
+    
+    /**
+     * Get a book by ID, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public BookResponse getBookById(Long id, FieldSet fields) {
+        if (fields.isAll()) {
+            return getBookById(id);
+        }
+        return bookRepository.findProjected(BookSpecifications.hasId(id), Sort.unsorted(), withStockKey(fields)).stream()
+                .findFirst()
+                .map(this::toResponse)
+                .orElseThrow(() -> new BookNotFoundException(id));
     }
     
     /**
@@ -81,7 +140,37 @@ public class BookService {
     public BookResponse getBookByIsbn(String isbn) {
         Book book = bookRepository.findByIsbn(isbn)
                 .orElseThrow(() -> new BookNotFoundException("ISBN", isbn));
-        return new BookResponse(book);
+        return toResponse(book);
+    }
+    
+    /**
+     * Get a book by ISBN, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public BookResponse getBookByIsbn(String isbn, FieldSet fields) {
+        if (fields.isAll()) {
+            return getBookByIsbn(isbn);
+        }
+        return bookRepository.findProjected(BookSpecifications.hasIsbn(isbn), Sort.unsorted(), withStockKey(fields)).stream()
+                .findFirst()
+                .map(this::toResponse)
+                .orElseThrow(() -> new BookNotFoundException("ISBN", isbn));
+    }
+    
+    /**
+     * Look up books by ID, passing each one to the sink in request order, or null when it does not exist
+     */
+    @Transactional(readOnly = true)
+    public void lookupByIds(List<Long> ids, FieldSet fields, BiConsumer<Long, BookResponse> sink) {
+        lookup(ids, fields, BookField.ID, BookSpecifications::idIn, Book::getId, sink);
+    }
+    
+    /**
+     * Look up books by ISBN, passing each one to the sink in request order, or null when it does not exist
+     */
+    @Transactional(readOnly = true)
+    public void lookupByIsbns(List<String> isbns, FieldSet fields, BiConsumer<String, BookResponse> sink) {
+        lookup(isbns, fields, BookField.ISBN, BookSpecifications::isbnIn, Book::getIsbn, sink);
     }
     
     /**
@@ -107,7 +196,11 @@ public class BookService {
         existingBook.setCategory(bookRequest.getCategory());
         
         Book updatedBook = bookRepository.save(existingBook);
-        return new BookResponse(updatedBook);
+        if (stockWriteBehind.isEnabled()) {
+            // Supersede stock changes that are still buffered
+            stockWriteBehind.setStock(id, bookRequest.getStock());
+        }
+        return publish(BookChangeType.UPDATED, updatedBook);
     }
     
     /**
@@ -118,6 +211,9 @@ public class BookService {
             throw new BookNotFoundException(id);
         }
         bookRepository.deleteById(id);
+        // Recorded here rather than on commit, so the event carries the sequence of the tombstone
+        BookTombstone tombstone = tombstoneRepository.save(new BookTombstone(id, LocalDateTime.now()));
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangeType.DELETED, id, tombstone.getChangeSeq(), null));
     }
     
     /**
@@ -125,10 +221,15 @@ public class BookService {
      */
     @Transactional(readOnly = true)
     public List<BookResponse> getBooksByAuthor(String author) {
-        return bookRepository.findByAuthorContainingIgnoreCase(author)
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksByAuthor(author, FieldSet.ALL);
+    }
+    
+    /**
+     * Find books by author, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public List<BookResponse> getBooksByAuthor(String author, FieldSet fields) {
+        return find(fields, () -> bookRepository.findByAuthorContainingIgnoreCase(author), BookSpecifications.authorContains(author), Sort.unsorted());
     }
     
     /**
@@ -136,21 +237,33 @@ public class BookService {
      */
     @Transactional(readOnly = true)
     public List<BookResponse> getBooksByTitle(String title) {
-        return bookRepository.findByTitleContainingIgnoreCase(title)
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksByTitle(title, FieldSet.ALL);
+    }
+    
+    /**
+     * Find books by title, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public List<BookResponse> getBooksByTitle(String title, FieldSet fields) {
+        return find(fields, () -> bookRepository.findByTitleContainingIgnoreCase(title), BookSpecifications.titleContains(title), Sort.unsorted());
     }
     
     /**
      * Find books by category
      */
     @Transactional(readOnly = true)
+    @Coalesced
     public List<BookResponse> getBooksByCategory(BookCategory category) {
-        return bookRepository.findByCategory(category)
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksByCategory(category, FieldSet.ALL);
+    }
+    
+    /**
+     * Find books by category, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    @Coalesced
+    public List<BookResponse> getBooksByCategory(BookCategory category, FieldSet fields) {
+        return find(fields, () -> bookRepository.findByCategory(category), BookSpecifications.hasCategory(category), Sort.unsorted());
     }
     
     /**
@@ -158,10 +271,15 @@ public class BookService {
      */
     @Transactional(readOnly = true)
     public List<BookResponse> getBooksWithStock() {
-        return bookRepository.findByStockGreaterThan(0)
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksWithStock(FieldSet.ALL);
+    }
+    
+    /**
+     * Find books with stock available, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public List<BookResponse> getBooksWithStock(FieldSet fields) {
+        return find(fields, () -> bookRepository.findByStockGreaterThan(0), BookSpecifications.stockGreaterThan(0), Sort.unsorted());
     }
     
     /**
@@ -169,10 +287,15 @@ public class BookService {
      */
     @Transactional(readOnly = true)
     public List<BookResponse> getBooksOutOfStock() {
-        return bookRepository.findByStockEquals(0)
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksOutOfStock(FieldSet.ALL);
+    }
+    
+    /**
+     * Find books without stock, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public List<BookResponse> getBooksOutOfStock(FieldSet fields) {
+        return find(fields, () -> bookRepository.findByStockEquals(0), BookSpecifications.stockEquals(0), Sort.unsorted());
     }
     
     /**
@@ -180,10 +303,15 @@ public class BookService {
      */
     @Transactional(readOnly = true)
     public List<BookResponse> getBooksByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return bookRepository.findByPriceBetween(minPrice, maxPrice)
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksByPriceRange(minPrice, maxPrice, FieldSet.ALL);
+    }
+    
+    /**
+     * Find books by price range, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public List<BookResponse> getBooksByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, FieldSet fields) {
+        return find(fields, () -> bookRepository.findByPriceBetween(minPrice, maxPrice), BookSpecifications.priceBetween(minPrice, maxPrice), Sort.unsorted());
     }
     
     /**
@@ -191,10 +319,15 @@ public class BookService {
      */
     @Transactional(readOnly = true)
     public List<BookResponse> getBooksByMaxPrice(BigDecimal maxPrice) {
-        return bookRepository.findByPriceLessThanEqual(maxPrice)
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksByMaxPrice(maxPrice, FieldSet.ALL);
+    }
+    
+    /**
+     * Find books by maximum price, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public List<BookResponse> getBooksByMaxPrice(BigDecimal maxPrice, FieldSet fields) {
+        return find(fields, () -> bookRepository.findByPriceLessThanEqual(maxPrice), BookSpecifications.priceAtMost(maxPrice), Sort.unsorted());
     }
     
     /**
@@ -202,10 +335,15 @@ public class BookService {
      */
     @Transactional(readOnly = true)
     public List<BookResponse> getBooksByMinPrice(BigDecimal minPrice) {
-        return bookRepository.findByPriceGreaterThanEqual(minPrice)
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksByMinPrice(minPrice, FieldSet.ALL);
+    }
+    
+    /**
+     * Find books by minimum price, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public List<BookResponse> getBooksByMinPrice(BigDecimal minPrice, FieldSet fields) {
+        return find(fields, () -> bookRepository.findByPriceGreaterThanEqual(minPrice), BookSpecifications.priceAtLeast(minPrice), Sort.unsorted());
     }
     
     /**
@@ -213,65 +351,105 @@ public class BookService {
      */
     @Transactional(readOnly = true)
     public List<BookResponse> getBooksWithLowStock() {
-        return bookRepository.findBooksWithLowStock()
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksWithLowStock(FieldSet.ALL);
+    }
+    
+    /**
+     * Find books with low stock, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    public List<BookResponse> getBooksWithLowStock(FieldSet fields) {
+        return find(fields, () -> bookRepository.findBooksWithLowStock(), BookSpecifications.stockLessThan(10), Sort.unsorted());
     }
     
     /**
      * Find books by text in title or author
      */
     @Transactional(readOnly = true)
+    @Coalesced
     public List<BookResponse> searchBooks(String searchTerm) {
-        return bookRepository.searchByTitleOrAuthor(searchTerm)
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return searchBooks(searchTerm, FieldSet.ALL);
+    }
+    
+    /**
+     * Find books by text in title or author, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    @Coalesced
+    public List<BookResponse> searchBooks(String searchTerm, FieldSet fields) {
+        return find(fields, () -> bookRepository.searchByTitleOrAuthor(searchTerm), BookSpecifications.titleOrAuthorContains(searchTerm), Sort.unsorted());
     }
     
     /**
      * Find books ordered by price ascending
      */
     @Transactional(readOnly = true)
+    @Coalesced
     public List<BookResponse> getBooksOrderedByPriceAsc() {
-        return bookRepository.findAllByOrderByPriceAsc()
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksOrderedByPriceAsc(FieldSet.ALL);
+    }
+    
+    /**
+     * Find books ordered by price ascending, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    @Coalesced
+    public List<BookResponse> getBooksOrderedByPriceAsc(FieldSet fields) {
+        return find(fields, () -> bookRepository.findAllByOrderByPriceAsc(), BookSpecifications.all(), Sort.by("price"));
     }
     
     /**
      * Find books ordered by price descending
      */
     @Transactional(readOnly = true)
+    @Coalesced
     public List<BookResponse> getBooksOrderedByPriceDesc() {
-        return bookRepository.findAllByOrderByPriceDesc()
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksOrderedByPriceDesc(FieldSet.ALL);
+    }
+    
+    /**
+     * Find books ordered by price descending, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    @Coalesced
+    public List<BookResponse> getBooksOrderedByPriceDesc(FieldSet fields) {
+        return find(fields, () -> bookRepository.findAllByOrderByPriceDesc(), BookSpecifications.all(), Sort.by(Sort.Direction.DESC, "price"));
     }
     
     /**
      * Find books ordered by title
      */
     @Transactional(readOnly = true)
+    @Coalesced
     public List<BookResponse> getBooksOrderedByTitle() {
-        return bookRepository.findAllByOrderByTitleAsc()
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksOrderedByTitle(FieldSet.ALL);
+    }
+    
+    /**
+     * Find books ordered by title, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    @Coalesced
+    public List<BookResponse> getBooksOrderedByTitle(FieldSet fields) {
+        return find(fields, () -> bookRepository.findAllByOrderByTitleAsc(), BookSpecifications.all(), Sort.by("title"));
     }
     
     /**
      * Find books ordered by author
      */
     @Transactional(readOnly = true)
+    @Coalesced
     public List<BookResponse> getBooksOrderedByAuthor() {
-        return bookRepository.findAllByOrderByAuthorAsc()
-                .stream()
-                .map(BookResponse::new)
-                .collect(Collectors.toList());
+        return getBooksOrderedByAuthor(FieldSet.ALL);
+    }
+    
+    /**
+     * Find books ordered by author, reading only the selected fields
+     */
+    @Transactional(readOnly = true)
+    @Coalesced
+    public List<BookResponse> getBooksOrderedByAuthor(FieldSet fields) {
+        return find(fields, () -> bookRepository.findAllByOrderByAuthorAsc(), BookSpecifications.all(), Sort.by("author"));
     }
     
     /**
@@ -281,9 +459,37 @@ public class BookService {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new BookNotFoundException(id));
         
+        if (stockWriteBehind.isEnabled()) {
+            stockWriteBehind.setStock(id, newStock);
+            return toResponse(book);
+        }
         book.setStock(newStock);
         Book updatedBook = bookRepository.save(book);
-        return new BookResponse(updatedBook);
+        return publish(BookChangeType.STOCK_CHANGED, updatedBook);
+    }
+    
+    /**
+     * Add a delta to the stock of a book. The stock is changed by the database in one statement,
+     * so concurrent adjustments are never lost, and the book is read back afterwards.
+     */
+    public BookResponse adjustStock(Long id, Integer delta) {
+        if (stockWriteBehind.isEnabled()) {
+            Book book = bookRepository.findById(id)
+                    .orElseThrow(() -> new BookNotFoundException(id));
+            int stock = stockWriteBehind.adjustStock(id, delta);
+            BookResponse response = toResponse(book);
+            response.setStock(stock);
+            return response;
+        }
+        if (!bookJdbcRepository.adjustStock(id, delta)) {
+            if (!bookRepository.existsById(id)) {
+                throw new BookNotFoundException(id);
+            }
+            throw new IllegalArgumentException("Stock cannot be negative");
+        }
+        Book updatedBook = bookRepository.findById(id)
+                .orElseThrow(() -> new BookNotFoundException(id));
+        return publish(BookChangeType.STOCK_CHANGED, updatedBook);
     }
     
     /**
@@ -309,4 +515,78 @@ public class BookService {
     public List<Object[]> getAveragePriceByCategory() {
         return bookRepository.getAveragePriceByCategory();
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Run the entity query, or a projection of the selected columns when only some fields are requested
+     */
+    private List<BookResponse> find(FieldSet fields, Supplier<List<Book>> entityQuery,
+                                    Specification<Book> specification, Sort sort) {
+        if (fields.isAll()) {
+            return toResponses(entityQuery.get());
+        }
+        return toResponses(bookRepository.findProjected(specification, sort, withStockKey(fields)));
+    }
+    
+    /**
+     * Resolve the keys with one IN query per chunk. Only the rows of the current chunk are held,
+     * keyed so they can be emitted in request order.
+     */
+    private <K> void lookup(List<K> keys, FieldSet fields, BookField keyField,
+                            Function<Collection<K>, Specification<Book>> specification,
+                            Function<Book, K> keyOf, BiConsumer<K, BookResponse> sink) {
+        if (keys.isEmpty() || keys.size() > MAX_LOOKUP_KEYS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_LOOKUP_KEYS + " keys are required");
+        }
+        if (keys.contains(null)) {
+            throw new IllegalArgumentException("Keys cannot be empty");
+        }
+        FieldSet selected = withStockKey(fields.with(keyField));
+        for (int from = 0; from < keys.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<K> chunk = keys.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, keys.size()));
+            Map<K, BookResponse> found = new HashMap<>(chunk.size() * 2);
+            bookRepository.forEachProjected(specification.apply(new HashSet<>(chunk)), selected,
+                    book -> found.put(keyOf.apply(book), withBufferedStock(new BookResponse(book))));
+            for (K key : chunk) {
+                sink.accept(key, found.get(key));
+            }
+        }
+    }
+    
+    /**
+     * Announce a change to the change feed, which receives it once the transaction commits. The
+     * change is flushed first, so the event carries the change sequence the database drew for it.
+     */
+    private BookResponse publish(BookChangeType type, Book book) {
+        bookRepository.flush();
+        BookResponse response = toResponse(book);
+        eventPublisher.publishEvent(new BookChangedEvent(type, book.getId(), book.getChangeSeq(), response));
+        return response;
+    }
+    
+    private BookResponse toResponse(Book book) {
+        return RequestTiming.time(RequestTiming.Phase.MAPPING, () -> withBufferedStock(new BookResponse(book)));
+    }
+    
+    private List<BookResponse> toResponses(List<Book> books) {
+        return RequestTiming.time(RequestTiming.Phase.MAPPING,
+                () -> books.stream().map(book -> withBufferedStock(new BookResponse(book))).toList());
+    }
+    
+    /**
+     * Also read the id when the stock is selected in write-behind mode, as the buffered stock is
+     * found by id. The response only writes the fields that were asked for.
+     */
+    private FieldSet withStockKey(FieldSet fields) {
+        return stockWriteBehind.isEnabled() && fields.contains(BookField.STOCK) ? fields.with(BookField.ID) : fields;
+    }
+    
+    /**
+     * Show the stock still buffered by the write-behind mode instead of the stored one
+     */
+    private BookResponse withBufferedStock(BookResponse book) {
+        if (stockWriteBehind.isEnabled() && book.getId() != null && book.getStock() != null) {
+            book.setStock(stockWriteBehind.getStock(book.getId(), book.getStock()));
+        }
+        return book;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.talant.bootcamp.booksservice.sharding;
+
+/**
+ * Per-thread routing state: the shard that connections of the running code are taken from
+ */
+final class ShardContext {
+    
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+    
+    private ShardContext() {
+    }
+    
+    /**
+     * The bound shard, or null when the running code is not routed yet
+     */
+    static Integer getShard() {
+        return SHARD.get();
+    }
+    
+    static void setShard(Integer shard) {
+        if (shard != null) {
+            SHARD.set(shard);
+        } else {
+            SHARD.remove();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.talant.bootcamp.booksservice.sharding;
+
+import com.talant.bootcamp.booksservice.id.BookIdGenerator;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * Decides which shard holds a book and runs code against one shard or all of them. Books are
+ * placed by category or by a consistent hash of the ISBN; id blocks are interleaved so that shard
+ * {@code s} of {@code n} generates the ids with {@code ((id - 1) / 50) % n == s}, which makes the shard
+ * that created a book its first guess for lookups by id. Calls on several shards run in parallel.
+ * On start the schema that JPA created on shard 0 is copied to the shards that lack one; books
+ * already stored on a shard are kept.
+ */
+public class ShardRouter implements SmartLifecycle {
+    
+    /**
+     * Points per shard on the hash ring, so ISBNs spread evenly and adding a shard moves about 1/n of them
+     */
+    private static final int VIRTUAL_NODES = 128;
+    
+    private final ShardingStrategy strategy;
+    private final List<JdbcTemplate> shards;
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+    private final ExecutorService scatterExecutor;
+    private final LongAdder routedCalls = new LongAdder();
+    private final LongAdder scatteredCalls = new LongAdder();
+    private final LongAdder movedBooks = new LongAdder();
+    private volatile boolean running;
+    
+    public ShardRouter(ShardingStrategy strategy, List<? extends DataSource> shards, int scatterThreads) {
+        this.strategy = strategy;
+        this.shards = shards.stream().map(JdbcTemplate::new).toList();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring.put(hash("shard-" + shard + "#" + node), shard);
+            }
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scatterExecutor = Executors.newFixedThreadPool(scatterThreads, runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public ShardingStrategy getStrategy() {
+        return strategy;
+    }
+    
+    public int getShardCount() {
+        return shards.size();
+    }
+    
+    /**
+     * Shard a book with the given category and ISBN is placed on
+     */
+    public int shardOf(BookCategory category, String isbn) {
+        return strategy == ShardingStrategy.CATEGORY ? shardOfCategory(category) : shardOfIsbn(isbn);
+    }
+    
+    public int shardOfCategory(BookCategory category) {
+        return category.ordinal() % shards.size();
+    }
+    
+    public int shardOfIsbn(String isbn) {
+        Map.Entry<Long, Integer> point = ring.ceilingEntry(hash(isbn));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+    
+    /**
+     * Shard that generated the id, which holds the book unless it moved since
+     */
+    public int homeShardOf(long id) {
+        return (int) Math.floorMod(Math.floorDiv(id - 1, BookIdGenerator.ALLOCATION_SIZE), (long) shards.size());
+    }
+    
+    /**
+     * Shard the running code is bound to, or shard 0 when it is not routed
+     */
+    public static int currentShard() {
+        Integer shard = ShardContext.getShard();
+        return shard != null ? shard : 0;
+    }
+    
+    public List<Integer> allShards() {
+        return IntStream.range(0, shards.size()).boxed().toList();
+    }
+    
+    public List<Integer> shardsExcept(int shard) {
+        return IntStream.range(0, shards.size()).filter(other -> other != shard).boxed().toList();
+    }
+    
+    /**
+     * Run the code with connections taken from the given shard
+     */
+    public <T> T onShard(int shard, Supplier<T> code) {
+        try {
+            return call(shard, target -> code.get());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+    
+    /**
+     * Run the call on the given shard in the current thread
+     */
+    <T> T call(int shard, ShardCall<T> call) throws Throwable {
+        routedCalls.increment();
+        Integer previous = ShardContext.getShard();
+        ShardContext.setShard(shard);
+        try {
+            return call.call(shard);
+        } finally {
+            ShardContext.setShard(previous);
+        }
+    }
+    
+    /**
+     * Run the call on each of the given shards in parallel and return the results in shard order.
+     * Every call is awaited; the first failure is then thrown.
+     */
+    <T> List<T> scatter(List<Integer> targets, ShardCall<T> call) throws Throwable {
+        scatteredCalls.increment();
+        List<Future<T>> futures = new ArrayList<>(targets.size());
+        for (int shard : targets) {
+            futures.add(scatterExecutor.submit(() -> {
+                try {
+                    return call(shard, call);
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new UndeclaredThrowableException(e);
+                }
+            }));
+        }
+        List<T> results = new ArrayList<>(targets.size());
+        Throwable failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                failure = failure != null ? failure : e.getCause();
+                results.add(null);
+            } catch (InterruptedException e) {
+                futures.forEach(pending -> pending.cancel(true));
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+    
+    /**
+     * Copy a book to another shard, keeping its id, then delete it from the shard it was on. The two
+     * steps are separate transactions: a failure in between leaves the book on both shards, where
+     * lookups by id still find it, rather than on none.
+     */
+    public void moveBook(long id, int from, int to) {
+        JdbcTemplate source = shards.get(from);
+        JdbcTemplate target = shards.get(to);
+        source.query("SELECT * FROM books WHERE id = ?", rows -> {
+            if (!rows.next()) {
+                return null;
+            }
+            ResultSetMetaData metaData = rows.getMetaData();
+            StringBuilder columns = new StringBuilder();
+            StringBuilder parameters = new StringBuilder();
+            Object[] values = new Object[metaData.getColumnCount()];
+            for (int i = 1; i <= values.length; i++) {
+                if (i > 1) {
+                    columns.append(", ");
+                    parameters.append(", ");
+                }
+                columns.append(metaData.getColumnName(i));
+                parameters.append('?');
+                values[i - 1] = rows.getObject(i);
+            }
+            target.update("MERGE INTO books (" + columns + ") KEY (id) VALUES (" + parameters + ")", values);
+            return null;
+        }, id);
+        source.update("DELETE FROM books WHERE id = ?", id);
+        movedBooks.increment();
+    }
+    
+    /**
+     * Copy the schema of shard 0, created by JPA, to the shards that do not have one yet, and
+     * interleave the id blocks each shard generates. Shards that already hold books keep them, and
+     * every shard restarts its sequence past the highest id, live or deleted, of all shards.
+     */
+    @Override
+    public void start() {
+        long maxId = 0;
+        for (JdbcTemplate jdbc : shards) {
+            if (hasTable(jdbc, "BOOKS")) {
+                maxId = Math.max(maxId, jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM books", Long.class));
+            }
+            if (hasTable(jdbc, "BOOK_TOMBSTONES")) {
+                maxId = Math.max(maxId,
+                        jdbc.queryForObject("SELECT COALESCE(MAX(book_id), 0) FROM book_tombstones", Long.class));
+            }
+        }
+        List<String> schema = shards.get(0).queryForList("SCRIPT NODATA", String.class);
+        for (int shard = 1; shard < shards.size(); shard++) {
+            if (!hasTable(shards.get(shard), "BOOKS")) {
+                schema.forEach(shards.get(shard)::execute);
+            }
+        }
+        long firstFreeBlock = Math.ceilDiv(maxId, BookIdGenerator.ALLOCATION_SIZE);
+        for (int shard = 0; shards.size() > 1 && shard < shards.size(); shard++) {
+            long block = firstFreeBlock + Math.floorMod(shard - firstFreeBlock, (long) shards.size());
+            shards.get(shard).execute("ALTER SEQUENCE " + BookIdGenerator.SEQUENCE
+                    + " RESTART WITH " + (block * BookIdGenerator.ALLOCATION_SIZE + 1)
+                    + " INCREMENT BY " + (BookIdGenerator.ALLOCATION_SIZE * shards.size()));
+        }
+        running = true;
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Start before the web server and the other lifecycle beans, which may write books
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 5120;
+    }
+    
+    public Stats getStats() {
+        List<Long> books = shards.stream()
+                .map(jdbc -> jdbc.queryForObject("SELECT COUNT(*) FROM books", Long.class))
+                .toList();
+        return new Stats(strategy, shards.size(), books, routedCalls.sum(), scatteredCalls.sum(), movedBooks.sum());
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        scatterExecutor.shutdownNow();
+    }
+    
+    private static boolean hasTable(JdbcTemplate jdbc, String table) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES"
+                + " WHERE TABLE_SCHEMA = CURRENT_SCHEMA AND TABLE_NAME = ?", Integer.class, table) > 0;
+    }
+    
+    private static long hash(String key) {
+        CRC32 crc = new CRC32();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+    
+    /**
+     * Code run against one shard
+     */
+    @FunctionalInterface
+    interface ShardCall<T> {
+        
+        T call(int shard) throws Throwable;
+    }
+    
+    /**
+     * Placement strategy, number of shards and books on each, calls routed to one shard (including
+     * each shard of a scatter), scatter-gather calls, and books moved to another shard by an update
+     */
+    public record Stats(ShardingStrategy strategy, int shards, List<Long> books, long routedCalls,
+                        long scatteredCalls, long movedBooks) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.talant.bootcamp.booksservice.sharding;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes connections to the shard bound to the current thread, or to shard 0 when none is bound,
+ * which is where schema generation and the features that are not shard aware run. It must sit
+ * behind a lazy connection proxy, so the connection is picked once the shard is bound.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    
+    private final List<DataSource> shards;
+    
+    public ShardRoutingDataSource(List<? extends DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.getShard();
+        return shard != null ? shard : 0;
+    }
+    
+    /**
+     * Data sources of every shard, in shard order
+     */
+    public List<DataSource> getShards() {
+        return shards;
+    }
+    
+    /**
+     * Close the pools of the shards
+     */
+    @PreDestroy
+    void close() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.talant.bootcamp.booksservice.sharding;
+
+import com.talant.bootcamp.booksservice.dto.BookField;
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
+import com.talant.bootcamp.booksservice.exception.BookNotFoundException;
+import com.talant.bootcamp.booksservice.exception.DuplicateIsbnException;
+import com.talant.bootcamp.booksservice.exception.ShardingNotSupportedException;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs each book service call on the shards that can hold its books. Writes and point lookups go
+ * to one shard; listings, searches and statistics scatter to every shard in parallel, and their
+ * results are merged in the order the service would return them. Each shard call is a transaction
+ * of its own, so this advice runs outside the transactional one and cannot join a caller's
+ * transaction. Bulk operations that bypass the book service are rejected.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ShardingAspect {
+    
+    private static final Comparator<BookResponse> BY_ID = Comparator.comparing(BookResponse::getId);
+    private static final int ISBN_LOCKS = 64;
+    
+    private final ShardRouter router;
+    private final BookRepository bookRepository;
+    /**
+     * Creates and updates hold the lock of their ISBN's hash from the check on the other shards
+     * until their write commits, so two of them cannot both pass the check. The locks cover the
+     * writes of this instance only.
+     */
+    private final ReentrantLock[] isbnLocks = new ReentrantLock[ISBN_LOCKS];
+    
+    public ShardingAspect(ShardRouter router, BookRepository bookRepository) {
+        this.router = router;
+        this.bookRepository = bookRepository;
+        for (int i = 0; i < ISBN_LOCKS; i++) {
+            isbnLocks[i] = new ReentrantLock();
+        }
+    }
+    
+    @Around("execution(public * com.talant.bootcamp.booksservice.service.BookService.*(..))")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ShardContext.getShard() != null) {
+            return joinPoint.proceed();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new ShardingNotSupportedException("Sharded book operations cannot join an outer transaction");
+        }
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Object[] args = joinPoint.getArgs();
+        boolean hashed = router.getStrategy() == ShardingStrategy.ISBN_HASH;
+        return switch (signature.getName()) {
+            case "createBook" -> create(joinPoint, (BookRequest) args[0]);
+            case "updateBook" -> update(joinPoint, (Long) args[0], (BookRequest) args[1]);
+            case "getBookById", "updateStock", "adjustStock", "deleteBook" -> byId(joinPoint, (Long) args[0]);
+            case "getBookByIsbn" -> hashed
+                    ? router.call(router.shardOfIsbn((String) args[0]), shard -> joinPoint.proceed())
+                    : firstFound(joinPoint, router.allShards(), new BookNotFoundException("ISBN", (String) args[0]));
+            case "existsByIsbn" -> hashed
+                    ? router.call(router.shardOfIsbn((String) args[0]), shard -> joinPoint.proceed())
+                    : router.scatter(router.allShards(), shard -> joinPoint.proceed()).contains(Boolean.TRUE);
+            case "getBooksByCategory" -> hashed
+                    ? concatenated(joinPoint)
+                    : router.call(router.shardOfCategory((BookCategory) args[0]), shard -> joinPoint.proceed());
+            case "getBooksOrderedByPriceAsc" -> merged(joinPoint, BookField.PRICE,
+                    Comparator.comparing(BookResponse::getPrice));
+            case "getBooksOrderedByPriceDesc" -> merged(joinPoint, BookField.PRICE,
+                    Comparator.comparing(BookResponse::getPrice).reversed());
+            case "getBooksOrderedByTitle" -> merged(joinPoint, BookField.TITLE,
+                    Comparator.comparing(BookResponse::getTitle));
+            case "getBooksOrderedByAuthor" -> merged(joinPoint, BookField.AUTHOR,
+                    Comparator.comparing(BookResponse::getAuthor));
+            case "lookupByIds", "lookupByIsbns" -> lookup(joinPoint);
+            case "getBookStatisticsByCategory" -> countsByCategory(joinPoint);
+            case "getAveragePriceByCategory" -> averagesByCategory(joinPoint);
+            default -> {
+                if (!List.class.isAssignableFrom(signature.getReturnType())) {
+                    throw new ShardingNotSupportedException(signature.getName() + " is not supported on sharded storage");
+                }
+                yield concatenated(joinPoint);
+            }
+        };
+    }
+    
+    /**
+     * Imports, exports and change syncs read and write the books table of shard 0 directly, so on
+     * sharded storage they would misplace new books and miss those of the other shards
+     */
+    @Around("execution(public * com.talant.bootcamp.booksservice.ingest.ImportService.startImport(..))"
+            + " || execution(public * com.talant.bootcamp.booksservice.ingest.ImportService.resume(..))"
+            + " || execution(public * com.talant.bootcamp.booksservice.export.ExportService.export*(..))"
+            + " || execution(public * com.talant.bootcamp.booksservice.export.ExportService.findLatest(..))"
+            + " || execution(public * com.talant.bootcamp.booksservice.changes.DeltaSyncService.getChangesSince(..))")
+    public Object reject(ProceedingJoinPoint joinPoint) {
+        throw new ShardingNotSupportedException(joinPoint.getSignature().getName() + " is not supported on sharded storage");
+    }
+    
+    private Object create(ProceedingJoinPoint joinPoint, BookRequest request) throws Throwable {
+        ReentrantLock lock = isbnLock(request.getIsbn());
+        lock.lock();
+        try {
+            int target = router.shardOf(request.getCategory(), request.getIsbn());
+            if (router.getStrategy() == ShardingStrategy.CATEGORY) {
+                // The target shard checks its own books, the others may hold the ISBN under another category
+                requireUniqueIsbn(request.getIsbn(), router.shardsExcept(target));
+            }
+            return router.call(target, shard -> joinPoint.proceed());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Update the book where it is, then move it if its category or ISBN now places it on another shard
+     */
+    private Object update(ProceedingJoinPoint joinPoint, Long id, BookRequest request) throws Throwable {
+        ReentrantLock lock = isbnLock(request.getIsbn());
+        lock.lock();
+        try {
+            int owner = ownerOf(id);
+            int target = router.shardOf(request.getCategory(), request.getIsbn());
+            if (router.getStrategy() == ShardingStrategy.CATEGORY) {
+                requireUniqueIsbn(request.getIsbn(), router.shardsExcept(owner));
+            } else if (target != owner) {
+                requireUniqueIsbn(request.getIsbn(), List.of(target));
+            }
+            Object updated = router.call(owner, shard -> joinPoint.proceed());
+            if (target != owner) {
+                router.moveBook(id, owner, target);
+            }
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Try the shard that generated the id, then the others in case the book moved
+     */
+    private Object byId(ProceedingJoinPoint joinPoint, Long id) throws Throwable {
+        int home = router.homeShardOf(id);
+        try {
+            return router.call(home, shard -> joinPoint.proceed());
+        } catch (BookNotFoundException e) {
+            return firstFound(joinPoint, router.shardsExcept(home), e);
+        }
+    }
+    
+    private int ownerOf(Long id) throws Throwable {
+        int home = router.homeShardOf(id);
+        if (router.call(home, shard -> bookRepository.existsById(id))) {
+            return home;
+        }
+        List<Integer> others = router.shardsExcept(home);
+        List<Boolean> found = router.scatter(others, shard -> bookRepository.existsById(id));
+        int index = found.indexOf(Boolean.TRUE);
+        if (index < 0) {
+            throw new BookNotFoundException(id);
+        }
+        return others.get(index);
+    }
+    
+    private ReentrantLock isbnLock(String isbn) {
+        return isbnLocks[Math.floorMod(isbn.hashCode(), ISBN_LOCKS)];
+    }
+    
+    private void requireUniqueIsbn(String isbn, List<Integer> shards) throws Throwable {
+        if (router.scatter(shards, shard -> bookRepository.existsByIsbn(isbn)).contains(Boolean.TRUE)) {
+            throw new DuplicateIsbnException(isbn);
+        }
+    }
+    
+    /**
+     * Result of the first of the shards that has the book, or the given exception when none has it
+     */
+    private Object firstFound(ProceedingJoinPoint joinPoint, List<Integer> shards,
+                              BookNotFoundException notFound) throws Throwable {
+        List<Found> results = router.scatter(shards, shard -> {
+            try {
+                return new Found(joinPoint.proceed());
+            } catch (BookNotFoundException e) {
+                return null;
+            }
+        });
+        for (Found result : results) {
+            if (result != null) {
+                return result.value();
+            }
+        }
+        throw notFound;
+    }
+    
+    /**
+     * Rows of every shard in id order, as an unordered query returns them from a single table
+     */
+    private Object concatenated(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = withFields(joinPoint.getArgs(), BookField.ID);
+        List<BookResponse> books = new ArrayList<>();
+        for (List<BookResponse> part : scatterBooks(joinPoint, args)) {
+            books.addAll(part);
+        }
+        books.sort(BY_ID);
+        return books;
+    }
+    
+    /**
+     * K-way merge of the sorted rows of every shard. The sort field is read even when not selected;
+     * the response only serializes the requested fields.
+     */
+    private Object merged(ProceedingJoinPoint joinPoint, BookField sortField,
+                          Comparator<BookResponse> order) throws Throwable {
+        Object[] args = withFields(withFields(joinPoint.getArgs(), sortField), BookField.ID);
+        List<List<BookResponse>> parts = scatterBooks(joinPoint, args);
+        Comparator<BookResponse> total = order.thenComparing(BY_ID);
+        int[] positions = new int[parts.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(Math.max(1, parts.size()), (a, b) ->
+                total.compare(parts.get(a).get(positions[a]), parts.get(b).get(positions[b])));
+        int size = 0;
+        for (int part = 0; part < parts.size(); part++) {
+            size += parts.get(part).size();
+            if (!parts.get(part).isEmpty()) {
+                heads.add(part);
+            }
+        }
+        List<BookResponse> books = new ArrayList<>(size);
+        while (!heads.isEmpty()) {
+            int part = heads.poll();
+            books.add(parts.get(part).get(positions[part]++));
+            if (positions[part] < parts.get(part).size()) {
+                heads.add(part);
+            }
+        }
+        return books;
+    }
+    
+    /**
+     * Ask every shard for the keys and pass the merged results to the caller's sink in request order
+     */
+    @SuppressWarnings("unchecked")
+    private Object lookup(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        List<Object> keys = (List<Object>) args[0];
+        BiConsumer<Object, BookResponse> sink = (BiConsumer<Object, BookResponse>) args[2];
+        Map<Object, BookResponse> found = new ConcurrentHashMap<>();
+        BiConsumer<Object, BookResponse> collector = (key, book) -> {
+            if (book != null) {
+                found.put(key, book);
+            }
+        };
+        router.scatter(router.allShards(), shard -> joinPoint.proceed(new Object[] {keys, args[1], collector}));
+        for (Object key : keys) {
+            sink.accept(key, found.get(key));
+        }
+        return null;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Object countsByCategory(ProceedingJoinPoint joinPoint) throws Throwable {
+        Map<BookCategory, Long> counts = new EnumMap<>(BookCategory.class);
+        for (Object rows : router.scatter(router.allShards(), shard -> joinPoint.proceed())) {
+            for (Object[] row : (List<Object[]>) rows) {
+                counts.merge((BookCategory) row[0], ((Number) row[1]).longValue(), Long::sum);
+            }
+        }
+        List<Object[]> merged = new ArrayList<>(counts.size());
+        counts.forEach((category, count) -> merged.add(new Object[] {category, count}));
+        return merged;
+    }
+    
+    /**
+     * Average of the shard averages, each weighted by the number of books it covers
+     */
+    @SuppressWarnings("unchecked")
+    private Object averagesByCategory(ProceedingJoinPoint joinPoint) throws Throwable {
+        Map<BookCategory, double[]> totals = new EnumMap<>(BookCategory.class);
+        List<ShardAverages> parts = router.scatter(router.allShards(), shard ->
+                new ShardAverages((List<Object[]>) joinPoint.proceed(), bookRepository.countBooksByCategory()));
+        for (ShardAverages part : parts) {
+            Map<BookCategory, Long> counts = new EnumMap<>(BookCategory.class);
+            part.counts().forEach(row -> counts.put((BookCategory) row[0], ((Number) row[1]).longValue()));
+            for (Object[] row : part.averages()) {
+                long count = counts.getOrDefault(row[0], 0L);
+                double[] total = totals.computeIfAbsent((BookCategory) row[0], category -> new double[2]);
+                total[0] += ((Number) row[1]).doubleValue() * count;
+                total[1] += count;
+            }
+        }
+        List<Object[]> merged = new ArrayList<>(totals.size());
+        totals.forEach((category, total) -> merged.add(new Object[] {category, total[1] > 0 ? total[0] / total[1] : null}));
+        return merged;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<List<BookResponse>> scatterBooks(ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        return router.scatter(router.allShards(), shard -> (List<BookResponse>) joinPoint.proceed(args));
+    }
+    
+    /**
+     * The arguments with the field selection widened by the given field, which the merge needs
+     */
+    private static Object[] withFields(Object[] args, BookField field) {
+        Object[] widened = args.clone();
+        for (int i = 0; i < widened.length; i++) {
+            if (widened[i] instanceof FieldSet fields) {
+                widened[i] = fields.with(field);
+            }
+        }
+        return widened;
+    }
+    
+    /**
+     * Result of a shard that has the book, which may be null for void methods
+     */
+    private record Found(Object value) {
+    }
+    
+    /**
+     * Average price and number of books per category on one shard
+     */
+    private record ShardAverages(List<Object[]> averages, List<Object[]> counts) {
+    }
+}
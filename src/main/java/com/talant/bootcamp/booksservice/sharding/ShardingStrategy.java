@@ -0,0 +1,17 @@
+package com.talant.bootcamp.booksservice.sharding;
+
+/**
+ * How books are assigned to shards
+ */
+public enum ShardingStrategy {
+    
+    /**
+     * Every book of a category lives on the same shard, so a category listing reads one shard
+     */
+    CATEGORY,
+    
+    /**
+     * Books are spread by a consistent hash of the ISBN, so an ISBN lookup reads one shard
+     */
+    ISBN_HASH
+}
@@ -0,0 +1,17 @@
+package com.talant.bootcamp.booksservice.stock;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks handler methods whose stock changes go through the {@link StockWriteBehind} buffer when it
+ * is enabled. Those changes are written later, outside the transaction of the request.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BufferedStockWrite {
+}
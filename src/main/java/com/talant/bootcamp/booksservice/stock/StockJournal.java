@@ -0,0 +1,146 @@
+package com.talant.bootcamp.booksservice.stock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of buffered stock values. Each record holds a book id and its stock after
+ * the change, so replaying keeps the last record of every book. A new segment is started on each
+ * flush; the previous one is forced and closed, and deleted once its values are committed.
+ */
+class StockJournal {
+    
+    static final int RECORD_SIZE = Long.BYTES + Integer.BYTES;
+    
+    private static final String PREFIX = "stock-";
+    private static final String SUFFIX = ".journal";
+    
+    private final Path directory;
+    private long nextSegment;
+    private volatile Segment current;
+    
+    StockJournal(Path directory) {
+        this.directory = directory;
+    }
+    
+    /**
+     * Start a new segment and return the segments left by a previous run, oldest first
+     */
+    List<Path> open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> existing;
+        try (Stream<Path> files = Files.list(directory)) {
+            existing = files.filter(file -> segmentNumber(file) >= 0)
+                    .sorted(Comparator.comparingLong(StockJournal::segmentNumber))
+                    .toList();
+        }
+        nextSegment = existing.isEmpty() ? 0 : segmentNumber(existing.get(existing.size() - 1)) + 1;
+        current = newSegment();
+        return existing;
+    }
+    
+    /**
+     * Append a record to the current segment. The caller makes it durable with {@link #force(Segment)}.
+     */
+    Segment append(long bookId, int stock) throws IOException {
+        Segment segment = current;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).putLong(bookId).putInt(stock).flip();
+        while (record.hasRemaining()) {
+            segment.channel().write(record);
+        }
+        return segment;
+    }
+    
+    /**
+     * Wait until the records appended to the segment are on disk. Concurrent calls share the same
+     * sync. A segment that was rotated may already be closed, which forced it first.
+     */
+    void force(Segment segment) throws IOException {
+        try {
+            segment.channel().force(false);
+        } catch (ClosedChannelException e) {
+            if (segment == current) {
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Start a new segment and return the previous one, which receives no more records. The caller
+     * closes it once the appends to it are done.
+     */
+    Segment rotate() throws IOException {
+        Segment previous = current;
+        current = newSegment();
+        return previous;
+    }
+    
+    void close() throws IOException {
+        current.close();
+    }
+    
+    /**
+     * Read the last stock recorded for each book, ignoring a record torn by a crash
+     */
+    static Map<Long, Integer> replay(List<Path> segments) throws IOException {
+        Map<Long, Integer> stocks = new LinkedHashMap<>();
+        for (Path segment : segments) {
+            ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(segment));
+            while (records.remaining() >= RECORD_SIZE) {
+                stocks.put(records.getLong(), records.getInt());
+            }
+        }
+        return stocks;
+    }
+    
+    static void delete(List<Path> segments) throws IOException {
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+    }
+    
+    private Segment newSegment() throws IOException {
+        Path path = directory.resolve(PREFIX + nextSegment++ + SUFFIX);
+        return new Segment(path, FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+    
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * A journal file
+     */
+    record Segment(Path path, FileChannel channel) {
+        
+        /**
+         * Force the segment and close it, unless it already is. A channel whose force fails stays
+         * open, so closing can be retried.
+         */
+        void close() throws IOException {
+            if (channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.talant.bootcamp.booksservice.stock;
+
+import com.talant.bootcamp.booksservice.changes.BookChangeType;
+import com.talant.bootcamp.booksservice.changes.BookChangedEvent;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.exception.BookNotFoundException;
+import com.talant.bootcamp.booksservice.repository.BookJdbcRepository;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Optional write-behind buffer for stock updates. The stock of every book changed since the last
+ * flush is kept in memory, striped by book id, and each change is appended to a local journal
+ * before it is acknowledged. A scheduled flush writes one UPDATE per changed book, so a burst of
+ * changes to a bestseller costs one row update per interval instead of one transaction per call.
+ * On startup the values left in the journal by a crash are written before requests are served.
+ */
+@Component
+public class StockWriteBehind implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(StockWriteBehind.class);
+    
+    private final boolean enabled;
+    private final BookRepository bookRepository;
+    private final BookJdbcRepository bookJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final StockJournal journal;
+    private final Stripe[] stripes;
+    private final List<StockJournal.Segment> flushedSegments = new ArrayList<>();
+    private volatile boolean running;
+    
+    public StockWriteBehind(@Value("${bookstore.stock.write-behind.enabled:false}") boolean enabled,
+                            @Value("${bookstore.stock.write-behind.journal-directory:./data/stock-journal}") Path journalDirectory,
+                            @Value("${bookstore.stock.write-behind.stripes:64}") int stripes,
+                            BookRepository bookRepository,
+                            BookJdbcRepository bookJdbcRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.bookRepository = bookRepository;
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new StockJournal(journalDirectory.toAbsolutePath().normalize());
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Get the buffered stock of the book, or the stored one when it has no pending change
+     */
+    public int getStock(Long id, int storedStock) {
+        PendingStock pending = stripeOf(id).books.get(id);
+        return pending != null ? pending.stock : storedStock;
+    }
+    
+    /**
+     * Set the stock of a book, returning once the change is journaled
+     */
+    public int setStock(Long id, int stock) {
+        return update(id, current -> stock);
+    }
+    
+    /**
+     * Add a delta to the stock of a book, returning the new stock once the change is journaled
+     */
+    public int adjustStock(Long id, int delta) {
+        return update(id, current -> current + delta);
+    }
+    
+    /**
+     * Write the buffered stock of every changed book, one UPDATE per book in a single transaction
+     */
+    @Scheduled(fixedDelayString = "${bookstore.stock.write-behind.flush-interval:PT1S}")
+    public synchronized int flush() {
+        if (!running) {
+            return 0;
+        }
+        Map<Long, PendingStock> flushed = new HashMap<>();
+        Map<Long, Integer> stocks = new HashMap<>();
+        StockJournal.Segment rotated;
+        lockAll();
+        try {
+            for (Stripe stripe : stripes) {
+                stripe.books.forEach((id, pending) -> {
+                    if (pending.dirty) {
+                        pending.dirty = false;
+                        flushed.put(id, pending);
+                        stocks.put(id, pending.stock);
+                    }
+                });
+            }
+            if (flushed.isEmpty()) {
+                return 0;
+            }
+            rotated = journal.rotate();
+            flushedSegments.add(rotated);
+        } catch (IOException e) {
+            flushed.values().forEach(pending -> pending.dirty = true);
+            throw new UncheckedIOException("Stock journal rotation failed", e);
+        } finally {
+            unlockAll();
+        }
+        try {
+            rotated.close();
+        } catch (IOException e) {
+            log.warn("Could not close the rotated stock journal segment {}, closing it again before deleting it",
+                    rotated.path(), e);
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(stocks));
+        } catch (RuntimeException e) {
+            flushed.forEach((id, pending) -> markDirty(id, pending));
+            log.warn("Stock flush of {} books failed, retrying on the next flush", stocks.size(), e);
+            return 0;
+        }
+        
+        evict(flushed);
+        try {
+            for (StockJournal.Segment segment : flushedSegments) {
+                segment.close();
+            }
+            StockJournal.delete(flushedSegments.stream().map(StockJournal.Segment::path).toList());
+            flushedSegments.clear();
+        } catch (IOException e) {
+            log.warn("Could not delete flushed stock journal segments", e);
+        }
+        return stocks.size();
+    }
+    
+    /**
+     * Write the values left in the journal by the previous run, then start a new journal
+     */
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<Path> leftover = journal.open();
+            Map<Long, Integer> recovered = StockJournal.replay(leftover);
+            if (!recovered.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> write(recovered));
+                log.info("Recovered the buffered stock of {} books from the journal", recovered.size());
+            }
+            StockJournal.delete(leftover);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Stock journal recovery failed", e);
+        }
+        running = true;
+    }
+    
+    /**
+     * Flush what is still buffered once the web server no longer accepts requests
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        flush();
+        running = false;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Could not close the stock journal", e);
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Start before the web server and stop after it
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+    
+    private int update(Long id, IntUnaryOperator change) {
+        if (!running) {
+            throw new IllegalStateException("Stock write-behind is not running");
+        }
+        Stripe stripe = stripeOf(id);
+        StockJournal.Segment segment;
+        int stock;
+        stripe.lock.lock();
+        try {
+            PendingStock pending = stripe.books.get(id);
+            int current = pending != null ? pending.stock
+                    : bookRepository.findStockById(id).orElseThrow(() -> new BookNotFoundException(id));
+            stock = change.applyAsInt(current);
+            if (stock < 0) {
+                throw new IllegalArgumentException("Stock cannot be negative");
+            }
+            segment = journal.append(id, stock);
+            if (pending == null) {
+                pending = new PendingStock();
+                stripe.books.put(id, pending);
+            }
+            pending.stock = stock;
+            pending.dirty = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Stock journal write failed", e);
+        } finally {
+            stripe.lock.unlock();
+        }
+        
+        try {
+            journal.force(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Stock journal write failed", e);
+        }
+        return stock;
+    }
+    
+    private void write(Map<Long, Integer> stocks) {
+        bookJdbcRepository.updateStocks(stocks);
+        bookRepository.findAllById(stocks.keySet()).forEach(book -> eventPublisher.publishEvent(
+                new BookChangedEvent(BookChangeType.STOCK_CHANGED, book.getId(), book.getChangeSeq(),
+                        new BookResponse(book))));
+    }
+    
+    /**
+     * Drop the flushed books that did not change again, so the stored stock is read from then on
+     */
+    private void evict(Map<Long, PendingStock> flushed) {
+        flushed.forEach((id, pending) -> {
+            Stripe stripe = stripeOf(id);
+            stripe.lock.lock();
+            try {
+                if (!pending.dirty) {
+                    stripe.books.remove(id, pending);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        });
+    }
+    
+    private void markDirty(Long id, PendingStock pending) {
+        Stripe stripe = stripeOf(id);
+        stripe.lock.lock();
+        try {
+            pending.dirty = true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    private Stripe stripeOf(Long id) {
+        return stripes[Math.floorMod(Long.hashCode(id), stripes.length)];
+    }
+    
+    private void lockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+    }
+    
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].lock.unlock();
+        }
+    }
+    
+    /**
+     * Books of one stripe, read without locking and changed under the stripe lock
+     */
+    private static final class Stripe {
+        
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, PendingStock> books = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Stock of a book that is buffered, and whether it changed since the last flush
+     */
+    private static final class PendingStock {
+        
+        private volatile int stock;
+        private boolean dirty;
+    }
+}
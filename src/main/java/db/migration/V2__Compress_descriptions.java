@@ -0,0 +1,48 @@
+package db.migration;
+
+import com.talant.bootcamp.booksservice.model.CompressedTextConverter;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Moves book descriptions to a compressed BLOB column, which is only read when a description is asked for
+ */
+public class V2__Compress_descriptions extends BaseJavaMigration {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE books ADD COLUMN description_compressed BLOB");
+        }
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery("SELECT id, description FROM books WHERE description IS NOT NULL");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE books SET description_compressed = ? WHERE id = ?")) {
+            int pending = 0;
+            while (rs.next()) {
+                update.setBytes(1, CompressedTextConverter.compress(rs.getString(2)));
+                update.setLong(2, rs.getLong(1));
+                update.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE books DROP COLUMN description");
+            statement.execute("ALTER TABLE books ALTER COLUMN description_compressed RENAME TO description");
+        }
+    }
+}
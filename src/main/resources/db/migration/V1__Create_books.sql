@@ -0,0 +1,15 @@
+CREATE TABLE books (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title       VARCHAR(255)   NOT NULL,
+    author      VARCHAR(255)   NOT NULL,
+    isbn        VARCHAR(255)   NOT NULL,
+    description VARCHAR(1000),
+    price       NUMERIC(10, 2) NOT NULL,
+    stock       INTEGER        NOT NULL,
+    category    VARCHAR(255)   NOT NULL,
+    created_at  TIMESTAMP(6)   NOT NULL,
+    updated_at  TIMESTAMP(6),
+    CONSTRAINT uk_books_isbn UNIQUE (isbn)
+);
+
+CREATE INDEX idx_books_category ON books (category);
@@ -0,0 +1,14 @@
+CREATE SEQUENCE book_change_seq START WITH 1 INCREMENT BY 1;
+
+ALTER TABLE books ADD COLUMN change_seq BIGINT
+    DEFAULT NEXT VALUE FOR book_change_seq ON UPDATE NEXT VALUE FOR book_change_seq NOT NULL;
+
+CREATE INDEX idx_books_change_seq ON books (change_seq);
+
+CREATE TABLE book_tombstones (
+    change_seq  BIGINT       PRIMARY KEY,
+    book_id     BIGINT       NOT NULL,
+    deleted_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_book_tombstones_deleted_at ON book_tombstones (deleted_at);
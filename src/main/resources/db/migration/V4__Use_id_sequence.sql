@@ -0,0 +1,5 @@
+CREATE SEQUENCE book_id_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE book_id_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM books);
+
+ALTER TABLE books ALTER COLUMN id DROP IDENTITY;
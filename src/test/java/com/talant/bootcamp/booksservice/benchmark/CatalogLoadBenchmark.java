@@ -0,0 +1,46 @@
+package com.talant.bootcamp.booksservice.benchmark;
+
+import com.talant.bootcamp.booksservice.BooksserviceApplication;
+import com.talant.bootcamp.booksservice.catalog.CatalogGenerator;
+import com.talant.bootcamp.booksservice.catalog.CatalogLoader;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast a synthetic catalog can be generated and bulk loaded.
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.talant.bootcamp.booksservice.benchmark.CatalogLoadBenchmark -Dexec.args=5000000
+ * </pre>
+ */
+public class CatalogLoadBenchmark {
+    
+    public static void main(String[] args) {
+        long books = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BooksserviceApplication.class)
+                .run("--spring.main.web-application-type=none",
+                     "--spring.main.banner-mode=off",
+                     "--spring.jpa.show-sql=false",
+                     "--logging.level.root=WARN",
+                     "--logging.level.org.springframework.web=WARN")) {
+            CatalogLoader loader = context.getBean(CatalogLoader.class);
+            BookRepository repository = context.getBean(BookRepository.class);
+            
+            long start = System.nanoTime();
+            CatalogGenerator generator = new CatalogGenerator(42, (int) Math.min(200_000, Math.max(100, books / 20)));
+            for (long i = 0; i < Math.min(books, 100_000); i++) {
+                generator.generate(i);
+            }
+            long generationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.printf("generation only: %d books in %d ms%n", Math.min(books, 100_000), generationMs);
+            
+            CatalogLoader.LoadResult result = loader.load(books, generator);
+            System.out.printf("load: %d books in %d ms (%d rows/s), %d rows in the table%n",
+                    result.rows(), result.millis(), result.rowsPerSecond(), repository.count());
+        }
+    }
+}
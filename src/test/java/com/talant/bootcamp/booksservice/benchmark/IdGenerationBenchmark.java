@@ -0,0 +1,138 @@
+package com.talant.bootcamp.booksservice.benchmark;
+
+import com.talant.bootcamp.booksservice.id.SnowflakeIdGenerator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares inserting books with database-generated IDENTITY keys, read back row by row, against
+ * ids assigned before the insert from pooled-lo sequence blocks or a Snowflake generator, which
+ * allow JDBC batches.
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.talant.bootcamp.booksservice.benchmark.IdGenerationBenchmark -Dexec.args=200000
+ * </pre>
+ */
+public class IdGenerationBenchmark {
+    
+    private static final int BATCH_SIZE = 50;
+    private static final String COLUMNS = "title VARCHAR(255) NOT NULL, isbn VARCHAR(255) NOT NULL, stock INTEGER NOT NULL";
+    
+    public static void main(String[] args) throws SQLException {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:id-benchmark;DB_CLOSE_DELAY=-1", "sa", "")) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE identity_books (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " + COLUMNS + ")");
+                statement.execute("CREATE TABLE sequence_books (id BIGINT PRIMARY KEY, " + COLUMNS + ")");
+                statement.execute("CREATE TABLE snowflake_books (id BIGINT PRIMARY KEY, " + COLUMNS + ")");
+                statement.execute("CREATE SEQUENCE book_id_seq START WITH 1 INCREMENT BY " + BATCH_SIZE);
+            }
+            for (int round = 0; round < 3; round++) {
+                System.out.printf("round %d%n", round + 1);
+                report("identity", books, time(() -> insertIdentity(connection, books)));
+                report("pooled-lo", books, time(() -> insertPooled(connection, books)));
+                report("snowflake", books, time(() -> insertSnowflake(connection, books, new SnowflakeIdGenerator(1))));
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("TRUNCATE TABLE identity_books");
+                    statement.execute("TRUNCATE TABLE sequence_books");
+                    statement.execute("TRUNCATE TABLE snowflake_books");
+                }
+                connection.commit();
+            }
+        }
+    }
+    
+    /**
+     * One statement per row, since each generated key is read back before the next insert
+     */
+    private static void insertIdentity(Connection connection, int books) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO identity_books (title, isbn, stock) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < books; i++) {
+                bind(insert, 1, i);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    keys.getLong(1);
+                }
+            }
+        }
+        connection.commit();
+    }
+    
+    /**
+     * One sequence call per block of ids, and one batch per block
+     */
+    private static void insertPooled(Connection connection, int books) throws SQLException {
+        try (PreparedStatement next = connection.prepareStatement("SELECT NEXT VALUE FOR book_id_seq");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO sequence_books (id, title, isbn, stock) VALUES (?, ?, ?, ?)")) {
+            long id = 0;
+            long blockEnd = 0;
+            for (int i = 0; i < books; i++) {
+                if (id == blockEnd) {
+                    try (ResultSet block = next.executeQuery()) {
+                        block.next();
+                        id = block.getLong(1);
+                        blockEnd = id + BATCH_SIZE;
+                    }
+                }
+                insert.setLong(1, id++);
+                bind(insert, 2, i);
+                addToBatch(insert, i);
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+    
+    private static void insertSnowflake(Connection connection, int books, SnowflakeIdGenerator generator) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO snowflake_books (id, title, isbn, stock) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < books; i++) {
+                insert.setLong(1, generator.nextId());
+                bind(insert, 2, i);
+                addToBatch(insert, i);
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+    
+    private static void bind(PreparedStatement insert, int first, int i) throws SQLException {
+        insert.setString(first, "Book " + i);
+        insert.setString(first + 1, "%013d".formatted(i));
+        insert.setInt(first + 2, i % 100);
+    }
+    
+    private static void addToBatch(PreparedStatement insert, int i) throws SQLException {
+        insert.addBatch();
+        if ((i + 1) % BATCH_SIZE == 0) {
+            insert.executeBatch();
+        }
+    }
+    
+    private static long time(Insert insert) throws SQLException {
+        long start = System.nanoTime();
+        insert.run();
+        return System.nanoTime() - start;
+    }
+    
+    private static void report(String strategy, int books, long nanos) {
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos));
+        System.out.printf("  %-10s %d books in %d ms (%d rows/s)%n", strategy, books, millis, books * 1000L / millis);
+    }
+    
+    @FunctionalInterface
+    private interface Insert {
+        void run() throws SQLException;
+    }
+}
@@ -0,0 +1,65 @@
+package com.talant.bootcamp.booksservice.benchmark;
+
+import com.talant.bootcamp.booksservice.BooksserviceApplication;
+import com.talant.bootcamp.booksservice.cache.SecondLevelCache;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.service.BookService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the statements sent to the database by repeated lookups by id, by ISBN and by category,
+ * with the second-level cache off and on.
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.talant.bootcamp.booksservice.benchmark.SecondLevelCacheBenchmark -Dexec.args=20000
+ * </pre>
+ */
+public class SecondLevelCacheBenchmark {
+    
+    public static void main(String[] args) {
+        int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        for (boolean enabled : new boolean[] {false, true}) {
+            run(enabled, lookups);
+        }
+    }
+    
+    private static void run(boolean enabled, int lookups) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BooksserviceApplication.class)
+                .run("--server.port=0",
+                     "--spring.main.banner-mode=off",
+                     "--spring.jpa.show-sql=false",
+                     "--logging.level.root=WARN",
+                     "--bookstore.catalog.synthetic-size=1000",
+                     "--bookstore.cache.statistics-enabled=true",
+                     "--bookstore.cache.second-level.enabled=" + enabled)) {
+            BookService bookService = context.getBean(BookService.class);
+            SecondLevelCache cache = context.getBean(SecondLevelCache.class);
+            List<BookResponse> books = bookService.getAllBooks();
+            // Lookups repeat over a hot set of 100 books, the way bestsellers are read
+            List<BookResponse> hot = books.subList(0, Math.min(100, books.size()));
+            BookCategory[] categories = BookCategory.values();
+            
+            long statements = cache.getStats().preparedStatements();
+            long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                BookResponse book = hot.get(i % hot.size());
+                bookService.getBookById(book.getId());
+                bookService.getBookByIsbn(book.getIsbn());
+                if (i % 10 == 0) {
+                    bookService.getBooksByCategory(categories[i / 10 % categories.length]);
+                }
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long calls = lookups * 2L + (lookups + 9) / 10;
+            long sent = cache.getStats().preparedStatements() - statements;
+            System.out.printf("second-level cache %-3s: %d calls in %d ms, %d statements (%.2f per call)%n",
+                    enabled ? "on" : "off", calls, millis, sent, (double) sent / calls);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.talant.bootcamp.booksservice.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.talant.bootcamp.booksservice.catalog.CatalogGenerator;
+import com.talant.bootcamp.booksservice.config.WebConfig;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.model.Book;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares bytes on the wire and serialization CPU of list responses in JSON, CBOR and Smile,
+ * with and without shared string references.
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.talant.bootcamp.booksservice.benchmark.SerializationBenchmark -Dexec.args=1000
+ * </pre>
+ */
+public class SerializationBenchmark {
+    
+    private static final long WARMUP_NANOS = 3_000_000_000L;
+    private static final long MEASURE_NANOS = 5_000_000_000L;
+    
+    public static void main(String[] args) throws IOException {
+        int listSize = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        List<BookResponse> books = books(listSize);
+        
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("cbor (plain)", Jackson2ObjectMapperBuilder.cbor().build());
+        mappers.put("cbor (stringref)", WebConfig.cborObjectMapper(Jackson2ObjectMapperBuilder.json()));
+        mappers.put("smile (plain)", Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build());
+        mappers.put("smile (shared values)", WebConfig.smileObjectMapper(Jackson2ObjectMapperBuilder.json()));
+        
+        System.out.printf("%d books per list%n", listSize);
+        System.out.printf("%-22s %10s %10s %14s %14s%n", "format", "bytes", "gzip", "write us/op", "read us/op");
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            byte[] body = mapper.writeValueAsBytes(books);
+            double writeMicros = measure(() -> mapper.writeValueAsBytes(books));
+            double readMicros = measure(() -> mapper.readValue(body, new TypeReference<List<BookResponse>>() {}));
+            System.out.printf("%-22s %10d %10d %14.1f %14.1f%n",
+                    entry.getKey(), body.length, gzip(body), writeMicros, readMicros);
+        }
+    }
+    
+    private static List<BookResponse> books(int count) {
+        CatalogGenerator generator = new CatalogGenerator(42, Math.max(100, count / 20));
+        LocalDateTime now = LocalDateTime.now();
+        List<BookResponse> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Book book = generator.generate(i);
+            book.setId(i + 1L);
+            book.setCreatedAt(now.minusSeconds(i));
+            book.setUpdatedAt(now);
+            books.add(new BookResponse(book));
+        }
+        return books;
+    }
+    
+    private static double measure(Operation operation) throws IOException {
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            operation.run();
+        }
+        long iterations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            operation.run();
+            iterations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        return elapsed / 1000.0 / iterations;
+    }
+    
+    private static int gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.size();
+    }
+    
+    @FunctionalInterface
+    private interface Operation {
+        Object run() throws IOException;
+    }
+}
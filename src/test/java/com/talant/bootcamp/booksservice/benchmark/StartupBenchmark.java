@@ -0,0 +1,117 @@
+package com.talant.bootcamp.booksservice.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup benchmark: launches the application in a fresh JVM and reports the time until the
+ * first successful {@code GET /api/books/{id}}.
+ *
+ * <pre>
+ * mvn -Pfast-startup package -DskipTests
+ * java -cp target/test-classes com.talant.bootcamp.booksservice.benchmark.StartupBenchmark [runs]
+ * </pre>
+ */
+public class StartupBenchmark {
+    
+    private static final Path TARGET = Path.of("target");
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String jarName = findJarName();
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Path fastStartupDir = TARGET.resolve("fast-startup");
+        
+        List<Mode> modes = new ArrayList<>();
+        modes.add(new Mode("default", List.of(java, "-jar", TARGET.resolve(jarName).toString())));
+        modes.add(new Mode("fast-startup profile", List.of(java, "-Dspring.profiles.active=fast-startup",
+                "-jar", TARGET.resolve(jarName).toString())));
+        if (Files.exists(fastStartupDir.resolve("application.jsa"))) {
+            modes.add(new Mode("fast-startup + AOT + AppCDS", List.of(java,
+                    "-XX:SharedArchiveFile=" + fastStartupDir.resolve("application.jsa"),
+                    "-Xlog:cds=off", "-Dspring.aot.enabled=true", "-Dspring.profiles.active=fast-startup",
+                    "-jar", fastStartupDir.resolve(jarName).toString())));
+        } else {
+            System.out.println("No AppCDS archive found, run 'mvn -Pfast-startup package' to include that mode");
+        }
+        
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        System.out.printf("%-30s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms");
+        for (Mode mode : modes) {
+            long[] samples = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                samples[i] = timeToFirstLookup(mode, client);
+            }
+            Arrays.sort(samples);
+            System.out.printf("%-30s %10d %10d %10d%n",
+                    mode.name(), samples[0], samples[runs / 2], samples[runs - 1]);
+        }
+    }
+    
+    private static long timeToFirstLookup(Mode mode, HttpClient client) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(mode.command());
+        command.add(command.size() - 2, "-Dserver.port=" + port);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/books/1"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("No successful lookup within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+    
+    private static String findJarName() throws IOException {
+        try (var files = Files.list(TARGET)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".jar") && !name.endsWith("-plain.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Build the application jar first"));
+        }
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+    
+    private record Mode(String name, List<String> command) {}
+}
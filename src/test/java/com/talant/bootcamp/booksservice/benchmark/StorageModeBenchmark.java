@@ -0,0 +1,90 @@
+package com.talant.bootcamp.booksservice.benchmark;
+
+import com.talant.bootcamp.booksservice.BooksserviceApplication;
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.service.BookService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the in-memory and the file-backed storage modes: time to a ready context on the
+ * first start and on a restart, and write throughput through {@link BookService#createBook}
+ * (one transaction per book, as through the API).
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.talant.bootcamp.booksservice.benchmark.StorageModeBenchmark -Dexec.args=5000
+ * </pre>
+ */
+public class StorageModeBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        int writes = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        Path storageDir = Files.createTempDirectory("bookstore-benchmark");
+        
+        System.out.printf("%-8s %14s %12s %14s %16s%n",
+                "mode", "first start ms", "writes/s", "restart ms", "books on restart");
+        // The first run warms up the JIT for both modes
+        run("warm-up", null, writes);
+        run("memory", null, writes);
+        run("file", storageDir.resolve("bookstoredb").toString(), writes);
+    }
+    
+    private static void run(String mode, String storagePath, int writes) {
+        long start = System.nanoTime();
+        long firstStartMs;
+        double writesPerSecond;
+        try (ConfigurableApplicationContext context = start(storagePath)) {
+            firstStartMs = elapsedMs(start);
+            BookService bookService = context.getBean(BookService.class);
+            
+            long writeStart = System.nanoTime();
+            for (int i = 0; i < writes; i++) {
+                bookService.createBook(request(i));
+            }
+            writesPerSecond = writes / ((System.nanoTime() - writeStart) / 1_000_000_000.0);
+        }
+        
+        start = System.nanoTime();
+        try (ConfigurableApplicationContext context = start(storagePath)) {
+            long restartMs = elapsedMs(start);
+            long books = context.getBean(BookRepository.class).count();
+            System.out.printf("%-8s %14d %12.0f %14d %16d%n", mode, firstStartMs, writesPerSecond, restartMs, books);
+        }
+    }
+    
+    private static ConfigurableApplicationContext start(String storagePath) {
+        List<String> args = new ArrayList<>(List.of(
+            "--spring.main.web-application-type=none",
+            "--spring.main.banner-mode=off",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.org.springframework.web=WARN"
+        ));
+        if (storagePath != null) {
+            args.add("--spring.profiles.active=file");
+            args.add("--bookstore.storage.path=" + storagePath);
+        }
+        return new SpringApplicationBuilder(BooksserviceApplication.class).run(args.toArray(String[]::new));
+    }
+    
+    private static BookRequest request(int index) {
+        String isbn = "979" + String.format("%010d", index);
+        return new BookRequest("Benchmark Book " + index, "Benchmark Author " + (index % 100), isbn,
+                "Generated for the storage benchmark", new BigDecimal("19.99"), index % 50,
+                BookCategory.values()[index % BookCategory.values().length]);
+    }
+    
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
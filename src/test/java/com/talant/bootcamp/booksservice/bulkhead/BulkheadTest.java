@@ -0,0 +1,62 @@
+package com.talant.bootcamp.booksservice.bulkhead;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@DisplayName("Bulkhead Tests")
+class BulkheadTest {
+    
+    @Test
+    @DisplayName("Should reject at once when permits and queue are taken")
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofSeconds(5));
+        assertThat(bulkhead.tryEnter()).isTrue();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> queued = executor.submit(bulkhead::tryEnter);
+            await().atMost(5, TimeUnit.SECONDS).until(() -> bulkhead.getStats().queued() == 1);
+            
+            long start = System.nanoTime();
+            assertThat(bulkhead.tryEnter()).isFalse();
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+            
+            bulkhead.exit();
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertThat(bulkhead.getStats()).isEqualTo(new Bulkhead.Stats(1, 1, 1, 0, 1));
+    }
+    
+    @Test
+    @DisplayName("Should reject a queued call after the maximum wait")
+    void shouldRejectAfterMaximumWait() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 4, Duration.ofMillis(50));
+        assertThat(bulkhead.tryEnter()).isTrue();
+        
+        assertThat(bulkhead.tryEnter()).isFalse();
+        
+        bulkhead.exit();
+        assertThat(bulkhead.tryEnter()).isTrue();
+        assertThat(bulkhead.getStats()).isEqualTo(new Bulkhead.Stats(1, 1, 4, 0, 1));
+    }
+    
+    @Test
+    @DisplayName("Should refuse a scan lane that can take the whole connection pool")
+    void shouldRefuseScanLaneAsLargeAsPool() {
+        assertThatThrownBy(() -> new Bulkheads(16, 64, Duration.ofSeconds(1), 10, 8, Duration.ofMillis(500),
+                Duration.ofSeconds(1), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,28 @@
+package com.talant.bootcamp.booksservice.bulkhead;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Bulkheads Tests")
+class BulkheadsTest {
+    
+    @Test
+    @DisplayName("Should refuse lanes that together hold more connections than the pool")
+    void shouldRefuseLanesLargerThanPool() {
+        assertThatThrownBy(() -> bulkheads(8, 4, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("8 concurrent point lookups and 4 concurrent scans with a pool of 10");
+        
+        assertThat(bulkheads(6, 4, 10).get(Lane.POINT).getStats().maxConcurrent()).isEqualTo(6);
+    }
+    
+    private static Bulkheads bulkheads(int pointMaxConcurrent, int scanMaxConcurrent, int connectionPoolSize) {
+        return new Bulkheads(pointMaxConcurrent, 64, Duration.ofSeconds(1), scanMaxConcurrent, 8,
+                Duration.ofMillis(500), Duration.ofSeconds(1), connectionPoolSize);
+    }
+}
@@ -0,0 +1,90 @@
+package com.talant.bootcamp.booksservice.catalog;
+
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Catalog Generator Tests")
+class CatalogGeneratorTest {
+
+    private static final int BOOKS = 20_000;
+
+    @Test
+    @DisplayName("Should generate the same book for the same seed and index")
+    void shouldBeDeterministic() {
+        CatalogGenerator first = new CatalogGenerator(7, 1000);
+        CatalogGenerator second = new CatalogGenerator(7, 1000);
+
+        for (long index : new long[] {0, 1, 12_345, 999_999}) {
+            Book a = first.generate(index);
+            Book b = second.generate(index);
+            assertThat(a).usingRecursiveComparison().isEqualTo(b);
+        }
+        assertThat(new CatalogGenerator(8, 1000).generate(12_345).getTitle() + new CatalogGenerator(8, 1000).generate(12_345).getAuthor())
+            .isNotEqualTo(first.generate(12_345).getTitle() + first.generate(12_345).getAuthor());
+    }
+
+    @Test
+    @DisplayName("Should generate books that satisfy the book constraints")
+    void shouldRespectConstraints() {
+        CatalogGenerator generator = new CatalogGenerator(42, 1000);
+        Set<String> isbns = new HashSet<>();
+
+        for (long index = 0; index < BOOKS; index++) {
+            Book book = generator.generate(index);
+            assertThat(book.getIsbn()).matches("^979[0-9]{10}$");
+            assertThat(isbns.add(book.getIsbn())).isTrue();
+            assertThat(book.getTitle()).isNotBlank().hasSizeLessThanOrEqualTo(255);
+            assertThat(book.getAuthor()).isNotBlank().hasSizeLessThanOrEqualTo(255);
+            assertThat(book.getPrice()).isGreaterThan(BigDecimal.ZERO).isLessThanOrEqualTo(new BigDecimal("9999.99"));
+            assertThat(book.getStock()).isBetween(0, 999_999);
+            if (book.getDescription() != null) {
+                assertThat(book.getDescription()).hasSizeLessThanOrEqualTo(1000);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should produce valid ISBN-13 check digits")
+    void shouldProduceValidIsbn13() {
+        String isbn = CatalogGenerator.isbn(123_456_789);
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            int digit = isbn.charAt(i) - '0';
+            sum += (i % 2 == 0) ? digit : digit * 3;
+        }
+
+        assertThat(sum % 10).isZero();
+    }
+
+    @Test
+    @DisplayName("Should skew authors and categories")
+    void shouldSkewDistributions() {
+        CatalogGenerator generator = new CatalogGenerator(42, 1000);
+        Map<String, Long> booksPerAuthor = new HashMap<>();
+        Map<BookCategory, Long> booksPerCategory = new EnumMap<>(BookCategory.class);
+        for (long index = 0; index < BOOKS; index++) {
+            Book book = generator.generate(index);
+            booksPerAuthor.merge(book.getAuthor(), 1L, Long::sum);
+            booksPerCategory.merge(book.getCategory(), 1L, Long::sum);
+        }
+
+        long topAuthor = booksPerAuthor.values().stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertThat(topAuthor).isGreaterThan(BOOKS / 50);
+        assertThat(booksPerCategory.get(BookCategory.FICTION)).isGreaterThan(booksPerCategory.get(BookCategory.ACADEMIC) * 10);
+        Map<Boolean, Long> accented = booksPerAuthor.keySet().stream()
+            .collect(Collectors.partitioningBy(name -> !name.chars().allMatch(c -> c < 128), Collectors.counting()));
+        assertThat(accented.get(true)).isPositive();
+    }
+}
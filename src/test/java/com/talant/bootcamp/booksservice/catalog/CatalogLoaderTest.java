@@ -0,0 +1,45 @@
+package com.talant.bootcamp.booksservice.catalog;
+
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Catalog Loader Tests")
+class CatalogLoaderTest {
+
+    @Autowired
+    private CatalogLoader catalogLoader;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should load a generated catalog in parallel batches")
+    void shouldLoadCatalog() {
+        CatalogGenerator generator = new CatalogGenerator(42, 500);
+
+        CatalogLoader.LoadResult result = catalogLoader.load(12_345, generator);
+
+        assertThat(result.rows()).isEqualTo(12_345);
+        assertThat(bookRepository.count()).isEqualTo(12_345);
+        Book stored = bookRepository.findByIsbn(CatalogGenerator.isbn(9_999)).orElseThrow();
+        assertThat(stored.getTitle()).isEqualTo(generator.generate(9_999).getTitle());
+        assertThat(stored.getAuthor()).isEqualTo(generator.generate(9_999).getAuthor());
+
+        bookRepository.deleteAllInBatch();
+    }
+}
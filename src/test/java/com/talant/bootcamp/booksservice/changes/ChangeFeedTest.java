@@ -0,0 +1,252 @@
+package com.talant.bootcamp.booksservice.changes;
+
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookJdbcRepository;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Change Feed Tests")
+class ChangeFeedTest {
+    
+    @Autowired
+    private ChangeFeed changeFeed;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private BookJdbcRepository bookJdbcRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+    }
+    
+    @Test
+    @DisplayName("Should stream committed changes and skip rolled back ones")
+    void shouldStreamCommittedChanges() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeFeed.subscribe(emitter, null);
+        
+        BookResponse created = bookService.createBook(new BookRequest("Dune", "Frank Herbert", "9780441172719",
+                "Arrakis", new BigDecimal("9.99"), 3, BookCategory.SCIENCE_FICTION));
+        TransactionTemplate rolledBack = new TransactionTemplate(transactionManager);
+        rolledBack.executeWithoutResult(status -> {
+            bookService.updateStock(created.getId(), 50);
+            status.setRollbackOnly();
+        });
+        bookService.updateStock(created.getId(), 7);
+        bookService.deleteBook(created.getId());
+        
+        await().atMost(Duration.ofSeconds(5)).until(() -> emitter.changes().size() == 3);
+        List<BookChange> changes = emitter.changes();
+        assertThat(changes).extracting(BookChange::type)
+                .containsExactly(BookChangeType.CREATED, BookChangeType.STOCK_CHANGED, BookChangeType.DELETED);
+        assertThat(changes.get(1).book().getStock()).isEqualTo(7);
+        assertThat(changes.get(2).bookId()).isEqualTo(created.getId());
+        assertThat(changes.get(2).sequence()).isEqualTo(changes.get(0).sequence() + 2);
+    }
+    
+    @Test
+    @DisplayName("Should stream a change for every book a bulk write creates or updates")
+    void shouldStreamBulkWrites() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeFeed.subscribe(emitter, null);
+        Book dune = new Book("Dune", "Frank Herbert", "9780441172719", "Arrakis",
+                new BigDecimal("9.99"), 3, BookCategory.SCIENCE_FICTION);
+        Book emma = new Book("Emma", "Jane Austen", "9780141439587", "Highbury",
+                new BigDecimal("7.50"), 1, BookCategory.ROMANCE);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        
+        transaction.executeWithoutResult(status -> bookJdbcRepository.insertBatch(List.of(dune)));
+        dune.setStock(8);
+        transaction.executeWithoutResult(status -> bookJdbcRepository.upsertBatch(List.of(dune, emma)));
+        
+        await().atMost(Duration.ofSeconds(5)).until(() -> emitter.changes().size() == 3);
+        List<BookChange> changes = emitter.changes();
+        assertThat(changes.get(0).type()).isEqualTo(BookChangeType.CREATED);
+        assertThat(changes.subList(1, 3)).extracting(change -> change.book().getIsbn(), BookChange::type)
+                .containsExactlyInAnyOrder(tuple("9780441172719", BookChangeType.UPDATED),
+                        tuple("9780141439587", BookChangeType.CREATED));
+        assertThat(changes.subList(1, 3)).filteredOn(change -> change.type() == BookChangeType.UPDATED)
+                .singleElement()
+                .satisfies(change -> {
+                    assertThat(change.bookId()).isEqualTo(changes.get(0).bookId());
+                    assertThat(change.book().getStock()).isEqualTo(8);
+                });
+    }
+    
+    @Test
+    @DisplayName("Should stream a single reset for a bulk write above the threshold")
+    void shouldStreamResetForLargeBulkWrites() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeFeed.subscribe(emitter, null);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            books.add(new Book("Title " + i, "Author", String.format("9780000001%03d", i), null,
+                    new BigDecimal("9.99"), i, BookCategory.FICTION));
+        }
+        
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> bookJdbcRepository.insertBatch(books));
+        
+        await().atMost(Duration.ofSeconds(5)).until(() -> emitter.changes().size() == 1);
+        BookChange reset = emitter.changes().get(0);
+        assertThat(reset.type()).isEqualTo(BookChangeType.RESET);
+        assertThat(reset.bookId()).isNull();
+        assertThat(reset.book()).isNull();
+    }
+    
+    @Test
+    @DisplayName("Should resume after the last event and report evicted changes")
+    void shouldResumeFromLastEventId() {
+        ChangeFeed feed = new ChangeFeed(4, 100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        for (long id = 1; id <= 10; id++) {
+            feed.publish(BookChangeType.UPDATED, id, null);
+        }
+        
+        RecordingEmitter recent = new RecordingEmitter();
+        RecordingEmitter stale = new RecordingEmitter();
+        RecordingEmitter beforeRestart = new RecordingEmitter();
+        feed.subscribe(recent, 8L);
+        feed.subscribe(stale, 2L);
+        feed.subscribe(beforeRestart, 50L);
+        feed.publish(BookChangeType.DELETED, 11L, null);
+        
+        await().atMost(Duration.ofSeconds(5)).until(() -> recent.changes().size() == 3 && stale.messages.size() == 6
+                && beforeRestart.messages.size() == 6);
+        assertThat(recent.changes()).extracting(BookChange::sequence).containsExactly(9L, 10L, 11L);
+        assertThat(stale.messages.get(0)).isEqualTo(new ChangeFeed.Reset(2, 7));
+        assertThat(stale.changes()).extracting(BookChange::sequence).containsExactly(7L, 8L, 9L, 10L, 11L);
+        assertThat(beforeRestart.messages.get(0)).isEqualTo(new ChangeFeed.Reset(50, 7));
+        assertThat(beforeRestart.changes()).extracting(BookChange::sequence).containsExactly(7L, 8L, 9L, 10L, 11L);
+        feed.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should disconnect subscribers that fall behind")
+    void shouldEvictSlowSubscribers() throws Exception {
+        ChangeFeed feed = new ChangeFeed(100, 2, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    stalled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        feed.subscribe(slow, null);
+        
+        for (long id = 1; id <= 10; id++) {
+            feed.publish(BookChangeType.UPDATED, id, null);
+        }
+        
+        assertThat(feed.getSubscriberCount()).isZero();
+        stalled.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> slow.completed);
+        assertThat(slow.changes().size()).isLessThan(10);
+        feed.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should disconnect subscribers whose writes block past the send timeout")
+    void shouldEvictStalledSubscribers() throws Exception {
+        ChangeFeed feed = new ChangeFeed(100, 100, Duration.ofMinutes(1), Duration.ofMillis(50));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingEmitter blocked = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                writing.countDown();
+                try {
+                    stalled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        RecordingEmitter healthy = new RecordingEmitter();
+        feed.subscribe(blocked, null);
+        feed.subscribe(healthy, null);
+        
+        feed.publish(BookChangeType.UPDATED, 1L, null);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        await().atMost(Duration.ofSeconds(5)).until(() -> healthy.changes().size() == 1);
+        Thread.sleep(100);
+        feed.closeStalledSubscribers();
+        
+        assertThat(feed.getSubscriberCount()).isEqualTo(1);
+        stalled.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> blocked.completed);
+        feed.shutdown();
+    }
+    
+    /**
+     * Emitter that records the payload of every event instead of writing it to a response
+     */
+    static class RecordingEmitter extends SseEmitter {
+        
+        final List<Object> messages = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+        
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof BookChange || data.getData() instanceof ChangeFeed.Reset) {
+                    messages.add(data.getData());
+                }
+            }
+        }
+        
+        @Override
+        public void complete() {
+            completed = true;
+        }
+        
+        List<BookChange> changes() {
+            return messages.stream()
+                    .filter(BookChange.class::isInstance)
+                    .map(BookChange.class::cast)
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.talant.bootcamp.booksservice.coalescing;
+
+import com.talant.bootcamp.booksservice.changes.BookChangeType;
+import com.talant.bootcamp.booksservice.changes.BookChangedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@DisplayName("Single Flight Tests")
+class SingleFlightTest {
+    
+    private final SingleFlight singleFlight = new SingleFlight(Duration.ofSeconds(5));
+    
+    @Test
+    @DisplayName("Should share one execution among concurrent calls with equal keys")
+    void shouldShareExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Object result = new Object();
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<Object>> calls = new ArrayList<>();
+            calls.add(executor.submit(() -> call("search", "dune", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                release.await();
+                return result;
+            })));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 4; i++) {
+                calls.add(executor.submit(() -> call("search", "dune", () -> {
+                    executions.incrementAndGet();
+                    return new Object();
+                })));
+            }
+            await().atMost(5, TimeUnit.SECONDS).until(() -> singleFlight.waitingCalls("dune") == 4);
+            release.countDown();
+            
+            for (Future<Object> call : calls) {
+                assertThat(call.get(5, TimeUnit.SECONDS)).isSameAs(result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertThat(executions).hasValue(1);
+        assertThat(singleFlight.getStats()).containsExactly(new SingleFlight.Stats("search", 1, 4, 4));
+    }
+    
+    @Test
+    @DisplayName("Should run calls with different keys and later calls separately")
+    void shouldRunDifferentAndLaterCallsSeparately() throws Throwable {
+        singleFlight.execute("search", "dune", () -> 1);
+        singleFlight.execute("search", "emma", () -> 2);
+        
+        assertThat(singleFlight.execute("search", "dune", () -> 3)).isEqualTo(3);
+        assertThat(singleFlight.getStats()).containsExactly(new SingleFlight.Stats("search", 3, 0, 0));
+    }
+    
+    @Test
+    @DisplayName("Should not join an execution that started before a committed write")
+    void shouldNotJoinExecutionStartedBeforeWrite() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Object stale = new Object();
+        Object fresh = new Object();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> first = executor.submit(() -> call("search", "dune", () -> {
+                started.countDown();
+                release.await();
+                return stale;
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            singleFlight.onBookChanged(new BookChangedEvent(BookChangeType.UPDATED, 1L, 2L, null));
+            
+            assertThat(call("search", "dune", () -> fresh)).isSameAs(fresh);
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(stale);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertThat(singleFlight.getStats()).containsExactly(new SingleFlight.Stats("search", 2, 0, 0));
+    }
+    
+    @Test
+    @DisplayName("Should run the call itself once the maximum wait is over")
+    void shouldRunAloneAfterMaximumWait() throws Exception {
+        SingleFlight impatient = new SingleFlight(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Object slow = new Object();
+        Object own = new Object();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> first = executor.submit(() -> call(impatient, "search", "dune", () -> {
+                started.countDown();
+                release.await();
+                return slow;
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            
+            assertThat(call(impatient, "search", "dune", () -> own)).isSameAs(own);
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(slow);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should share list results as unmodifiable copies")
+    void shouldShareUnmodifiableLists() throws Throwable {
+        List<String> titles = new ArrayList<>(List.of("Dune"));
+        
+        Object result = singleFlight.execute("search", "dune", () -> titles);
+        titles.add("Emma");
+        
+        assertThat(result).isEqualTo(List.of("Dune"));
+        assertThatThrownBy(() -> ((List<?>) result).clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+    
+    @Test
+    @DisplayName("Should propagate the exception of the execution")
+    void shouldPropagateException() {
+        assertThatThrownBy(() -> singleFlight.execute("search", "dune", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+    }
+    
+    private Object call(String name, Object key, SingleFlight.Call call) throws Exception {
+        return call(singleFlight, name, key, call);
+    }
+    
+    private static Object call(SingleFlight singleFlight, String name, Object key, SingleFlight.Call call)
+            throws Exception {
+        try {
+            return singleFlight.execute(name, key, call);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
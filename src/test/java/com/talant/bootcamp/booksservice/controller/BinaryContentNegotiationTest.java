@@ -0,0 +1,115 @@
+package com.talant.bootcamp.booksservice.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talant.bootcamp.booksservice.config.WebConfig;
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.pipeline.WritePipeline;
+import com.talant.bootcamp.booksservice.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BookController.class)
+@Import(WritePipeline.class)
+@DisplayName("Binary Content Negotiation Tests")
+class BinaryContentNegotiationTest {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @MockitoBean
+    private BookService bookService;
+
+    @MockitoBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder builder;
+
+    private List<BookResponse> books;
+
+    @BeforeEach
+    void setUp() {
+        books = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+        for (long i = 1; i <= 200; i++) {
+            books.add(new BookResponse(i, "Title " + i, "Author " + (i % 7), String.format("978%010d", i),
+                    "Description " + i, new BigDecimal("19.99"), (int) i, BookCategory.FICTION, now, now));
+        }
+        when(bookService.getAllBooks(FieldSet.SUMMARY)).thenReturn(books);
+    }
+
+    @Test
+    @DisplayName("Should keep JSON as the default representation")
+    void shouldDefaultToJson() throws Exception {
+        mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("Should serve smaller CBOR and Smile lists that decode to the same books")
+    void shouldServeBinaryFormats() throws Exception {
+        byte[] json = mockMvc.perform(get("/api/books").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        for (MediaType mediaType : List.of(CBOR, SMILE)) {
+            byte[] body = mockMvc.perform(get("/api/books").accept(mediaType))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(mediaType))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            ObjectMapper mapper = mediaType.equals(CBOR)
+                    ? WebConfig.cborObjectMapper(builder)
+                    : WebConfig.smileObjectMapper(builder);
+            List<BookResponse> decoded = mapper.readValue(body, new TypeReference<>() {});
+            assertThat(decoded).hasSize(200);
+            assertThat(decoded.get(41).getIsbn()).isEqualTo(books.get(41).getIsbn());
+            assertThat(decoded.get(41).getPrice()).isEqualByComparingTo(books.get(41).getPrice());
+            assertThat(decoded.get(41).getCreatedAt()).isEqualTo(books.get(41).getCreatedAt());
+            assertThat(decoded.get(41).getCategory()).isEqualTo(BookCategory.FICTION);
+            assertThat(body.length).isLessThan(json.length * 2 / 3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should accept Smile request bodies")
+    void shouldAcceptSmileRequest() throws Exception {
+        BookRequest request = new BookRequest("Smile", "Author", "1234567890", null,
+                new BigDecimal("9.99"), 1, BookCategory.SCIENCE);
+        when(bookService.createBook(any(BookRequest.class))).thenReturn(books.get(0));
+
+        mockMvc.perform(post("/api/books")
+                        .contentType(SMILE)
+                        .content(WebConfig.smileObjectMapper(builder).writeValueAsBytes(request)))
+                .andExpect(status().isCreated());
+    }
+}
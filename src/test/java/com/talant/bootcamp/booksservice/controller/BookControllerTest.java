@@ -3,10 +3,12 @@ package com.talant.bootcamp.booksservice.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.talant.bootcamp.booksservice.dto.BookRequest;
 import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
 import com.talant.bootcamp.booksservice.exception.BookNotFoundException;
 import com.talant.bootcamp.booksservice.exception.DuplicateIsbnException;
 import com.talant.bootcamp.booksservice.model.Book;
 import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.pipeline.WritePipeline;
 import com.talant.bootcamp.booksservice.service.BookService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,9 +16,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -30,12 +34,16 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(BookController.class)
+@Import(WritePipeline.class)
 @DisplayName("Book Controller Tests with WebMvcTest")
 class BookControllerTest {
 
     @MockitoBean
     private BookService bookService;
 
+    @MockitoBean
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -94,7 +102,7 @@ class BookControllerTest {
     void shouldGetAllBooks() throws Exception {
         // Given
         List<BookResponse> books = Arrays.asList(bookResponse);
-        when(bookService.getAllBooks()).thenReturn(books);
+        when(bookService.getAllBooks(FieldSet.SUMMARY)).thenReturn(books);
 
         // When & Then
         mockMvc.perform(get("/api/books"))
@@ -107,7 +115,7 @@ class BookControllerTest {
     @DisplayName("Should get book by ID")
     void shouldGetBookById() throws Exception {
         // Given
-        when(bookService.getBookById(1L)).thenReturn(bookResponse);
+        when(bookService.getBookById(1L, FieldSet.ALL)).thenReturn(bookResponse);
 
         // When & Then
         mockMvc.perform(get("/api/books/1"))
@@ -120,7 +128,7 @@ class BookControllerTest {
     @DisplayName("Should get book by ISBN")
     void shouldGetBookByIsbn() throws Exception {
         // Given
-        when(bookService.getBookByIsbn("1234567890")).thenReturn(bookResponse);
+        when(bookService.getBookByIsbn("1234567890", FieldSet.ALL)).thenReturn(bookResponse);
 
         // When & Then
         mockMvc.perform(get("/api/books/isbn/1234567890"))
@@ -158,7 +166,7 @@ class BookControllerTest {
     void shouldGetBooksByAuthor() throws Exception {
         // Given
         List<BookResponse> books = Arrays.asList(bookResponse);
-        when(bookService.getBooksByAuthor("Test Author")).thenReturn(books);
+        when(bookService.getBooksByAuthor("Test Author", FieldSet.SUMMARY)).thenReturn(books);
 
         // When & Then
         mockMvc.perform(get("/api/books/author/Test Author"))
@@ -172,7 +180,7 @@ class BookControllerTest {
     void shouldGetBooksByTitle() throws Exception {
         // Given
         List<BookResponse> books = Arrays.asList(bookResponse);
-        when(bookService.getBooksByTitle("Test Book")).thenReturn(books);
+        when(bookService.getBooksByTitle("Test Book", FieldSet.SUMMARY)).thenReturn(books);
 
         // When & Then
         mockMvc.perform(get("/api/books/title/Test Book"))
@@ -186,7 +194,7 @@ class BookControllerTest {
     void shouldGetBooksByCategory() throws Exception {
         // Given
         List<BookResponse> books = Arrays.asList(bookResponse);
-        when(bookService.getBooksByCategory(BookCategory.FICTION)).thenReturn(books);
+        when(bookService.getBooksByCategory(BookCategory.FICTION, FieldSet.SUMMARY)).thenReturn(books);
 
         // When & Then
         mockMvc.perform(get("/api/books/category/FICTION"))
@@ -200,7 +208,7 @@ class BookControllerTest {
     void shouldGetBooksWithStock() throws Exception {
         // Given
         List<BookResponse> books = Arrays.asList(bookResponse);
-        when(bookService.getBooksWithStock()).thenReturn(books);
+        when(bookService.getBooksWithStock(FieldSet.SUMMARY)).thenReturn(books);
 
         // When & Then
         mockMvc.perform(get("/api/books/in-stock"))
@@ -213,7 +221,7 @@ class BookControllerTest {
     void shouldGetBooksOutOfStock() throws Exception {
         // Given
         List<BookResponse> books = Arrays.asList(bookResponse);
-        when(bookService.getBooksOutOfStock()).thenReturn(books);
+        when(bookService.getBooksOutOfStock(FieldSet.SUMMARY)).thenReturn(books);
 
         // When & Then
         mockMvc.perform(get("/api/books/out-of-stock"))
@@ -226,7 +234,7 @@ class BookControllerTest {
     void shouldSearchBooksByText() throws Exception {
         // Given
         List<BookResponse> books = Arrays.asList(bookResponse);
-        when(bookService.searchBooks("test")).thenReturn(books);
+        when(bookService.searchBooks("test", FieldSet.SUMMARY)).thenReturn(books);
 
         // When & Then
         mockMvc.perform(get("/api/books/search")
@@ -273,7 +281,7 @@ class BookControllerTest {
     @DisplayName("Should handle book not found exception")
     void shouldHandleBookNotFoundException() throws Exception {
         // Given
-        when(bookService.getBookById(999L)).thenThrow(new BookNotFoundException(999L));
+        when(bookService.getBookById(999L, FieldSet.ALL)).thenThrow(new BookNotFoundException(999L));
 
         // When & Then
         mockMvc.perform(get("/api/books/999"))
@@ -0,0 +1,167 @@
+package com.talant.bootcamp.booksservice.export;
+
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookJdbcRepository;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Export Service Tests")
+class ExportServiceTest {
+
+    @TempDir
+    static Path exportDirectory;
+
+    @DynamicPropertySource
+    static void exportProperties(DynamicPropertyRegistry registry) {
+        registry.add("bookstore.export.directory", exportDirectory::toString);
+    }
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookJdbcRepository bookJdbcRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAllInBatch();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            books.add(new Book("Title " + i, "Author, \"" + i + "\"", String.format("978%010d", i),
+                    i % 2 == 0 ? null : "Línea 1\nLínea 2", new BigDecimal("12.50"), i, BookCategory.SCIENCE));
+        }
+        bookJdbcRepository.insertBatch(books);
+    }
+
+    @Test
+    @DisplayName("Should export CSV with one quoted row per book")
+    void shouldExportCsv() throws Exception {
+        ExportService.ExportFile file = exportService.export(ExportFormat.CSV);
+
+        String csv = Files.readString(file.path());
+        assertThat(file.rows()).isEqualTo(5000);
+        assertThat(csv).startsWith(CsvExportWriter.HEADER + "\n");
+        assertThat(csv).contains(",Title 1,\"Author, \"\"1\"\"\",9780000000001,\"Línea 1\nLínea 2\",12.50,1,SCIENCE,");
+    }
+
+    @Test
+    @DisplayName("Should export NDJSON with one object per line")
+    void shouldExportNdjson() throws Exception {
+        ExportService.ExportFile file = exportService.export(ExportFormat.NDJSON);
+
+        List<String> lines = Files.readAllLines(file.path());
+        assertThat(lines).hasSize(5000);
+        assertThat(lines.get(0)).startsWith("{\"id\":").contains("\"category\":\"Science\"");
+    }
+
+    @Test
+    @DisplayName("Should round trip the binary columnar format")
+    void shouldRoundTripBinary() throws Exception {
+        ExportService.ExportFile file = exportService.export(ExportFormat.BINARY);
+
+        List<Book> books = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(file.path())) {
+            assertThat(BinaryExportReader.read(in, books::add)).isEqualTo(5000);
+        }
+        Book stored = bookRepository.findByIsbn("9780000004321").orElseThrow();
+        Book decoded = books.stream().filter(book -> book.getId().equals(stored.getId())).findFirst().orElseThrow();
+        assertThat(decoded.getAuthor()).isEqualTo(stored.getAuthor());
+        assertThat(decoded.getDescription()).isEqualTo("Línea 1\nLínea 2");
+        assertThat(decoded.getPrice()).isEqualByComparingTo(stored.getPrice());
+        assertThat(decoded.getStock()).isEqualTo(4321);
+        assertThat(decoded.getCreatedAt()).isEqualTo(stored.getCreatedAt());
+        assertThat(books.get(0).getDescription()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should accept a download before the first export and generate it in the background")
+    void shouldGenerateMissingExportInBackground() throws Exception {
+        Optional<ExportService.ExportFile> existing = exportService.findLatest(ExportFormat.NDJSON);
+        if (existing.isPresent()) {
+            Files.delete(existing.get().path());
+        }
+
+        mockMvc.perform(get("/api/exports/ndjson"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> exportService.findLatest(ExportFormat.NDJSON).isPresent());
+        mockMvc.perform(get("/api/exports/ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(Files.readAllBytes(
+                        exportService.findLatest(ExportFormat.NDJSON).orElseThrow().path())));
+    }
+
+    @Test
+    @DisplayName("Should serve byte ranges and conditional requests of the latest export")
+    void shouldServeRanges() throws Exception {
+        mockMvc.perform(post("/api/exports/csv"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.rows").value(5000));
+        ExportService.ExportFile file = exportService.findLatest(ExportFormat.CSV).orElseThrow();
+        byte[] content = Files.readAllBytes(file.path());
+
+        mockMvc.perform(get("/api/exports/csv").header(HttpHeaders.RANGE, "bytes=10-99"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-99/" + content.length))
+                .andExpect(content().bytes(Arrays.copyOfRange(content, 10, 100)));
+
+        mockMvc.perform(get("/api/exports/csv").header(HttpHeaders.RANGE, "bytes=-20"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(Arrays.copyOfRange(content, content.length - 20, content.length)));
+
+        mockMvc.perform(get("/api/exports/csv").header(HttpHeaders.RANGE, "bytes=" + content.length + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + content.length));
+
+        mockMvc.perform(get("/api/exports/csv").header(HttpHeaders.IF_NONE_MATCH, file.etag()))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/exports/CSV"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.ETAG, file.etag()))
+                .andExpect(content().string(new String(content, StandardCharsets.UTF_8)));
+
+        mockMvc.perform(get("/api/exports/xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
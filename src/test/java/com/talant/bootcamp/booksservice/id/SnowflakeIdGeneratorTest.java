@@ -0,0 +1,74 @@
+package com.talant.bootcamp.booksservice.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Snowflake Id Generator Tests")
+class SnowflakeIdGeneratorTest {
+    
+    private static final long NOW = SnowflakeIdGenerator.EPOCH_MILLIS + 1_000_000;
+    
+    @Test
+    @DisplayName("Should encode the time and node and count up within a millisecond")
+    void shouldEncodeTimeAndNode() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, () -> NOW);
+        
+        long first = generator.nextId();
+        long second = generator.nextId();
+        
+        assertThat(second).isEqualTo(first + 1);
+        assertThat(SnowflakeIdGenerator.timestampOf(first)).isEqualTo(NOW);
+        assertThat(SnowflakeIdGenerator.nodeOf(first)).isEqualTo(7);
+        assertThat(new SnowflakeIdGenerator(8, () -> NOW).nextId()).isNotEqualTo(first);
+    }
+    
+    @Test
+    @DisplayName("Should keep increasing when the clock steps back or the counter runs out")
+    void shouldKeepIncreasing() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+        
+        long previous = generator.nextId();
+        clock.set(NOW - 5_000);
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            assertThat(SnowflakeIdGenerator.nodeOf(id)).isEqualTo(1);
+            previous = id;
+        }
+        assertThat(SnowflakeIdGenerator.timestampOf(previous)).isEqualTo(NOW + 2);
+        
+        clock.set(NOW + 60_000);
+        assertThat(SnowflakeIdGenerator.timestampOf(generator.nextId())).isEqualTo(NOW + 60_000);
+    }
+    
+    @Test
+    @DisplayName("Should continue after a stored id while the clock is behind it")
+    void shouldContinueAfterStoredId() {
+        long stored = new SnowflakeIdGenerator(3, () -> NOW).nextId();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> NOW - 5_000);
+        
+        generator.continueAfter(stored);
+        long id = generator.nextId();
+        
+        assertThat(id).isGreaterThan(stored);
+        assertThat(SnowflakeIdGenerator.timestampOf(id)).isEqualTo(NOW + 1);
+        
+        generator.continueAfter(1);
+        assertThat(generator.nextId()).isEqualTo(id + 1);
+    }
+    
+    @Test
+    @DisplayName("Should reject node ids that do not fit in 10 bits")
+    void shouldRejectInvalidNodeIds() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(1024, () -> NOW))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(-1, () -> NOW))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.talant.bootcamp.booksservice.idempotency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Idempotency Store Tests")
+class IdempotencyStoreTest {
+    
+    @Test
+    @DisplayName("Should hand the same entry to every claim of a key")
+    void shouldShareEntryOfClaimedKey() {
+        IdempotencyStore store = new IdempotencyStore(10, 1024, TimeUnit.HOURS.toNanos(1));
+        
+        IdempotencyStore.Claim first = store.claim("a", "x");
+        IdempotencyStore.Claim second = store.claim("a", "y");
+        
+        assertThat(first.owner()).isTrue();
+        assertThat(second.owner()).isFalse();
+        assertThat(second.entry()).isSameAs(first.entry());
+        assertThat(second.entry().fingerprint()).isEqualTo("x");
+    }
+    
+    @Test
+    @DisplayName("Should evict the oldest completed key when full and released keys at once")
+    void shouldEvictOldestAndReleasedKeys() {
+        IdempotencyStore store = new IdempotencyStore(2, 1024, TimeUnit.HOURS.toNanos(1));
+        IdempotencyStore.Claim a = store.claim("a", "x");
+        store.complete("a", a.entry(), response(10));
+        store.claim("b", "x");
+        store.claim("c", "x");
+        
+        assertThat(store.claim("a", "x").entry()).isNotSameAs(a.entry());
+        
+        IdempotencyStore.Claim c = store.claim("c", "x");
+        store.complete("c", c.entry(), null);
+        assertThat(store.claim("c", "x").owner()).isTrue();
+    }
+    
+    @Test
+    @DisplayName("Should never evict a key whose request is still running")
+    void shouldKeepInFlightKeys() {
+        IdempotencyStore store = new IdempotencyStore(1, 1024, TimeUnit.HOURS.toNanos(1));
+        IdempotencyStore.Claim a = store.claim("a", "x");
+        store.claim("b", "x");
+        
+        assertThat(store.claim("a", "x").entry()).isSameAs(a.entry());
+        
+        store.complete("a", a.entry(), response(10));
+        store.claim("c", "x");
+        assertThat(store.claim("a", "x").owner()).isTrue();
+    }
+    
+    @Test
+    @DisplayName("Should evict the oldest stored responses over the byte budget")
+    void shouldEvictOverByteBudget() {
+        IdempotencyStore store = new IdempotencyStore(10, 100, TimeUnit.HOURS.toNanos(1));
+        IdempotencyStore.Claim a = store.claim("a", "x");
+        store.complete("a", a.entry(), response(60));
+        IdempotencyStore.Claim b = store.claim("b", "x");
+        store.complete("b", b.entry(), response(60));
+        IdempotencyStore.Claim c = store.claim("c", "x");
+        store.complete("c", c.entry(), response(101));
+        
+        assertThat(store.claim("a", "x").owner()).isTrue();
+        assertThat(store.claim("b", "x").entry()).isSameAs(b.entry());
+        assertThat(store.claim("c", "x").owner()).isTrue();
+    }
+    
+    @Test
+    @DisplayName("Should expire keys after the TTL")
+    void shouldExpireKeys() throws InterruptedException {
+        IdempotencyStore store = new IdempotencyStore(10, 1024, TimeUnit.MILLISECONDS.toNanos(20));
+        IdempotencyStore.Claim a = store.claim("a", "x");
+        store.complete("a", a.entry(), response(10));
+        
+        Thread.sleep(40);
+        
+        assertThat(store.claim("a", "x").owner()).isTrue();
+    }
+    
+    private static StoredResponse response(int bytes) {
+        return new StoredResponse(200, Map.of(), new byte[bytes]);
+    }
+}
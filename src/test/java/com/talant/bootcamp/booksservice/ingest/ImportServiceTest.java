@@ -0,0 +1,181 @@
+package com.talant.bootcamp.booksservice.ingest;
+
+import com.talant.bootcamp.booksservice.exception.ImportJobStateException;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Import Service Tests")
+class ImportServiceTest {
+
+    @TempDir
+    static Path importDirectory;
+
+    @DynamicPropertySource
+    static void importProperties(DynamicPropertyRegistry registry) {
+        registry.add("bookstore.import.directory", importDirectory::toString);
+        // Tiny windows and chunks so that records straddle window boundaries
+        registry.add("bookstore.import.window-size", () -> "256");
+        registry.add("bookstore.import.chunk-records", () -> "3");
+    }
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should import CSV with quoted fields and report invalid rows")
+    void shouldImportCsv() throws Exception {
+        StringBuilder csv = new StringBuilder("isbn,title,author,price,stock,category,description\r\n");
+        csv.append("9780000000001,\"Cien años de soledad\",Gabriel García Márquez,19.99,5,FICTION,\"Macondo, \"\"la\"\" ciudad\nde los espejos\"\r\n");
+        csv.append("123,Bad ISBN,Someone,10.00,1,FICTION,\r\n");
+        for (int i = 2; i <= 20; i++) {
+            csv.append(String.format("97800000000%02d,Title %d,Author %d,%d.50,%d,SCIENCE,\r\n", i, i, i, i, i));
+        }
+        csv.append("9780000000099,Last,Author,1,0,History,no trailing newline");
+        write("books.csv", csv.toString());
+
+        ImportJob job = awaitCompletion(importService.startImport("books.csv", null, 0));
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getRecordsRead()).isEqualTo(22);
+        assertThat(job.getRecordsImported()).isEqualTo(21);
+        assertThat(job.getRecordsRejected()).isEqualTo(1);
+        assertThat(job.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.message()).contains("isbn"));
+        assertThat(job.getCheckpointOffset()).isEqualTo(job.getBytesTotal());
+
+        Book book = bookRepository.findByIsbn("9780000000001").orElseThrow();
+        assertThat(book.getTitle()).isEqualTo("Cien años de soledad");
+        assertThat(book.getAuthor()).isEqualTo("Gabriel García Márquez");
+        assertThat(book.getDescription()).isEqualTo("Macondo, \"la\" ciudad\nde los espejos");
+        assertThat(book.getPrice()).isEqualByComparingTo(new BigDecimal("19.99"));
+        assertThat(bookRepository.findByIsbn("9780000000099").orElseThrow().getCategory()).isEqualTo(BookCategory.HISTORY);
+        assertThat(bookRepository.count()).isEqualTo(21);
+    }
+
+    @Test
+    @DisplayName("Should import NDJSON and update existing books by ISBN")
+    void shouldImportNdjsonAsUpsert() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 10; i++) {
+            ndjson.append(String.format("{\"title\":\"Title %d\",\"author\":\"Author\",\"isbn\":\"97811111111%02d\",\"price\":9.99,\"stock\":%d,\"category\":\"Fiction\"}\n", i, i, i));
+        }
+        ndjson.append("{not json}\n\n");
+        write("books.ndjson", ndjson.toString());
+        awaitCompletion(importService.startImport("books.ndjson", null, 0));
+
+        write("update.jsonl", "{\"title\":\"Renamed\",\"author\":\"Author\",\"isbn\":\"9781111111103\",\"price\":5.00,\"stock\":0,\"category\":\"Fiction\"}\n");
+        ImportJob update = awaitCompletion(importService.startImport("update.jsonl", null, 0));
+
+        assertThat(update.getRecordsImported()).isEqualTo(1);
+        assertThat(bookRepository.count()).isEqualTo(10);
+        Book book = bookRepository.findByIsbn("9781111111103").orElseThrow();
+        assertThat(book.getTitle()).isEqualTo("Renamed");
+        assertThat(book.getStock()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep the last record of an ISBN repeated across chunks")
+    void shouldImportRepeatedIsbns() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 30; i++) {
+            ndjson.append(String.format("{\"title\":\"Edition %d\",\"author\":\"Author\",\"isbn\":\"978333333330%d\",\"price\":9.99,\"stock\":%d,\"category\":\"Fiction\"}\n", i, i % 2, i));
+        }
+        write("repeated.ndjson", ndjson.toString());
+
+        ImportJob job = awaitCompletion(importService.startImport("repeated.ndjson", null, 0));
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getRecordsImported()).isEqualTo(30);
+        assertThat(bookRepository.count()).isEqualTo(2);
+        assertThat(bookRepository.findByIsbn("9783333333300").orElseThrow().getTitle()).startsWith("Edition");
+    }
+
+    @Test
+    @DisplayName("Should resume from an offset aligned to the next record")
+    void shouldResumeFromOffset() throws Exception {
+        StringBuilder csv = new StringBuilder("title,author,isbn,price,stock,category\n");
+        long offset = 0;
+        for (int i = 1; i <= 10; i++) {
+            if (i == 6) {
+                offset = csv.length() + 3;
+            }
+            csv.append(String.format("Title %d,Author,97822222222%02d,9.99,1,FICTION\n", i, i));
+        }
+        write("resume.csv", csv.toString());
+
+        ImportJob job = awaitCompletion(importService.startImport("resume.csv", ImportFormat.CSV, offset));
+
+        assertThat(job.getRecordsImported()).isEqualTo(4);
+        assertThat(bookRepository.findByIsbn("9782222222206")).isEmpty();
+        assertThat(bookRepository.findByIsbn("9782222222207")).isPresent();
+        assertThatThrownBy(() -> importService.resume(job.getId())).isInstanceOf(ImportJobStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should keep a job with a failed chunk running until the coordinator finishes it")
+    void shouldFinishChunkFailureOnlyFromCoordinator() {
+        ImportJob job = new ImportJob(importDirectory.resolve("failed.csv"), ImportFormat.CSV, 10);
+        job.begin(0, 100);
+        job.completeChunk(0, 40);
+        job.failChunk("Chunk at offset 40 failed: first");
+        job.failChunk("Chunk at offset 70 failed: second");
+
+        assertThat(job.isActive()).isTrue();
+        assertThat(job.isStopRequested()).isTrue();
+
+        job.completeChunk(70, 100);
+        job.finish(ImportJob.Status.FAILED, job.getChunkFailure());
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.FAILED);
+        assertThat(job.getFailure()).isEqualTo("Chunk at offset 40 failed: first");
+        assertThat(job.getCheckpointOffset()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Should reject files outside the import directory")
+    void shouldRejectPathEscape() {
+        assertThatThrownBy(() -> importService.startImport("../outside.csv", null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void write(String name, String content) throws IOException {
+        Files.writeString(importDirectory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    private static ImportJob awaitCompletion(ImportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (job.getStatus() == ImportJob.Status.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,98 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.limiter.AdaptiveLimiter;
+import com.talant.bootcamp.booksservice.limiter.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "bookstore.limiter.initial-limit=4",
+        "bookstore.limiter.min-limit=4",
+        "bookstore.limiter.max-limit=4",
+        "bookstore.limiter.low-priority-share=0.5"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Adaptive Limiter Integration Tests")
+class AdaptiveLimiterIntegrationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private AdaptiveLimiter limiter;
+    
+    @Test
+    @DisplayName("Should shed bulk listings first and then every request over the limit")
+    void shouldShedByPriority() throws Exception {
+        limiter.tryAcquire(Priority.LOW);
+        limiter.tryAcquire(Priority.LOW);
+        try {
+            mockMvc.perform(get("/api/books/sorted/title"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+            mockMvc.perform(get("/api/books/999999"))
+                    .andExpect(status().isNotFound());
+            
+            limiter.tryAcquire(Priority.HIGH);
+            limiter.tryAcquire(Priority.HIGH);
+            try {
+                mockMvc.perform(get("/api/books/exists/9780000000000"))
+                        .andExpect(status().isServiceUnavailable())
+                        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+            } finally {
+                limiter.release("test", 1_000_000, false);
+                limiter.release("test", 1_000_000, false);
+            }
+        } finally {
+            limiter.release("test", 1_000_000, false);
+            limiter.release("test", 1_000_000, false);
+        }
+        
+        mockMvc.perform(get("/api/books/sorted/title"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/admin/concurrency-limit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.limit").value(4))
+                .andExpect(jsonPath("$.lowPriorityLimit").value(2))
+                .andExpect(jsonPath("$.inFlight").value(0))
+                .andExpect(jsonPath("$.rejectedLow").value(1))
+                .andExpect(jsonPath("$.rejectedHigh").value(1));
+    }
+    
+    @Test
+    @DisplayName("Should keep serving requests while more event streams are open than the limit")
+    void shouldNotCountOpenStreams() throws Exception {
+        List<MvcResult> streams = new ArrayList<>();
+        try {
+            for (int i = 0; i < 6; i++) {
+                streams.add(mockMvc.perform(get("/api/books/changes/stream"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn());
+            }
+            
+            mockMvc.perform(get("/api/books/999999"))
+                    .andExpect(status().isNotFound());
+            mockMvc.perform(get("/api/books/sorted/title"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/api/admin/concurrency-limit"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.inFlight").value(0));
+        } finally {
+            streams.forEach(stream -> stream.getRequest().getAsyncContext().complete());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@DisplayName("Batch Integration Tests")
+class BatchIntegrationTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    private MockMvc mockMvc;
+    private Book dune;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        bookRepository.deleteAll();
+        dune = bookRepository.save(new Book("Dune", "Frank Herbert", "9780441172719", "Arrakis",
+                new BigDecimal("9.99"), 3, BookCategory.SCIENCE_FICTION));
+        bookRepository.save(new Book("Emma", "Jane Austen", "9780141439587", "Highbury",
+                new BigDecimal("7.50"), 0, BookCategory.ROMANCE));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+    }
+    
+    @Test
+    @DisplayName("Should execute mixed sub-requests in order")
+    void shouldExecuteSubRequestsInOrder() throws Exception {
+        String batch = """
+                {"requests": [
+                  {"method": "GET", "path": "/api/books/search?q=herbert&fields=id,title"},
+                  {"method": "GET", "path": "/api/books/%1$d"},
+                  {"method": "GET", "path": "/api/books/999999"},
+                  {"method": "PATCH", "path": "/api/books/%1$d/stock?stock=7&fields=stock"},
+                  {"method": "GET", "path": "/api/books/%1$d?fields=stock"},
+                  {"method": "POST", "path": "/api/books", "body": {"title": "Persuasion", "author": "Jane Austen",
+                    "isbn": "9780141439686", "price": 8.99, "stock": 2, "category": "Romance"}}
+                ]}
+                """.formatted(dune.getId());
+        
+        mockMvc.perform(post("/api/_batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rolledBack").value(false))
+                .andExpect(jsonPath("$.responses.length()").value(6))
+                .andExpect(jsonPath("$.responses[0].status").value(200))
+                .andExpect(jsonPath("$.responses[0].body[0].title").value("Dune"))
+                .andExpect(jsonPath("$.responses[0].body[0].author").doesNotExist())
+                .andExpect(jsonPath("$.responses[1].body.description").value("Arrakis"))
+                .andExpect(jsonPath("$.responses[2].status").value(404))
+                .andExpect(jsonPath("$.responses[2].body.error").value("Book not found"))
+                .andExpect(jsonPath("$.responses[3].body.stock").value(7))
+                .andExpect(jsonPath("$.responses[4].body.stock").value(7))
+                .andExpect(jsonPath("$.responses[5].status").value(201))
+                .andExpect(jsonPath("$.responses[5].headers['Content-Type']").value(MediaType.APPLICATION_JSON_VALUE));
+        
+        assertThat(bookRepository.findByIsbn("9780141439686")).isPresent();
+    }
+    
+    @Test
+    @DisplayName("Should roll back an atomic batch at the first failed sub-request")
+    void shouldRollBackAtomicBatch() throws Exception {
+        String batch = """
+                {"atomic": true, "requests": [
+                  {"method": "PATCH", "path": "/api/books/%1$d/stock?stock=50"},
+                  {"method": "POST", "path": "/api/books", "body": {"title": "Emma", "author": "Jane Austen",
+                    "isbn": "9780141439587", "price": 7.50, "stock": 1, "category": "Romance"}},
+                  {"method": "DELETE", "path": "/api/books/%1$d"}
+                ]}
+                """.formatted(dune.getId());
+        
+        mockMvc.perform(post("/api/_batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.atomic").value(true))
+                .andExpect(jsonPath("$.rolledBack").value(true))
+                .andExpect(jsonPath("$.responses[0].status").value(200))
+                .andExpect(jsonPath("$.responses[1].status").value(409))
+                .andExpect(jsonPath("$.responses[2].status").value(424))
+                .andExpect(jsonPath("$.responses[2].body").value(nullValue()));
+        
+        assertThat(bookRepository.findById(dune.getId())).get().extracting(Book::getStock).isEqualTo(3);
+    }
+    
+    @Test
+    @DisplayName("Should commit an atomic batch when every sub-request succeeds")
+    void shouldCommitAtomicBatch() throws Exception {
+        String batch = """
+                {"atomic": true, "requests": [
+                  {"method": "PATCH", "path": "/api/books/%1$d/stock?stock=0"},
+                  {"method": "GET", "path": "/api/books/out-of-stock?fields=title"}
+                ]}
+                """.formatted(dune.getId());
+        
+        mockMvc.perform(post("/api/_batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rolledBack").value(false))
+                .andExpect(jsonPath("$.responses[1].body.length()").value(2));
+        
+        assertThat(bookRepository.findById(dune.getId())).get().extracting(Book::getStock).isEqualTo(0);
+    }
+    
+    @Test
+    @DisplayName("Should run sub-requests through the handler interceptors")
+    void shouldApplyInterceptorsToSubRequests() throws Exception {
+        String batch = """
+                {"requests": [
+                  {"method": "GET", "path": "/api/books/%1$d"},
+                  {"method": "GET", "path": "/api/books/sorted/title?fields=title"},
+                  {"method": "PATCH", "path": "/api/books/%1$d/stock?delta=1"}
+                ]}
+                """.formatted(dune.getId());
+        
+        mockMvc.perform(post("/api/_batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.responses[0].headers['Server-Timing']").exists())
+                .andExpect(jsonPath("$.responses[1].headers['Server-Timing']").exists())
+                .andExpect(jsonPath("$.responses[2].body.stock").value(4))
+                .andExpect(jsonPath("$.responses[2].headers['Server-Timing']").exists());
+    }
+    
+    @Test
+    @DisplayName("Should reject invalid and nested batches")
+    void shouldRejectInvalidBatches() throws Exception {
+        mockMvc.perform(post("/api/_batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requests\": [{\"method\": \"TRACE\", \"path\": \"/api/books\"}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details['requests[0].method']").exists());
+        
+        mockMvc.perform(post("/api/_batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requests\": [{\"method\": \"POST\", \"path\": \"/api/_batch\"}]}"))
+                .andExpect(status().isBadRequest());
+        
+        mockMvc.perform(post("/api/_batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requests\": []}"))
+                .andExpect(status().isBadRequest());
+        
+        mockMvc.perform(post("/api/_batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requests\": [{\"method\": \"DELETE\", \"path\": \"/api/books/1\","
+                                + " \"headers\": {\"idempotency-key\": \"k1\"}}]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
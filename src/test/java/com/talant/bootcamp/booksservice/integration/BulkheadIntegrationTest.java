@@ -0,0 +1,64 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.bulkhead.Bulkhead;
+import com.talant.bootcamp.booksservice.bulkhead.Bulkheads;
+import com.talant.bootcamp.booksservice.bulkhead.Lane;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "bookstore.bulkhead.scan.max-concurrent=2",
+        "bookstore.bulkhead.scan.max-wait=PT0.05S"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Bulkhead Integration Tests")
+class BulkheadIntegrationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private Bulkheads bulkheads;
+    
+    @Test
+    @DisplayName("Should shed scans with 503 while point lookups keep being served")
+    void shouldShedScansAndServePointLookups() throws Exception {
+        Bulkhead scans = bulkheads.get(Lane.SCAN);
+        assertThat(scans.tryEnter()).isTrue();
+        assertThat(scans.tryEnter()).isTrue();
+        try {
+            mockMvc.perform(get("/api/books/sorted/title"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(jsonPath("$.status").value(503));
+            
+            mockMvc.perform(get("/api/books/exists/9780000000000"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/api/books/999999"))
+                    .andExpect(status().isNotFound());
+        } finally {
+            scans.exit();
+            scans.exit();
+        }
+        
+        mockMvc.perform(get("/api/books/sorted/title"))
+                .andExpect(status().isOk());
+        assertThat(bulkheads.getStats().get(Lane.SCAN).active()).isZero();
+        assertThat(bulkheads.getStats().get(Lane.POINT).active()).isZero();
+        mockMvc.perform(get("/api/admin/bulkheads"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.SCAN.rejected").value(1))
+                .andExpect(jsonPath("$.POINT.maxConcurrent").value(6));
+    }
+}
@@ -0,0 +1,71 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.coalescing.SingleFlight;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
+import com.talant.bootcamp.booksservice.service.BookService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Request Coalescing Integration Tests")
+class CoalescingIntegrationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private SingleFlight singleFlight;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Test
+    @DisplayName("Should route coalesced reads through the single flight and report them")
+    void shouldCoalesceReads() throws Exception {
+        long before = executions("getBooksOrderedByTitle");
+        
+        mockMvc.perform(get("/api/books/sorted/title"))
+                .andExpect(status().isOk());
+        
+        assertThat(executions("getBooksOrderedByTitle")).isEqualTo(before + 1);
+        mockMvc.perform(get("/api/admin/coalescing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.method == 'getBooksOrderedByTitle')].executions").isNotEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should run reads inside a transaction on their own")
+    void shouldNotCoalesceInsideTransaction() {
+        long before = executions("getBooksOrderedByAuthor");
+        
+        List<BookResponse> books = transactionTemplate.execute(status -> bookService.getBooksOrderedByAuthor(FieldSet.ALL));
+        
+        assertThat(books).isNotNull();
+        assertThat(executions("getBooksOrderedByAuthor")).isEqualTo(before);
+    }
+    
+    private long executions(String method) {
+        return singleFlight.getStats().stream()
+                .filter(stats -> stats.method().equals(method))
+                .mapToLong(SingleFlight.Stats::executions)
+                .sum();
+    }
+}
@@ -0,0 +1,100 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.changes.DeltaSyncService;
+import com.talant.bootcamp.booksservice.changes.SyncToken;
+import com.talant.bootcamp.booksservice.dto.BookDeltaResponse;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.repository.BookTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "bookstore.changes.gap-grace=PT1M")
+@ActiveProfiles("test")
+@DisplayName("Delta Sync Gap Integration Tests")
+class DeltaSyncGapIntegrationTest {
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private BookTombstoneRepository tombstoneRepository;
+    
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+        tombstoneRepository.deleteAll();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        tombstoneRepository.deleteAll();
+    }
+    
+    @Test
+    @DisplayName("Should not move the token past a change that commits after a later one")
+    void shouldHoldTokenBeforeUncommittedChange() throws Exception {
+        Book emma = bookRepository.save(new Book("Emma", "Jane Austen", "9780141439587", "Highbury",
+                new BigDecimal("7.50"), 1, BookCategory.ROMANCE));
+        String since = new SyncToken(emma.getChangeSeq(), Instant.now()).encode();
+        
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Book> first = CompletableFuture.supplyAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    Book dune = bookRepository.saveAndFlush(new Book("Dune", "Frank Herbert", "9780441172719",
+                            "Arrakis", new BigDecimal("9.99"), 3, BookCategory.SCIENCE_FICTION));
+                    written.countDown();
+                    try {
+                        commit.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return dune;
+                }));
+        try {
+            assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+            Book hobbit = bookRepository.save(new Book("The Hobbit", "J.R.R. Tolkien", "9780547928227",
+                    "There and back again", new BigDecimal("8.99"), 5, BookCategory.FANTASY));
+            
+            BookDeltaResponse before = deltaSyncService.getChangesSince(since, 100);
+            assertThat(before.getChanged()).extracting(BookResponse::getId).containsExactly(hobbit.getId());
+            assertThat(SyncToken.parse(before.getNextToken()).sequence()).isEqualTo(emma.getChangeSeq());
+            assertThat(before.isHasMore()).isFalse();
+            
+            commit.countDown();
+            Book dune = first.get(10, TimeUnit.SECONDS);
+            assertThat(dune.getChangeSeq()).isLessThan(hobbit.getChangeSeq());
+            
+            BookDeltaResponse after = deltaSyncService.getChangesSince(before.getNextToken(), 100);
+            assertThat(after.getChanged()).extracting(BookResponse::getId)
+                    .containsExactly(dune.getId(), hobbit.getId());
+        } finally {
+            commit.countDown();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talant.bootcamp.booksservice.changes.DeltaSyncService;
+import com.talant.bootcamp.booksservice.changes.SyncToken;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.repository.BookTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@DisplayName("Delta Sync Integration Tests")
+class DeltaSyncIntegrationTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private BookTombstoneRepository tombstoneRepository;
+    
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private MockMvc mockMvc;
+    private Book dune;
+    private Book emma;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        bookRepository.deleteAll();
+        tombstoneRepository.deleteAll();
+        dune = bookRepository.save(new Book("Dune", "Frank Herbert", "9780441172719", "Arrakis",
+                new BigDecimal("9.99"), 3, BookCategory.SCIENCE_FICTION));
+        emma = bookRepository.save(new Book("Emma", "Jane Austen", "9780141439587", "Highbury",
+                new BigDecimal("7.50"), 0, BookCategory.ROMANCE));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        tombstoneRepository.deleteAll();
+    }
+    
+    @Test
+    @DisplayName("Should return only the books changed and deleted since the token")
+    void shouldReturnChangesSinceToken() throws Exception {
+        JsonNode full = getChanges("/api/books/changes");
+        assertThat(full.get("changed")).hasSize(2);
+        assertThat(full.get("deleted")).isEmpty();
+        assertThat(full.get("hasMore").asBoolean()).isFalse();
+        
+        mockMvc.perform(patch("/api/books/{id}/stock", dune.getId()).param("stock", "8"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/books/{id}", emma.getId()))
+                .andExpect(status().isNoContent());
+        
+        JsonNode delta = getChanges("/api/books/changes?since=" + full.get("nextToken").asText());
+        assertThat(delta.get("changed")).hasSize(1);
+        assertThat(delta.get("changed").get(0).get("id").asLong()).isEqualTo(dune.getId());
+        assertThat(delta.get("changed").get(0).get("stock").asInt()).isEqualTo(8);
+        assertThat(delta.get("deleted")).hasSize(1);
+        assertThat(delta.get("deleted").get(0).asLong()).isEqualTo(emma.getId());
+        
+        JsonNode empty = getChanges("/api/books/changes?since=" + delta.get("nextToken").asText());
+        assertThat(empty.get("changed")).isEmpty();
+        assertThat(empty.get("deleted")).isEmpty();
+        assertThat(empty.get("hasMore").asBoolean()).isFalse();
+    }
+    
+    @Test
+    @DisplayName("Should page through changes with the next token")
+    void shouldPageThroughChanges() throws Exception {
+        mockMvc.perform(delete("/api/books/{id}", emma.getId()))
+                .andExpect(status().isNoContent());
+        
+        Set<Long> changed = new HashSet<>();
+        Set<Long> deleted = new HashSet<>();
+        String url = "/api/books/changes?limit=1";
+        int pages = 0;
+        JsonNode page;
+        do {
+            page = getChanges(url);
+            page.get("changed").forEach(book -> changed.add(book.get("id").asLong()));
+            page.get("deleted").forEach(id -> deleted.add(id.asLong()));
+            url = "/api/books/changes?limit=1&since=" + page.get("nextToken").asText();
+            pages++;
+        } while (page.get("hasMore").asBoolean());
+        
+        assertThat(pages).isEqualTo(2);
+        assertThat(changed).containsExactly(dune.getId());
+        assertThat(deleted).containsExactly(emma.getId());
+    }
+    
+    @Test
+    @DisplayName("Should reject expired and malformed tokens")
+    void shouldRejectExpiredAndMalformedTokens() throws Exception {
+        String expired = new SyncToken(0, Instant.now().minus(Duration.ofDays(30))).encode();
+        
+        mockMvc.perform(get("/api/books/changes").param("since", expired))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.error").value("Sync token expired"));
+        mockMvc.perform(get("/api/books/changes").param("since", "not-a-token"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/books/changes").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Should purge tombstones older than the retention window")
+    void shouldPurgeOldTombstones() throws Exception {
+        mockMvc.perform(delete("/api/books/{id}", emma.getId()))
+                .andExpect(status().isNoContent());
+        
+        assertThat(deltaSyncService.purgeTombstones()).isZero();
+        assertThat(tombstoneRepository.count()).isEqualTo(1);
+    }
+    
+    private JsonNode getChanges(String url) throws Exception {
+        String body = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,90 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.BooksserviceApplication;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles({"test", "file"})
+@DisplayName("File Storage Integration Tests")
+class FileStorageIntegrationTest {
+
+    @TempDir
+    static Path storageDir;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("bookstore.storage.path", () -> storageDir.resolve("bookstoredb").toString());
+    }
+
+    @Test
+    @DisplayName("Should create the schema through migrations and validate the entity mapping")
+    void shouldMigrateSchema() {
+        Integer applied = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"success\" = TRUE", Integer.class);
+
+        assertThat(applied).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should persist books in the database file")
+    void shouldPersistBooks() {
+        Book saved = bookRepository.save(new Book("Persistent Book", "Author", "9781234567897",
+            "Stored on disk", new BigDecimal("12.50"), 3, BookCategory.REFERENCE));
+
+        assertThat(bookRepository.findByIsbn("9781234567897")).get()
+            .extracting(Book::getId).isEqualTo(saved.getId());
+        assertThat(storageDir.resolve("bookstoredb.mv.db")).exists();
+    }
+
+    @Test
+    @DisplayName("Should keep the books after the application restarts")
+    void shouldKeepBooksAcrossRestart() {
+        String path = storageDir.resolve("restartdb").toString();
+        Long id;
+        try (ConfigurableApplicationContext first = start(path)) {
+            id = first.getBean(BookRepository.class).save(new Book("Restarted Book", "Author", "9780306406157",
+                "Survives a restart", new BigDecimal("9.90"), 2, BookCategory.REFERENCE)).getId();
+        }
+
+        try (ConfigurableApplicationContext second = start(path)) {
+            assertThat(second.getBean(BookRepository.class).findByIsbn("9780306406157")).get()
+                .extracting(Book::getId, Book::getTitle, Book::getStock)
+                .containsExactly(id, "Restarted Book", 2);
+        }
+    }
+
+    /**
+     * Application of its own on the database file, which H2 closes with the last connection
+     */
+    private static ConfigurableApplicationContext start(String path) {
+        return new SpringApplicationBuilder(BooksserviceApplication.class)
+            .profiles("test", "file")
+            .run("--server.port=0",
+                 "--spring.main.banner-mode=off",
+                 "--bookstore.storage.path=" + path);
+    }
+}
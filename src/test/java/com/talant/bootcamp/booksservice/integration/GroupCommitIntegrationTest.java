@@ -0,0 +1,131 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.monitoring.RequestTiming;
+import com.talant.bootcamp.booksservice.pipeline.WritePipeline;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "bookstore.writes.group-commit.enabled=true",
+        "bookstore.writes.group-commit.max-batch-size=16",
+        "bookstore.writes.group-commit.max-delay=PT0.05S"
+})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@DisplayName("Group Commit Integration Tests")
+class GroupCommitIntegrationTest {
+    
+    private static final int WRITES = 24;
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private WritePipeline writePipeline;
+    
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        bookRepository.deleteAll();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+    }
+    
+    @Test
+    @DisplayName("Should commit concurrent creates in shared batches")
+    void shouldCommitConcurrentCreatesInBatches() throws Exception {
+        WritePipeline.Stats before = writePipeline.getStats();
+        
+        List<Integer> statuses = createConcurrently(i -> String.format("978%010d", i));
+        
+        WritePipeline.Stats after = writePipeline.getStats();
+        assertThat(statuses).containsOnly(201);
+        assertThat(bookRepository.count()).isEqualTo(WRITES);
+        assertThat(after.writes() - before.writes()).isEqualTo(WRITES);
+        assertThat(after.batches() - before.batches()).isLessThan(WRITES);
+    }
+    
+    @Test
+    @DisplayName("Should fail only the conflicting write of a batch")
+    void shouldFailOnlyConflictingWrite() throws Exception {
+        List<Integer> statuses = createConcurrently(i -> i == 0 ? "9780441172719" : i == 1 ? "9780441172719"
+                : String.format("978%010d", i));
+        
+        assertThat(statuses).filteredOn(status -> status == 409).hasSize(1);
+        assertThat(statuses).filteredOn(status -> status == 201).hasSize(WRITES - 1);
+        assertThat(bookRepository.count()).isEqualTo(WRITES - 1);
+        
+        Long id = bookRepository.findByIsbn("9780441172719").orElseThrow().getId();
+        mockMvc.perform(delete("/api/books/{id}", id))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/books/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    @DisplayName("Should report the time of a queued write to its caller")
+    void shouldTimeQueuedWrites() throws Exception {
+        String book = """
+                {"title": "Dune", "author": "Frank Herbert", "isbn": "9780441172719", "price": 9.99,
+                 "stock": 1, "category": "Fiction"}
+                """;
+        
+        mockMvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON).content(book))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(RequestTiming.HEADER, containsString("service;dur=")));
+    }
+    
+    private List<Integer> createConcurrently(IntFunction<String> isbn) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITES);
+        try {
+            List<Callable<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < WRITES; i++) {
+                String book = """
+                        {"title": "Book %d", "author": "Author", "isbn": "%s", "price": 9.99,
+                         "stock": 1, "category": "Fiction"}
+                        """.formatted(i, isbn.apply(i));
+                calls.add(() -> mockMvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON).content(book))
+                        .andReturn().getResponse().getStatus());
+            }
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> status : executor.invokeAll(calls)) {
+                statuses.add(status.get());
+            }
+            return statuses;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
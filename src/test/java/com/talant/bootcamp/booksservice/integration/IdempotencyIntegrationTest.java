@@ -0,0 +1,139 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.idempotency.IdempotencyFilter;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Idempotency-Key Integration Tests")
+class IdempotencyIntegrationTest {
+    
+    private static final String BOOK = """
+            {"title": "Persuasion", "author": "Jane Austen", "isbn": "9780141439686", "price": 8.99,
+             "stock": 2, "category": "Romance"}
+            """;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    private Book dune;
+    
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+        dune = bookRepository.save(new Book("Dune", "Frank Herbert", "9780441172719", "Arrakis",
+                new BigDecimal("9.99"), 3, BookCategory.SCIENCE_FICTION));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+    }
+    
+    @Test
+    @DisplayName("Should replay the stored response to a retried create")
+    void shouldReplayRetriedCreate() throws Exception {
+        String key = UUID.randomUUID().toString();
+        
+        MvcResult first = mockMvc.perform(createBook(key, BOOK))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn();
+        mockMvc.perform(createBook(key, BOOK))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(first.getResponse().getContentAsString(), true));
+        
+        assertThat(bookRepository.count()).isEqualTo(2);
+        mockMvc.perform(createBook(UUID.randomUUID().toString(), BOOK))
+                .andExpect(status().isConflict());
+    }
+    
+    @Test
+    @DisplayName("Should apply a retried stock delta once")
+    void shouldApplyRetriedStockDeltaOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(patch("/api/books/{id}/stock", dune.getId()).param("delta", "-1")
+                            .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.stock").value(2));
+        }
+        
+        assertThat(bookRepository.findStockById(dune.getId())).contains(2);
+    }
+    
+    @Test
+    @DisplayName("Should run concurrent requests with the same key once")
+    void shouldRunConcurrentRequestsOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            List<Callable<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(() -> mockMvc.perform(createBook(key, BOOK)).andReturn().getResponse().getStatus());
+            }
+            for (Future<Integer> status : executor.invokeAll(calls)) {
+                statuses.add(status.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        assertThat(statuses).containsOnly(201);
+        assertThat(bookRepository.count()).isEqualTo(2);
+    }
+    
+    @Test
+    @DisplayName("Should reject a key reused for a different request")
+    void shouldRejectReusedKey() throws Exception {
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(createBook(key, BOOK))
+                .andExpect(status().isCreated());
+        
+        mockMvc.perform(createBook(key, BOOK.replace("Persuasion", "Emma")))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value("Idempotency key reused"));
+        mockMvc.perform(createBook(" ", BOOK))
+                .andExpect(status().isBadRequest());
+    }
+    
+    private static MockHttpServletRequestBuilder createBook(String key, String body) {
+        return post("/api/books").contentType(MediaType.APPLICATION_JSON).content(body)
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+    }
+}
@@ -0,0 +1,173 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.BooksserviceApplication;
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.exception.BookNotFoundException;
+import com.talant.bootcamp.booksservice.invalidation.InvalidationBus;
+import com.talant.bootcamp.booksservice.invalidation.InvalidationMessage;
+import com.talant.bootcamp.booksservice.invalidation.InvalidationTransport;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookJdbcRepository;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.service.BookService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two nodes in one JVM share a database and a loopback bus; this class is node A and starts node B
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:invalidation-test;DB_CLOSE_DELAY=-1",
+        "bookstore.invalidation.enabled=true",
+        "bookstore.invalidation.channel=invalidation-test",
+        "bookstore.invalidation.node-id=node-a"
+})
+@ActiveProfiles("test")
+@DisplayName("Cache Invalidation Integration Tests")
+class InvalidationIntegrationTest {
+    
+    private static ConfigurableApplicationContext nodeB;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private InvalidationBus invalidationBus;
+    
+    @Autowired
+    private InvalidationTransport transport;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private BookService bookServiceB;
+    
+    @BeforeEach
+    void startNodeB() {
+        if (nodeB == null) {
+            nodeB = new SpringApplicationBuilder(BooksserviceApplication.class)
+                    .profiles("test")
+                    .run("--server.port=0",
+                         "--spring.main.banner-mode=off",
+                         "--spring.datasource.url=jdbc:h2:mem:invalidation-test;DB_CLOSE_DELAY=-1",
+                         "--spring.jpa.hibernate.ddl-auto=none",
+                         "--bookstore.invalidation.enabled=true",
+                         "--bookstore.invalidation.channel=invalidation-test",
+                         "--bookstore.invalidation.node-id=node-b");
+        }
+        bookServiceB = nodeB.getBean(BookService.class);
+    }
+    
+    @AfterAll
+    static void stopNodeB() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should evict a book cached on this node when another node updates or deletes it")
+    void shouldEvictBooksChangedOnAnotherNode() {
+        BookResponse book = bookService.createBook(request("Shared Book"));
+        assertThat(bookService.getBookById(book.getId()).getTitle()).isEqualTo("Shared Book");
+        assertThat(bookService.getBookByIsbn(book.getIsbn()).getId()).isEqualTo(book.getId());
+        int categorySize = bookService.getBooksByCategory(BookCategory.COOKING).size();
+        long received = invalidationBus.getStats().received();
+        
+        BookRequest renamed = request("Renamed On Node B");
+        bookServiceB.updateBook(book.getId(), renamed);
+        
+        assertThat(invalidationBus.getStats().received()).isEqualTo(received + 1);
+        assertThat(invalidationBus.getStats().lastReceivedVersion()).isPositive();
+        assertThat(bookService.getBookById(book.getId()).getTitle()).isEqualTo("Renamed On Node B");
+        assertThat(bookService.getBookByIsbn(renamed.getIsbn()).getId()).isEqualTo(book.getId());
+        assertThatThrownBy(() -> bookService.getBookByIsbn(book.getIsbn()))
+                .isInstanceOf(BookNotFoundException.class);
+        
+        bookServiceB.createBook(request("Added On Node B"));
+        assertThat(bookService.getBooksByCategory(BookCategory.COOKING)).hasSize(categorySize + 1);
+        
+        bookServiceB.deleteBook(book.getId());
+        assertThatThrownBy(() -> bookService.getBookById(book.getId()))
+                .isInstanceOf(BookNotFoundException.class);
+        assertThatThrownBy(() -> bookService.getBookByIsbn(renamed.getIsbn()))
+                .isInstanceOf(BookNotFoundException.class);
+    }
+    
+    @Test
+    @DisplayName("Should drop a copy loaded after the eviction that is older than the announced version")
+    void shouldDropStaleLoadsAfterEviction() throws Exception {
+        BookResponse book = bookService.createBook(request("Racing Book"));
+        Long version = bookRepository.findById(book.getId()).orElseThrow().getChangeSeq();
+        long staleLoads = invalidationBus.getStats().staleLoads();
+        
+        // As if node B committed a change that this node has not read yet
+        transport.send(new InvalidationMessage("node-c", book.getId(), version + 1));
+        bookService.getBookById(book.getId());
+        
+        assertThat(invalidationBus.getStats().staleLoads()).isEqualTo(staleLoads + 1);
+        assertThat(entityManagerFactory.getCache().contains(Book.class, book.getId())).isFalse();
+    }
+    
+    @Test
+    @DisplayName("Should evict every book when another node writes a large bulk batch")
+    void shouldEvictAllBooksAfterBulkWriteOnAnotherNode() {
+        BookResponse book = bookService.createBook(request("Bulk Book"));
+        assertThat(bookService.getBookById(book.getId()).getTitle()).isEqualTo("Bulk Book");
+        long evictedAll = invalidationBus.getStats().evictedAll();
+        List<Book> batch = new ArrayList<>();
+        batch.add(new Book("Bulk Book Renamed", "Bus Author", book.getIsbn(), null,
+                new BigDecimal("14.00"), 2, BookCategory.COOKING));
+        for (int i = 0; i < 100; i++) {
+            BookRequest other = request("Bulk " + i);
+            batch.add(new Book(other.getTitle(), other.getAuthor(), String.format("97811111%05d", i), null,
+                    other.getPrice(), other.getStock(), other.getCategory()));
+        }
+        
+        new TransactionTemplate(nodeB.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> nodeB.getBean(BookJdbcRepository.class).upsertBatch(batch));
+        
+        assertThat(invalidationBus.getStats().evictedAll()).isEqualTo(evictedAll + 1);
+        assertThat(bookService.getBookById(book.getId()).getTitle()).isEqualTo("Bulk Book Renamed");
+    }
+    
+    @Test
+    @DisplayName("Should not evict on the node that sent the message")
+    void shouldSkipOwnMessages() {
+        InvalidationBus.Stats before = invalidationBus.getStats();
+        
+        bookService.createBook(request("Local Book"));
+        
+        InvalidationBus.Stats after = invalidationBus.getStats();
+        assertThat(after.sent()).isEqualTo(before.sent() + 1);
+        assertThat(after.received()).isEqualTo(before.received());
+        assertThat(nodeB.getBean(InvalidationBus.class).getStats().received()).isPositive();
+    }
+    
+    private static BookRequest request(String title) {
+        return new BookRequest(title, "Bus Author", "%010d".formatted(System.nanoTime() % 10_000_000_000L),
+                "Shared book", new BigDecimal("14.00"), 2, BookCategory.COOKING);
+    }
+}
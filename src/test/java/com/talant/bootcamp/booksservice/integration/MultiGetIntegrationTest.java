@@ -0,0 +1,150 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.talant.bootcamp.booksservice.config.WebConfig;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Multi-get Integration Tests")
+class MultiGetIntegrationTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private Jackson2ObjectMapperBuilder builder;
+    
+    private MockMvc mockMvc;
+    private Book dune;
+    private Book emma;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        bookRepository.deleteAll();
+        dune = bookRepository.save(new Book("Dune", "Frank Herbert", "9780441172719", "Arrakis",
+                new BigDecimal("9.99"), 3, BookCategory.SCIENCE_FICTION));
+        emma = bookRepository.save(new Book("Emma", "Jane Austen", "9780141439587", "Highbury",
+                new BigDecimal("7.50"), 0, BookCategory.ROMANCE));
+    }
+    
+    @Test
+    @DisplayName("Should return books by ID in request order with the misses listed")
+    void shouldLookUpIdsInRequestOrder() throws Exception {
+        long missing = emma.getId() + 1000;
+        
+        mockMvc.perform(get("/api/books").param("ids", emma.getId() + "," + missing + "," + dune.getId() + "," + emma.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.books.length()").value(4))
+                .andExpect(jsonPath("$.books[0].title").value("Emma"))
+                .andExpect(jsonPath("$.books[0]", not(hasKey("description"))))
+                .andExpect(jsonPath("$.books[1]").value(nullValue()))
+                .andExpect(jsonPath("$.books[2].title").value("Dune"))
+                .andExpect(jsonPath("$.books[3].id").value(emma.getId()))
+                .andExpect(jsonPath("$.missing", contains((int) missing)));
+    }
+    
+    @Test
+    @DisplayName("Should return books by ISBN with only the selected fields")
+    void shouldLookUpIsbns() throws Exception {
+        mockMvc.perform(post("/api/books/isbn/_lookup").param("fields", "title")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isbns\": [\"0000000000\", \"9780441172719\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0]").value(nullValue()))
+                .andExpect(jsonPath("$.books[1]", aMapWithSize(1)))
+                .andExpect(jsonPath("$.books[1].title").value("Dune"))
+                .andExpect(jsonPath("$.missing", contains("0000000000")));
+    }
+    
+    @Test
+    @DisplayName("Should resolve keys across several chunks")
+    void shouldLookUpAcrossChunks() throws Exception {
+        String ids = LongStream.rangeClosed(1, 600)
+                .map(i -> i == 300 ? dune.getId() : i == 600 ? emma.getId() : -i)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+        
+        mockMvc.perform(get("/api/books").param("ids", ids))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.length()").value(600))
+                .andExpect(jsonPath("$.books[299].title").value("Dune"))
+                .andExpect(jsonPath("$.books[599].title").value("Emma"))
+                .andExpect(jsonPath("$.missing.length()").value(598));
+    }
+    
+    @Test
+    @DisplayName("Should reject empty, oversized and malformed lookups")
+    void shouldRejectInvalidLookups() throws Exception {
+        String tooMany = LongStream.rangeClosed(1, BookService.MAX_LOOKUP_KEYS + 1)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+        
+        mockMvc.perform(get("/api/books").param("ids", tooMany))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/books").param("ids", "1,abc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/books/isbn/_lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isbns\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Should write the lookup in the negotiated format")
+    void shouldLookUpInNegotiatedFormat() throws Exception {
+        MediaType cbor = MediaType.parseMediaType("application/cbor");
+        long missing = emma.getId() + 1000;
+        
+        byte[] body = mockMvc.perform(get("/api/books").param("ids", dune.getId() + "," + missing)
+                        .accept(cbor))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(cbor))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        JsonNode lookup = WebConfig.cborObjectMapper(builder).readTree(body);
+        assertThat(lookup.get("books").get(0).get("title").asText()).isEqualTo("Dune");
+        assertThat(lookup.get("books").get(1).isNull()).isTrue();
+        assertThat(lookup.get("missing").get(0).asLong()).isEqualTo(missing);
+        
+        mockMvc.perform(get("/api/books").param("ids", String.valueOf(dune.getId()))
+                        .accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+    }
+}
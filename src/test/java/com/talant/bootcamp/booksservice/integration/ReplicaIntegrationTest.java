@@ -0,0 +1,168 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.replica.ChangeReplicator;
+import com.talant.bootcamp.booksservice.replica.ConsistencyTokenFilter;
+import com.talant.bootcamp.booksservice.replica.ReplicaRoutingDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "bookstore.replica.url=jdbc:h2:mem:replica-test;DB_CLOSE_DELAY=-1",
+        "bookstore.replica.poll-interval=PT0.05S"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "replica"})
+@DisplayName("Read Replica Integration Tests")
+class ReplicaIntegrationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+    
+    @Autowired
+    private ChangeReplicator changeReplicator;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+    
+    private JdbcTemplate replica;
+    
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate(replicaDataSource);
+        await().atMost(10, TimeUnit.SECONDS).until(() -> routingDataSource.getStats().lagMillis() >= 0);
+    }
+    
+    @Test
+    @DisplayName("Should replicate writes and serve reads from the replica once it has them")
+    void shouldReplicateAndServeReads() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request("Replicated"))))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists(ConsistencyTokenFilter.CONSISTENCY_TOKEN_HEADER))
+                .andReturn();
+        Long id = objectMapper.readValue(created.getResponse().getContentAsString(), BookResponse.class).getId();
+        String token = created.getResponse().getHeader(ConsistencyTokenFilter.CONSISTENCY_TOKEN_HEADER);
+        
+        // Read-your-writes: with the token the book is found whether or not the replica has it yet
+        mockMvc.perform(get("/api/books/{id}", id).header(ConsistencyTokenFilter.CONSISTENCY_TOKEN_HEADER, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Replicated"));
+        
+        await().atMost(10, TimeUnit.SECONDS).until(() -> titlesOnReplica(id).equals(List.of("Replicated")));
+        long replicaReads = routingDataSource.getStats().replicaReads();
+        // The write cached the book, so drop it to make the read reach a database
+        mockMvc.perform(delete("/api/admin/cache"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/books/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Replicated"));
+        assertThat(routingDataSource.getStats().replicaReads()).isGreaterThan(replicaReads);
+        // What the replica returned may be behind the primary, so it is not cached
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class).getCache().containsEntity(Book.class, id)).isFalse();
+        
+        mockMvc.perform(put("/api/books/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request("Updated"))))
+                .andExpect(status().isOk());
+        await().atMost(10, TimeUnit.SECONDS).until(() -> titlesOnReplica(id).equals(List.of("Updated")));
+        
+        String deleteToken = mockMvc.perform(delete("/api/books/{id}", id))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader(ConsistencyTokenFilter.CONSISTENCY_TOKEN_HEADER);
+        mockMvc.perform(get("/api/books/{id}", id).header(ConsistencyTokenFilter.CONSISTENCY_TOKEN_HEADER, deleteToken))
+                .andExpect(status().isNotFound());
+        await().atMost(10, TimeUnit.SECONDS).until(() -> titlesOnReplica(id).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should replicate a delete and a new book with the same ISBN in one pass")
+    void shouldReplicateDeleteBeforeIsbnReuse() throws Exception {
+        BookRequest request = request("Original");
+        Long original = create(request);
+        await().atMost(10, TimeUnit.SECONDS).until(() -> titlesOnReplica(original).equals(List.of("Original")));
+        
+        Long replacement;
+        // Holding the replicator's lock keeps both changes for its next pass
+        synchronized (changeReplicator) {
+            mockMvc.perform(delete("/api/books/{id}", original))
+                    .andExpect(status().isNoContent());
+            replacement = create(new BookRequest("Replacement", request.getAuthor(), request.getIsbn(),
+                    request.getDescription(), request.getPrice(), request.getStock(), request.getCategory()));
+        }
+        
+        await().atMost(10, TimeUnit.SECONDS).until(() -> titlesOnReplica(replacement).equals(List.of("Replacement")));
+        assertThat(titlesOnReplica(original)).isEmpty();
+    }
+    
+    @Test
+    @DisplayName("Should read from the primary while the replica is behind the caller's token")
+    void shouldFallBackToPrimaryWhenReplicaIsBehind() throws Exception {
+        long fallbacks = routingDataSource.getStats().primaryFallbacks();
+        String future = String.valueOf(System.currentTimeMillis() + 60_000);
+        
+        mockMvc.perform(get("/api/books").header(ConsistencyTokenFilter.CONSISTENCY_TOKEN_HEADER, future))
+                .andExpect(status().isOk());
+        
+        assertThat(routingDataSource.getStats().primaryFallbacks()).isGreaterThan(fallbacks);
+        mockMvc.perform(get("/api/admin/replica"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.watermark").isNumber())
+                .andExpect(jsonPath("$.lagMillis").isNumber());
+    }
+    
+    private Long create(BookRequest request) throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(created.getResponse().getContentAsString(), BookResponse.class).getId();
+    }
+    
+    private List<String> titlesOnReplica(Long id) {
+        return replica.queryForList("SELECT title FROM books WHERE id = ?", String.class, id);
+    }
+    
+    private static BookRequest request(String title) {
+        return new BookRequest(title, "Replica Author", String.valueOf(System.nanoTime()).substring(0, 10),
+                "Replicated book", new BigDecimal("12.50"), 5, BookCategory.FICTION);
+    }
+}
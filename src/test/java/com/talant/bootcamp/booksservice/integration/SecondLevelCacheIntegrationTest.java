@@ -0,0 +1,91 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.cache.BookCacheRegions;
+import com.talant.bootcamp.booksservice.cache.SecondLevelCache;
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.service.BookService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "bookstore.cache.statistics-enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Second-Level Cache Integration Tests")
+class SecondLevelCacheIntegrationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private BookService bookService;
+    
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+    
+    @Test
+    @DisplayName("Should serve repeated lookups by id and ISBN from the cache and see updates")
+    void shouldCacheLookupsByIdAndIsbn() {
+        BookResponse book = bookService.createBook(request("Cached Book", BookCategory.HISTORY));
+        bookService.getBookById(book.getId());
+        bookService.getBookByIsbn(book.getIsbn());
+        long booksHits = hits(BookCacheRegions.BOOKS);
+        long isbnHits = hits(BookCacheRegions.BOOKS_BY_ISBN);
+        long loads = secondLevelCache.getStats().entityLoads();
+        
+        assertThat(bookService.getBookById(book.getId()).getTitle()).isEqualTo("Cached Book");
+        assertThat(bookService.getBookByIsbn(book.getIsbn()).getId()).isEqualTo(book.getId());
+        
+        assertThat(hits(BookCacheRegions.BOOKS)).isGreaterThanOrEqualTo(booksHits + 2);
+        assertThat(hits(BookCacheRegions.BOOKS_BY_ISBN)).isGreaterThan(isbnHits);
+        assertThat(secondLevelCache.getStats().entityLoads()).isEqualTo(loads);
+        
+        BookRequest renamed = request("Renamed Cached Book", BookCategory.HISTORY);
+        bookService.updateBook(book.getId(), renamed);
+        assertThat(bookService.getBookById(book.getId()).getTitle()).isEqualTo("Renamed Cached Book");
+        assertThat(bookService.getBookByIsbn(renamed.getIsbn()).getId()).isEqualTo(book.getId());
+        assertThat(bookService.existsByIsbn(book.getIsbn())).isFalse();
+    }
+    
+    @Test
+    @DisplayName("Should cache category queries until a book of the table changes")
+    void shouldCacheCategoryQueries() throws Exception {
+        bookService.getBooksByCategory(BookCategory.TRAVEL);
+        long queryHits = hits(BookCacheRegions.BOOK_QUERIES);
+        
+        int before = bookService.getBooksByCategory(BookCategory.TRAVEL).size();
+        assertThat(hits(BookCacheRegions.BOOK_QUERIES)).isEqualTo(queryHits + 1);
+        
+        bookService.createBook(request("Cached Poem", BookCategory.TRAVEL));
+        assertThat(bookService.getBooksByCategory(BookCategory.TRAVEL)).hasSize(before + 1);
+        
+        mockMvc.perform(get("/api/admin/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(true))
+                .andExpect(jsonPath("$.regions[?(@.region == 'book-queries')].hits").isNotEmpty());
+    }
+    
+    private long hits(String region) {
+        return secondLevelCache.getStats().regions().stream()
+                .filter(stats -> stats.region().equals(region))
+                .mapToLong(SecondLevelCache.RegionStats::hits)
+                .sum();
+    }
+    
+    private static BookRequest request(String title, BookCategory category) {
+        return new BookRequest(title, "Cache Author", "%010d".formatted(System.nanoTime() % 10_000_000_000L),
+                "Cached book", new BigDecimal("12.50"), 3, category);
+    }
+}
@@ -0,0 +1,292 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talant.bootcamp.booksservice.dto.BookRequest;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.sharding.ShardRouter;
+import com.talant.bootcamp.booksservice.sharding.ShardRoutingDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding-test-0;DB_CLOSE_DELAY=-1",
+        "bookstore.sharding.url-template=jdbc:h2:mem:sharding-test-%d;DB_CLOSE_DELAY=-1",
+        "bookstore.sharding.shards=3",
+        "bookstore.sharding.strategy=CATEGORY"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "sharded"})
+@DisplayName("Sharding Integration Tests")
+class ShardingIntegrationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ShardRouter shardRouter;
+    
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+    
+    @Test
+    @DisplayName("Should place books on the shard of their category and serve routed lookups")
+    void shouldPlaceBooksByCategory() throws Exception {
+        String marker = "Placed" + System.nanoTime();
+        BookResponse fiction = create(request(marker, BookCategory.FICTION, "10.00"));
+        BookResponse nonFiction = create(request(marker, BookCategory.NON_FICTION, "20.00"));
+        BookResponse scienceFiction = create(request(marker, BookCategory.SCIENCE_FICTION, "30.00"));
+        
+        assertThat(shardsHolding(fiction.getId())).containsExactly(shardRouter.shardOfCategory(BookCategory.FICTION));
+        assertThat(shardsHolding(nonFiction.getId())).containsExactly(shardRouter.shardOfCategory(BookCategory.NON_FICTION));
+        assertThat(shardsHolding(scienceFiction.getId()))
+                .containsExactly(shardRouter.shardOfCategory(BookCategory.SCIENCE_FICTION));
+        
+        for (BookResponse book : List.of(fiction, nonFiction, scienceFiction)) {
+            mockMvc.perform(get("/api/books/{id}", book.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.isbn").value(book.getIsbn()));
+            mockMvc.perform(get("/api/books/isbn/{isbn}", book.getIsbn()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(book.getId()));
+        }
+        mockMvc.perform(get("/api/books/category/{category}", "NON_FICTION"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + nonFiction.getId() + ")]").exists())
+                .andExpect(jsonPath("$[?(@.id == " + fiction.getId() + ")]").doesNotExist());
+        mockMvc.perform(get("/api/admin/shards"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.strategy").value("CATEGORY"))
+                .andExpect(jsonPath("$.books.length()").value(3));
+    }
+    
+    @Test
+    @DisplayName("Should scatter searches, sorted listings and statistics and merge the results")
+    void shouldScatterAndMerge() throws Exception {
+        String marker = "Merged" + System.nanoTime();
+        BookResponse cheap = create(request(marker, BookCategory.SCIENCE_FICTION, "5.00"));
+        BookResponse middle = create(request(marker, BookCategory.FICTION, "15.00"));
+        BookResponse expensive = create(request(marker, BookCategory.NON_FICTION, "25.00"));
+        
+        JsonNode found = json(mockMvc.perform(get("/api/books/search").param("q", marker).param("fields", "title"))
+                .andExpect(status().isOk()));
+        assertThat(found).hasSize(3);
+        assertThat(found.get(0).has("id")).isFalse();
+        
+        List<Long> ascending = idsIn(json(mockMvc.perform(get("/api/books/sorted/price-asc")).andExpect(status().isOk())),
+                List.of(cheap.getId(), middle.getId(), expensive.getId()));
+        assertThat(ascending).containsExactly(cheap.getId(), middle.getId(), expensive.getId());
+        List<Long> descending = idsIn(json(mockMvc.perform(get("/api/books/sorted/price-desc")).andExpect(status().isOk())),
+                List.of(cheap.getId(), middle.getId(), expensive.getId()));
+        assertThat(descending).containsExactly(expensive.getId(), middle.getId(), cheap.getId());
+        
+        long total = 0;
+        for (JsonNode row : json(mockMvc.perform(get("/api/books/statistics/category")).andExpect(status().isOk()))) {
+            total += row.get(1).asLong();
+        }
+        long stored = shardRouter.getStats().books().stream().mapToLong(Long::longValue).sum();
+        assertThat(total).isEqualTo(stored);
+        mockMvc.perform(get("/api/books/statistics/average-price"))
+                .andExpect(status().isOk());
+        
+        mockMvc.perform(get("/api/books")
+                        .param("ids", String.valueOf(expensive.getId()), "999999", String.valueOf(cheap.getId()))
+                        .param("fields", "id,title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].id").value(expensive.getId()))
+                .andExpect(jsonPath("$.books[2].id").value(cheap.getId()))
+                .andExpect(jsonPath("$.missing[0]").value(999999));
+    }
+    
+    @Test
+    @DisplayName("Should move a book to another shard when its category changes")
+    void shouldMoveBookWhenCategoryChanges() throws Exception {
+        String marker = "Moved" + System.nanoTime();
+        BookResponse book = create(request(marker, BookCategory.FICTION, "12.00"));
+        BookRequest change = new BookRequest(marker, "Shard Author", book.getIsbn(), "Sharded book",
+                new BigDecimal("12.00"), 4, BookCategory.NON_FICTION);
+        
+        mockMvc.perform(put("/api/books/{id}", book.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(change)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category").value("Non-Fiction"));
+        
+        assertThat(shardsHolding(book.getId())).containsExactly(shardRouter.shardOfCategory(BookCategory.NON_FICTION));
+        mockMvc.perform(get("/api/books/{id}", book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(4));
+        mockMvc.perform(patch("/api/books/{id}/stock", book.getId()).param("delta", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(5));
+        mockMvc.perform(delete("/api/books/{id}", book.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/books/{id}", book.getId()))
+                .andExpect(status().isNotFound());
+        assertThat(shardsHolding(book.getId())).isEmpty();
+    }
+    
+    @Test
+    @DisplayName("Should keep the books of every shard when the router starts again")
+    void shouldKeepBooksWhenRouterRestarts() throws Exception {
+        String marker = "Restarted" + System.nanoTime();
+        create(request(marker, BookCategory.FICTION, "11.00"));
+        BookResponse nonFiction = create(request(marker, BookCategory.NON_FICTION, "21.00"));
+        create(request(marker, BookCategory.SCIENCE_FICTION, "31.00"));
+        List<Long> stored = shardRouter.getStats().books();
+        
+        shardRouter.stop();
+        shardRouter.start();
+        
+        assertThat(shardRouter.getStats().books()).isEqualTo(stored);
+        mockMvc.perform(get("/api/books/{id}", nonFiction.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isbn").value(nonFiction.getIsbn()));
+        BookResponse next = create(request(marker + " next", BookCategory.NON_FICTION, "22.00"));
+        assertThat(next.getId()).isGreaterThan(nonFiction.getId());
+        assertThat(shardsHolding(next.getId())).containsExactly(shardRouter.shardOfCategory(BookCategory.NON_FICTION));
+    }
+    
+    @Test
+    @DisplayName("Should reject an ISBN already used on another shard")
+    void shouldRejectDuplicateIsbnAcrossShards() throws Exception {
+        BookResponse book = create(request("Unique" + System.nanoTime(), BookCategory.FICTION, "8.00"));
+        BookRequest duplicate = new BookRequest("Duplicate", "Shard Author", book.getIsbn(), "Sharded book",
+                new BigDecimal("8.00"), 4, BookCategory.NON_FICTION);
+        
+        mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(duplicate)))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/books/exists/{isbn}", book.getIsbn()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+    }
+    
+    @Test
+    @DisplayName("Should let only one of concurrent creates of an ISBN through on any shard")
+    void shouldCreateIsbnOnceUnderConcurrentCreates() throws Exception {
+        String isbn = "%010d".formatted(System.nanoTime() % 10_000_000_000L);
+        List<BookCategory> categories = List.of(BookCategory.FICTION, BookCategory.NON_FICTION,
+                BookCategory.SCIENCE_FICTION);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> creates = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                BookRequest request = new BookRequest("Race " + i, "Shard Author", isbn, "Sharded book",
+                        new BigDecimal("8.00"), 4, categories.get(i % categories.size()));
+                creates.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/books")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(request)))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> create : creates) {
+                statuses.add(create.get(10, TimeUnit.SECONDS));
+            }
+            
+            assertThat(statuses).containsOnly(201, 409).containsOnlyOnce(201);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should answer 501 for operations that cannot run on sharded storage")
+    void shouldRejectAtomicBatchesAsNotImplemented() throws Exception {
+        BookResponse book = create(request("Atomic" + System.nanoTime(), BookCategory.FICTION, "8.00"));
+        String batch = """
+                {"atomic": true, "requests": [{"method": "GET", "path": "/api/books/%d"}]}
+                """.formatted(book.getId());
+        
+        mockMvc.perform(post("/api/_batch").contentType(MediaType.APPLICATION_JSON).content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.responses[0].status").value(501))
+                .andExpect(jsonPath("$.responses[0].body.error").value("Not supported on sharded storage"));
+    }
+    
+    @Test
+    @DisplayName("Should answer 501 for imports, exports and change syncs, which bypass the shards")
+    void shouldRejectBulkOperationsAsNotImplemented() throws Exception {
+        mockMvc.perform(post("/api/imports")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"file\": \"books.csv\", \"format\": \"CSV\"}"))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(post("/api/exports/{format}", "csv"))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(get("/api/exports/{format}", "ndjson"))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(get("/api/books/changes"))
+                .andExpect(status().isNotImplemented())
+                .andExpect(jsonPath("$.error").value("Not supported on sharded storage"));
+    }
+    
+    private BookResponse create(BookRequest request) throws Exception {
+        String body = mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, BookResponse.class);
+    }
+    
+    private JsonNode json(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+    
+    private List<Integer> shardsHolding(Long id) {
+        List<Integer> holding = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            JdbcTemplate jdbc = new JdbcTemplate(shardRoutingDataSource.getShards().get(shard));
+            if (jdbc.queryForObject("SELECT COUNT(*) FROM books WHERE id = ?", Long.class, id) > 0) {
+                holding.add(shard);
+            }
+        }
+        return holding;
+    }
+    
+    private static List<Long> idsIn(JsonNode books, List<Long> wanted) {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode book : books) {
+            if (wanted.contains(book.get("id").asLong())) {
+                ids.add(book.get("id").asLong());
+            }
+        }
+        return ids;
+    }
+    
+    private static BookRequest request(String title, BookCategory category, String price) {
+        return new BookRequest(title, "Shard Author", "%010d".formatted(System.nanoTime() % 10_000_000_000L),
+                "Sharded book", new BigDecimal(price), 4, category);
+    }
+}
@@ -0,0 +1,64 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.id.SnowflakeIdGenerator;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "bookstore.ids.strategy=SNOWFLAKE")
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Snowflake Id Integration Tests")
+class SnowflakeIdIntegrationTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        bookRepository.deleteAll();
+    }
+    
+    @Test
+    @DisplayName("Should write Snowflake book ids as JSON strings")
+    void shouldWriteIdsAsStrings() throws Exception {
+        Book dune = bookRepository.save(new Book("Dune", "Frank Herbert", "9780441172719", "Arrakis",
+                new BigDecimal("9.99"), 3, BookCategory.SCIENCE_FICTION));
+        assertThat(dune.getId()).isGreaterThan(1L << 53);
+        assertThat(SnowflakeIdGenerator.timestampOf(dune.getId())).isGreaterThan(SnowflakeIdGenerator.EPOCH_MILLIS);
+        long missing = dune.getId() + 1;
+        
+        mockMvc.perform(get("/api/books/" + dune.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(dune.getId().toString()));
+        mockMvc.perform(get("/api/books").param("ids", dune.getId() + "," + missing))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].id").value(dune.getId().toString()))
+                .andExpect(jsonPath("$.missing", contains(Long.toString(missing))));
+    }
+}
@@ -0,0 +1,149 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.dto.BookField;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.model.CompressedTextConverter;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.repository.BookSpecifications;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Sparse Fieldsets Integration Tests")
+class SparseFieldsIntegrationTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private MockMvc mockMvc;
+    private Book dune;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        bookRepository.deleteAll();
+        dune = bookRepository.save(new Book("Dune", "Frank Herbert", "9780441172719", "Arrakis",
+                new BigDecimal("9.99"), 3, BookCategory.SCIENCE_FICTION));
+        bookRepository.save(new Book("Emma", "Jane Austen", "9780141439587", "Highbury",
+                new BigDecimal("7.50"), 0, BookCategory.ROMANCE));
+    }
+    
+    @Test
+    @DisplayName("Should serialize only the requested fields of list responses")
+    void shouldSelectFieldsOfLists() throws Exception {
+        mockMvc.perform(get("/api/books/sorted/price-desc").param("fields", "id,title,price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", aMapWithSize(3)))
+                .andExpect(jsonPath("$[0].title").value("Dune"))
+                .andExpect(jsonPath("$[0].id").value(dune.getId()))
+                .andExpect(jsonPath("$[0]", not(hasKey("description"))))
+                .andExpect(jsonPath("$[1].title").value("Emma"));
+        
+        mockMvc.perform(get("/api/books/search").param("q", "herb").param("fields", "author"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0]", aMapWithSize(1)))
+                .andExpect(jsonPath("$[0].author").value("Frank Herbert"));
+    }
+    
+    @Test
+    @DisplayName("Should select fields of single reads and writes")
+    void shouldSelectFieldsOfSingleBooks() throws Exception {
+        mockMvc.perform(get("/api/books/isbn/9780441172719").param("fields", "title,stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", aMapWithSize(2)))
+                .andExpect(jsonPath("$.stock").value(3));
+        
+        mockMvc.perform(patch("/api/books/" + dune.getId() + "/stock").param("stock", "8").param("fields", "stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", aMapWithSize(1)))
+                .andExpect(jsonPath("$.stock").value(8));
+        
+        mockMvc.perform(get("/api/books/999999").param("fields", "title"))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    @DisplayName("Should keep full responses without fields and reject unknown fields")
+    void shouldKeepDefaultsAndRejectUnknownFields() throws Exception {
+        mockMvc.perform(get("/api/books/" + dune.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", aMapWithSize(10)));
+        
+        mockMvc.perform(get("/api/books").param("fields", "title,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown field 'password'"));
+    }
+    
+    @Test
+    @DisplayName("Should leave descriptions out of listings and store them compressed")
+    void shouldKeepDescriptionsOutOfListings() throws Exception {
+        String description = "A desert planet, a noble family and the spice melange. ".repeat(15);
+        dune.setDescription(description);
+        bookRepository.saveAndFlush(dune);
+        
+        mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", aMapWithSize(9)))
+                .andExpect(jsonPath("$[0]", not(hasKey("description"))));
+        
+        mockMvc.perform(get("/api/books/" + dune.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value(description));
+        
+        byte[] stored = jdbcTemplate.queryForObject(
+                "SELECT description FROM books WHERE id = ?", byte[].class, dune.getId());
+        assertThat(stored.length).isLessThan(description.length() / 4);
+        assertThat(CompressedTextConverter.decompress(stored)).isEqualTo(description);
+    }
+    
+    @Test
+    @DisplayName("Should read only the selected columns")
+    void shouldProjectSelectedColumns() {
+        FieldSet fields = FieldSet.of(EnumSet.of(BookField.TITLE, BookField.PRICE));
+        
+        List<Book> books = bookRepository.findProjected(
+                BookSpecifications.hasCategory(BookCategory.SCIENCE_FICTION), Sort.unsorted(), fields);
+        
+        assertThat(books).singleElement().satisfies(book -> {
+            assertThat(book.getTitle()).isEqualTo("Dune");
+            assertThat(book.getPrice()).isEqualByComparingTo("9.99");
+            assertThat(book.getId()).isNull();
+            assertThat(book.getDescription()).isNull();
+        });
+        assertThat(FieldSet.parse("price, TITLE")).isSameAs(fields);
+    }
+}
@@ -0,0 +1,164 @@
+package com.talant.bootcamp.booksservice.integration;
+
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.stock.StockWriteBehind;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "bookstore.stock.write-behind.enabled=true",
+        "bookstore.stock.write-behind.journal-directory=target/stock-journal-test",
+        "bookstore.stock.write-behind.flush-interval=PT1H"
+})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@DisplayName("Write-behind Stock Integration Tests")
+class WriteBehindStockIntegrationTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private StockWriteBehind stockWriteBehind;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private MockMvc mockMvc;
+    private Book dune;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        stockWriteBehind.flush();
+        bookRepository.deleteAll();
+        dune = bookRepository.save(new Book("Dune", "Frank Herbert", "9780441172719", "Arrakis",
+                new BigDecimal("9.99"), 100, BookCategory.SCIENCE_FICTION));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        stockWriteBehind.flush();
+        bookRepository.deleteAll();
+    }
+    
+    @Test
+    @DisplayName("Should accumulate concurrent deltas and write them in one flush")
+    void shouldAccumulateAndFlush() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                calls.add(() -> mockMvc.perform(patch("/api/books/{id}/stock", dune.getId()).param("delta", "-1"))
+                        .andReturn().getResponse().getStatus());
+            }
+            executor.invokeAll(calls).forEach(status -> assertThat(status).succeedsWithin(Duration.ofSeconds(10)).isEqualTo(200));
+        } finally {
+            executor.shutdown();
+        }
+        
+        assertThat(bookRepository.findStockById(dune.getId())).contains(100);
+        mockMvc.perform(get("/api/books/{id}", dune.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(60));
+        mockMvc.perform(get("/api/books").param("fields", "id,stock"))
+                .andExpect(jsonPath("$[0].stock").value(60));
+        mockMvc.perform(get("/api/books").param("fields", "title,stock"))
+                .andExpect(jsonPath("$[0].stock").value(60))
+                .andExpect(jsonPath("$[0].id").doesNotExist());
+        mockMvc.perform(get("/api/books/isbn/{isbn}", dune.getIsbn()).param("fields", "stock"))
+                .andExpect(jsonPath("$.stock").value(60))
+                .andExpect(jsonPath("$.id").doesNotExist());
+        
+        assertThat(stockWriteBehind.flush()).isEqualTo(1);
+        assertThat(bookRepository.findStockById(dune.getId())).contains(60);
+        assertThat(stockWriteBehind.flush()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Should let absolute updates supersede buffered deltas")
+    void shouldSupersedeBufferedDeltas() throws Exception {
+        mockMvc.perform(patch("/api/books/{id}/stock", dune.getId()).param("delta", "5"))
+                .andExpect(jsonPath("$.stock").value(105));
+        mockMvc.perform(patch("/api/books/{id}/stock", dune.getId()).param("stock", "3"))
+                .andExpect(jsonPath("$.stock").value(3));
+        mockMvc.perform(patch("/api/books/{id}/stock", dune.getId()).param("delta", "-4"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/books/{id}/stock", 999999L).param("delta", "1"))
+                .andExpect(status().isNotFound());
+        
+        stockWriteBehind.flush();
+        
+        assertThat(bookRepository.findStockById(dune.getId())).contains(3);
+    }
+    
+    @Test
+    @DisplayName("Should keep buffered stock writes out of atomic batches")
+    void shouldRejectBufferedWritesInAtomicBatches() throws Exception {
+        String batch = """
+                {"atomic": %s, "requests": [
+                  {"method": "GET", "path": "/api/books/%d"},
+                  {"method": "PATCH", "path": "/api/books/%2$d/stock?delta=-1"}
+                ]}
+                """;
+        
+        mockMvc.perform(post("/api/_batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(batch.formatted(true, dune.getId())))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/_batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(batch.formatted(false, dune.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.responses[1].body.stock").value(99));
+    }
+    
+    @Test
+    @DisplayName("Should evict only the flushed books from the second-level cache")
+    void shouldEvictOnlyFlushedBooks() throws Exception {
+        Book emma = bookRepository.save(new Book("Emma", "Jane Austen", "9780141439587", "Highbury",
+                new BigDecimal("7.50"), 10, BookCategory.ROMANCE));
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Book.class);
+        mockMvc.perform(get("/api/books/{id}", dune.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/{id}", emma.getId())).andExpect(status().isOk());
+        assertThat(cache.containsEntity(Book.class, dune.getId())).isTrue();
+        assertThat(cache.containsEntity(Book.class, emma.getId())).isTrue();
+        
+        mockMvc.perform(patch("/api/books/{id}/stock", dune.getId()).param("delta", "-1"))
+                .andExpect(status().isOk());
+        assertThat(stockWriteBehind.flush()).isEqualTo(1);
+        
+        assertThat(cache.containsEntity(Book.class, emma.getId())).isTrue();
+        mockMvc.perform(get("/api/books/{id}", dune.getId()))
+                .andExpect(jsonPath("$.stock").value(99));
+    }
+}
@@ -0,0 +1,95 @@
+package com.talant.bootcamp.booksservice.invalidation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("File Transport Tests")
+class FileTransportTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    @DisplayName("Should deliver the lines appended by any node after it opened the file")
+    void shouldDeliverAppendedMessages() throws Exception {
+        Path log = directory.resolve("bus/invalidation.log");
+        FileTransport first = new FileTransport(log, 1024 * 1024);
+        first.open(message -> { });
+        first.send(new InvalidationMessage("early", 1L, 1));
+        List<InvalidationMessage> received = new ArrayList<>();
+        FileTransport second = new FileTransport(log, 1024 * 1024);
+        second.open(received::add);
+        
+        first.send(new InvalidationMessage("node-a", 42L, 7));
+        second.send(InvalidationMessage.allBooks("node-b", 9));
+        second.poll();
+        
+        assertThat(received).containsExactly(new InvalidationMessage("node-a", 42L, 7),
+                InvalidationMessage.allBooks("node-b", 9));
+        first.close();
+        second.close();
+    }
+    
+    @Test
+    @DisplayName("Should keep a line that is still being written until it is complete")
+    void shouldWaitForCompleteLines() throws Exception {
+        Path log = directory.resolve("invalidation.log");
+        List<InvalidationMessage> received = new ArrayList<>();
+        FileTransport transport = new FileTransport(log, 1024 * 1024);
+        transport.open(received::add);
+        
+        Files.writeString(log, "node-a 5", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        transport.poll();
+        assertThat(received).isEmpty();
+        Files.writeString(log, " 12\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        transport.poll();
+        
+        assertThat(received).containsExactly(new InvalidationMessage("node-a", 5L, 12));
+        transport.close();
+    }
+    
+    @Test
+    @DisplayName("Should rotate a full log and deliver the rest of the old one before the new one")
+    void shouldRotateFullLog() throws Exception {
+        Path log = directory.resolve("invalidation.log");
+        FileTransport sender = new FileTransport(log, 64);
+        sender.open(message -> { });
+        List<InvalidationMessage> received = new ArrayList<>();
+        FileTransport receiver = new FileTransport(log, 64);
+        receiver.open(received::add);
+        List<InvalidationMessage> sent = new ArrayList<>();
+        
+        for (long i = 0; i < 10; i++) {
+            InvalidationMessage message = new InvalidationMessage("node-a", i, i);
+            sender.send(message);
+            sent.add(message);
+        }
+        receiver.poll();
+        
+        assertThat(received).containsExactlyElementsOf(sent);
+        assertThat(directory.resolve("invalidation.log.1")).exists();
+        assertThat(Files.size(log)).isLessThan(64);
+        sender.close();
+        receiver.close();
+    }
+    
+    @Test
+    @DisplayName("Should encode messages as one line and reject malformed ones")
+    void shouldEncodeMessages() {
+        assertThat(new InvalidationMessage("node-a", 5L, 12).encode()).isEqualTo("node-a 5 12");
+        assertThat(InvalidationMessage.decode("node-a * 12").isAllBooks()).isTrue();
+        assertThatThrownBy(() -> InvalidationMessage.decode("node-a 5"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,114 @@
+package com.talant.bootcamp.booksservice.limiter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Adaptive Limiter Tests")
+class AdaptiveLimiterTest {
+    
+    private static final long MILLIS = 1_000_000;
+    
+    @Test
+    @DisplayName("Should raise the limit while latency stays at its unloaded level")
+    void shouldRaiseLimitWithoutQueueing() {
+        AdaptiveLimiter limiter = limiter(10, 1, 100, 1.0);
+        
+        acquire(limiter, Priority.HIGH, 10);
+        for (int i = 0; i < 10; i++) {
+            limiter.release("lookup", MILLIS, false);
+        }
+        
+        assertThat(limiter.getStats().limit()).isGreaterThan(10);
+        assertThat(limiter.getStats().inFlight()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Should not raise the limit when most of it is unused")
+    void shouldNotRaiseLimitWhenAppLimited() {
+        AdaptiveLimiter limiter = limiter(10, 1, 100, 1.0);
+        
+        for (int i = 0; i < 20; i++) {
+            acquire(limiter, Priority.HIGH, 1);
+            limiter.release("lookup", MILLIS, false);
+        }
+        
+        assertThat(limiter.getStats().limit()).isEqualTo(10);
+    }
+    
+    @Test
+    @DisplayName("Should lower the limit down to the minimum when latency grows")
+    void shouldLowerLimitWhenLatencyGrows() {
+        AdaptiveLimiter limiter = limiter(20, 4, 100, 1.0);
+        acquire(limiter, Priority.HIGH, 1);
+        limiter.release("lookup", MILLIS, false);
+        
+        for (int i = 0; i < 50; i++) {
+            acquire(limiter, Priority.HIGH, 1);
+            limiter.release("lookup", 20 * MILLIS, false);
+        }
+        
+        assertThat(limiter.getStats().limit()).isEqualTo(4);
+    }
+    
+    @Test
+    @DisplayName("Should compare the latency of each route with its own")
+    void shouldCompareLatencyPerRoute() {
+        AdaptiveLimiter limiter = limiter(10, 1, 100, 1.0);
+        
+        for (int i = 0; i < 20; i++) {
+            acquire(limiter, Priority.HIGH, 10);
+            limiter.release("lookup", MILLIS, false);
+            for (int j = 1; j < 10; j++) {
+                limiter.release("write", 20 * MILLIS, false);
+            }
+        }
+        
+        assertThat(limiter.getStats().limit()).isGreaterThanOrEqualTo(10);
+    }
+    
+    @Test
+    @DisplayName("Should lower the limit on server errors")
+    void shouldLowerLimitOnDrops() {
+        AdaptiveLimiter limiter = limiter(20, 4, 100, 1.0);
+        
+        acquire(limiter, Priority.HIGH, 1);
+        limiter.release("lookup", MILLIS, true);
+        
+        assertThat(limiter.getStats().limit()).isEqualTo(18);
+    }
+    
+    @Test
+    @DisplayName("Should keep part of the limit free for high priority requests")
+    void shouldReserveLimitForHighPriority() {
+        AdaptiveLimiter limiter = limiter(4, 4, 4, 0.5);
+        
+        acquire(limiter, Priority.LOW, 2);
+        assertThat(limiter.tryAcquire(Priority.LOW)).isFalse();
+        acquire(limiter, Priority.HIGH, 2);
+        assertThat(limiter.tryAcquire(Priority.HIGH)).isFalse();
+        
+        assertThat(limiter.getStats()).isEqualTo(new AdaptiveLimiter.Stats(4, 2, 4, 1, 1));
+    }
+    
+    @Test
+    @DisplayName("Should refuse inconsistent limits")
+    void shouldRefuseInconsistentLimits() {
+        assertThatThrownBy(() -> limiter(2, 4, 100, 0.75)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> limiter(20, 4, 100, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private static AdaptiveLimiter limiter(int initial, int min, int max, double lowPriorityShare) {
+        return new AdaptiveLimiter(initial, min, max, lowPriorityShare, Duration.ofSeconds(1));
+    }
+    
+    private static void acquire(AdaptiveLimiter limiter, Priority priority, int count) {
+        for (int i = 0; i < count; i++) {
+            assertThat(limiter.tryAcquire(priority)).isTrue();
+        }
+    }
+}
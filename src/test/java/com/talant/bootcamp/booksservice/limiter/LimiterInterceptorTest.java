@@ -0,0 +1,90 @@
+package com.talant.bootcamp.booksservice.limiter;
+
+import com.talant.bootcamp.booksservice.bulkhead.Lane;
+import com.talant.bootcamp.booksservice.exception.BulkheadFullException;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Limiter Interceptor Tests")
+class LimiterInterceptorTest {
+    
+    private final RecordingLimiter limiter = new RecordingLimiter();
+    private final LimiterInterceptor interceptor = new LimiterInterceptor(limiter);
+    private final HandlerMethod handler = handler();
+    
+    @Test
+    @DisplayName("Should give the permit back when the response goes on asynchronously")
+    void shouldReleaseWhenAsyncStarts() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/changes/stream");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        interceptor.preHandle(request, response, handler);
+        assertThat(limiter.getStats().inFlight()).isEqualTo(1);
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+        assertThat(limiter.getStats().inFlight()).isZero();
+        
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, handler);
+        interceptor.afterCompletion(request, response, handler, null);
+        assertThat(limiter.getStats().inFlight()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Should not lower the limit for requests a bulkhead rejected")
+    void shouldNotCountBulkheadRejectionsAsDrops() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/sorted/title");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler);
+        request.setAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE,
+                new BulkheadFullException(Lane.SCAN, Duration.ofSeconds(1)));
+        response.setStatus(503);
+        interceptor.afterCompletion(request, response, handler, null);
+        
+        request = new MockHttpServletRequest("GET", "/api/books/1");
+        response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler);
+        response.setStatus(500);
+        interceptor.afterCompletion(request, response, handler, null);
+        
+        assertThat(limiter.drops).containsExactly(false, true);
+        assertThat(limiter.getStats().inFlight()).isZero();
+    }
+    
+    private static HandlerMethod handler() {
+        try {
+            return new HandlerMethod(new Object(), Object.class.getMethod("toString"));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Limiter that records whether each sample counted as a drop, as the limit itself also moves
+     * with the measured latency
+     */
+    private static final class RecordingLimiter extends AdaptiveLimiter {
+        
+        private final List<Boolean> drops = new ArrayList<>();
+        
+        private RecordingLimiter() {
+            super(64, 32, 256, 0.75, Duration.ofSeconds(1));
+        }
+        
+        @Override
+        public void release(Object route, long rttNanos, boolean dropped) {
+            drops.add(dropped);
+            super.release(route, rttNanos, dropped);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.talant.bootcamp.booksservice.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Compressed Text Converter Tests")
+class CompressedTextConverterTest {
+    
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+    
+    @Test
+    @DisplayName("Should round trip compressible and incompressible texts")
+    void shouldRoundTrip() {
+        String repetitive = "La mejor novela de ciencia ficción jamás escrita. ".repeat(20);
+        
+        byte[] compressed = converter.convertToDatabaseColumn(repetitive);
+        byte[] plain = converter.convertToDatabaseColumn("Ñu");
+        
+        assertThat(compressed[0]).isEqualTo((byte) 1);
+        assertThat(compressed.length).isLessThan(repetitive.length() / 4);
+        assertThat(converter.convertToEntityAttribute(compressed)).isEqualTo(repetitive);
+        assertThat(plain[0]).isEqualTo((byte) 0);
+        assertThat(converter.convertToEntityAttribute(plain)).isEqualTo("Ñu");
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(""))).isEmpty();
+    }
+    
+    @Test
+    @DisplayName("Should keep nulls and reject corrupt data")
+    void shouldHandleNullsAndCorruptData() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+        
+        byte[] truncated = CompressedTextConverter.compress("abc ".repeat(100));
+        byte[] corrupt = Arrays.copyOf(truncated, truncated.length / 2);
+        
+        assertThatThrownBy(() -> CompressedTextConverter.decompress(corrupt))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> CompressedTextConverter.decompress(new byte[] {7}))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
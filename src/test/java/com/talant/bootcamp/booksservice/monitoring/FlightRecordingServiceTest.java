@@ -0,0 +1,114 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import com.talant.bootcamp.booksservice.exception.FlightRecordingStateException;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.repository.BookRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Flight Recording Service Tests")
+class FlightRecordingServiceTest {
+
+    private FlightRecordingService flightRecordingService;
+
+    @BeforeEach
+    void setUp() {
+        flightRecordingService = new FlightRecordingService(Duration.ofMinutes(5), 10, "default");
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightRecordingService.closeRecording();
+    }
+
+    @Test
+    @DisplayName("Should cap the requested bounds to the configured maximums")
+    void shouldCapRequestedBounds() {
+        Map<String, Object> status = flightRecordingService.start(Duration.ofHours(2), 500L);
+
+        assertThat(status.get("state")).isEqualTo("RUNNING");
+        assertThat(status.get("maxAge")).isEqualTo(Duration.ofMinutes(5));
+        assertThat(status.get("maxSizeBytes")).isEqualTo(10L * 1024 * 1024);
+    }
+
+    @Test
+    @DisplayName("Should record custom events and dump them to a file")
+    void shouldRecordCustomEvents() throws Exception {
+        flightRecordingService.start(null, null);
+
+        BookServiceEvent event = new BookServiceEvent();
+        event.begin();
+        event.method = "getBooksByCategory";
+        event.category = "FICTION";
+        event.rowCount = 3;
+        event.successful = true;
+        event.commit();
+
+        flightRecordingService.stop();
+        Path dump = flightRecordingService.dump();
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(e -> e.getEventType().getName().equals("com.talant.bootcamp.booksservice.BookService"))
+                    .toList();
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getString("category")).isEqualTo("FICTION");
+            assertThat(events.get(0).getInt("rowCount")).isEqualTo(3);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    @DisplayName("Should record repository queries made through the aspect")
+    void shouldRecordRepositoryQueriesThroughAspect() throws Exception {
+        BookRepository target = mock(BookRepository.class);
+        when(target.findByCategory(BookCategory.FICTION)).thenReturn(List.of(new Book(), new Book()));
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addInterface(BookRepository.class);
+        proxyFactory.addAspect(new FlightRecorderAspect());
+        BookRepository repository = proxyFactory.getProxy();
+
+        repository.findByCategory(BookCategory.FICTION);
+        flightRecordingService.start(null, null);
+        repository.findByCategory(BookCategory.FICTION);
+        flightRecordingService.stop();
+
+        Path dump = flightRecordingService.dump();
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(e -> e.getEventType().getName().equals("com.talant.bootcamp.booksservice.RepositoryQuery"))
+                    .toList();
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getString("method")).isEqualTo("findByCategory");
+            assertThat(events.get(0).getString("category")).isEqualTo("FICTION");
+            assertThat(events.get(0).getInt("rowCount")).isEqualTo(2);
+            assertThat(events.get(0).getBoolean("successful")).isTrue();
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject stopping when nothing is running")
+    void shouldRejectStopWithoutRecording() {
+        assertThatThrownBy(() -> flightRecordingService.stop())
+                .isInstanceOf(FlightRecordingStateException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.talant.bootcamp.booksservice.monitoring;
+
+import com.talant.bootcamp.booksservice.controller.BookController;
+import com.talant.bootcamp.booksservice.dto.BookResponse;
+import com.talant.bootcamp.booksservice.dto.FieldSet;
+import com.talant.bootcamp.booksservice.model.Book;
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.pipeline.WritePipeline;
+import com.talant.bootcamp.booksservice.service.BookService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = BookController.class, properties = "bookstore.server-timing.sample-rate=1.0")
+@Import(WritePipeline.class)
+@DisplayName("Server-Timing Tests")
+class ServerTimingTest {
+
+    @MockitoBean
+    private BookService bookService;
+
+    @MockitoBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should report controller and serialization phases")
+    void shouldReportControllerAndSerializationPhases() throws Exception {
+        Book book = new Book("Test Book", "Test Author", "1234567890", "Test Description",
+                new BigDecimal("29.99"), 10, BookCategory.FICTION);
+        book.setId(1L);
+        when(bookService.getAllBooks(FieldSet.SUMMARY)).thenReturn(List.of(new BookResponse(book)));
+
+        mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RequestTiming.HEADER,
+                        allOf(containsString("controller;dur="), containsString("json;dur="))));
+    }
+
+    @Test
+    @DisplayName("Should render only the recorded phases in order")
+    void shouldRenderRecordedPhases() {
+        RequestTiming timing = RequestTiming.start();
+        try {
+            timing.add(RequestTiming.Phase.DB, 2_500_000);
+            timing.add(RequestTiming.Phase.SERVICE, 4_000_000);
+
+            assertThat(timing.toHeaderValue()).isEqualTo("service;dur=4.000, db;dur=2.500");
+        } finally {
+            RequestTiming.clear();
+        }
+    }
+}
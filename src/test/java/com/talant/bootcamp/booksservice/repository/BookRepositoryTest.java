@@ -498,7 +498,23 @@ class BookRepositoryTest {
     @Test
     @DisplayName("Should handle case insensitive search with special characters")
     void shouldHandleCaseInsensitiveSearchWithSpecialCharacters() {
-
+        // Given
+        bookRepository.saveAll(List.of(
+            new Book("100% Pure", "Percy Cent", "7890123456",
+                "Literal percent", new BigDecimal("12.00"), 3, BookCategory.FICTION),
+            new Book("1000 Cranes", "Paper_Folder", "8901234567",
+                "Literal underscore", new BigDecimal("12.00"), 3, BookCategory.FICTION)
+        ));
+        
+        // When
+        List<Book> percent = bookRepository.searchByTitleOrAuthor("100%");
+        List<Book> underscore = bookRepository.searchByTitleOrAuthor("PAPER_");
+        List<Book> wildcard = bookRepository.searchByTitleOrAuthor("r_c");
+        
+        // Then
+        assertThat(percent).extracting(Book::getTitle).containsExactly("100% Pure");
+        assertThat(underscore).extracting(Book::getTitle).containsExactly("1000 Cranes");
+        assertThat(wildcard).isEmpty(); // "Arthur Conan Doyle" would match an unescaped "r_c"
     }
 
     @Test
@@ -525,4 +541,17 @@ class BookRepositoryTest {
         assertThat(books).extracting("stock")
             .allMatch(stock -> (Integer) stock > 0);
     }
+
+    @Test
+    @DisplayName("Should assign consecutive ids from the sequence before the insert")
+    void shouldAssignIdsBeforeInsert() {
+        Book first = new Book("Pooled One", "Author", "9000000001", null, new BigDecimal("9.99"), 1, BookCategory.FICTION);
+        Book second = new Book("Pooled Two", "Author", "9000000002", null, new BigDecimal("9.99"), 1, BookCategory.FICTION);
+        
+        bookRepository.saveAll(List.of(first, second));
+        
+        assertThat(first.getId()).isNotNull();
+        assertThat(second.getId()).isEqualTo(first.getId() + 1);
+        assertThat(bookRepository.findByIsbn("9000000002")).map(Book::getId).contains(second.getId());
+    }
 }
@@ -1,12 +1,17 @@
 package com.talant.bootcamp.booksservice.service;
 
+import com.talant.bootcamp.booksservice.changes.BookChangedEvent;
 import com.talant.bootcamp.booksservice.dto.BookRequest;
 import com.talant.bootcamp.booksservice.dto.BookResponse;
 import com.talant.bootcamp.booksservice.exception.BookNotFoundException;
 import com.talant.bootcamp.booksservice.exception.DuplicateIsbnException;
 import com.talant.bootcamp.booksservice.model.Book;
 import com.talant.bootcamp.booksservice.model.BookCategory;
+import com.talant.bootcamp.booksservice.model.BookTombstone;
+import com.talant.bootcamp.booksservice.repository.BookJdbcRepository;
 import com.talant.bootcamp.booksservice.repository.BookRepository;
+import com.talant.bootcamp.booksservice.repository.BookTombstoneRepository;
+import com.talant.bootcamp.booksservice.stock.StockWriteBehind;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -31,6 +37,18 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
     
+    @Mock
+    private BookJdbcRepository bookJdbcRepository;
+    
+    @Mock
+    private BookTombstoneRepository tombstoneRepository;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private StockWriteBehind stockWriteBehind;
+    
     @InjectMocks
     private BookService bookService;
     
@@ -222,6 +240,7 @@ class BookServiceTest {
         // Given
         when(bookRepository.existsById(1L)).thenReturn(true);
         doNothing().when(bookRepository).deleteById(1L);
+        when(tombstoneRepository.save(any(BookTombstone.class))).thenAnswer(invocation -> invocation.getArgument(0));
         
         // When
         bookService.deleteBook(1L);
@@ -229,6 +248,7 @@ class BookServiceTest {
         // Then
         verify(bookRepository).existsById(1L);
         verify(bookRepository).deleteById(1L);
+        verify(tombstoneRepository).save(any(BookTombstone.class));
     }
     
     @Test
@@ -361,6 +381,70 @@ class BookServiceTest {
         verify(bookRepository).save(any(Book.class));
     }
     
+    @Test
+    @DisplayName("Should add a delta to the stock in the database")
+    void shouldAdjustStock() {
+        // Given
+        when(bookJdbcRepository.adjustStock(1L, -2)).thenReturn(true);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        
+        // When
+        BookResponse result = bookService.adjustStock(1L, -2);
+        
+        // Then
+        assertEquals(book.getStock(), result.getStock());
+        verify(bookJdbcRepository).adjustStock(1L, -2);
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(eventPublisher).publishEvent(any(BookChangedEvent.class));
+    }
+    
+    @Test
+    @DisplayName("Should reject a delta that leaves the stock negative")
+    void shouldRejectNegativeStock() {
+        // Given
+        when(bookJdbcRepository.adjustStock(1L, -100)).thenReturn(false);
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> bookService.adjustStock(1L, -100));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
+    @Test
+    @DisplayName("Should return the stock written by the write-behind buffer")
+    void shouldReturnBufferedStockAfterAdjustment() {
+        // Given
+        when(stockWriteBehind.isEnabled()).thenReturn(true);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(stockWriteBehind.adjustStock(1L, 3)).thenReturn(13);
+        when(stockWriteBehind.getStock(1L, book.getStock())).thenReturn(20);
+        
+        // When
+        BookResponse result = bookService.adjustStock(1L, 3);
+        
+        // Then
+        assertEquals(13, result.getStock());
+        verify(bookJdbcRepository, never()).adjustStock(any(), anyInt());
+    }
+    
+    @Test
+    @DisplayName("Should buffer stock updates in write-behind mode")
+    void shouldBufferStockInWriteBehindMode() {
+        // Given
+        when(stockWriteBehind.isEnabled()).thenReturn(true);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(stockWriteBehind.getStock(1L, book.getStock())).thenReturn(25);
+        
+        // When
+        BookResponse result = bookService.updateStock(1L, 25);
+        
+        // Then
+        assertEquals(25, result.getStock());
+        verify(stockWriteBehind).setStock(1L, 25);
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
     @Test
     @DisplayName("Should check if book exists by ISBN")
     void shouldCheckIfBookExistsByIsbn() {
@@ -0,0 +1,79 @@
+package com.talant.bootcamp.booksservice.sharding;
+
+import com.talant.bootcamp.booksservice.model.BookCategory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Shard Router Tests")
+class ShardRouterTest {
+    
+    @Test
+    @DisplayName("Should place categories by ordinal and find the home shard of interleaved id blocks")
+    void shouldRouteCategoriesAndIds() {
+        ShardRouter router = router(ShardingStrategy.CATEGORY, 3);
+        
+        assertThat(router.shardOf(BookCategory.FICTION, "1234567890")).isZero();
+        assertThat(router.shardOf(BookCategory.NON_FICTION, "1234567890")).isEqualTo(1);
+        assertThat(router.shardOf(BookCategory.FANTASY, "1234567890")).isZero();
+        assertThat(List.of(1L, 50L, 51L, 100L, 101L, 150L, 151L).stream().map(router::homeShardOf))
+                .containsExactly(0, 0, 1, 1, 2, 2, 0);
+        router.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should spread ISBNs evenly and move few of them when a shard is added")
+    void shouldHashIsbnsConsistently() {
+        ShardRouter three = router(ShardingStrategy.ISBN_HASH, 3);
+        ShardRouter four = router(ShardingStrategy.ISBN_HASH, 4);
+        int[] counts = new int[3];
+        int moved = 0;
+        int isbns = 30_000;
+        for (int i = 0; i < isbns; i++) {
+            String isbn = "978%010d".formatted(i);
+            int shard = three.shardOf(BookCategory.FICTION, isbn);
+            assertThat(three.shardOfIsbn(isbn)).isEqualTo(shard);
+            counts[shard]++;
+            int grown = four.shardOfIsbn(isbn);
+            if (grown != shard) {
+                moved++;
+                assertThat(grown).isEqualTo(3);
+            }
+        }
+        
+        for (int count : counts) {
+            assertThat(count).isBetween(isbns / 4, isbns / 2);
+        }
+        assertThat(moved).isBetween(isbns / 8, isbns / 3);
+        three.shutdown();
+        four.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should scatter to every shard in parallel and rethrow the first failure")
+    void shouldScatterAndRethrowFailures() throws Throwable {
+        ShardRouter router = router(ShardingStrategy.CATEGORY, 3);
+        
+        assertThat(router.scatter(router.allShards(), shard -> ShardContext.getShard() * 10))
+                .containsExactly(0, 10, 20);
+        assertThat(ShardContext.getShard()).isNull();
+        assertThatThrownBy(() -> router.scatter(router.allShards(), shard -> {
+            if (shard == 1) {
+                throw new IllegalStateException("shard 1 is down");
+            }
+            return shard;
+        })).isInstanceOf(IllegalStateException.class).hasMessage("shard 1 is down");
+        router.shutdown();
+    }
+    
+    private static ShardRouter router(ShardingStrategy strategy, int shards) {
+        return new ShardRouter(strategy, Collections.nCopies(shards, mock(DataSource.class)), 4);
+    }
+}
@@ -0,0 +1,80 @@
+package com.talant.bootcamp.booksservice.stock;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Stock Journal Tests")
+class StockJournalTest {
+    
+    @TempDir
+    private Path directory;
+    
+    @Test
+    @DisplayName("Should replay the last stock of each book across segments")
+    void shouldReplayLastStock() throws IOException {
+        StockJournal journal = new StockJournal(directory);
+        assertThat(journal.open()).isEmpty();
+        journal.force(journal.append(1, 10));
+        journal.append(2, 5);
+        StockJournal.Segment rotated = journal.rotate();
+        rotated.close();
+        journal.force(journal.append(1, 7));
+        journal.close();
+        
+        List<Path> leftover = new StockJournal(directory).open();
+        
+        assertThat(leftover).hasSize(2);
+        assertThat(leftover.get(0)).isEqualTo(rotated.path());
+        assertThat(StockJournal.replay(leftover)).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 7, 2L, 5));
+    }
+    
+    @Test
+    @DisplayName("Should ignore a record torn by a crash")
+    void shouldIgnoreTornRecord() throws IOException {
+        StockJournal journal = new StockJournal(directory);
+        journal.open();
+        StockJournal.Segment segment = journal.append(3, 4);
+        journal.close();
+        Files.write(segment.path(), new byte[StockJournal.RECORD_SIZE - 1], StandardOpenOption.APPEND);
+        
+        assertThat(StockJournal.replay(List.of(segment.path()))).containsExactlyEntriesOf(Map.of(3L, 4));
+    }
+    
+    @Test
+    @DisplayName("Should not lose a force on a rotated segment")
+    void shouldForceRotatedSegment() throws IOException {
+        StockJournal journal = new StockJournal(directory);
+        journal.open();
+        StockJournal.Segment segment = journal.append(1, 1);
+        journal.rotate().close();
+        
+        journal.force(segment);
+        journal.close();
+        
+        assertThat(Files.size(segment.path())).isEqualTo(StockJournal.RECORD_SIZE);
+        assertThat(segment.channel().isOpen()).isFalse();
+    }
+    
+    @Test
+    @DisplayName("Should report a force on the current segment once the journal is closed")
+    void shouldReportForceOnClosedJournal() throws IOException {
+        StockJournal journal = new StockJournal(directory);
+        journal.open();
+        StockJournal.Segment segment = journal.append(1, 1);
+        journal.close();
+        
+        assertThatThrownBy(() -> journal.force(segment)).isInstanceOf(ClosedChannelException.class);
+    }
+}